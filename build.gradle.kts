@@ -1,14 +1,15 @@
 plugins {
     id("java")
-    id("org.springframework.boot") version "3.1.11"
-    id("io.spring.dependency-management") version "1.1.4"
+    id("org.springframework.boot") version "3.2.5"
+    id("io.spring.dependency-management") version "1.1.5"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
 version = "0.0.1-SNAPSHOT"
 
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
+    sourceCompatibility = JavaVersion.VERSION_21
 }
 
 configurations {
@@ -23,13 +24,25 @@ repositories {
 
 dependencies {
     // Core Spring Boot dependencies
-    implementation("org.springframework.boot:spring-boot-starter-mail:3.2.4")
-    implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.1.0")
+    implementation("org.springframework.boot:spring-boot-starter-mail")
+    implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
     implementation("org.springframework.boot:spring-boot-starter-amqp")
-    implementation("org.springframework.boot:spring-boot-starter-thymeleaf:3.2.4")
+    implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
     implementation("org.springframework.boot:spring-boot-starter-web")
-    implementation("org.springframework.boot:spring-boot-starter-actuator:3.3.1")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-cache")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+
+    // Prometheus format for the actuator metrics endpoint
+    implementation("io.micrometer:micrometer-registry-prometheus")
+
+    // Smile and CBOR message converters for clients that negotiate a binary format
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+
+    // Caffeine for bounded in-process caches
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     // H2 Database for in-memory data
     implementation("com.h2database:h2")
@@ -38,7 +51,7 @@ dependencies {
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
 
-    implementation("org.springframework.cloud:spring-cloud-starter-openfeign:4.0.3")
+    implementation("org.springframework.cloud:spring-cloud-starter-openfeign:4.1.1")
     implementation("org.springframework.boot:spring-boot-starter-logging")
 
     // Testing dependencies
@@ -48,3 +61,34 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Benchmarks in src/jmh run with ./gradlew jmh against a seeded in-memory database.
+// Results are written as JSON so runs can be compared by tooling; pass -PjmhIncludes=<regex> to run a subset.
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    if (project.hasProperty("jmhIncludes")) {
+        includes.set(listOf(project.property("jmhIncludes").toString()))
+    }
+}
+
+// Load tests start their own servers and take minutes, so they only run through the loadTest task
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+tasks.register<Test>("loadTest") {
+    description = "Compares request concurrency and latency on platform and virtual threads."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
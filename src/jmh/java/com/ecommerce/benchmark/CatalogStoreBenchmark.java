@@ -0,0 +1,85 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.catalog.CatalogStore;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares product reads served by JPA and the products cache with reads from the off-heap catalog store.
+ * Run with -prof gc to compare allocation rates and GC time; the retained heap after seeding is printed
+ * once per trial, so the heap the catalog costs in each mode can be compared directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "-XX:MaxDirectMemorySize=2g"})
+public class CatalogStoreBenchmark {
+
+    // Number of products in the seeded catalog
+    @Param({"200000"})
+    private int products;
+
+    // Where product reads are served from: jpa (entities and the products cache) or snapshot (catalog store)
+    @Param({"jpa", "snapshot"})
+    private String store;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    /**
+     * Starts and seeds the application, builds the snapshot if enabled and reports the retained heap.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start(products, 0, "catalog.snapshot.enabled=" + store.equals("snapshot"));
+        productService = context.getBean(ProductService.class);
+        if (store.equals("snapshot")) {
+            context.getBean(CatalogStore.class).refresh();
+        }
+        // Touch every product once, so the products cache holds as much as it would in steady state
+        for (long id = 1; id <= products; id++) {
+            productService.getProductById(id);
+        }
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%n%s: %d products, %d MB heap in use after GC%n", store, products, heap >> 20);
+    }
+
+    /**
+     * Stops the application after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Looks up a random product.
+     *
+     * @return The product.
+     */
+    @Benchmark
+    public Product getProductById() {
+        return productService.getProductById(1L + ThreadLocalRandom.current().nextInt(products));
+    }
+
+    /**
+     * Loads all products of a random category.
+     *
+     * @return The products in the category.
+     */
+    @Benchmark
+    public List<Product> getRecommendedProductsByCategory() {
+        String[] categories = SeededApplication.CATEGORIES;
+        return productService.getRecommendedProducts(categories[ThreadLocalRandom.current().nextInt(categories.length)]);
+    }
+}
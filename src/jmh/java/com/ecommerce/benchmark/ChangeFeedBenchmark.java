@@ -0,0 +1,84 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.changes.model.ChangePage;
+import com.ecommerce.changes.service.ChangeFeed;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.web.TableVersion;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares what one poll of a downstream consumer costs: checking the orders for changes the way a client
+ * of GET /api/orders does, with a fingerprint query and a reload of all orders once something changed,
+ * against reading the latest changes from the change feed's in-memory buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ChangeFeedBenchmark {
+
+    // Number of seeded orders
+    @Param({"20000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ChangeFeed changeFeed;
+    private long cursor;
+
+    /**
+     * Starts and seeds the application; seeding publishes one change per order.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start(1000, orders);
+        orderService = context.getBean(OrderService.class);
+        changeFeed = context.getBean(ChangeFeed.class);
+        cursor = Math.max(0L, changeFeed.lastSequence() - 100);
+    }
+
+    /**
+     * Stops the application after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Checks the orders fingerprint, as a conditional GET /api/orders does.
+     *
+     * @return The fingerprint.
+     */
+    @Benchmark
+    public TableVersion pollOrdersFingerprint() {
+        return orderService.getOrdersVersion(null);
+    }
+
+    /**
+     * Reloads all orders, as a polling consumer does after the fingerprint changed.
+     *
+     * @return All orders.
+     */
+    @Benchmark
+    public List<Order> pollAllOrders() {
+        return orderService.getAllOrders();
+    }
+
+    /**
+     * Reads the last hundred changes from the change feed.
+     *
+     * @return The changes.
+     */
+    @Benchmark
+    public ChangePage readChangeFeed() {
+        return changeFeed.read(cursor, 500);
+    }
+}
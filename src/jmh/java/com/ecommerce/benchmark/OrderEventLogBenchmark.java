@@ -0,0 +1,94 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.eventlog.OrderEventLog;
+import com.ecommerce.order.eventlog.OrderLogEvent;
+import com.ecommerce.order.model.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the order event log: appends from request threads, which only queue the event,
+ * and a replay of one million records read in place from the mapped segments.
+ * Report both as events per second; the append figure is bounded by the writer thread once the queue is full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class OrderEventLogBenchmark {
+
+    // Records in the log before the trial starts
+    private static final int REPLAYED = 1_000_000;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private OrderEventLog eventLog;
+    private OrderLogEvent event;
+
+    /**
+     * Starts the application with the event log in a fresh directory and fills it with a million records.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("order-events");
+        context = SeededApplication.start(0, 0,
+                "orders.event-log.enabled=true", "orders.event-log.directory=" + directory);
+        eventLog = context.getBean(OrderEventLog.class);
+        event = OrderLogEvent.statusChanged(new OrderStatusChangedEvent(1L, 1L, OrderStatus.PROCESSING, 1L));
+        for (int i = 0; i < REPLAYED; i++) {
+            eventLog.append(event);
+        }
+        eventLog.sync(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the application and deletes the segment files after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Appends one event on four threads.
+     */
+    @Benchmark
+    @Threads(4)
+    public void append() {
+        eventLog.append(event);
+    }
+
+    /**
+     * Replays the last million records and sums a field of each, so every record is read.
+     *
+     * @param blackhole Consumes the sum.
+     */
+    @Benchmark
+    @OperationsPerInvocation(REPLAYED)
+    public void replay(Blackhole blackhole) {
+        long[] sum = new long[1];
+        eventLog.replay(eventLog.lastSequence() - REPLAYED + 1, record -> sum[0] += record.orderId());
+        blackhole.consume(sum[0]);
+    }
+}
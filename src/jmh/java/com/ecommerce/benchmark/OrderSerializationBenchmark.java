@@ -0,0 +1,76 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JSON serialization of order graphs with the application's ObjectMapper.
+ * The orders are loaded once from the seeded database, so only serialization is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+    // Number of products in the seeded catalog
+    @Param({"1000"})
+    private int products;
+
+    // Number of seeded orders
+    @Param({"10000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private Order order;
+    private List<Order> userOrders;
+
+    /**
+     * Starts and seeds the application, then loads the orders to serialize.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start(products, orders);
+        objectMapper = context.getBean(ObjectMapper.class);
+        userOrders = context.getBean(OrderService.class).getOrdersByUserId(1L);
+        order = userOrders.get(0);
+    }
+
+    /**
+     * Stops the application after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Serializes a single order with its items.
+     *
+     * @return The JSON bytes.
+     */
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    /**
+     * Serializes all orders of one user, as returned by GET /api/orders/user/{userId}.
+     *
+     * @return The JSON bytes.
+     */
+    @Benchmark
+    public byte[] serializeUserOrders() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userOrders);
+    }
+}
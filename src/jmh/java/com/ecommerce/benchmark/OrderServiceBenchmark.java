@@ -0,0 +1,174 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.order.history.OrderHistory;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the order paths: creating orders one by one and in batches, and loading a user's
+ * orders with their items. The lookup is measured at several table sizes to check that it stays
+ * flat as the orders table grows, and against a copy of the data in the previous schema, where
+ * items were linked through the orders_order_items join table and orders had no user_id index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    // Number of products in the seeded catalog
+    @Param({"1000"})
+    private int products;
+
+    // Number of seeded orders; the user lookup should not slow down as this grows
+    @Param({"10000", "100000"})
+    private int orders;
+
+    // Orders per call in the batch benchmark
+    @Param({"100"})
+    private int batchSize;
+
+    // Items of a user's orders through the order_id foreign key and the (user_id, id) index
+    private static final String ITEMS_BY_USER_SQL = "select i.id, i.product_id, i.quantity from orders o "
+            + "join order_item i on i.order_id = o.id where o.user_id = ?";
+
+    // The same lookup in the previous schema: an unindexed user_id and the join table Hibernate generated
+    private static final String BASELINE_ITEMS_BY_USER_SQL = "select i.id, i.product_id, i.quantity "
+            + "from baseline_orders o join orders_order_items j on j.order_id = o.id "
+            + "join order_item i on i.id = j.order_items_id where o.user_id = ?";
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Starts and seeds the application once per trial, and copies the seeded orders into the previous schema.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start(products, orders);
+        orderService = context.getBean(OrderService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("create table baseline_orders as select id, user_id, status, created_at from orders");
+        jdbcTemplate.execute("alter table baseline_orders add primary key (id)");
+        jdbcTemplate.execute("create table orders_order_items (order_id bigint not null, "
+                + "order_items_id bigint not null unique)");
+        jdbcTemplate.execute("insert into orders_order_items select order_id, id from order_item");
+    }
+
+    /**
+     * Stops the application after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Creates a single order with its items.
+     *
+     * @return The saved order.
+     */
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(SeededApplication.newOrder(random(), randomUserId(), products));
+    }
+
+    /**
+     * Creates batchSize orders in one call, using chunked transactions and JDBC batching.
+     * Divide the score by batchSize to compare with createOrder.
+     *
+     * @return The per-order results.
+     */
+    @Benchmark
+    public List<OrderBatchResult> createOrdersBatch() {
+        SplittableRandom random = random();
+        List<Order> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(SeededApplication.newOrder(random, randomUserId(), products));
+        }
+        return orderService.createOrders(batch);
+    }
+
+    /**
+     * Creates batchSize orders with one createOrder call each, the baseline for createOrdersBatch.
+     *
+     * @return The last saved order.
+     */
+    @Benchmark
+    public Order createOrdersOneByOne() {
+        SplittableRandom random = random();
+        Order last = null;
+        for (int i = 0; i < batchSize; i++) {
+            last = orderService.createOrder(SeededApplication.newOrder(random, randomUserId(), products));
+        }
+        return last;
+    }
+
+    /**
+     * Loads all orders of a random user, including their items.
+     *
+     * @return The user's orders.
+     */
+    @Benchmark
+    public List<Order> getOrdersByUserId() {
+        List<Order> userOrders = orderService.getOrdersByUserId(randomUserId());
+        // Touch the items so the benchmark includes loading them
+        userOrders.forEach(order -> order.getOrderItems().size());
+        return userOrders;
+    }
+
+    /**
+     * Reads the items of a random user's orders through the order_id foreign key.
+     * Compare with getOrderItemsByUserIdBaseline.
+     *
+     * @return The item rows.
+     */
+    @Benchmark
+    public List<Map<String, Object>> getOrderItemsByUserId() {
+        return jdbcTemplate.queryForList(ITEMS_BY_USER_SQL, randomUserId());
+    }
+
+    /**
+     * Reads the items of a random user's orders in the previous schema, through the join table
+     * and without a user_id index; expected to grow with the number of orders.
+     *
+     * @return The item rows.
+     */
+    @Benchmark
+    public List<Map<String, Object>> getOrderItemsByUserIdBaseline() {
+        return jdbcTemplate.queryForList(BASELINE_ITEMS_BY_USER_SQL, randomUserId());
+    }
+
+    /**
+     * Returns the pre-serialized order history of a random user, served from the history cache once warm.
+     * Compare with getOrdersByUserId plus OrderSerializationBenchmark.serializeUserOrders.
+     *
+     * @return The user's order history.
+     */
+    @Benchmark
+    public OrderHistory getOrderHistory() {
+        return orderService.getOrderHistory(randomUserId());
+    }
+
+    private static SplittableRandom random() {
+        return new SplittableRandom(ThreadLocalRandom.current().nextLong());
+    }
+
+    private static long randomUserId() {
+        return 1L + ThreadLocalRandom.current().nextInt(SeededApplication.USERS);
+    }
+}
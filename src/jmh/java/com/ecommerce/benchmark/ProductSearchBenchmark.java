@@ -0,0 +1,116 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the full-text product index at catalog sizes up to one million products: ranked
+ * searches for common and rare words, search-as-you-type prefixes, suggestions and the parallel
+ * startup load. The index is filled from generated text without a database, so only the index is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    // Vocabulary the generated names and descriptions are drawn from; earlier words are more frequent
+    private static final String[] WORDS = {
+            "wireless", "laptop", "gaming", "bag", "mouse", "keyboard", "phone", "case", "charger", "cable",
+            "speaker", "headphones", "camera", "lens", "tripod", "monitor", "stand", "desk", "lamp", "chair",
+            "backpack", "watch", "strap", "tablet", "stylus", "router", "adapter", "battery", "drone", "printer"};
+
+    // Number of indexed products
+    @Param({"100000", "1000000"})
+    private int products;
+
+    private List<Object[]> rows;
+    private ProductSearchIndex index;
+
+    /**
+     * Generates the catalog text and loads it into a fresh index.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42L);
+        rows = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            String name = word(random) + " " + word(random) + " " + id;
+            String description = word(random) + " " + word(random) + " " + word(random) + " " + word(random)
+                    + " model" + random.nextInt(10_000);
+            rows.add(new Object[]{id, name, description});
+        }
+        index = new ProductSearchIndex();
+        index.load(rows);
+    }
+
+    /**
+     * Ranks the top 20 products for two common words.
+     *
+     * @return The matching product IDs.
+     */
+    @Benchmark
+    public long[] searchCommonWords() {
+        return index.search("wireless laptop", 20, false);
+    }
+
+    /**
+     * Ranks the top 20 products for a rare model number.
+     *
+     * @return The matching product IDs.
+     */
+    @Benchmark
+    public long[] searchRareWord() {
+        return index.search("model" + ThreadLocalRandom.current().nextInt(10_000), 20, false);
+    }
+
+    /**
+     * Ranks the top 20 products while the last word is still being typed.
+     *
+     * @return The matching product IDs.
+     */
+    @Benchmark
+    public long[] searchPrefix() {
+        return index.search("gaming mod", 20, true);
+    }
+
+    /**
+     * Completes a partly typed query.
+     *
+     * @return The suggestions.
+     */
+    @Benchmark
+    public List<String> suggest() {
+        return index.suggest("gaming ch", 10);
+    }
+
+    /**
+     * Loads the whole catalog into a new index, as at startup.
+     *
+     * @return The loaded index.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public ProductSearchIndex load() {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        fresh.load(rows);
+        return fresh;
+    }
+
+    private static String word(SplittableRandom random) {
+        // Squaring skews the choice towards the front of the vocabulary
+        double skew = random.nextDouble();
+        return WORDS[(int) (skew * skew * WORDS.length)];
+    }
+}
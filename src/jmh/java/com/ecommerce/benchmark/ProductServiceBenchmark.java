@@ -0,0 +1,128 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.cache.ProductJson;
+import com.ecommerce.product.cache.ProductJsonCache;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the product read paths: single lookups through the cache and straight from the
+ * database, category recommendations from the inverted index, and co-purchase recommendations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    // Number of products in the seeded catalog
+    @Param({"10000"})
+    private int products;
+
+    // Number of seeded orders the co-purchase index is built from
+    @Param({"50000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private ProductJsonCache productJsonCache;
+
+    /**
+     * Starts and seeds the application once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start(products, orders);
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productJsonCache = context.getBean(ProductJsonCache.class);
+    }
+
+    /**
+     * Stops the application after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Looks up a random product through ProductService, served from the products cache once warm.
+     *
+     * @return The product.
+     */
+    @Benchmark
+    public Product getProductById() {
+        return productService.getProductById(randomProductId());
+    }
+
+    /**
+     * Looks up the pre-serialized JSON of a random product, as written by GET /api/products/{id}.
+     *
+     * @return The product's JSON and entity tag.
+     */
+    @Benchmark
+    public ProductJson getProductJson() {
+        return productJsonCache.get(randomProductId());
+    }
+
+    /**
+     * Looks up a random product straight from the repository, as a baseline for the cached lookup.
+     *
+     * @return The product.
+     */
+    @Benchmark
+    public Optional<Product> findProductByIdUncached() {
+        return productRepository.findById(randomProductId());
+    }
+
+    /**
+     * Loads all products of a random category.
+     *
+     * @return The products in the category.
+     */
+    @Benchmark
+    public List<Product> getRecommendedProductsByCategory() {
+        String[] categories = SeededApplication.CATEGORIES;
+        return productService.getRecommendedProducts(categories[ThreadLocalRandom.current().nextInt(categories.length)]);
+    }
+
+    /**
+     * Loads the ten products most often bought together with a random product.
+     *
+     * @return The recommended products.
+     */
+    @Benchmark
+    public List<Product> getRecommendedProductsByCoPurchase() {
+        return productService.getRecommendedProducts(randomProductId(), 10);
+    }
+
+    /**
+     * Loads the 20 cheapest products of a random category within a random 100-wide price range.
+     *
+     * @return The products, cheapest first.
+     */
+    @Benchmark
+    public List<Product> getProductsByPriceInCategory() {
+        String[] categories = SeededApplication.CATEGORIES;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double minPrice = random.nextInt(900);
+        return productService.getProductsByPrice(minPrice, minPrice + 100,
+                categories[random.nextInt(categories.length)], false, 20);
+    }
+
+    private long randomProductId() {
+        return 1L + ThreadLocalRandom.current().nextInt(products);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.analytics.model.SalesFigures;
+import com.ecommerce.analytics.service.SalesAnalytics;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares revenue per product computed by scanning all orders, as a client of GET /api/orders would,
+ * with the same figures read from the in-memory sales rollups, and measures a full rollup rebuild.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SalesAnalyticsBenchmark {
+
+    // Number of seeded orders
+    @Param({"20000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private SalesAnalytics salesAnalytics;
+
+    /**
+     * Starts and seeds the application; the rollups are built when it is ready.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start(1000, orders);
+        orderService = context.getBean(OrderService.class);
+        salesAnalytics = context.getBean(SalesAnalytics.class);
+    }
+
+    /**
+     * Stops the application after the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Sums the revenue per product over all orders and their items.
+     *
+     * @return Revenue in cents by product ID.
+     */
+    @Benchmark
+    public Map<Long, Long> revenueByScanningOrders() {
+        Map<Long, Long> revenue = new HashMap<>();
+        for (Order order : orderService.getAllOrders()) {
+            for (OrderItem item : order.getOrderItems()) {
+                long cents = item.getUnitPriceCents() != null ? item.getUnitPriceCents() * item.getQuantity() : 0L;
+                revenue.merge(item.getProductId(), cents, Long::sum);
+            }
+        }
+        return revenue;
+    }
+
+    /**
+     * Reads the ten products with the highest revenue from the rollups.
+     *
+     * @return The top products.
+     */
+    @Benchmark
+    public List<SalesFigures> topProductsFromRollups() {
+        return salesAnalytics.getTopProducts(10);
+    }
+
+    /**
+     * Reads the figures of every order status from the rollups.
+     *
+     * @return The status figures.
+     */
+    @Benchmark
+    public List<SalesFigures> statusTotalsFromRollups() {
+        return salesAnalytics.getStatusTotals();
+    }
+
+    /**
+     * Rebuilds the rollups from all orders.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void rebuild() {
+        salesAnalytics.rebuild();
+    }
+}
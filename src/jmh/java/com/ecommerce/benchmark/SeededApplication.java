@@ -0,0 +1,116 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Starts the application without a web server on a private in-memory H2 database and fills it with
+ * a reproducible catalog and order history, so every benchmark measures the real service, JPA and
+ * database stack against the same data.
+ */
+public final class SeededApplication {
+
+    // Categories products are spread over
+    static final String[] CATEGORIES = {"Electronics", "Computers", "Mobiles", "Audio", "Books", "Garden", "Toys", "Sports"};
+
+    // Orders are spread over this many users
+    static final int USERS = 1000;
+
+    // Fixed seed so all runs use the same data
+    private static final long SEED = 42L;
+
+    // Orders saved per createOrders call while seeding
+    private static final int SEED_BATCH = 1000;
+
+    private SeededApplication() {
+    }
+
+    /**
+     * Starts the application and seeds the database.
+     * Products and orders are created through the services, so the category and co-purchase indexes are filled too.
+     *
+     * @param products The number of products to create.
+     * @param orders   The number of orders to create.
+     * @return The running application context; close it in the benchmark's tear-down.
+     */
+    public static ConfigurableApplicationContext start(int products, int orders) {
+        return start(products, orders, new String[0]);
+    }
+
+    /**
+     * Starts the application with additional properties and seeds the database.
+     *
+     * @param products   The number of products to create.
+     * @param orders     The number of orders to create.
+     * @param properties Additional application properties, as "name=value".
+     * @return The running application context; close it in the benchmark's tear-down.
+     */
+    public static ConfigurableApplicationContext start(int products, int orders, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcommerceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime(),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        ProductService productService = context.getBean(ProductService.class);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Seeded product " + i);
+            product.setPrice(1 + random.nextInt(100_000) / 100.0);
+            product.setCategories(List.of(CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]));
+            productService.createProduct(product);
+        }
+
+        OrderService orderService = context.getBean(OrderService.class);
+        for (int from = 0; from < orders; from += SEED_BATCH) {
+            List<Order> batch = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < Math.min(orders, from + SEED_BATCH); i++) {
+                batch.add(newOrder(random, random.nextInt(USERS) + 1, products));
+            }
+            orderService.createOrders(batch);
+        }
+        return context;
+    }
+
+    /**
+     * Creates an unsaved order with one to five random items.
+     *
+     * @param random   The random source.
+     * @param userId   The ID of the ordering user.
+     * @param products The number of products in the catalog; product IDs are 1..products.
+     * @return The new order.
+     */
+    static Order newOrder(SplittableRandom random, long userId, int products) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setStatus(OrderStatus.PENDING);
+        int itemCount = 1 + random.nextInt(5);
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(1L + random.nextInt(products));
+            item.setQuantity(1 + random.nextInt(3));
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
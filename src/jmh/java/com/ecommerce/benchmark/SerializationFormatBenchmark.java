@@ -0,0 +1,93 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.product.model.Product;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the response formats of GET /api/products for a catalog of 10k products: encode time per
+ * list in JSON, Smile and CBOR, with and without gzip. The bytes on the wire of every combination are
+ * printed once per trial. The products are built in memory, so only encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    // Number of products in the encoded list
+    @Param({"10000"})
+    private int products;
+
+    // Response format, as negotiated by the Accept header
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    // Whether the response is gzip-compressed, as Tomcat does above the size threshold
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectWriter writer;
+    private List<Product> catalog;
+
+    /**
+     * Builds the catalog and the writer for the format, and prints the encoded size.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Same builder as the application, so modules and settings match the real converters
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "smile" -> builder.factory(new SmileFactory());
+            case "cbor" -> builder.factory(new CBORFactory());
+            default -> {
+            }
+        }
+        writer = builder.build().writer();
+
+        SplittableRandom random = new SplittableRandom(42L);
+        catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + i);
+            product.setDescription("Seeded product " + i);
+            product.setPrice(1 + random.nextInt(100_000) / 100.0);
+            product.setCategories(List.of(SeededApplication.CATEGORIES[random.nextInt(SeededApplication.CATEGORIES.length)],
+                    SeededApplication.CATEGORIES[random.nextInt(SeededApplication.CATEGORIES.length)]));
+            product.setVersion(0L);
+            product.setUpdatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            catalog.add(product);
+        }
+        System.out.printf("%n%s%s: %d bytes for %d products%n", format, gzip ? "+gzip" : "", encode().length, products);
+    }
+
+    /**
+     * Encodes the whole catalog as one response body.
+     *
+     * @return The bytes on the wire.
+     */
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            writer.writeValue(out, catalog);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.inventory.service.StockCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reservation throughput on a single hot product as threads are added.
+ * "striped" is the inventory's counter, which splits the stock over per-core cells under contention;
+ * "single" is the same counter limited to one cell, i.e. one compare-and-set word shared by all threads.
+ * Compare the throughput of the thread-count variants: the striped counter should grow with the threads,
+ * the single one should flatten or drop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockReservationBenchmark {
+
+    // Counter layout under test
+    @Param({"striped", "single"})
+    private String counter;
+
+    private StockCounter stock;
+
+    /**
+     * Creates a counter with enough stock never to run out during the trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int stripes = counter.equals("striped") ? Runtime.getRuntime().availableProcessors() * 2 : 1;
+        stock = new StockCounter(Long.MAX_VALUE / 2, stripes);
+    }
+
+    /**
+     * Reserves one unit on one thread.
+     *
+     * @return Whether the unit was reserved.
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean reserve1Thread() {
+        return stock.tryReserve(1);
+    }
+
+    /**
+     * Reserves one unit on two threads.
+     *
+     * @return Whether the unit was reserved.
+     */
+    @Benchmark
+    @Threads(2)
+    public boolean reserve2Threads() {
+        return stock.tryReserve(1);
+    }
+
+    /**
+     * Reserves one unit on four threads.
+     *
+     * @return Whether the unit was reserved.
+     */
+    @Benchmark
+    @Threads(4)
+    public boolean reserve4Threads() {
+        return stock.tryReserve(1);
+    }
+
+    /**
+     * Reserves one unit on eight threads.
+     *
+     * @return Whether the unit was reserved.
+     */
+    @Benchmark
+    @Threads(8)
+    public boolean reserve8Threads() {
+        return stock.tryReserve(1);
+    }
+
+    /**
+     * Reserves one unit on as many threads as there are cores.
+     *
+     * @return Whether the unit was reserved.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean reserveAllCores() {
+        return stock.tryReserve(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.analytics.controller;
+
+import com.ecommerce.analytics.model.SalesFigures;
+import com.ecommerce.analytics.service.SalesAnalytics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller for sales analytics.
+ * Provides revenue, units and order counts per order status, product, category and day,
+ * served from in-memory rollups so no request reads the orders.
+ */
+@RestController
+@RequestMapping("/api/analytics") // Base URL for all analytics endpoints
+public class AnalyticsController {
+
+    // Upper bound for the number of products in a ranking
+    static final int MAX_PRODUCTS = 1000;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics; // Injects the SalesAnalytics holding the rollups
+
+    /**
+     * Retrieves the figures of every order status.
+     *
+     * @return One entry per status.
+     */
+    @GetMapping("/statuses")
+    public List<SalesFigures> getStatusTotals() {
+        return salesAnalytics.getStatusTotals();
+    }
+
+    /**
+     * Retrieves the products with the highest revenue.
+     *
+     * @param limit The maximum number of products to return, between 1 and 1000.
+     * @return The figures of the top products, highest revenue first.
+     */
+    @GetMapping("/products")
+    public List<SalesFigures> getTopProducts(@RequestParam(defaultValue = "10") int limit) {
+        return salesAnalytics.getTopProducts(Math.max(1, Math.min(limit, MAX_PRODUCTS)));
+    }
+
+    /**
+     * Retrieves the figures of one product.
+     *
+     * @param productId The ID of the product.
+     * @return The product's figures; all zero if it was never sold.
+     */
+    @GetMapping("/products/{productId}")
+    public SalesFigures getProductTotals(@PathVariable long productId) {
+        return salesAnalytics.getProductTotals(productId);
+    }
+
+    /**
+     * Retrieves the figures of all categories.
+     *
+     * @return One entry per category, highest revenue first.
+     */
+    @GetMapping("/categories")
+    public List<SalesFigures> getCategoryTotals() {
+        return salesAnalytics.getCategoryTotals();
+    }
+
+    /**
+     * Retrieves the figures of each day in a date range.
+     *
+     * @param from The first day (ISO date, UTC), inclusive; optional.
+     * @param to   The last day (ISO date, UTC), inclusive; optional.
+     * @return One entry per day with orders, ascending by date.
+     */
+    @GetMapping("/daily")
+    public List<SalesFigures> getDailyTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesAnalytics.getDailyTotals(from, to);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.analytics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sales totals of one product, category, order status or day, as kept by the in-memory rollups.
+ */
+@Getter
+@AllArgsConstructor
+public class SalesFigures {
+
+    // The product ID, category name, status name or ISO date the figures belong to
+    private String key;
+
+    // Number of orders; for products and categories, the number of order items
+    private long orders;
+
+    // Units sold
+    private long units;
+
+    // Revenue at the prices charged when the orders were placed, in cents
+    private long revenueCents;
+}
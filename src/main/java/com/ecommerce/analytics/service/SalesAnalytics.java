@@ -0,0 +1,439 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.model.SalesFigures;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.product.index.CategoryIndex;
+import com.ecommerce.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory sales rollups serving the analytics endpoints without reading orders.
+ * Order counts, units and revenue are kept per order status, product, category and day of placement
+ * in LongAdder counters, so concurrent orders update them without contending on a shared value and
+ * every figure is read in constant time. Status figures count every order under its current status;
+ * product, category and daily figures count the orders that were not cancelled.
+ * Updated as orders are created and change status, and rebuilt from all orders in parallel at startup.
+ * A product's revenue counts towards the categories the product belongs to when the order is counted;
+ * the counted items are kept with the order, so a cancellation takes out exactly what was added.
+ */
+@Service
+public class SalesAnalytics {
+
+    @Autowired
+    private OrderRepository orderRepository; // Source of historical orders for rebuilds
+
+    @Autowired
+    private ProductRepository productRepository; // Source of the category assignments for rebuilds
+
+    @Autowired
+    private CategoryIndex categoryIndex; // Categories of the products in new orders
+
+    // Rollups currently used for reads and incremental updates
+    private volatile Rollups rollups = new Rollups();
+
+    // Rollups being rebuilt, also receiving incremental updates until the rebuild is published
+    private volatile Rollups rebuilding;
+
+    // Allows one rebuild at a time; a lock rather than synchronized so the JDBC read does not pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * Rebuilds the rollups from all stored orders and atomically replaces the current ones.
+     * Orders are read sequentially as compact sales, then counted in parallel on the fork-join pool.
+     * Status changes that arrive before the rebuild has counted their order are applied once it is counted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            Rollups fresh = new Rollups();
+            fresh.earlyStatuses = new ConcurrentHashMap<>();
+            rebuilding = fresh;
+            try {
+                List<Sale> sales = loadSales();
+                sales.parallelStream().forEach(fresh::record);
+                rollups = fresh;
+                fresh.earlyStatuses = null;
+            } finally {
+                rebuilding = null;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Counts a newly created order.
+     *
+     * @param event The event carrying the saved order.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        Order order = event.getOrder();
+        if (order.getId() == null) {
+            return;
+        }
+        List<Line> lines = new ArrayList<>();
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getProductId() != null) {
+                    lines.add(new Line(item.getProductId(), item.getQuantity(), orZero(item.getUnitPriceCents()),
+                            categoryIndex.categoriesOf(item.getProductId())));
+                }
+            }
+        }
+        Sale sale = Sale.of(order.getId(), order.getStatus(), order.getCreatedAt(), order.getTotalCents(), lines);
+        apply(target -> target.record(sale));
+    }
+
+    /**
+     * Moves an order to its new status; a cancelled order's counted items are taken out of the product,
+     * category and daily figures.
+     *
+     * @param event The event describing the status change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getOrderId() == null || event.getStatus() == null) {
+            return;
+        }
+        apply(target -> target.transition(event.getOrderId(), event.getStatus()));
+    }
+
+    /**
+     * Returns the figures of every order status.
+     *
+     * @return One entry per status, in lifecycle order.
+     */
+    public List<SalesFigures> getStatusTotals() {
+        Rollups current = rollups;
+        List<SalesFigures> figures = new ArrayList<>(OrderStatus.values().length);
+        current.byStatus.forEach((status, tally) -> figures.add(tally.toFigures(status.name())));
+        return figures;
+    }
+
+    /**
+     * Returns the figures of one product.
+     *
+     * @param productId The ID of the product.
+     * @return The product's figures; all zero if it was never sold.
+     */
+    public SalesFigures getProductTotals(long productId) {
+        Tally tally = rollups.byProduct.get(productId);
+        return (tally != null ? tally : Tally.ZERO).toFigures(String.valueOf(productId));
+    }
+
+    /**
+     * Returns the products with the highest revenue.
+     *
+     * @param limit The maximum number of products to return.
+     * @return The figures of up to limit products, highest revenue first.
+     */
+    public List<SalesFigures> getTopProducts(int limit) {
+        return rank(rollups.byProduct, limit);
+    }
+
+    /**
+     * Returns the figures of all categories.
+     *
+     * @return One entry per category sold, highest revenue first.
+     */
+    public List<SalesFigures> getCategoryTotals() {
+        return rank(rollups.byCategory, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the figures of each day with orders in a date range. Days are calendar days in UTC.
+     *
+     * @param from The first day, inclusive; null for no lower bound.
+     * @param to   The last day, inclusive; null for no upper bound.
+     * @return One entry per day with orders, ascending by date.
+     */
+    public List<SalesFigures> getDailyTotals(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Tally> days = rollups.byDay;
+        if (from != null && to != null) {
+            days = from.isAfter(to) ? Collections.emptyNavigableMap() : days.subMap(from, true, to, true);
+        } else if (from != null) {
+            days = days.tailMap(from, true);
+        } else if (to != null) {
+            days = days.headMap(to, true);
+        }
+        List<SalesFigures> figures = new ArrayList<>(days.size());
+        days.forEach((day, tally) -> figures.add(tally.toFigures(day.toString())));
+        return figures;
+    }
+
+    /**
+     * Applies an incremental update to the current rollups and to a rebuild in progress.
+     *
+     * @param update The update to apply.
+     */
+    private void apply(Consumer<Rollups> update) {
+        update.accept(rollups);
+        Rollups inProgress = rebuilding;
+        if (inProgress != null) {
+            update.accept(inProgress);
+        }
+    }
+
+    /**
+     * Reads all orders as sales, grouping the one-row-per-item result by order.
+     *
+     * @return One sale per order.
+     */
+    private List<Sale> loadSales() {
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (Object[] row : productRepository.findAllCategoryAssignments()) {
+            categories.computeIfAbsent((Long) row[0], id -> new ArrayList<>(2)).add((String) row[1]);
+        }
+
+        List<Sale> sales = new ArrayList<>();
+        try (Stream<Object[]> rows = orderRepository.streamSalesRows()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            Object[] order = null;
+            List<Line> lines = new ArrayList<>();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                if (order == null || !order[0].equals(row[0])) {
+                    if (order != null) {
+                        sales.add(toSale(order, lines));
+                        lines = new ArrayList<>();
+                    }
+                    order = row;
+                }
+                Long productId = (Long) row[4];
+                if (productId != null) {
+                    lines.add(new Line(productId, ((Number) row[5]).intValue(), orZero((Long) row[6]),
+                            categories.getOrDefault(productId, List.of())));
+                }
+            }
+            if (order != null) {
+                sales.add(toSale(order, lines));
+            }
+        }
+        return sales;
+    }
+
+    private static Sale toSale(Object[] row, List<Line> lines) {
+        return Sale.of((Long) row[0], (OrderStatus) row[1], (Instant) row[2], (Long) row[3], lines);
+    }
+
+    /**
+     * Figures of the given tallies, highest revenue first and then by key.
+     */
+    private static <K> List<SalesFigures> rank(Map<K, Tally> tallies, int limit) {
+        return tallies.entrySet().stream()
+                .map(entry -> entry.getValue().toFigures(String.valueOf(entry.getKey())))
+                .sorted(Comparator.comparingLong(SalesFigures::getRevenueCents).reversed()
+                        .thenComparing(SalesFigures::getKey))
+                .limit(limit)
+                .toList();
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * One priced item of an order and the categories its product counts towards.
+     *
+     * @param productId      The ID of the product.
+     * @param quantity       The units ordered.
+     * @param unitPriceCents The unit price charged, in cents.
+     * @param categories     The categories of the product.
+     */
+    private record Line(long productId, int quantity, long unitPriceCents, List<String> categories) {
+
+        long revenueCents() {
+            return quantity * unitPriceCents;
+        }
+    }
+
+    /**
+     * An order as counted by the rollups.
+     *
+     * @param orderId    The ID of the order.
+     * @param status     The order's status.
+     * @param day        The UTC day the order was placed, or null if unknown.
+     * @param units      The units of all items.
+     * @param totalCents The order total in cents.
+     * @param lines      The order's items.
+     */
+    private record Sale(long orderId, OrderStatus status, LocalDate day, long units, long totalCents, List<Line> lines) {
+
+        static Sale of(long orderId, OrderStatus status, Instant createdAt, Long totalCents, List<Line> lines) {
+            long units = 0;
+            long linesTotal = 0;
+            for (Line line : lines) {
+                units += line.quantity();
+                linesTotal += line.revenueCents();
+            }
+            return new Sale(orderId, status != null ? status : OrderStatus.PENDING,
+                    createdAt != null ? LocalDate.ofInstant(createdAt, ZoneOffset.UTC) : null,
+                    units, totalCents != null ? totalCents : linesTotal, lines);
+        }
+    }
+
+    /**
+     * What the rollups counted for an order, so a status change moves exactly that amount.
+     *
+     * @param status     The status the order is counted under.
+     * @param day        The UTC day the order was placed, or null if unknown.
+     * @param units      The units of all items.
+     * @param totalCents The order total in cents.
+     * @param lines      The items counted in the product, category and daily figures, with the categories
+     *                   they were counted towards; empty once the order is cancelled.
+     */
+    private record Counted(OrderStatus status, LocalDate day, long units, long totalCents, List<Line> lines) {
+    }
+
+    /**
+     * Order count, units and revenue of one key, in striped counters.
+     */
+    private static final class Tally {
+
+        // Shared empty tally for keys without sales; never added to
+        static final Tally ZERO = new Tally();
+
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder units = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+
+        void add(long orderCount, long unitCount, long revenue) {
+            orders.add(orderCount);
+            units.add(unitCount);
+            revenueCents.add(revenue);
+        }
+
+        SalesFigures toFigures(String key) {
+            return new SalesFigures(key, orders.sum(), units.sum(), revenueCents.sum());
+        }
+    }
+
+    /**
+     * One complete set of rollups, plus what was counted for each order.
+     */
+    private static final class Rollups {
+
+        private final ConcurrentHashMap<Long, Counted> orders = new ConcurrentHashMap<>();
+        private final Map<OrderStatus, Tally> byStatus = new EnumMap<>(OrderStatus.class);
+        private final ConcurrentHashMap<Long, Tally> byProduct = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Tally> byCategory = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<LocalDate, Tally> byDay = new ConcurrentSkipListMap<>();
+
+        // Latest status of orders changed before they were counted; only set while these rollups are rebuilt
+        private volatile Map<Long, OrderStatus> earlyStatuses;
+
+        Rollups() {
+            for (OrderStatus status : OrderStatus.values()) {
+                byStatus.put(status, new Tally());
+            }
+        }
+
+        /**
+         * Counts an order once; an order that is already counted is ignored.
+         * A status change that arrived before the order was counted is applied afterwards.
+         */
+        void record(Sale sale) {
+            boolean cancelled = sale.status() == OrderStatus.CANCELLED;
+            Counted counted = new Counted(sale.status(), sale.day(), sale.units(), sale.totalCents(),
+                    cancelled ? List.of() : sale.lines());
+            if (orders.putIfAbsent(sale.orderId(), counted) != null) {
+                return;
+            }
+            byStatus.get(counted.status()).add(1, counted.units(), counted.totalCents());
+            if (!cancelled) {
+                addSales(counted, 1);
+            }
+            Map<Long, OrderStatus> early = earlyStatuses;
+            OrderStatus changed = early != null ? early.remove(sale.orderId()) : null;
+            if (changed != null) {
+                transition(sale.orderId(), changed);
+            }
+        }
+
+        /**
+         * Moves a counted order to a new status; repeated changes are ignored.
+         * While these rollups are rebuilt, the status of an order not counted yet is kept until it is.
+         */
+        void transition(long orderId, OrderStatus status) {
+            while (true) {
+                Counted counted = orders.get(orderId);
+                if (counted == null) {
+                    Map<Long, OrderStatus> early = earlyStatuses;
+                    if (early == null) {
+                        return;
+                    }
+                    early.put(orderId, status);
+                    // The order may have been counted meanwhile without seeing the early status
+                    if (!orders.containsKey(orderId) || early.remove(orderId) == null) {
+                        return;
+                    }
+                    continue;
+                }
+                if (counted.status() == status) {
+                    return;
+                }
+                boolean cancelling = status == OrderStatus.CANCELLED;
+                Counted moved = new Counted(status, counted.day(), counted.units(), counted.totalCents(),
+                        cancelling ? List.of() : counted.lines());
+                if (orders.replace(orderId, counted, moved)) {
+                    byStatus.get(counted.status()).add(-1, -counted.units(), -counted.totalCents());
+                    byStatus.get(status).add(1, counted.units(), counted.totalCents());
+                    if (cancelling) {
+                        addSales(counted, -1);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Adds (sign 1) or removes (sign -1) an order's sales to or from the daily, product and category figures.
+         */
+        private void addSales(Counted counted, int sign) {
+            if (counted.day() != null) {
+                byDay.computeIfAbsent(counted.day(), day -> new Tally())
+                        .add(sign, sign * counted.units(), sign * counted.totalCents());
+            }
+            for (Line line : counted.lines()) {
+                long units = sign * (long) line.quantity();
+                long revenue = sign * line.revenueCents();
+                byProduct.computeIfAbsent(line.productId(), id -> new Tally()).add(sign, units, revenue);
+                for (String category : line.categories()) {
+                    byCategory.computeIfAbsent(category, name -> new Tally()).add(sign, units, revenue);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.changes.controller;
+
+import com.ecommerce.changes.model.ChangePage;
+import com.ecommerce.changes.service.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST controller for the change feed of order and product mutations.
+ * Lets downstream services follow orders and products through a cursor instead of re-reading
+ * GET /api/orders and GET /api/products: as one page per request, by long polling, or as a
+ * Server-Sent Events stream.
+ */
+@RestController
+@RequestMapping("/api/changes") // Base URL for all change feed endpoints
+public class ChangeFeedController {
+
+    // Upper bound for the time a long poll waits for a change
+    static final int MAX_WAIT_SECONDS = 30;
+
+    @Autowired
+    private ChangeFeed changeFeed; // Injects the ChangeFeed holding the recent changes
+
+    // Time after which an event stream is closed and the client reconnects, injected from application properties
+    @Value("${changes.sse.timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+
+    /**
+     * Retrieves the changes after a cursor. With wait, the request is held until a change arrives or the
+     * wait time is over, without occupying a request thread.
+     *
+     * @param since The sequence number of the last change already seen; 0 for the oldest available.
+     * @param limit The maximum number of changes to return, between 1 and 1000.
+     * @param wait  Seconds to wait for a change when there is none yet, at most 30; 0 to return at once.
+     * @return The changes and the cursor for the next request.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ChangePage> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                 @RequestParam(defaultValue = "500") int limit,
+                                                 @RequestParam(defaultValue = "0") int wait) {
+        int pageSize = Math.max(1, Math.min(limit, ChangeFeed.MAX_PAGE));
+        long waitMillis = TimeUnit.SECONDS.toMillis(Math.max(0, Math.min(wait, MAX_WAIT_SECONDS)));
+        return changeFeed.poll(since, pageSize, waitMillis);
+    }
+
+    /**
+     * Streams the changes after a cursor and then every new change, as Server-Sent Events.
+     * A reconnecting client resumes after the Last-Event-ID it sends, which takes precedence over since.
+     *
+     * @param since       The sequence number of the last change already seen; 0 for the oldest available.
+     * @param lastEventId The ID of the last event received before a reconnect (optional).
+     * @return The event stream.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeed.subscribe(lastEventId != null ? lastEventId : since, streamTimeoutMillis);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.changes.model;
+
+import com.ecommerce.order.model.OrderStatus;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One committed mutation of an order or product, as published on the change feed.
+ * Carries the ID and version of the changed entity rather than the entity itself;
+ * consumers fetch the entities they care about.
+ * Changes are kept in memory for live consumers and written to the change_feed table for consumers that fall behind.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "change_feed", indexes = @Index(name = "idx_change_feed_occurred_at", columnList = "occurred_at")) // Serves the retention purge
+public class Change {
+
+    // Position of the change in the feed; increases with every change, with gaps after a restart
+    @Id
+    private Long sequence;
+
+    // The kind of mutation
+    @Enumerated(EnumType.STRING)
+    private ChangeType type;
+
+    // The ID of the changed order or product
+    private Long entityId;
+
+    // The ID of the user who placed the order; null for products
+    private Long userId;
+
+    // The order's status after the change; null for products
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    // The entity's version after the change
+    private Long version;
+
+    // The time the change was published
+    private Instant occurredAt;
+}
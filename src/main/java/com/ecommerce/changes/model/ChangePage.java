@@ -0,0 +1,23 @@
+package com.ecommerce.changes.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A batch of changes read from the change feed, and the cursor for the next read.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangePage {
+
+    // The changes after the requested sequence number, in sequence order
+    private List<Change> changes;
+
+    // The sequence number to pass as since on the next read
+    private long next;
+
+    // Whether more changes are available right away
+    private boolean hasMore;
+}
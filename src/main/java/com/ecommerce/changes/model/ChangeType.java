@@ -0,0 +1,11 @@
+package com.ecommerce.changes.model;
+
+/**
+ * Kinds of mutations published on the change feed.
+ */
+public enum ChangeType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    PRODUCT_CREATED,
+    PRODUCT_UPDATED
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.changes.repository;
+
+import com.ecommerce.changes.model.Change;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repository interface for reading stored changes of the change feed.
+ * Changes are written with batched inserts by ChangeFeed, not through this repository.
+ */
+public interface ChangeRepository extends JpaRepository<Change, Long> {
+
+    /**
+     * Finds the stored changes after a sequence number, for consumers too far behind for the in-memory buffer.
+     *
+     * @param sequence The sequence number of the last change the consumer has seen.
+     * @param pageable The page size; the page number should always be 0.
+     * @return Up to pageable.getPageSize() changes with a greater sequence number, in sequence order.
+     */
+    List<Change> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Pageable pageable);
+
+    /**
+     * Reads the highest stored sequence number, so numbering continues after a restart.
+     *
+     * @return The highest sequence number, or null if no change is stored.
+     */
+    @Query("select max(c.sequence) from Change c")
+    Long findMaxSequence();
+}
@@ -0,0 +1,618 @@
+package com.ecommerce.changes.service;
+
+import com.ecommerce.changes.model.Change;
+import com.ecommerce.changes.model.ChangePage;
+import com.ecommerce.changes.model.ChangeType;
+import com.ecommerce.changes.repository.ChangeRepository;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class for the change feed: every committed order creation, order status change and product
+ * creation or update, numbered with an increasing sequence number.
+ * Recent changes are kept in an in-memory ring buffer, so consumers that keep up are served without touching
+ * the database. All changes are also written to the change_feed table in batched inserts every flush interval;
+ * consumers further behind than the buffer are served from there. A crash loses the changes of the last
+ * interval from the table, and numbering resumes past them, so a consumer never sees a number reused.
+ * Long-polling readers and Server-Sent Events subscribers are woken by a dispatcher thread when changes arrive.
+ * Each event stream is written by its own send task on a virtual thread, so a slow client only delays itself;
+ * a stream that falls too far behind is closed and its client resumes from the Last-Event-ID.
+ */
+@Service
+@Timed("service.method")
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    // Maximum number of changes returned by one read
+    public static final int MAX_PAGE = 1000;
+
+    // Stores a change without reading anything first
+    private static final String INSERT_SQL = "insert into change_feed "
+            + "(sequence, type, entity_id, user_id, status, version, occurred_at) "
+            + "values (:sequence, :type, :entityId, :userId, :status, :version, :occurredAt)";
+
+    // Deletes changes older than the retention period
+    private static final String PURGE_SQL = "delete from change_feed where occurred_at < :cutoff";
+
+    @Autowired
+    private ChangeRepository changeRepository; // Serves consumers behind the buffer and the last stored sequence
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate; // Writes the batched changes
+
+    @Autowired
+    private TransactionTemplate transactionTemplate; // Writes each flush in one transaction
+
+    // Changes kept in memory, rounded up to a power of two, injected from application properties
+    @Value("${changes.buffer-size:65536}")
+    private int bufferSize;
+
+    // Milliseconds between writes of new changes to the database, injected from application properties
+    @Value("${changes.flush-interval-ms:500}")
+    private long flushIntervalMillis;
+
+    // Hours stored changes are kept, injected from application properties
+    @Value("${changes.retention-hours:168}")
+    private long retentionHours;
+
+    // Seconds between keep-alive comments sent to idle event stream subscribers, injected from application properties
+    @Value("${changes.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    // Changes a caught-up event stream may fall behind before it is closed, injected from application properties
+    @Value("${changes.sse.max-backlog:10000}")
+    private long maxBacklog;
+
+    // Ring buffer of the most recent changes; the change with sequence s is at s & mask
+    private Change[] buffer;
+    private int mask;
+
+    // Sequence number of the first change published by this instance
+    private long firstSequence;
+
+    // Sequence number of the last published change
+    private volatile long published;
+
+    // Changes not yet written to the database
+    private final Queue<Change> unsaved = new ConcurrentLinkedQueue<>();
+
+    // Long-polling reads waiting for a change after their cursor
+    private final List<Waiter> waiters = new CopyOnWriteArrayList<>();
+
+    // Open event streams
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Orders publications and wakes up the dispatcher; a lock rather than synchronized so virtual threads are not pinned
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final Condition changed = publishLock.newCondition();
+
+    // Serializes flushes, which may run on the scheduler and at shutdown at the same time
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Set when a new waiter or subscriber needs the dispatcher before the next change
+    private boolean wakeUp;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+    private Thread dispatcher;
+
+    // Runs the send tasks of the event streams, one virtual thread per task
+    private ExecutorService senders;
+
+    /**
+     * Continues numbering after the last stored change and starts the flush and dispatcher threads.
+     * Numbering skips one buffer's worth of sequence numbers, which covers changes published but never
+     * stored before a crash.
+     */
+    @PostConstruct
+    public void open() {
+        int capacity = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        buffer = new Change[capacity];
+        mask = capacity - 1;
+        Long stored = changeRepository.findMaxSequence();
+        published = stored != null ? stored + capacity : 0L;
+        firstSequence = published + 1;
+
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, 1, 60, TimeUnit.MINUTES);
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        dispatcher = new Thread(this::dispatch, "change-feed-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Stops the background work, writes the remaining changes and closes the event streams.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (dispatcher != null) {
+            wake();
+            try {
+                dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (senders != null) {
+            senders.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Publishes a committed order.
+     *
+     * @param event The event carrying the saved order.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        Order order = event.getOrder();
+        if (order.getId() != null) {
+            publish(ChangeType.ORDER_CREATED, order.getId(), order.getUserId(), order.getStatus(), order.getVersion());
+        }
+    }
+
+    /**
+     * Publishes a committed status change.
+     *
+     * @param event The event describing the status change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(ChangeType.ORDER_STATUS_CHANGED, event.getOrderId(), event.getUserId(), event.getStatus(),
+                event.getVersion());
+    }
+
+    /**
+     * Publishes a committed new product.
+     *
+     * @param event The event carrying the saved product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductCreated(ProductCreatedEvent event) {
+        Product product = event.getProduct();
+        publish(ChangeType.PRODUCT_CREATED, product.getId(), null, null, product.getVersion());
+    }
+
+    /**
+     * Publishes a committed product change.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        Product product = event.getProduct();
+        publish(ChangeType.PRODUCT_UPDATED, product.getId(), null, null, product.getVersion());
+    }
+
+    /**
+     * Assigns the next sequence number to a change, puts it into the buffer and wakes up the dispatcher.
+     *
+     * @param type     The kind of mutation.
+     * @param entityId The ID of the changed order or product.
+     * @param userId   The ID of the user who placed the order, or null.
+     * @param status   The order's new status, or null.
+     * @param version  The entity's version after the change.
+     * @return The published change.
+     */
+    public Change publish(ChangeType type, Long entityId, Long userId, OrderStatus status, Long version) {
+        publishLock.lock();
+        try {
+            long sequence = published + 1;
+            Change change = new Change(sequence, type, entityId, userId, status, version, Instant.now());
+            buffer[(int) (sequence & mask)] = change;
+            unsaved.add(change);
+            published = sequence;
+            changed.signalAll();
+            return change;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last published change, the cursor of a consumer that is up to date.
+     *
+     * @return The sequence number.
+     */
+    public long lastSequence() {
+        return published;
+    }
+
+    /**
+     * Reads the changes after a cursor. Changes still in the buffer are read from memory; older ones
+     * come from the database. If changes after the cursor were lost in a crash, the read continues
+     * with the oldest buffered change.
+     *
+     * @param since The sequence number of the last change the consumer has seen; 0 for the oldest available.
+     * @param limit The maximum number of changes to return, between 1 and MAX_PAGE.
+     * @return The changes after the cursor and the cursor for the next read.
+     */
+    public ChangePage read(long since, int limit) {
+        since = Math.max(since, 0L);
+        long last = published;
+        if (since >= last) {
+            return new ChangePage(List.of(), since, false);
+        }
+        long oldest = Math.max(firstSequence, last - buffer.length + 1);
+        if (since + 1 >= oldest) {
+            List<Change> changes = readBuffer(since, last, limit);
+            if (changes != null) {
+                return page(changes, since);
+            }
+        }
+        // Too far behind for the buffer
+        List<Change> stored = changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(since, PageRequest.of(0, limit));
+        if (!stored.isEmpty()) {
+            return page(stored, since);
+        }
+        // Nothing stored after the cursor either: those changes were lost, so skip to the buffer
+        last = published;
+        oldest = Math.max(firstSequence, last - buffer.length + 1);
+        List<Change> changes = readBuffer(oldest - 1, last, limit);
+        return changes != null ? page(changes, since) : new ChangePage(List.of(), since, true);
+    }
+
+    /**
+     * Waits for changes after a cursor without holding a request thread (long polling).
+     * Completes at once if there are changes already, otherwise with the first change published
+     * within the wait time, or with an empty page when the wait time is over.
+     *
+     * @param since       The sequence number of the last change the consumer has seen.
+     * @param limit       The maximum number of changes to return, between 1 and MAX_PAGE.
+     * @param waitMillis  The maximum time to wait for a change; 0 to return at once.
+     * @return The pending result.
+     */
+    public DeferredResult<ChangePage> poll(long since, int limit, long waitMillis) {
+        ChangePage page = read(since, limit);
+        if (!page.getChanges().isEmpty() || waitMillis <= 0) {
+            DeferredResult<ChangePage> result = new DeferredResult<>();
+            result.setResult(page);
+            return result;
+        }
+        DeferredResult<ChangePage> result = new DeferredResult<>(waitMillis,
+                () -> new ChangePage(List.of(), page.getNext(), false));
+        Waiter waiter = new Waiter(page.getNext(), limit, result);
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        if (published > waiter.since) {
+            wake();
+        }
+        return result;
+    }
+
+    /**
+     * Opens an event stream that sends the changes after a cursor and then every new change as it is published.
+     * Each event carries the change as JSON, its type as the event name and its sequence number as the event ID,
+     * so a reconnecting client resumes from its Last-Event-ID.
+     *
+     * @param since         The sequence number of the last change the consumer has seen.
+     * @param timeoutMillis The time after which the stream is closed and the client has to reconnect.
+     * @return The event stream.
+     */
+    public SseEmitter subscribe(long since, long timeoutMillis) {
+        return subscribe(since, new SseEmitter(timeoutMillis));
+    }
+
+    /**
+     * Registers an event stream that sends the changes after a cursor.
+     *
+     * @param since   The sequence number of the last change the consumer has seen.
+     * @param emitter The event stream.
+     * @return The event stream.
+     */
+    SseEmitter subscribe(long since, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, Math.max(since, 0L), published);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        wake();
+        return emitter;
+    }
+
+    /**
+     * Writes the changes published since the last flush as one JDBC batch of inserts.
+     * Changes that could not be written are kept for the next flush.
+     *
+     * @return The number of changes written.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Change> changes = new ArrayList<>();
+            for (Change change = unsaved.poll(); change != null; change = unsaved.poll()) {
+                changes.add(change);
+            }
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            SqlParameterSource[] batch = new SqlParameterSource[changes.size()];
+            for (int i = 0; i < batch.length; i++) {
+                Change change = changes.get(i);
+                batch[i] = new MapSqlParameterSource()
+                        .addValue("sequence", change.getSequence())
+                        .addValue("type", change.getType().name())
+                        .addValue("entityId", change.getEntityId())
+                        .addValue("userId", change.getUserId())
+                        .addValue("status", change.getStatus() != null ? change.getStatus().name() : null)
+                        .addValue("version", change.getVersion())
+                        .addValue("occurredAt", change.getOccurredAt().atOffset(ZoneOffset.UTC));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+            } catch (RuntimeException e) {
+                unsaved.addAll(changes);
+                throw e;
+            }
+            return batch.length;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes stored changes older than the retention period.
+     *
+     * @return The number of changes deleted.
+     */
+    public int purge() {
+        Instant cutoff = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+        return jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("cutoff", cutoff.atOffset(ZoneOffset.UTC)));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Cannot store the change feed; retrying at the next flush", e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            int purged = purge();
+            if (purged > 0) {
+                log.info("Purged {} changes older than {} hours", purged, retentionHours);
+            }
+        } catch (RuntimeException e) {
+            log.error("Cannot purge the change feed", e);
+        }
+    }
+
+    /**
+     * Copies the changes after a cursor from the buffer.
+     *
+     * @return The changes, or null if the buffer was overwritten past the cursor meanwhile.
+     */
+    private List<Change> readBuffer(long since, long last, int limit) {
+        int count = (int) Math.min(limit, last - since);
+        List<Change> changes = new ArrayList<>(count);
+        for (long sequence = since + 1; sequence <= since + count; sequence++) {
+            Change change = buffer[(int) (sequence & mask)];
+            if (change == null || change.getSequence() != sequence) {
+                return null;
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private ChangePage page(List<Change> changes, long since) {
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        return new ChangePage(changes, next, next < published);
+    }
+
+    /**
+     * Wakes up the dispatcher even if no change was published.
+     */
+    private void wake() {
+        publishLock.lock();
+        try {
+            wakeUp = true;
+            changed.signalAll();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Dispatcher loop: waits for new changes, completes the waiting long polls and hands the changes to the
+     * send task of every event stream, with a keep-alive comment when the streams have been idle for a while.
+     * Never writes to a stream itself, so one slow client cannot hold up the others or the long polls.
+     */
+    private void dispatch() {
+        long heartbeatNanos = TimeUnit.SECONDS.toNanos(heartbeatSeconds);
+        long lastHeartbeat = System.nanoTime();
+        long seen = 0;
+        while (running) {
+            publishLock.lock();
+            try {
+                while (running && !wakeUp && published == seen) {
+                    long remaining = heartbeatNanos - (System.nanoTime() - lastHeartbeat);
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    changed.awaitNanos(remaining);
+                }
+                wakeUp = false;
+                seen = published;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                publishLock.unlock();
+            }
+
+            for (Waiter waiter : waiters) {
+                if (seen > waiter.since) {
+                    waiter.result.setResult(read(waiter.since, waiter.limit));
+                }
+            }
+            boolean heartbeat = System.nanoTime() - lastHeartbeat >= heartbeatNanos;
+            for (Subscriber subscriber : subscribers) {
+                long cursor = subscriber.cursor;
+                if (cursor >= subscriber.caughtUpAt && seen - cursor > maxBacklog) {
+                    log.info("Closing an event stream {} changes behind the feed", seen - cursor);
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                    continue;
+                }
+                if (heartbeat) {
+                    subscriber.heartbeat = true;
+                }
+                schedule(subscriber);
+            }
+            if (heartbeat) {
+                lastHeartbeat = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Starts a send task for a subscriber unless one is running; a running task picks up the new work before it ends.
+     */
+    private void schedule(Subscriber subscriber) {
+        subscriber.pending = true;
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Send task of one subscriber: sends until no new work was scheduled meanwhile.
+     * At most one task per subscriber runs at a time, so its changes stay in order.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            while (subscriber.pending) {
+                subscriber.pending = false;
+                if (!send(subscriber)) {
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+        } while (subscriber.pending && subscriber.sending.compareAndSet(false, true));
+    }
+
+    /**
+     * Sends a subscriber every change after its cursor, or a keep-alive comment if one is due and there was
+     * nothing to send; drops the subscriber if the client has gone away.
+     *
+     * @return False if the subscriber was dropped.
+     */
+    private boolean send(Subscriber subscriber) {
+        try {
+            ChangePage page;
+            boolean sent = false;
+            do {
+                page = read(subscriber.cursor, MAX_PAGE);
+                for (Change change : page.getChanges()) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getSequence()))
+                            .name(change.getType().name())
+                            .data(change, MediaType.APPLICATION_JSON));
+                    subscriber.cursor = change.getSequence();
+                    sent = true;
+                }
+                subscriber.cursor = page.getNext();
+            } while (page.isHasMore() && !page.getChanges().isEmpty());
+            if (subscriber.heartbeat) {
+                subscriber.heartbeat = false;
+                if (!sent) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Cannot send changes to an event stream", e);
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * A long-polling read waiting for changes after its cursor.
+     */
+    private record Waiter(long since, int limit, DeferredResult<ChangePage> result) {
+    }
+
+    /**
+     * An open event stream, the sequence number of the last change sent to it and the state of its send task.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private volatile long cursor; // Written by the send task only
+        private final long caughtUpAt; // Last sequence at subscription; streams still replaying older changes are never closed
+        private volatile boolean pending; // Set by the dispatcher when there may be something to send
+        private volatile boolean heartbeat; // Set by the dispatcher when a keep-alive comment is due
+        private final AtomicBoolean sending = new AtomicBoolean(); // Whether a send task is queued or running
+
+        private Subscriber(SseEmitter emitter, long cursor, long caughtUpAt) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.caughtUpAt = caughtUpAt;
+        }
+    }
+}
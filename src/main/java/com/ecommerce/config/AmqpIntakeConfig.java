@@ -0,0 +1,77 @@
+package com.ecommerce.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the AMQP-backed asynchronous order intake.
+ * Only active when orders.intake.broker=amqp; the in-memory queue is used otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.intake.broker", havingValue = "amqp")
+public class AmqpIntakeConfig {
+
+  // Name of the intake queue, injected from application properties
+  @Value("${orders.intake.queue:order-intake}")
+  private String queueName;
+
+  // Maximum number of messages delivered to the listener at once, injected from application properties
+  @Value("${orders.intake.batch-size:200}")
+  private int batchSize;
+
+  /**
+   * Declares the durable intake queue on the broker.
+   *
+   * @return the intake queue
+   */
+  @Bean
+  public Queue orderIntakeQueue() {
+    return QueueBuilder.durable(queueName).build();
+  }
+
+  /**
+   * Converts orders to and from JSON messages with the application's ObjectMapper.
+   *
+   * @param objectMapper the shared Jackson mapper
+   * @return the message converter used by the template and the listener
+   */
+  @Bean
+  public MessageConverter orderIntakeMessageConverter(ObjectMapper objectMapper) {
+    DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+    typeMapper.setTrustedPackages("com.ecommerce.order.model");
+    Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter(objectMapper);
+    converter.setJavaTypeMapper(typeMapper);
+    return converter;
+  }
+
+  /**
+   * Listener container factory delivering messages in batches, so the consumer can batch its writes.
+   * Rejected batches are requeued, giving at-least-once delivery.
+   *
+   * @param connectionFactory the broker connection factory
+   * @param orderIntakeMessageConverter the JSON message converter
+   * @return the batch listener container factory
+   */
+  @Bean
+  public SimpleRabbitListenerContainerFactory orderIntakeListenerFactory(ConnectionFactory connectionFactory,
+                                                                         MessageConverter orderIntakeMessageConverter) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    factory.setConnectionFactory(connectionFactory);
+    factory.setMessageConverter(orderIntakeMessageConverter);
+    factory.setBatchListener(true);
+    factory.setConsumerBatchEnabled(true);
+    factory.setBatchSize(batchSize);
+    factory.setDefaultRequeueRejected(true);
+    return factory;
+  }
+}
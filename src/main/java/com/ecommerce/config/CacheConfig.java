@@ -0,0 +1,85 @@
+package com.ecommerce.config;
+
+import com.ecommerce.order.history.OrderHistory;
+import com.ecommerce.product.cache.ProductJson;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the in-process caches.
+ * Each cache is bounded in size and age and records statistics, which Actuator
+ * publishes as cache.gets (hit/miss), cache.evictions and cache.size metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  // Name of the cache holding products by ID
+  public static final String PRODUCTS_CACHE = "products";
+
+  // Name of the cache holding pre-serialized product JSON by product ID
+  public static final String PRODUCT_JSON_CACHE = "productJson";
+
+  // Name of the cache holding pre-serialized order histories by user ID
+  public static final String ORDER_HISTORY_CACHE = "orderHistory";
+
+  // Maximum number of products kept in the cache, injected from application properties
+  @Value("${cache.products.max-entries:10000}")
+  private long productsMaxEntries;
+
+  // Time after which a cached product is reloaded from the database, injected from application properties
+  @Value("${cache.products.ttl-seconds:600}")
+  private long productsTtlSeconds;
+
+  // Upper bound for the memory held by cached product JSON, injected from application properties
+  @Value("${cache.product-json.max-bytes:33554432}")
+  private long productJsonMaxBytes;
+
+  // Time after which cached product JSON is serialized again, injected from application properties
+  @Value("${cache.product-json.ttl-seconds:600}")
+  private long productJsonTtlSeconds;
+
+  // Upper bound for the memory held by cached order histories, injected from application properties
+  @Value("${cache.order-history.max-bytes:67108864}")
+  private long orderHistoryMaxBytes;
+
+  // Time after which a cached order history is reloaded from the database, injected from application properties
+  @Value("${cache.order-history.ttl-seconds:1800}")
+  private long orderHistoryTtlSeconds;
+
+  /**
+   * Configures the cache manager with the application's caches.
+   *
+   * @return a Caffeine-backed cache manager
+   */
+  @Bean
+  public CacheManager cacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.registerCustomCache(PRODUCTS_CACHE, Caffeine.newBuilder()
+            .maximumSize(productsMaxEntries)
+            .expireAfterWrite(Duration.ofSeconds(productsTtlSeconds))
+            .recordStats()
+            .build());
+    cacheManager.registerCustomCache(PRODUCT_JSON_CACHE, Caffeine.newBuilder()
+            .maximumWeight(productJsonMaxBytes)
+            .weigher((Object id, Object json) -> ((ProductJson) json).weight())
+            .expireAfterWrite(Duration.ofSeconds(productJsonTtlSeconds))
+            .recordStats()
+            .build());
+    // Weighed by serialized size, so the bound is in bytes no matter how many orders a user has
+    cacheManager.registerCustomCache(ORDER_HISTORY_CACHE, Caffeine.newBuilder()
+            .maximumWeight(orderHistoryMaxBytes)
+            .weigher((Object userId, Object history) -> ((OrderHistory) history).weight())
+            .expireAfterWrite(Duration.ofSeconds(orderHistoryTtlSeconds))
+            .recordStats()
+            .build());
+    return cacheManager;
+  }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration class for application metrics.
+ * Times every method of classes annotated with @Timed, tags service and repository timers with the
+ * endpoint being served, and counts the SQL statements run per request. Histogram buckets, SLOs and
+ * percentiles for these meters are set in application.properties.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+  // Registry the timers and statement counts are recorded in
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Enables @Timed on Spring beans, adding the current endpoint as a tag.
+   *
+   * @return the aspect recording the timers
+   */
+  @Bean
+  public TimedAspect timedAspect() {
+    return new TimedAspect(meterRegistry, joinPoint -> Tags.of("endpoint", RequestMetricsInterceptor.currentEndpoint()));
+  }
+
+  /**
+   * Adds the current endpoint to the tags of the spring.data.repository.invocations timer.
+   *
+   * @return the repository tags provider
+   */
+  @Bean
+  public RepositoryTagsProvider repositoryTagsProvider() {
+    DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+    return invocation -> Tags.of(defaults.repositoryTags(invocation))
+        .and(Tag.of("endpoint", RequestMetricsInterceptor.currentEndpoint()));
+  }
+
+  /**
+   * Registers a Hibernate statement inspector that counts every prepared SQL statement.
+   *
+   * @return the customizer adding the inspector
+   */
+  @Bean
+  public HibernatePropertiesCustomizer statementCountingCustomizer() {
+    StatementInspector inspector = sql -> {
+      RequestMetricsInterceptor.countStatement();
+      return sql;
+    };
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new RequestMetricsInterceptor(meterRegistry));
+  }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the endpoint being served on the current thread and the number of SQL statements it runs.
+ * The endpoint is used as a tag on service and repository timers, and the statement count is
+ * recorded per endpoint as the db.statements distribution summary when the request completes.
+ * Per-request state lives in a reused thread-local holder and summaries are cached per endpoint,
+ * so the hot path allocates nothing beyond the endpoint string.
+ */
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+  // Endpoint tag used for work that does not run inside a web request
+  public static final String NO_ENDPOINT = "none";
+
+  // Endpoint and statement count of the request running on this thread
+  private static final ThreadLocal<RequestState> CURRENT = ThreadLocal.withInitial(RequestState::new);
+
+  // Registry the statement summaries are registered with
+  private final MeterRegistry meterRegistry;
+
+  // Statement summaries by endpoint, so each request only does a map lookup
+  private final Map<String, DistributionSummary> statementSummaries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the interceptor.
+   *
+   * @param meterRegistry the registry to record statement counts in
+   */
+  public RequestMetricsInterceptor(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Returns the endpoint served on the current thread.
+   *
+   * @return the method and URI pattern, such as "GET /api/orders/user/{userId}", or "none" outside a request
+   */
+  public static String currentEndpoint() {
+    String endpoint = CURRENT.get().endpoint;
+    return endpoint != null ? endpoint : NO_ENDPOINT;
+  }
+
+  /**
+   * Counts one SQL statement for the request running on the current thread.
+   */
+  public static void countStatement() {
+    CURRENT.get().statements++;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    RequestState state = CURRENT.get();
+    state.endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    state.statements = 0;
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    RequestState state = CURRENT.get();
+    if (state.endpoint == null) {
+      return;
+    }
+    statementSummaries.computeIfAbsent(state.endpoint, endpoint -> DistributionSummary.builder("db.statements")
+            .description("SQL statements prepared while serving a request")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry))
+        .record(state.statements);
+    state.endpoint = null;
+    state.statements = 0;
+  }
+
+  /**
+   * Mutable per-thread request state.
+   */
+  private static final class RequestState {
+
+    private String endpoint;
+    private int statements;
+  }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration class for the binary response formats.
+ * Clients sending Accept: application/x-jackson-smile or application/cbor get the same documents
+ * as the JSON clients, encoded in Smile or CBOR, which are smaller and cheaper to write and parse.
+ * JSON stays the default. Both mappers are built from Spring Boot's Jackson builder, so they share
+ * the modules and settings of the JSON mapper.
+ */
+@Configuration
+public class SerializationConfig {
+
+  // Media type of Smile, the binary JSON format of Jackson
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  // Media type of CBOR (RFC 8949)
+  public static final String CBOR_VALUE = "application/cbor";
+
+  /**
+   * Adds a Smile converter to Spring MVC's message converters.
+   *
+   * @param builder a fresh Jackson builder with the application's settings
+   * @return the Smile converter
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+
+  /**
+   * Adds a CBOR converter to Spring MVC's message converters.
+   *
+   * @param builder a fresh Jackson builder with the application's settings
+   * @return the CBOR converter
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.inventory.controller;
+
+import com.ecommerce.inventory.model.StockAvailability;
+import com.ecommerce.inventory.service.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for product stock.
+ * Provides endpoints to read the available units of a product and to add received units.
+ */
+@RestController
+@RequestMapping("/api/inventory") // Base URL for all inventory-related endpoints
+public class InventoryController {
+
+    @Autowired
+    private InventoryService inventoryService; // Injects the InventoryService for business logic
+
+    /**
+     * Retrieves the units of a product available for new orders.
+     *
+     * @param productId The ID of the product.
+     * @return The availability, or 404 if the product's stock is not tracked.
+     */
+    @GetMapping("/{productId}")
+    public ResponseEntity<StockAvailability> getAvailability(@PathVariable Long productId) {
+        Long available = inventoryService.getAvailable(productId);
+        if (available == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new StockAvailability(productId, available));
+    }
+
+    /**
+     * Adds received units to the stock of a product, starting to track it if needed.
+     *
+     * @param productId The ID of the product.
+     * @param units     The units received.
+     * @return The availability afterwards, or 400 if units is not positive.
+     */
+    @PostMapping("/{productId}/restock")
+    public ResponseEntity<StockAvailability> restock(@PathVariable Long productId, @RequestParam long units) {
+        if (units <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new StockAvailability(productId, inventoryService.restock(productId, units)));
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Units of a product currently available for new orders, as seen by the in-memory counters.
+ */
+@Getter
+@AllArgsConstructor
+public class StockAvailability {
+
+    // The ID of the product
+    private Long productId;
+
+    // Units available for new orders
+    private long available;
+}
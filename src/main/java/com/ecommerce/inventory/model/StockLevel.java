@@ -0,0 +1,44 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Durable stock of a product. Only products with a stock level are tracked;
+ * orders for other products are accepted without a stock check.
+ * The quantity is written in batches from the in-memory counters, so it may lag them by one flush interval.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "stock_level") // Maps this entity to the "stock_level" table in the database
+public class StockLevel {
+
+    // The product this stock belongs to
+    @Id
+    private Long productId;
+
+    // Units available for new orders as of the last flush
+    private long quantity;
+
+    // Incremented on every write
+    @Version
+    private Long version;
+
+    /**
+     * Creates the stock level of a product.
+     *
+     * @param productId The ID of the product.
+     * @param quantity  The units in stock.
+     */
+    public StockLevel(Long productId, long quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+}
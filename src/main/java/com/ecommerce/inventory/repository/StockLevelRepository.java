@@ -0,0 +1,11 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.StockLevel;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing StockLevel entities in the database.
+ * Quantities are changed with batched delta updates by InventoryService, not through this repository.
+ */
+public interface StockLevelRepository extends JpaRepository<StockLevel, Long> {
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.inventory.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an order asks for more units of a product than are in stock.
+ * No stock is held for any item of the order when this is thrown.
+ */
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId; // The product that is short
+    private final long requested; // Units the order asked for
+    private final long available; // Units in stock when the reservation failed
+
+    /**
+     * Creates the exception.
+     *
+     * @param productId The ID of the product.
+     * @param requested The units requested.
+     * @param available The units in stock.
+     */
+    public InsufficientStockException(Long productId, long requested, long available) {
+        super("Insufficient stock for product " + productId + ": requested " + requested + ", available " + available);
+        this.productId = productId;
+        this.requested = requested;
+        this.available = available;
+    }
+}
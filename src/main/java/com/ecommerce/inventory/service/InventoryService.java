@@ -0,0 +1,373 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.StockLevel;
+import com.ecommerce.inventory.repository.StockLevelRepository;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class for stock tracking and reservations at order placement.
+ * Stock is held in memory in one StockCounter per tracked product, so reserving never locks a database row;
+ * the net changes are written to the stock_level table in batched delta updates every flush interval
+ * and on shutdown. A crash loses at most the changes of the last interval.
+ * Products without a stock level are not tracked and never limit orders.
+ */
+@Service
+@Timed("service.method")
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    // Applies a flushed change without reading the row first
+    private static final String FLUSH_SQL =
+            "update stock_level set quantity = quantity + :delta, version = version + 1 where product_id = :productId";
+
+    // Claims the reserved stock of a cancelled order; only the first claim updates the row
+    private static final String CLAIM_RESERVED_SQL =
+            "update orders set stock_reserved = false where id = :id and stock_reserved = true";
+
+    // Maximum number of cells a hot product's counter is split over
+    private static final int MAX_STRIPES = Runtime.getRuntime().availableProcessors() * 2;
+
+    @Autowired
+    private StockLevelRepository stockLevelRepository; // Loads the stock at startup and creates new stock levels
+
+    @Autowired
+    private OrderRepository orderRepository; // Reads the items of cancelled orders
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate; // Writes the batched stock changes
+
+    @Autowired
+    private TransactionTemplate transactionTemplate; // Writes each flush in one transaction
+
+    // Milliseconds between flushes of the stock changes, injected from application properties
+    @Value("${inventory.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    // Seconds a reservation is held without being confirmed, injected from application properties
+    @Value("${inventory.reservation.ttl-seconds:30}")
+    private long reservationTtlSeconds;
+
+    // Product ID -> in-memory stock of tracked products
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    // Products whose stock changed since the last flush
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Reservations that are neither confirmed nor released, by ID
+    private final Map<Long, Reservation> held = new ConcurrentHashMap<>();
+
+    private final AtomicLong reservationIds = new AtomicLong();
+
+    // Serializes flushes; a lock rather than synchronized so a flush waiting on JDBC does not pin a virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Serializes the creation of stock levels for products that were not tracked yet
+    private final ReentrantLock trackLock = new ReentrantLock();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Loads all stock levels into memory and starts the periodic flush and reservation expiry.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (StockLevel level : stockLevelRepository.findAll()) {
+            counters.put(level.getProductId(), new StockCounter(level.getQuantity(), MAX_STRIPES));
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::expire, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the background work and writes the remaining changes.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Reserves stock for all items of an order, all or nothing.
+     * Quantities of the same product are added up; products are reserved in ID order and a shortage
+     * puts back what was already taken, so no stock stays held for a rejected order.
+     *
+     * @param items The items of the order; items of untracked products are ignored.
+     * @return The held reservation, to be confirmed once the order is saved or cancelled if saving fails.
+     * @throws InsufficientStockException If a tracked product does not have enough units.
+     */
+    public Reservation reserve(Collection<OrderItem> items) {
+        if (items == null || items.isEmpty() || counters.isEmpty()) {
+            return Reservation.NONE;
+        }
+        TreeMap<Long, Long> wanted = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() != null && item.getQuantity() > 0 && counters.containsKey(item.getProductId())) {
+                wanted.merge(item.getProductId(), (long) item.getQuantity(), Long::sum);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return Reservation.NONE;
+        }
+
+        long[] productIds = new long[wanted.size()];
+        long[] quantities = new long[wanted.size()];
+        int reserved = 0;
+        for (Map.Entry<Long, Long> entry : wanted.entrySet()) {
+            StockCounter counter = counters.get(entry.getKey());
+            if (!counter.tryReserve(entry.getValue())) {
+                for (int i = 0; i < reserved; i++) {
+                    counters.get(productIds[i]).release(quantities[i]);
+                }
+                throw new InsufficientStockException(entry.getKey(), entry.getValue(), counter.available());
+            }
+            productIds[reserved] = entry.getKey();
+            quantities[reserved++] = entry.getValue();
+            dirty.add(entry.getKey());
+        }
+
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), productIds, quantities,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(reservationTtlSeconds));
+        held.put(reservation.getId(), reservation);
+        return reservation;
+    }
+
+    /**
+     * Confirms a reservation once its order is saved, so it no longer expires.
+     * If it expired in the meantime, the stock is reserved again; should that fail, the order is kept
+     * and the shortage is logged, since the order has already been accepted.
+     *
+     * @param reservation The reservation returned by reserve.
+     */
+    public void confirm(Reservation reservation) {
+        if (reservation.isEmpty()) {
+            return;
+        }
+        held.remove(reservation.getId());
+        if (reservation.transition(Reservation.HELD, Reservation.CONFIRMED)
+                || reservation.state() == Reservation.CONFIRMED) {
+            return;
+        }
+        for (int i = 0; i < reservation.size(); i++) {
+            StockCounter counter = counters.get(reservation.productId(i));
+            if (counter != null && !counter.tryReserve(reservation.quantity(i))) {
+                log.warn("Reservation {} expired before its order was saved; product {} is oversold by up to {} units",
+                        reservation.getId(), reservation.productId(i), reservation.quantity(i));
+            }
+            dirty.add(reservation.productId(i));
+        }
+    }
+
+    /**
+     * Puts the stock of a reservation back, when its order could not be saved.
+     *
+     * @param reservation The reservation returned by reserve.
+     */
+    public void cancel(Reservation reservation) {
+        if (reservation.isEmpty()) {
+            return;
+        }
+        held.remove(reservation.getId());
+        if (reservation.transition(Reservation.HELD, Reservation.RELEASED)
+                || reservation.transition(Reservation.CONFIRMED, Reservation.RELEASED)) {
+            release(reservation);
+        }
+    }
+
+    /**
+     * Releases reservations that were held longer than the reservation TTL without being confirmed.
+     *
+     * @return The number of expired reservations.
+     */
+    public int expire() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Reservation reservation : held.values()) {
+            if (now - reservation.getExpiresAtNanos() > 0 && held.remove(reservation.getId(), reservation)
+                    && reservation.transition(Reservation.HELD, Reservation.RELEASED)) {
+                release(reservation);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Released {} expired stock reservations", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Puts the stock of a cancelled order back. Only orders whose stock was reserved are considered,
+     * so cancelling an order placed before its products were tracked does not create stock.
+     * The order's reservation flag is cleared with a conditional update and the units are released only
+     * if that update claimed it, so a repeated or concurrent cancellation event releases them once.
+     * Runs in its own transaction, as the order's transaction has already committed.
+     *
+     * @param event The event describing the status change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() != OrderStatus.CANCELLED || counters.isEmpty()) {
+            return;
+        }
+        List<Object[]> reserved = orderRepository.findReservedItemQuantities(event.getOrderId());
+        if (reserved.isEmpty()
+                || jdbcTemplate.update(CLAIM_RESERVED_SQL, new MapSqlParameterSource("id", event.getOrderId())) != 1) {
+            return;
+        }
+        for (Object[] row : reserved) {
+            Long productId = (Long) row[0];
+            StockCounter counter = counters.get(productId);
+            int quantity = ((Number) row[1]).intValue();
+            if (counter != null && quantity > 0) {
+                counter.release(quantity);
+                dirty.add(productId);
+            }
+        }
+    }
+
+    /**
+     * Adds units to the stock of a product, starting to track it if it was not tracked yet.
+     *
+     * @param productId The ID of the product.
+     * @param units     The units received, at least 1.
+     * @return The units available afterwards.
+     */
+    public long restock(Long productId, long units) {
+        StockCounter counter = counters.get(productId);
+        if (counter == null) {
+            trackLock.lock();
+            try {
+                counter = counters.get(productId);
+                if (counter == null) {
+                    stockLevelRepository.save(new StockLevel(productId, 0));
+                    counter = new StockCounter(0, MAX_STRIPES);
+                    counters.put(productId, counter);
+                }
+            } finally {
+                trackLock.unlock();
+            }
+        }
+        counter.release(units);
+        dirty.add(productId);
+        return counter.available();
+    }
+
+    /**
+     * Returns the units of a product available for new orders.
+     *
+     * @param productId The ID of the product.
+     * @return The available units, or null if the product is not tracked.
+     */
+    public Long getAvailable(Long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter != null ? counter.available() : null;
+    }
+
+    /**
+     * Writes the stock changes since the last flush as one JDBC batch of delta updates.
+     * Changes that could not be written are kept for the next flush.
+     *
+     * @return The number of products written.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Long> productIds = new ArrayList<>();
+            List<Long> deltas = new ArrayList<>();
+            for (Long productId : dirty) {
+                dirty.remove(productId);
+                long delta = counters.get(productId).drainUnflushed();
+                if (delta != 0) {
+                    productIds.add(productId);
+                    deltas.add(delta);
+                }
+            }
+            if (productIds.isEmpty()) {
+                return 0;
+            }
+            SqlParameterSource[] batch = new SqlParameterSource[productIds.size()];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = new MapSqlParameterSource()
+                        .addValue("productId", productIds.get(i))
+                        .addValue("delta", deltas.get(i));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+            } catch (RuntimeException e) {
+                for (int i = 0; i < batch.length; i++) {
+                    counters.get(productIds.get(i)).restoreUnflushed(deltas.get(i));
+                    dirty.add(productIds.get(i));
+                }
+                throw e;
+            }
+            return batch.length;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Puts back the units of every product in a reservation.
+     */
+    private void release(Reservation reservation) {
+        for (int i = 0; i < reservation.size(); i++) {
+            StockCounter counter = counters.get(reservation.productId(i));
+            if (counter != null) {
+                counter.release(reservation.quantity(i));
+                dirty.add(reservation.productId(i));
+            }
+        }
+    }
+
+    /**
+     * Runs a scheduled flush, logging failures so the schedule keeps running.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Stock flush failed; changes are kept for the next flush", e);
+        }
+    }
+}
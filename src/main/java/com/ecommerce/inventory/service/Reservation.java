@@ -0,0 +1,87 @@
+package com.ecommerce.inventory.service;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock held for one order. A reservation starts out held and expires unless it is confirmed in time,
+ * which happens once the order is saved; a confirmed reservation is released only when the order is cancelled.
+ * The state moves exactly once out of HELD, so expiry, confirmation and release cannot both win.
+ */
+public class Reservation {
+
+    // A reservation without tracked products; confirming and cancelling it does nothing
+    public static final Reservation NONE = new Reservation(0, new long[0], new long[0], Long.MAX_VALUE);
+
+    static final int HELD = 0;
+    static final int CONFIRMED = 1;
+    static final int RELEASED = 2;
+
+    @Getter
+    private final long id; // Sequence number, unique within the process
+
+    private final long[] productIds; // Tracked products, ascending
+    private final long[] quantities; // Units held per product, at the same index
+
+    @Getter
+    private final long expiresAtNanos; // System.nanoTime() after which a held reservation expires
+
+    private final AtomicInteger state = new AtomicInteger(HELD);
+
+    Reservation(long id, long[] productIds, long[] quantities, long expiresAtNanos) {
+        this.id = id;
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Tells whether the reservation holds stock of any product.
+     *
+     * @return True if no tracked product was reserved.
+     */
+    public boolean isEmpty() {
+        return productIds.length == 0;
+    }
+
+    /**
+     * Returns the number of products held.
+     *
+     * @return The number of products.
+     */
+    public int size() {
+        return productIds.length;
+    }
+
+    /**
+     * Returns the product at a position.
+     *
+     * @param index The position, below size().
+     * @return The product ID.
+     */
+    public long productId(int index) {
+        return productIds[index];
+    }
+
+    /**
+     * Returns the units held at a position.
+     *
+     * @param index The position, below size().
+     * @return The units.
+     */
+    public long quantity(int index) {
+        return quantities[index];
+    }
+
+    /**
+     * Moves the state if it is still the expected one.
+     */
+    boolean transition(int from, int to) {
+        return state.compareAndSet(from, to);
+    }
+
+    int state() {
+        return state.get();
+    }
+}
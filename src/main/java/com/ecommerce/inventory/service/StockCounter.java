@@ -0,0 +1,217 @@
+package com.ecommerce.inventory.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock counter of one product that never goes below zero.
+ * Starts as a single cell; once reservations collide, the stock is split over more cells (up to maxStripes),
+ * each on its own cache line, and every thread takes units from its own cell first. Threads reserving
+ * the same hot product then rarely touch the same memory, so throughput grows with the number of cores.
+ * When a thread's cell runs dry it looks at the other cells, and only if no single cell has enough does it
+ * take the lock, gather all cells and decide on the total, so a reservation fails only when stock is really short.
+ * Changes since the last flush to the database are accumulated separately in {@link #drainUnflushed()}.
+ */
+public class StockCounter {
+
+    // Longs per cell: 128 bytes, so neighbouring cells never share a cache line or an adjacent-line prefetch
+    private static final int PAD = 16;
+
+    // Value of the cells of a replaced array; a thread that reads it switches to the current array
+    private static final long SEALED = Long.MIN_VALUE;
+
+    // Failed compare-and-set attempts within one reservation after which the counter is split further
+    private static final int CONTENTION_THRESHOLD = 2;
+
+    private final int maxStripes; // Upper bound for the number of cells, a power of two
+
+    private volatile AtomicLongArray cells; // Cell i is at index i * PAD; number of cells is a power of two
+
+    // Net change of the stock since the last flush: negative for reservations, positive for releases and restocking
+    private final LongAdder unflushed = new LongAdder();
+
+    // Taken to gather all cells when no single cell can serve a reservation, and to split the counter
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a counter.
+     *
+     * @param units      The units in stock.
+     * @param maxStripes The maximum number of cells; rounded up to a power of two, 1 disables striping.
+     */
+    public StockCounter(long units, int maxStripes) {
+        this.maxStripes = maxStripes <= 1 ? 1 : Integer.highestOneBit(Math.min(maxStripes, 1 << 16) - 1) << 1;
+        this.cells = new AtomicLongArray(PAD);
+        this.cells.set(0, Math.max(0, units));
+    }
+
+    /**
+     * Takes units out of stock if enough are available.
+     *
+     * @param quantity The number of units, at least 1.
+     * @return Whether the units were reserved; false leaves the stock unchanged.
+     */
+    public boolean tryReserve(long quantity) {
+        int collisions = 0;
+        retry:
+        while (true) {
+            AtomicLongArray current = cells;
+            int stripes = current.length() / PAD;
+            int home = homeCell(stripes);
+            for (int k = 0; k < stripes; k++) {
+                int index = ((home + k) & (stripes - 1)) * PAD;
+                long units = current.get(index);
+                while (units >= quantity) {
+                    long witness = current.compareAndExchange(index, units, units - quantity);
+                    if (witness == units) {
+                        unflushed.add(-quantity);
+                        if (collisions >= CONTENTION_THRESHOLD && stripes < maxStripes) {
+                            split(current);
+                        }
+                        return true;
+                    }
+                    units = witness;
+                    collisions++;
+                }
+                if (units == SEALED) {
+                    continue retry;
+                }
+            }
+            return reserveFromAllCells(quantity);
+        }
+    }
+
+    /**
+     * Puts units back into stock, for released reservations and restocking.
+     *
+     * @param quantity The number of units, at least 1.
+     */
+    public void release(long quantity) {
+        while (true) {
+            AtomicLongArray current = cells;
+            int index = homeCell(current.length() / PAD) * PAD;
+            long units = current.get(index);
+            if (units != SEALED && current.compareAndSet(index, units, units + quantity)) {
+                unflushed.add(quantity);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the units in stock; exact when no reservation is in progress.
+     *
+     * @return The sum of all cells.
+     */
+    public long available() {
+        AtomicLongArray current = cells;
+        long total = 0;
+        for (int index = 0; index < current.length(); index += PAD) {
+            long units = current.get(index);
+            if (units == SEALED) {
+                return available();
+            }
+            total += units;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of cells the stock is currently split over.
+     *
+     * @return The number of cells.
+     */
+    public int stripes() {
+        return cells.length() / PAD;
+    }
+
+    /**
+     * Takes the net change since the previous call, to be written to the database.
+     *
+     * @return The change in units; negative when more was reserved than released.
+     */
+    public long drainUnflushed() {
+        return unflushed.sumThenReset();
+    }
+
+    /**
+     * Adds back a change that could not be written, so the next flush includes it.
+     *
+     * @param delta The change returned by drainUnflushed.
+     */
+    public void restoreUnflushed(long delta) {
+        unflushed.add(delta);
+    }
+
+    /**
+     * Slow path: gathers all cells under the lock, decides on the total and spreads the rest back.
+     */
+    private boolean reserveFromAllCells(long quantity) {
+        lock.lock();
+        try {
+            AtomicLongArray current = cells;
+            long total = 0;
+            for (int index = 0; index < current.length(); index += PAD) {
+                total += current.getAndSet(index, 0);
+            }
+            boolean reserved = total >= quantity;
+            if (reserved) {
+                total -= quantity;
+                unflushed.add(-quantity);
+            }
+            spread(current, total);
+            return reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Doubles the number of cells. The new array is published first and each old cell is then sealed and moved,
+     * so concurrent releases into the old array are carried over and reservations retry on the new one.
+     */
+    private void split(AtomicLongArray current) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (cells != current) {
+                return;
+            }
+            int stripes = current.length() / PAD;
+            AtomicLongArray next = new AtomicLongArray(Math.min(maxStripes, stripes * 2) * PAD);
+            cells = next;
+            long total = 0;
+            for (int index = 0; index < current.length(); index += PAD) {
+                total += current.getAndSet(index, SEALED);
+            }
+            spread(next, total);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds units evenly to the cells of an array.
+     */
+    private static void spread(AtomicLongArray target, long units) {
+        int stripes = target.length() / PAD;
+        long share = units / stripes;
+        long remainder = units % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long add = share + (i < remainder ? 1 : 0);
+            if (add != 0) {
+                target.getAndAdd(i * PAD, add);
+            }
+        }
+    }
+
+    /**
+     * Spreads threads over the cells by a hash of their ID.
+     */
+    private static int homeCell(int stripes) {
+        long mixed = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (stripes - 1);
+    }
+}
@@ -1,11 +1,39 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.history.OrderHistory;
+import com.ecommerce.order.intake.OrderIntakeService;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.model.OrderIntakeReceipt;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusUpdateRequest;
+import com.ecommerce.order.model.OrderStatusUpdateResult;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.web.CacheControlPolicies;
+import com.ecommerce.web.EntityTags;
+import com.ecommerce.web.ResponseFormats;
+import com.ecommerce.web.TableVersion;
+import com.ecommerce.config.SerializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST controller for managing orders in the e-commerce system.
@@ -18,38 +46,185 @@ public class OrderController {
     @Autowired
     private OrderService orderService; // Injects the OrderService for business logic
 
+    @Autowired
+    private OrderIntakeService orderIntakeService; // Accepts orders for asynchronous persistence
+
+    @Autowired
+    private ObjectMapper objectMapper; // Shared Jackson mapper used for the streaming endpoint
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter; // Provides the Smile mapper for streaming
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter; // Provides the CBOR mapper for streaming
+
+    @Autowired
+    private CacheControlPolicies cacheControlPolicies; // Per-endpoint Cache-Control headers
+
     /**
-     * Retrieves all orders in the system.
+     * Retrieves orders in the system, as JSON or, if the client asks for it, as Smile or CBOR.
+     * Without parameters all orders are returned; with after and/or limit a single
+     * keyset-paginated page is returned, and the ID of its last order is the cursor for the next page.
+     * The ETag comes from a fingerprint of the ID and version columns after the cursor and names the
+     * selected encoding; a request still holding the current page in that encoding gets 304 Not Modified
+     * without loading any order.
      *
-     * @return A list of all orders.
+     * @param after    The ID of the last order already seen (optional).
+     * @param limit    The maximum number of orders to return (optional).
+     * @param request  The request, checked for Accept and If-None-Match.
+     * @param response The response the Cache-Control header is set on.
+     * @return A list of orders, or null for a 304 response.
      */
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<List<Order>> getAllOrders(@RequestParam(required = false) Long after,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    WebRequest request, HttpServletResponse response) {
+        cacheControlPolicies.apply("orders", response);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        MediaType format = ResponseFormats.select(request.getHeader(HttpHeaders.ACCEPT));
+        TableVersion version = orderService.getOrdersVersion(after);
+        if (request.checkNotModified(version.etag("orders-" + after + "-" + limit + "-" + format))) {
+            return null;
+        }
+        List<Order> orders = after == null && limit == null
+                ? orderService.getAllOrders()
+                : orderService.getOrdersAfter(after, limit);
+        return format != null ? ResponseEntity.ok().contentType(format).body(orders) : ResponseEntity.ok(orders);
+    }
+
+    /**
+     * Streams all orders, one order at a time.
+     * Orders are written as they are read from the database, so memory use does not depend on the table size.
+     * The format follows the Accept header: a sequence of Smile documents for application/x-jackson-smile,
+     * of CBOR data items for application/cbor, and newline-delimited JSON otherwise.
+     *
+     * @param accept   The Accept header of the request (optional).
+     * @param response The HTTP response the orders are written to.
+     * @throws IOException If writing to the response fails.
+     */
+    @GetMapping(value = "/stream",
+            produces = {"application/x-ndjson", SerializationConfig.SMILE_VALUE, SerializationConfig.CBOR_VALUE})
+    public void streamAllOrders(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                HttpServletResponse response) throws IOException {
+        ObjectWriter writer;
+        String contentType;
+        if (accepts(accept, SerializationConfig.SMILE_VALUE)) {
+            writer = smileConverter.getObjectMapper().writer();
+            contentType = SerializationConfig.SMILE_VALUE;
+        } else if (accepts(accept, SerializationConfig.CBOR_VALUE)) {
+            writer = cborConverter.getObjectMapper().writer();
+            contentType = SerializationConfig.CBOR_VALUE;
+        } else {
+            writer = objectMapper.writer().withRootValueSeparator("\n");
+            contentType = "application/x-ndjson";
+        }
+        response.setContentType(contentType);
+        try (SequenceWriter sequence = writer
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValues(response.getOutputStream())) {
+            orderService.streamAllOrders(order -> {
+                try {
+                    sequence.write(order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     /**
      * Retrieves orders for a specific user.
+     * The orders are written from the per-user cache of pre-serialized JSON without serializing them again.
+     * The ETag is a hash of that JSON; a request whose If-None-Match names it gets 304 Not Modified.
      *
-     * @param userId The ID of the user whose orders need to be fetched.
-     * @return A list of orders associated with the given user.
+     * @param userId   The ID of the user whose orders need to be fetched.
+     * @param request  The HTTP request, checked for If-None-Match.
+     * @param response The HTTP response the JSON array of orders is written to.
+     * @throws IOException If writing to the response fails.
      */
-    @GetMapping("/user/{userId}")
-    public List<Order> getOrdersByUserId(@PathVariable Long userId) {
-        return orderService.getOrdersByUserId(userId);
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getOrdersByUserId(@PathVariable Long userId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        OrderHistory history = orderService.getOrderHistory(userId);
+        cacheControlPolicies.apply("user-orders", response);
+        response.setHeader(HttpHeaders.ETAG, history.etag());
+        if (EntityTags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), history.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        history.writeTo(response.getOutputStream());
     }
 
     /**
      * Creates a new order.
+     * Any intake key in the body is ignored; only the asynchronous intake assigns intake keys.
      *
      * @param order The order object containing details of the new order.
      * @return The newly created order.
      */
     @PostMapping
     public Order createOrder(@RequestBody Order order) {
+        if (order != null) {
+            order.setIntakeKey(null);
+        }
         return orderService.createOrder(order);
     }
 
+    /**
+     * Creates many orders in one request.
+     * Orders are saved in chunked transactions with batched inserts; every order gets its own result.
+     * Any intake keys in the body are ignored; only the asynchronous intake assigns intake keys.
+     *
+     * @param orders The orders to be created.
+     * @return One result per submitted order, in the submitted order.
+     */
+    @PostMapping("/batch")
+    public List<OrderBatchResult> createOrders(@RequestBody List<Order> orders) {
+        for (Order order : orders) {
+            if (order != null) {
+                order.setIntakeKey(null);
+            }
+        }
+        return orderService.createOrders(orders);
+    }
+
+    /**
+     * Submits an order for asynchronous creation.
+     * The order is validated and queued, and the request returns without waiting for the database.
+     *
+     * @param order          The order object containing details of the new order.
+     * @param idempotencyKey Optional client-chosen key; resubmitting with the same key never creates a second order.
+     * @return 202 with the intake key, or 400 if the order is invalid.
+     */
+    @PostMapping("/intake")
+    public ResponseEntity<OrderIntakeReceipt> submitOrder(@RequestBody Order order,
+                                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        OrderIntakeReceipt receipt = orderIntakeService.submit(order, idempotencyKey);
+        HttpStatus status = receipt.getOutcome() == OrderIntakeReceipt.Outcome.ACCEPTED
+                ? HttpStatus.ACCEPTED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(receipt);
+    }
+
+    /**
+     * Retrieves an order submitted through the asynchronous intake.
+     *
+     * @param intakeKey The intake key returned when the order was submitted.
+     * @return The order; 422 with a REJECTED receipt if the order was rejected when it was written,
+     *         such as for an unknown product or insufficient stock; 404 while it is still queued or if the key is unknown.
+     */
+    @GetMapping("/intake/{intakeKey}")
+    public ResponseEntity<?> getOrderByIntakeKey(@PathVariable String intakeKey) {
+        Optional<Order> order = orderIntakeService.getOrderByIntakeKey(intakeKey);
+        if (order.isPresent()) {
+            return ResponseEntity.ok(order.get());
+        }
+        return orderIntakeService.getRejection(intakeKey)
+                .<ResponseEntity<?>>map(rejection -> ResponseEntity.unprocessableEntity().body(new OrderIntakeReceipt(
+                        intakeKey, OrderIntakeReceipt.Outcome.REJECTED, rejection.getMessage())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Updates the status of an existing order.
      *
@@ -58,7 +233,48 @@ public class OrderController {
      * @return The updated order object.
      */
     @PutMapping("/{orderId}")
-    public Order updateOrderStatus(@PathVariable Long orderId, @RequestParam String status) {
+    public Order updateOrderStatus(@PathVariable Long orderId, @RequestParam OrderStatus status) {
         return orderService.updateOrderStatus(orderId, status);
     }
+
+    /**
+     * Changes the status of many orders in one request.
+     * The body either lists (orderId, status) pairs in updates, or selects orders with a filter and
+     * moves all of them to status. Listed changes are written in batched statements, one transaction per chunk;
+     * a filter is applied with a single set-based UPDATE.
+     *
+     * @param request The changes to apply.
+     * @return One result per change, or 400 if the body mixes or omits both modes.
+     */
+    @PatchMapping("/status")
+    public ResponseEntity<List<OrderStatusUpdateResult>> updateOrderStatuses(@RequestBody OrderStatusUpdateRequest request) {
+        OrderStatusUpdateRequest.Filter filter = request.getFilter();
+        if (request.getUpdates() != null && filter == null) {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(request.getUpdates()));
+        }
+        if (request.getUpdates() == null && filter != null && filter.getStatus() != null && request.getStatus() != null) {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(filter, request.getStatus()));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    /**
+     * Checks whether an Accept header names a media type explicitly; wildcards do not count.
+     *
+     * @param accept    The Accept header; may be null.
+     * @param mediaType The media type to look for.
+     * @return True if the header lists the media type.
+     */
+    private static boolean accepts(String accept, String mediaType) {
+        if (accept == null) {
+            return false;
+        }
+        MediaType wanted = MediaType.parseMediaType(mediaType);
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (!type.isWildcardType() && !type.isWildcardSubtype() && type.includes(wanted)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,18 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.model.OrderStatus;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts request parameters such as ?status=Shipped to an OrderStatus, ignoring case.
+ * Unknown values fail the conversion, which Spring MVC answers with 400.
+ */
+@Component
+public class OrderStatusConverter implements Converter<String, OrderStatus> {
+
+    @Override
+    public OrderStatus convert(String source) {
+        return OrderStatus.parse(source);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.model.Order;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after a new order has been saved.
+ * Lets in-memory structures derived from orders update themselves incrementally.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderCreatedEvent {
+
+    // The newly saved order, including its generated ID and items
+    private final Order order;
+}
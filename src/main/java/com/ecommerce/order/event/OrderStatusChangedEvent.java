@@ -0,0 +1,26 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published when an order has moved to a new status.
+ * Carries just enough to patch derived copies of the order without reloading it.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderStatusChangedEvent {
+
+    // The ID of the changed order
+    private final Long orderId;
+
+    // The ID of the user who placed the order
+    private final Long userId;
+
+    // The order's new status
+    private final OrderStatus status;
+
+    // The order's version after the change
+    private final Long version;
+}
@@ -0,0 +1,539 @@
+package com.ecommerce.order.eventlog;
+
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only audit log of order lifecycle events: orders created, their items, and status changes.
+ * Events are handed to a bounded queue, so request threads never touch the disk; a dedicated writer thread
+ * stamps each with a sequence number and time and copies it as a fixed-size {@link OrderLogRecord} into a
+ * memory-mapped segment file. Everything written since the last sync is forced to disk together at most once
+ * per sync interval (group commit), so one fsync covers many events. Segments are named after their first
+ * sequence number and roll over when full or when a new time bucket starts, so a time range maps to a few files.
+ * Replays read the mapped segments in place. Events still queued, or written but not yet synced, are lost
+ * on a crash; the log is recovered up to its last complete record on startup.
+ * Enabled with orders.event-log.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.event-log.enabled", havingValue = "true")
+public class OrderEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventLog.class);
+
+    // Suffix of segment files; the name before it is the zero-padded first sequence number
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // Events the writer takes from the queue at once
+    private static final int MAX_BATCH = 4096;
+
+    // Directory holding the segment files, injected from application properties
+    @Value("${orders.event-log.directory:data/order-events}")
+    private String directory;
+
+    // Records per segment file, injected from application properties
+    @Value("${orders.event-log.segment-records:1048576}")
+    private int segmentRecords;
+
+    // Minutes covered by one time bucket; a segment never spans two buckets, injected from application properties
+    @Value("${orders.event-log.bucket-minutes:60}")
+    private long bucketMinutes;
+
+    // Maximum time written events wait to be forced to disk, injected from application properties
+    @Value("${orders.event-log.sync-interval-ms:10}")
+    private long syncIntervalMs;
+
+    // Events that may wait for the writer; appends block when it is full, injected from application properties
+    @Value("${orders.event-log.queue-capacity:65536}")
+    private int queueCapacity;
+
+    // Events waiting for the writer
+    private BlockingQueue<OrderLogEvent> queue;
+
+    // All segment files in sequence order, for replays; the last one is being written
+    private final List<SegmentFile> segments = new CopyOnWriteArrayList<>();
+
+    // Highest sequence number completely written; replays stop there
+    private volatile long written;
+
+    // Events handed to append so far
+    private final AtomicLong appended = new AtomicLong();
+
+    // Events taken from the queue so far; writer thread only
+    private long processed;
+
+    // Events taken from the queue and forced to disk so far
+    private volatile long synced;
+
+    // Lets sync() wait for the writer; a lock rather than synchronized so waiting virtual threads are not pinned
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncedCondition = syncLock.newCondition();
+
+    // Segment being written; writer thread only
+    private Segment active;
+
+    // Sequence number of the next record and time of the last one; writer thread only
+    private long nextSequence;
+    private long lastTimestamp;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Recovers the log from the segment files and starts the writer thread.
+     */
+    @PostConstruct
+    public void open() {
+        try {
+            Path dir = Path.of(directory);
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .map(SegmentFile::of)
+                        .sorted((a, b) -> Long.compare(a.firstSequence(), b.firstSequence()))
+                        .forEach(segments::add);
+            }
+            nextSequence = 1;
+            if (!segments.isEmpty()) {
+                SegmentFile last = segments.get(segments.size() - 1);
+                active = Segment.recover(last);
+                nextSequence = last.firstSequence() + active.count;
+                lastTimestamp = active.lastTimestamp;
+            }
+            written = nextSequence - 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the order event log in " + directory, e);
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::run, "order-event-log");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Opened order event log in {} at sequence {}", directory, nextSequence);
+    }
+
+    /**
+     * Stops the writer after it has written and synced all queued events.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Logs a newly placed order and its items.
+     *
+     * @param event The event carrying the saved order.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        Order order = event.getOrder();
+        if (order.getId() == null) {
+            return;
+        }
+        append(OrderLogEvent.created(order));
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                append(OrderLogEvent.item(order.getId(), item));
+            }
+        }
+    }
+
+    /**
+     * Logs a status change once it is committed.
+     *
+     * @param event The event describing the status change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getOrderId() != null && event.getStatus() != null) {
+            append(OrderLogEvent.statusChanged(event));
+        }
+    }
+
+    /**
+     * Queues an event for the writer. Returns at once unless the writer is a full queue behind.
+     *
+     * @param event The event to log.
+     */
+    public void append(OrderLogEvent event) {
+        try {
+            queue.put(event);
+            appended.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while logging {} of order {}; the event is not logged", event.getType(), event.getOrderId());
+        }
+    }
+
+    /**
+     * Waits until every event appended before this call is written and forced to disk.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return Whether the events were synced within the timeout.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean sync(long timeout, TimeUnit unit) throws InterruptedException {
+        long target = appended.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        syncLock.lock();
+        try {
+            while (synced < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                syncedCondition.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last written record.
+     *
+     * @return The sequence number, or 0 for an empty log.
+     */
+    public long lastSequence() {
+        return written;
+    }
+
+    /**
+     * Replays the log from a sequence number, in order, up to the last record written when the replay started.
+     * The consumer receives the same view object for every record, pointing into the mapped segment.
+     *
+     * @param fromSequence The first sequence number to replay; 1 or less for the whole log.
+     * @param consumer     The callback receiving each record; must not keep the view beyond the call.
+     * @return The number of records replayed.
+     */
+    public long replay(long fromSequence, Consumer<OrderLogRecord> consumer) {
+        long last = written;
+        List<SegmentFile> files = List.copyOf(segments);
+        OrderLogRecord record = new OrderLogRecord();
+        long replayed = 0;
+        for (int i = 0; i < files.size(); i++) {
+            SegmentFile file = files.get(i);
+            long end = i + 1 < files.size() ? files.get(i + 1).firstSequence() : last + 1;
+            if (end <= fromSequence) {
+                continue;
+            }
+            // Sequence numbers within a segment are contiguous, so the first record to replay is found directly
+            ByteBuffer buffer = file.mapReadOnly();
+            long first = Math.max(fromSequence, file.firstSequence());
+            for (long sequence = first; sequence < end && sequence <= last; sequence++) {
+                long position = (sequence - file.firstSequence()) * OrderLogRecord.SIZE;
+                if (position + OrderLogRecord.SIZE > buffer.capacity()) {
+                    break;
+                }
+                record.wrap(buffer, (int) position);
+                if (!record.isValid() || record.sequence() != sequence) {
+                    break;
+                }
+                consumer.accept(record);
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Replays the records logged at or after a point in time.
+     * Timestamps never decrease, so the segment holding that time is found by a binary search over the
+     * segments' first records and the first record to replay by a binary search within that segment;
+     * the log is then read once from there, and earlier records are skipped unread.
+     *
+     * @param from     The earliest time to replay.
+     * @param consumer The callback receiving each record; must not keep the view beyond the call.
+     * @return The number of records replayed.
+     */
+    public long replay(Instant from, Consumer<OrderLogRecord> consumer) {
+        long fromMillis = from.toEpochMilli();
+        long last = written;
+        List<SegmentFile> files = List.copyOf(segments);
+        if (files.isEmpty()) {
+            return 0;
+        }
+        OrderLogRecord record = new OrderLogRecord();
+        // Last segment whose first record is before the requested time; the first segment if there is none.
+        // Strictly before: when a roll happens within one millisecond, the earlier segment also holds records at that time
+        int low = 1;
+        int high = files.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            ByteBuffer buffer = files.get(mid).mapReadOnly();
+            record.wrap(buffer, 0);
+            if (buffer.capacity() >= OrderLogRecord.SIZE && record.isValid() && record.timestamp() < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int start = low - 1;
+
+        // First record of that segment logged at or after the requested time
+        SegmentFile file = files.get(start);
+        ByteBuffer buffer = file.mapReadOnly();
+        long end = start + 1 < files.size() ? files.get(start + 1).firstSequence() : last + 1;
+        long first = 0;
+        long count = Math.min(end - file.firstSequence(), buffer.capacity() / OrderLogRecord.SIZE);
+        while (first < count) {
+            long mid = (first + count) >>> 1;
+            record.wrap(buffer, (int) (mid * OrderLogRecord.SIZE));
+            if (record.isValid() && record.sequence() == file.firstSequence() + mid && record.timestamp() < fromMillis) {
+                first = mid + 1;
+            } else {
+                count = mid;
+            }
+        }
+        return replay(file.firstSequence() + first, consumer);
+    }
+
+    /**
+     * Writer loop: takes batches of events from the queue, writes them and forces them to disk at most
+     * once per sync interval, or as soon as the queue runs empty.
+     */
+    private void run() {
+        List<OrderLogEvent> batch = new ArrayList<>(MAX_BATCH);
+        CRC32C crc = new CRC32C();
+        long syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMs);
+        long lastSync = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            OrderLogEvent event;
+            try {
+                event = queue.poll(syncIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                event = null;
+            }
+            if (event != null) {
+                batch.add(event);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (OrderLogEvent next : batch) {
+                    write(next, crc);
+                }
+                processed += batch.size();
+                batch.clear();
+            }
+            if (processed > synced && (event == null || System.nanoTime() - lastSync >= syncIntervalNanos)) {
+                sync();
+                lastSync = System.nanoTime();
+            }
+        }
+        sync();
+    }
+
+    /**
+     * Writes one event as the next record, rolling over to a new segment when needed.
+     */
+    private void write(OrderLogEvent event, CRC32C crc) {
+        long now = Math.max(lastTimestamp, System.currentTimeMillis());
+        long bucket = now / TimeUnit.MINUTES.toMillis(bucketMinutes);
+        try {
+            if (active == null || active.isFull() || (active.count > 0 && active.bucket != bucket)) {
+                roll();
+            }
+            active.append(nextSequence, now, bucket, event, crc);
+        } catch (IOException | RuntimeException e) {
+            log.error("Cannot write {} of order {} to the order event log", event.getType(), event.getOrderId(), e);
+            return;
+        }
+        written = nextSequence++;
+        lastTimestamp = now;
+    }
+
+    /**
+     * Forces the current segment and starts a new one at the next sequence number.
+     */
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        SegmentFile file = SegmentFile.of(Path.of(directory), nextSequence);
+        active = Segment.create(file, segmentRecords);
+        segments.add(file);
+    }
+
+    /**
+     * Forces everything written to disk and wakes up threads waiting in sync().
+     */
+    private void sync() {
+        try {
+            if (active != null) {
+                active.force();
+            }
+        } catch (RuntimeException e) {
+            log.error("Cannot sync the order event log", e);
+        }
+        syncLock.lock();
+        try {
+            synced = processed;
+            syncedCondition.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * A segment file and the sequence number of its first record.
+     *
+     * @param path          The file.
+     * @param firstSequence The sequence number of the first record.
+     */
+    private record SegmentFile(Path path, long firstSequence) {
+
+        static SegmentFile of(Path directory, long firstSequence) {
+            return new SegmentFile(directory.resolve(String.format("%019d%s", firstSequence, SEGMENT_SUFFIX)), firstSequence);
+        }
+
+        static SegmentFile of(Path path) {
+            String name = path.getFileName().toString();
+            return new SegmentFile(path, Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+        }
+
+        /**
+         * Maps the whole file read-only; the mapping stays valid after the channel is closed.
+         */
+        ByteBuffer mapReadOnly() {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read order event log segment " + path, e);
+            }
+        }
+    }
+
+    /**
+     * The segment being written: a read-write mapping of the file, the records written so far,
+     * and the part written since the last force.
+     */
+    private static final class Segment {
+
+        private final MappedByteBuffer buffer;
+        private final ByteBuffer window; // Duplicate of buffer used for checksums
+        private final int capacity; // Records the file can hold
+        private int count; // Records written
+        private int dirtyFrom; // Offset of the first byte not yet forced
+        private long bucket = -1; // Time bucket of the records; -1 while empty
+        private long lastTimestamp; // Time of the last record
+
+        private Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+            this.window = buffer.duplicate();
+            this.capacity = buffer.capacity() / OrderLogRecord.SIZE;
+        }
+
+        /**
+         * Creates a new, zero-filled segment file.
+         */
+        static Segment create(SegmentFile file, int records) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * OrderLogRecord.SIZE));
+            }
+        }
+
+        /**
+         * Opens an existing segment file and finds the end of its complete records.
+         */
+        static Segment recover(SegmentFile file) throws IOException {
+            Segment segment;
+            try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            }
+            OrderLogRecord record = new OrderLogRecord();
+            while (segment.count < segment.capacity) {
+                record.wrap(segment.buffer, segment.count * OrderLogRecord.SIZE);
+                if (!record.isValid() || record.sequence() != file.firstSequence() + segment.count) {
+                    break;
+                }
+                segment.lastTimestamp = record.timestamp();
+                segment.count++;
+            }
+            // Clear records written past a torn one before the crash, so a later recovery cannot pick them up
+            int end = segment.count * OrderLogRecord.SIZE;
+            for (int slot = segment.count; slot < segment.capacity; slot++) {
+                int offset = slot * OrderLogRecord.SIZE;
+                boolean blank = true;
+                for (int i = 0; i < OrderLogRecord.SIZE; i += Long.BYTES) {
+                    if (segment.buffer.getLong(offset + i) != 0L) {
+                        segment.buffer.putLong(offset + i, 0L);
+                        blank = false;
+                    }
+                }
+                if (blank) {
+                    break;
+                }
+                end = offset + OrderLogRecord.SIZE;
+            }
+            if (end > segment.count * OrderLogRecord.SIZE) {
+                segment.buffer.force(segment.count * OrderLogRecord.SIZE, end - segment.count * OrderLogRecord.SIZE);
+            }
+            segment.dirtyFrom = segment.count * OrderLogRecord.SIZE;
+            return segment;
+        }
+
+        boolean isFull() {
+            return count == capacity;
+        }
+
+        void append(long sequence, long timestamp, long recordBucket, OrderLogEvent event, CRC32C crc) {
+            OrderLogRecord.write(buffer, window, count * OrderLogRecord.SIZE, sequence, timestamp, event, crc);
+            count++;
+            bucket = recordBucket;
+            lastTimestamp = timestamp;
+        }
+
+        /**
+         * Forces the records written since the last force to disk.
+         */
+        void force() {
+            int end = count * OrderLogRecord.SIZE;
+            if (end > dirtyFrom) {
+                buffer.force(dirtyFrom, end - dirtyFrom);
+                dirtyFrom = end;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.order.eventlog;
+
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An order lifecycle event waiting to be written to the order event log.
+ * Fields that do not apply to the event's type are 0 or null.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderLogEvent {
+
+    // The kind of event
+    private final OrderLogEventType type;
+
+    // The ID of the order
+    private final long orderId;
+
+    // The ID of the user who placed the order; CREATED and STATUS_CHANGED
+    private final long userId;
+
+    // The ID of the ordered product; ITEM
+    private final long productId;
+
+    // The order's status: PENDING for CREATED, the new status for STATUS_CHANGED
+    private final OrderStatus status;
+
+    // Units of the product for ITEM, number of items for CREATED
+    private final int quantity;
+
+    // Unit price for ITEM, order total for CREATED, in cents
+    private final long amountCents;
+
+    // The order's version after a STATUS_CHANGED
+    private final long version;
+
+    /**
+     * Creates the event for a newly placed order; its items are logged as separate ITEM events.
+     *
+     * @param order The saved order.
+     * @return The event.
+     */
+    public static OrderLogEvent created(Order order) {
+        return new OrderLogEvent(OrderLogEventType.CREATED, order.getId(), orZero(order.getUserId()), 0L,
+                order.getStatus(), order.getOrderItems() != null ? order.getOrderItems().size() : 0,
+                orZero(order.getTotalCents()), 0L);
+    }
+
+    /**
+     * Creates the event for one item of a newly placed order.
+     *
+     * @param orderId The ID of the order.
+     * @param item    The item.
+     * @return The event.
+     */
+    public static OrderLogEvent item(long orderId, OrderItem item) {
+        return new OrderLogEvent(OrderLogEventType.ITEM, orderId, 0L, orZero(item.getProductId()), null,
+                item.getQuantity(), orZero(item.getUnitPriceCents()), 0L);
+    }
+
+    /**
+     * Creates the event for a status change.
+     *
+     * @param event The application event describing the change.
+     * @return The event.
+     */
+    public static OrderLogEvent statusChanged(OrderStatusChangedEvent event) {
+        return new OrderLogEvent(OrderLogEventType.STATUS_CHANGED, event.getOrderId(), orZero(event.getUserId()), 0L,
+                event.getStatus(), 0, 0L, orZero(event.getVersion()));
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.order.eventlog;
+
+/**
+ * Kinds of records in the order event log.
+ * Stored as a one-byte code; 0 never occurs in a written record, so an unwritten slot is never mistaken for one.
+ */
+public enum OrderLogEventType {
+    // An order was placed; carries the user, the order total and the number of items
+    CREATED,
+    // An order moved to a new status; carries the user, the new status and the order's version
+    STATUS_CHANGED,
+    // One item of a placed order; carries the product, the quantity and the unit price
+    ITEM;
+
+    private static final OrderLogEventType[] BY_CODE = values();
+
+    /**
+     * Returns the code stored in a record.
+     *
+     * @return The code, at least 1.
+     */
+    public byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * Looks up a type by its stored code.
+     *
+     * @param code The stored code.
+     * @return The type, or null if the code is not a known type.
+     */
+    public static OrderLogEventType fromCode(byte code) {
+        return code >= 1 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+    }
+}
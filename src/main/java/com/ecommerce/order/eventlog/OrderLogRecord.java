@@ -0,0 +1,198 @@
+package com.ecommerce.order.eventlog;
+
+import com.ecommerce.order.model.OrderStatus;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size binary record of the order event log, and a reusable view over one record in a mapped segment.
+ * A view reads its fields straight from the mapped file, so replaying the log copies and allocates nothing
+ * per record; a consumer that keeps a record beyond its callback must copy it with {@link #toEvent()}.
+ * <pre>
+ *  0 long sequence      8 long timestamp     16 long orderId
+ * 24 long userId (productId for ITEM)        32 long amountCents     40 long version
+ * 48 int quantity      52 byte type         53 byte status (ordinal + 1, 0 for none)
+ * 54 reserved (zero)   60 int CRC32C of bytes 0 to 59
+ * </pre>
+ * All values are little-endian. An unwritten or torn slot fails the checksum, which marks the end of a segment.
+ */
+public final class OrderLogRecord {
+
+    // Bytes per record; a record never straddles a cache line
+    public static final int SIZE = 64;
+
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int ORDER_ID = 16;
+    private static final int SUBJECT_ID = 24;
+    private static final int AMOUNT = 32;
+    private static final int VERSION = 40;
+    private static final int QUANTITY = 48;
+    private static final int TYPE = 52;
+    private static final int STATUS = 53;
+    private static final int CHECKSUM = 60;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer; // Little-endian buffer holding the record
+    private ByteBuffer window; // Duplicate of buffer whose position and limit select the checksummed bytes
+    private int offset; // Offset of the record in buffer
+
+    /**
+     * Points this view at a record.
+     *
+     * @param buffer A little-endian buffer, typically a mapped segment.
+     * @param offset The offset of the record.
+     */
+    void wrap(ByteBuffer buffer, int offset) {
+        if (this.buffer != buffer) {
+            this.buffer = buffer;
+            this.window = buffer.duplicate();
+        }
+        this.offset = offset;
+    }
+
+    /**
+     * Writes a record and its checksum.
+     *
+     * @param buffer    A little-endian buffer, typically a mapped segment.
+     * @param window    A duplicate of the buffer used for the checksum; its position and limit are changed.
+     * @param offset    The offset of the record.
+     * @param sequence  The record's sequence number.
+     * @param timestamp The time the event was logged, in epoch milliseconds.
+     * @param event     The event.
+     * @param crc       The checksum calculator to use.
+     */
+    static void write(ByteBuffer buffer, ByteBuffer window, int offset, long sequence, long timestamp,
+                      OrderLogEvent event, CRC32C crc) {
+        OrderLogEventType type = event.getType();
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putLong(offset + ORDER_ID, event.getOrderId());
+        buffer.putLong(offset + SUBJECT_ID, type == OrderLogEventType.ITEM ? event.getProductId() : event.getUserId());
+        buffer.putLong(offset + AMOUNT, event.getAmountCents());
+        buffer.putLong(offset + VERSION, event.getVersion());
+        buffer.putInt(offset + QUANTITY, event.getQuantity());
+        buffer.put(offset + TYPE, type.code());
+        buffer.put(offset + STATUS, event.getStatus() != null ? (byte) (event.getStatus().ordinal() + 1) : 0);
+        buffer.putInt(offset + CHECKSUM, checksum(window, offset, crc));
+    }
+
+    /**
+     * Tells whether the view points at a completely written record.
+     *
+     * @return Whether the record has a known type and a matching checksum.
+     */
+    public boolean isValid() {
+        return type() != null && buffer.getInt(offset + CHECKSUM) == checksum(window, offset, crc);
+    }
+
+    /**
+     * Returns the record's position in the log, starting at 1 and without gaps.
+     *
+     * @return The sequence number.
+     */
+    public long sequence() {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    /**
+     * Returns the time the event was logged; never decreases along the log.
+     *
+     * @return The time in epoch milliseconds.
+     */
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    /**
+     * Returns the kind of event.
+     *
+     * @return The type, or null for an unwritten slot.
+     */
+    public OrderLogEventType type() {
+        return OrderLogEventType.fromCode(buffer.get(offset + TYPE));
+    }
+
+    /**
+     * Returns the ID of the order.
+     *
+     * @return The order ID.
+     */
+    public long orderId() {
+        return buffer.getLong(offset + ORDER_ID);
+    }
+
+    /**
+     * Returns the ID of the user who placed the order.
+     *
+     * @return The user ID, or 0 for ITEM records.
+     */
+    public long userId() {
+        return type() == OrderLogEventType.ITEM ? 0L : buffer.getLong(offset + SUBJECT_ID);
+    }
+
+    /**
+     * Returns the ID of the ordered product.
+     *
+     * @return The product ID, or 0 for records other than ITEM.
+     */
+    public long productId() {
+        return type() == OrderLogEventType.ITEM ? buffer.getLong(offset + SUBJECT_ID) : 0L;
+    }
+
+    /**
+     * Returns the order's status.
+     *
+     * @return The status, or null for ITEM records.
+     */
+    public OrderStatus status() {
+        int code = buffer.get(offset + STATUS);
+        return code >= 1 && code <= STATUSES.length ? STATUSES[code - 1] : null;
+    }
+
+    /**
+     * Returns the units of an ITEM or the number of items of a CREATED record.
+     *
+     * @return The quantity.
+     */
+    public int quantity() {
+        return buffer.getInt(offset + QUANTITY);
+    }
+
+    /**
+     * Returns the unit price of an ITEM or the order total of a CREATED record.
+     *
+     * @return The amount in cents.
+     */
+    public long amountCents() {
+        return buffer.getLong(offset + AMOUNT);
+    }
+
+    /**
+     * Returns the order's version after a STATUS_CHANGED record.
+     *
+     * @return The version, or 0 for other records.
+     */
+    public long version() {
+        return buffer.getLong(offset + VERSION);
+    }
+
+    /**
+     * Copies the record to the heap, for consumers that keep it beyond the replay callback.
+     *
+     * @return The event the record was written from.
+     */
+    public OrderLogEvent toEvent() {
+        return new OrderLogEvent(type(), orderId(), userId(), productId(), status(), quantity(), amountCents(), version());
+    }
+
+    private static int checksum(ByteBuffer window, int offset, CRC32C crc) {
+        window.limit(offset + CHECKSUM).position(offset);
+        crc.reset();
+        crc.update(window);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.order.history;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Immutable, pre-serialized order history of one user: the JSON of each order, sorted by order ID.
+ * Changes create a new history that shares the JSON of all unchanged orders, so appending or
+ * patching one order never re-serializes the others.
+ */
+public final class OrderHistory {
+
+    // History of a user without orders
+    public static final OrderHistory EMPTY = new OrderHistory(new long[0], new byte[0][]);
+
+    // Rough per-entry and per-history bookkeeping cost, added to the JSON size when weighing
+    private static final int ENTRY_OVERHEAD = 24;
+    private static final int HISTORY_OVERHEAD = 64;
+
+    private final long[] orderIds; // Ascending order IDs
+    private final byte[][] orders; // UTF-8 JSON of the order at the same position
+    private final int weight; // Approximate memory footprint in bytes
+    private String etag; // Content hash, computed on first use; racy but idempotent
+
+    private OrderHistory(long[] orderIds, byte[][] orders) {
+        this.orderIds = orderIds;
+        this.orders = orders;
+        int bytes = HISTORY_OVERHEAD;
+        for (byte[] order : orders) {
+            bytes += order.length + ENTRY_OVERHEAD;
+        }
+        this.weight = bytes;
+    }
+
+    /**
+     * Returns a history with an order added, or replaced if the history already contains it.
+     *
+     * @param orderId The ID of the order.
+     * @param json    The UTF-8 JSON of the order.
+     * @return The new history.
+     */
+    public OrderHistory with(long orderId, byte[] json) {
+        int pos = Arrays.binarySearch(orderIds, orderId);
+        if (pos >= 0) {
+            byte[][] replaced = orders.clone();
+            replaced[pos] = json;
+            return new OrderHistory(orderIds, replaced);
+        }
+        int at = -pos - 1;
+        long[] ids = new long[orderIds.length + 1];
+        byte[][] jsons = new byte[orders.length + 1][];
+        System.arraycopy(orderIds, 0, ids, 0, at);
+        System.arraycopy(orders, 0, jsons, 0, at);
+        ids[at] = orderId;
+        jsons[at] = json;
+        System.arraycopy(orderIds, at, ids, at + 1, orderIds.length - at);
+        System.arraycopy(orders, at, jsons, at + 1, orders.length - at);
+        return new OrderHistory(ids, jsons);
+    }
+
+    /**
+     * Returns the JSON of one order.
+     *
+     * @param orderId The ID of the order.
+     * @return The UTF-8 JSON, or null if the history does not contain the order.
+     */
+    public byte[] get(long orderId) {
+        int pos = Arrays.binarySearch(orderIds, orderId);
+        return pos >= 0 ? orders[pos] : null;
+    }
+
+    /**
+     * Number of orders in the history.
+     *
+     * @return The order count.
+     */
+    public int size() {
+        return orderIds.length;
+    }
+
+    /**
+     * Approximate memory footprint, used to bound the cache by bytes.
+     *
+     * @return The weight in bytes.
+     */
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * Strong entity tag derived from the content: a CRC-32C over every order's JSON together with
+     * the order count and total length. Computed once per history, so revalidating an unchanged
+     * history costs a header comparison.
+     *
+     * @return The quoted entity tag.
+     */
+    public String etag() {
+        String tag = etag;
+        if (tag == null) {
+            CRC32C crc = new CRC32C();
+            long length = 0;
+            for (byte[] order : orders) {
+                crc.update(order);
+                crc.update(',');
+                length += order.length;
+            }
+            tag = "\"" + orders.length + "-" + length + "-" + Long.toHexString(crc.getValue()) + "\"";
+            etag = tag;
+        }
+        return tag;
+    }
+
+    /**
+     * Writes the history as a JSON array without copying the cached bytes.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < orders.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(orders[i]);
+        }
+        out.write(']');
+    }
+}
@@ -0,0 +1,209 @@
+package com.ecommerce.order.history;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-user cache of pre-serialized order histories, bounded by total bytes.
+ * A miss loads the user's orders with their items in one query and serializes each order once.
+ * Afterwards the entry is kept current without reloading: new orders are appended and status
+ * changes are patched into the cached JSON of the affected order, once the change is committed.
+ */
+@Component
+public class OrderHistoryCache {
+
+    // Number of lock stripes; loads and updates of users in the same stripe are serialized
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private OrderRepository orderRepository; // Loads histories on a cache miss
+
+    @Autowired
+    private ObjectMapper objectMapper; // Serializes orders the same way the controllers do
+
+    @Autowired
+    private CacheManager cacheManager; // Provides the configured, metered order history cache
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Receives the memory footprint gauge
+
+    private Cache<Object, Object> cache;
+
+    // Orders a load against concurrent appends and patches of the same user. Locks rather than
+    // Caffeine's compute, so virtual threads waiting on the database are not pinned.
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * Looks up the native cache and registers its weighted size as a gauge.
+     */
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        cache = ((CaffeineCache) cacheManager.getCache(CacheConfig.ORDER_HISTORY_CACHE)).getNativeCache();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Gauge.builder("cache.weighted.size", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", CacheConfig.ORDER_HISTORY_CACHE)
+                .baseUnit("bytes")
+                .description("Approximate memory held by the cached order histories")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the order history of a user, loading and caching it on a miss.
+     *
+     * @param userId The ID of the user.
+     * @return The user's orders as pre-serialized JSON.
+     */
+    public OrderHistory get(Long userId) {
+        OrderHistory history = (OrderHistory) cache.getIfPresent(userId);
+        if (history != null) {
+            return history;
+        }
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            history = (OrderHistory) cache.asMap().get(userId);
+            if (history == null) {
+                history = load(userId);
+                cache.put(userId, history);
+            }
+            return history;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a newly created order to its user's cached history, if the user is cached.
+     *
+     * @param event The event carrying the saved order.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        Order order = event.getOrder();
+        if (order.getId() == null || order.getUserId() == null) {
+            return;
+        }
+        byte[] json = serialize(order);
+        update(order.getUserId(), history -> history.with(order.getId(), json));
+    }
+
+    /**
+     * Patches the status and version of an order in its user's cached history, if the user is cached.
+     * Events can arrive out of order, and a history loaded meanwhile may already hold a newer row,
+     * so an event not newer than the cached version is ignored.
+     *
+     * @param event The event describing the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        long orderId = event.getOrderId();
+        update(event.getUserId(), history -> {
+            byte[] json = history.get(orderId);
+            byte[] patched = json == null ? null : patch(json, event);
+            return patched == null || patched == json ? history : history.with(orderId, patched);
+        });
+    }
+
+    /**
+     * Removes a user's cached history, so the next read reloads it.
+     *
+     * @param userId The ID of the user.
+     */
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Applies a change to a cached history under the user's lock; users that are not cached are skipped.
+     */
+    private void update(Long userId, UnaryOperator<OrderHistory> change) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            OrderHistory history = (OrderHistory) cache.asMap().get(userId);
+            if (history != null) {
+                // Re-inserting lets the cache re-weigh the entry
+                cache.put(userId, change.apply(history));
+            }
+        } catch (RuntimeException e) {
+            cache.invalidate(userId);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads and serializes all orders of a user.
+     */
+    private OrderHistory load(Long userId) {
+        List<Order> orders = orderRepository.findWithItemsByUserId(userId);
+        OrderHistory history = OrderHistory.EMPTY;
+        for (Order order : orders) {
+            history = history.with(order.getId(), serialize(order));
+        }
+        return history;
+    }
+
+    /**
+     * Rewrites the status and version fields of a cached order.
+     *
+     * @return The patched JSON, or the given JSON if the cached order is at least as new as the event.
+     */
+    private byte[] patch(byte[] json, OrderStatusChangedEvent event) {
+        try {
+            ObjectNode node = (ObjectNode) objectMapper.readTree(json);
+            JsonNode cachedVersion = node.get("version");
+            if (event.getVersion() != null && cachedVersion != null && cachedVersion.isNumber()
+                    && cachedVersion.asLong() >= event.getVersion()) {
+                return json;
+            }
+            node.put("status", event.getStatus().name());
+            node.put("version", event.getVersion());
+            return objectMapper.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] serialize(Order order) {
+        try {
+            return objectMapper.writeValueAsBytes(order);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Order intake queue backed by a RabbitMQ queue.
+ * Publishing waits for the broker's confirm, so an acknowledged order survives a restart of this service.
+ * The listener receives batches of messages and only acknowledges them after they have been written;
+ * a failed batch is requeued and delivered again, until the writer has written or rejected every order in it.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.intake.broker", havingValue = "amqp")
+public class AmqpOrderIntakeQueue implements OrderIntakeQueue {
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate; // Publishes orders as JSON messages
+
+    @Autowired
+    private OrderIntakeWriter writer; // Persists received batches
+
+    // Name of the durable queue, injected from application properties
+    @Value("${orders.intake.queue:order-intake}")
+    private String queueName;
+
+    // How long publishing waits for the broker to confirm a message, injected from application properties
+    @Value("${orders.intake.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMillis;
+
+    @Override
+    public void publish(Order order) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                operations.convertAndSend(queueName, order);
+                operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw new OrderIntakeUnavailableException("Order intake broker did not confirm the order: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Receives a batch of queued orders and writes them.
+     *
+     * @param orders The orders in the batch.
+     */
+    @RabbitListener(queues = "${orders.intake.queue:order-intake}", containerFactory = "orderIntakeListenerFactory")
+    public void receive(List<Order> orders) {
+        writer.write(orders);
+    }
+}
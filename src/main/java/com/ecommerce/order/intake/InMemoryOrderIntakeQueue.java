@@ -0,0 +1,127 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for a message broker, used for tests, local runs and single-instance deployments.
+ * A bounded queue absorbs bursts; a single consumer thread drains it in batches and retries a failed
+ * batch until the writer has written or rejected every order in it, which gives at-least-once delivery
+ * while the process is running. The writer caps the attempts per order, so a failing order cannot block the queue.
+ * Orders still queued when the process stops are lost, so use the AMQP broker where that matters.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.intake.broker", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryOrderIntakeQueue implements OrderIntakeQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryOrderIntakeQueue.class);
+
+    // How long the consumer waits for the first order of a batch before checking for shutdown
+    private static final long POLL_MILLIS = 100;
+
+    // Pause before a failed batch is written again
+    private static final long RETRY_MILLIS = 1000;
+
+    @Autowired
+    private OrderIntakeWriter writer; // Persists drained batches
+
+    // Maximum number of orders written per batch, injected from application properties
+    @Value("${orders.intake.batch-size:200}")
+    private int batchSize;
+
+    // Maximum number of orders waiting to be written, injected from application properties
+    @Value("${orders.intake.capacity:100000}")
+    private int capacity;
+
+    private BlockingQueue<Order> queue;
+    private Thread consumer;
+    private volatile boolean running;
+
+    /**
+     * Creates the queue and starts the consumer thread.
+     */
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(capacity);
+        running = true;
+        consumer = new Thread(this::drain, "order-intake");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Stops accepting orders and gives the consumer a few seconds to write what is queued.
+     *
+     * @throws InterruptedException If interrupted while waiting for the consumer.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void publish(Order order) {
+        if (!running || !queue.offer(order)) {
+            throw new OrderIntakeUnavailableException("Order intake queue is full");
+        }
+    }
+
+    /**
+     * Number of orders waiting to be written.
+     *
+     * @return The current queue length.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Consumer loop: takes up to batchSize orders and writes them, retrying the same batch on failure.
+     */
+    private void drain() {
+        List<Order> batch = new ArrayList<>(batchSize);
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Order first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                writer.write(batch);
+                batch = new ArrayList<>(batchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Dropping {} queued orders during shutdown", batch.size() + queue.size(), e);
+                    return;
+                }
+                log.warn("Writing {} queued orders failed, retrying", batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+
+/**
+ * Queue between the asynchronous order intake and the consumer that persists orders in batches.
+ * Implementations deliver every published order at least once to OrderIntakeWriter.
+ */
+public interface OrderIntakeQueue {
+
+    /**
+     * Publishes an accepted order for asynchronous persistence.
+     * Returns only once the queue has taken responsibility for the order.
+     *
+     * @param order The validated order, carrying its intake key.
+     * @throws OrderIntakeUnavailableException If the queue cannot accept the order.
+     */
+    void publish(Order order);
+}
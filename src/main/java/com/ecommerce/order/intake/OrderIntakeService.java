@@ -0,0 +1,95 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderIntakeReceipt;
+import com.ecommerce.order.model.OrderIntakeRejection;
+import com.ecommerce.order.repository.OrderIntakeRejectionRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service class for the asynchronous order intake.
+ * Validates a submitted order, tags it with an idempotency key and hands it to the intake queue,
+ * so the caller is acknowledged without waiting for the database commit.
+ */
+@Service
+public class OrderIntakeService {
+
+    // Longest idempotency key accepted, matching the intake_key column
+    private static final int MAX_KEY_LENGTH = 64;
+
+    @Autowired
+    private OrderService orderService; // Shared order validation
+
+    @Autowired
+    private OrderRepository orderRepository; // Used to recognize keys that were already persisted
+
+    @Autowired
+    private OrderIntakeRejectionRepository rejectionRepository; // Orders rejected after they were accepted
+
+    @Autowired
+    private OrderIntakeQueue orderIntakeQueue; // Queue the accepted orders are published to
+
+    /**
+     * Accepts an order for asynchronous persistence.
+     * Submitting the same key again is safe: an already persisted or queued key creates no second order,
+     * and a key whose order was rejected when written is reported as rejected again.
+     *
+     * @param order          The order to be created.
+     * @param idempotencyKey The client's idempotency key, or null to generate one.
+     * @return A receipt with the intake key identifying the order.
+     */
+    public OrderIntakeReceipt submit(Order order, String idempotencyKey) {
+        String key = idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : UUID.randomUUID().toString();
+        if (key.length() > MAX_KEY_LENGTH) {
+            return new OrderIntakeReceipt(key, OrderIntakeReceipt.Outcome.REJECTED,
+                    "idempotency key must not be longer than " + MAX_KEY_LENGTH + " characters");
+        }
+        String problem = orderService.validate(order);
+        if (problem != null) {
+            return new OrderIntakeReceipt(key, OrderIntakeReceipt.Outcome.REJECTED, problem);
+        }
+        if (!orderRepository.findExistingIntakeKeys(List.of(key)).isEmpty()) {
+            return new OrderIntakeReceipt(key, OrderIntakeReceipt.Outcome.ACCEPTED, null);
+        }
+        Optional<OrderIntakeRejection> rejection = rejectionRepository.findById(key);
+        if (rejection.isPresent()) {
+            return new OrderIntakeReceipt(key, OrderIntakeReceipt.Outcome.REJECTED, rejection.get().getMessage());
+        }
+
+        order.setId(null);
+        order.setVersion(null);
+        order.setIntakeKey(key);
+        if (order.getOrderItems() != null) {
+            order.getOrderItems().forEach(item -> item.setId(null));
+        }
+        orderIntakeQueue.publish(order);
+        return new OrderIntakeReceipt(key, OrderIntakeReceipt.Outcome.ACCEPTED, null);
+    }
+
+    /**
+     * Retrieves the order created from an intake submission.
+     *
+     * @param intakeKey The idempotency key of the submission.
+     * @return The order once it has been persisted, or empty while it is still queued or if the key is unknown.
+     */
+    public Optional<Order> getOrderByIntakeKey(String intakeKey) {
+        return orderRepository.findByIntakeKey(intakeKey);
+    }
+
+    /**
+     * Retrieves the rejection of an intake submission whose order could not be created when it was written.
+     *
+     * @param intakeKey The idempotency key of the submission.
+     * @return The rejection, or empty if the order was not rejected or is still queued.
+     */
+    public Optional<OrderIntakeRejection> getRejection(String intakeKey) {
+        return rejectionRepository.findById(intakeKey);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.order.intake;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the order intake queue cannot take more orders, e.g. because it is full.
+ * Clients may retry the submission with the same idempotency key.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderIntakeUnavailableException extends RuntimeException {
+
+    public OrderIntakeUnavailableException(String message) {
+        super(message);
+    }
+}
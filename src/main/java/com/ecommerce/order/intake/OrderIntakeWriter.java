@@ -0,0 +1,120 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.model.OrderIntakeRejection;
+import com.ecommerce.order.repository.OrderIntakeRejectionRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumer side of the asynchronous order intake.
+ * Persists queued orders in batches and makes redelivered orders harmless by skipping intake keys
+ * that are already stored, so at-least-once delivery results in exactly one order per key.
+ * Orders rejected when written, such as those for unknown products or short of stock, are recorded
+ * by intake key, so the submitter can see the outcome.
+ * Orders whose save failed are written on their own when delivered again, so one bad order cannot keep
+ * failing the chunk it was saved with; an order that still fails after the maximum number of attempts
+ * is recorded as rejected instead of being delivered forever.
+ */
+@Component
+public class OrderIntakeWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeWriter.class);
+
+    @Autowired
+    private OrderRepository orderRepository; // Used to find intake keys that were already persisted
+
+    @Autowired
+    private OrderService orderService; // Saves the orders with chunked, batched inserts
+
+    @Autowired
+    private OrderIntakeRejectionRepository rejectionRepository; // Records orders rejected when written
+
+    // Attempts after which an order that cannot be saved is rejected, injected from application properties
+    @Value("${orders.intake.max-attempts:5}")
+    private int maxAttempts;
+
+    // Failed save attempts of orders not yet written or rejected, by intake key
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    /**
+     * Persists a batch of queued orders.
+     *
+     * @param orders The orders delivered by the queue; may contain redeliveries.
+     * @throws IllegalStateException If some orders could not be saved and have attempts left, so the queue
+     *                               delivers the batch again.
+     */
+    public void write(List<Order> orders) {
+        Map<String, Order> byKey = new LinkedHashMap<>();
+        for (Order order : orders) {
+            byKey.putIfAbsent(order.getIntakeKey(), order);
+        }
+        Set<String> existing = new HashSet<>(orderRepository.findExistingIntakeKeys(byKey.keySet()));
+        List<Order> pending = new ArrayList<>(byKey.size());
+        byKey.forEach((key, order) -> {
+            if (!existing.contains(key)) {
+                pending.add(order);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Order> fresh = new ArrayList<>(pending.size());
+        List<List<Order>> groups = new ArrayList<>();
+        for (Order order : pending) {
+            if (failedAttempts.containsKey(order.getIntakeKey())) {
+                groups.add(List.of(order));
+            } else {
+                fresh.add(order);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            groups.add(0, fresh);
+        }
+
+        int failed = 0;
+        List<String> settled = new ArrayList<>();
+        List<OrderIntakeRejection> rejections = new ArrayList<>();
+        for (List<Order> group : groups) {
+            for (OrderBatchResult result : orderService.createOrders(group)) {
+                String key = group.get(result.getIndex()).getIntakeKey();
+                if (result.getOutcome() == OrderBatchResult.Outcome.FAILED) {
+                    int attempts = failedAttempts.merge(key, 1, Integer::sum);
+                    if (attempts < maxAttempts) {
+                        failed++;
+                        continue;
+                    }
+                    log.error("Rejecting queued order {} after {} failed attempts: {}", key, attempts, result.getMessage());
+                    rejections.add(new OrderIntakeRejection(key,
+                            "Could not be saved after " + attempts + " attempts: " + result.getMessage()));
+                } else if (result.getOutcome() == OrderBatchResult.Outcome.REJECTED) {
+                    log.warn("Rejecting queued order {}: {}", key, result.getMessage());
+                    rejections.add(new OrderIntakeRejection(key, result.getMessage()));
+                }
+                settled.add(key);
+            }
+        }
+        if (!rejections.isEmpty()) {
+            rejectionRepository.saveAll(rejections);
+        }
+        settled.forEach(failedAttempts::remove);
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + pending.size() + " queued orders could not be saved");
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.ecommerce.order.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -12,20 +18,60 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "orders") // Maps this entity to the "orders" table in the database
+@Table(name = "orders", // Maps this entity to the "orders" table in the database
+        indexes = @Index(name = "idx_orders_user_id_id", columnList = "user_id, id")) // Serves per-user lookups in ID order
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-generates the primary key
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq") // Auto-generates the primary key
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50) // Pooled IDs allow batched inserts
     private Long id;
 
     // The ID of the user who placed the order
     private Long userId;
 
-    // The current status of the order (e.g., "PENDING", "SHIPPED", "DELIVERED")
-    private String status;
+    // The current status of the order; changed only through the transitions allowed by OrderStatus
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus status = OrderStatus.PENDING;
+
+    // Incremented on every update, so concurrent writers cannot silently overwrite each other
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Time the order was placed; buckets the order in the sales analytics
+    @CreationTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant createdAt;
+
+    // Idempotency key of an order submitted through the asynchronous intake; null for orders created directly
+    @Column(unique = true, length = 64)
+    private String intakeKey;
 
-    // Defines a one-to-many relationship with OrderItem
-    @OneToMany(cascade = CascadeType.ALL)
+    // Sum of quantity times unit price over all items, in cents; computed when the order is placed
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long totalCents;
+
+    // Whether stock was reserved for the order's items, so cancelling it returns the units to stock
+    @JsonIgnore
+    private boolean stockReserved;
+
+    // Defines a one-to-many relationship with OrderItem, mapped by the order_id foreign key on the item
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @JsonManagedReference
     private List<OrderItem> orderItems; // List of items included in this order
+
+    /**
+     * Sets the items of this order and points each item back to it,
+     * so the order_id foreign key is written together with the item.
+     *
+     * @param orderItems The items included in this order.
+     */
+    public void setOrderItems(List<OrderItem> orderItems) {
+        this.orderItems = orderItems;
+        if (orderItems != null) {
+            orderItems.forEach(item -> item.setOrder(this));
+        }
+    }
 }
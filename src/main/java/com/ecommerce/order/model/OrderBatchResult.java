@@ -0,0 +1,34 @@
+package com.ecommerce.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single order submitted through the batch ingestion endpoint.
+ * Results are returned in the same order as the submitted orders.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderBatchResult {
+
+    /**
+     * Possible outcomes for a submitted order.
+     */
+    public enum Outcome {
+        CREATED,  // The order was saved
+        REJECTED, // The order failed validation or its stock check and was not attempted
+        FAILED    // The order was valid but its chunk could not be saved
+    }
+
+    // Position of the order in the submitted list
+    private int index;
+
+    // The generated order ID, set only for created orders
+    private Long orderId;
+
+    // The outcome for this order
+    private Outcome outcome;
+
+    // Reason for a rejected or failed order
+    private String message;
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Acknowledgement returned when an order is submitted through the asynchronous intake.
+ * The intake key identifies the order until it has been persisted and can be used to look it up afterwards.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderIntakeReceipt {
+
+    /**
+     * Possible outcomes of a submission.
+     */
+    public enum Outcome {
+        ACCEPTED, // The order was queued, or had already been submitted with the same key
+        REJECTED  // The order failed validation and was not queued, or was rejected when it was written
+    }
+
+    // Idempotency key identifying the submission
+    private String intakeKey;
+
+    // The outcome of the submission
+    private Outcome outcome;
+
+    // Reason for a rejected submission
+    private String message;
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Terminal outcome of an intake submission that was accepted but could not be turned into an order,
+ * such as one for an unknown product or short of stock when it was written.
+ * Lets the intake status endpoint report the failure instead of a pending order that never appears.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "order_intake_rejection") // Maps this entity to the "order_intake_rejection" table in the database
+public class OrderIntakeRejection {
+
+    // Idempotency key of the rejected submission
+    @Id
+    @Column(length = 64)
+    private String intakeKey;
+
+    // Reason the order was rejected
+    @Column(length = 500)
+    private String message;
+
+    // Time the rejection was recorded
+    @CreationTimestamp
+    private Instant rejectedAt;
+
+    /**
+     * Creates the rejection of a submission.
+     *
+     * @param intakeKey The idempotency key of the submission.
+     * @param message   The reason the order was rejected.
+     */
+    public OrderIntakeRejection(String intakeKey, String message) {
+        this.intakeKey = intakeKey;
+        this.message = message != null && message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,26 +1,43 @@
 package com.ecommerce.order.model;
 
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * Represents an individual item in an order.
- * Stores product details and quantity for an order.
+ * Stores product details, quantity and the unit price charged for an order.
  */
 @Entity
 @Setter
 @Getter
+@Table(name = "order_item", indexes = {
+        @Index(name = "idx_order_item_order_id", columnList = "order_id"), // Loads the items of an order
+        @Index(name = "idx_order_item_product_id", columnList = "product_id") // Finds orders containing a product
+})
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    // Auto-generates the primary key
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
+    // Auto-generates the primary key from a pooled sequence, so item inserts can be batched
     private Long id;
 
+    // The order this item belongs to; owns the order_id foreign key
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", foreignKey = @ForeignKey(name = "fk_order_item_order"))
+    @JsonBackReference
+    private Order order;
+
     // The ID of the product being ordered
     private Long productId;
 
     // The quantity of this product in the order
     private int quantity;
+
+    // The product's price in cents when the order was placed; set by the server, later price changes do not affect it
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long unitPriceCents;
 }
@@ -0,0 +1,72 @@
+package com.ecommerce.order.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle states of an order and the transitions allowed between them.
+ * PENDING -> PROCESSING -> SHIPPED -> DELIVERED, and PENDING or PROCESSING -> CANCELLED.
+ */
+public enum OrderStatus {
+    PENDING,
+    PROCESSING,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    // Statuses each status may move to
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+
+    // Statuses each status may be reached from, the inverse of NEXT
+    private static final Map<OrderStatus, Set<OrderStatus>> PREVIOUS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        NEXT.put(PENDING, EnumSet.of(PROCESSING, CANCELLED));
+        NEXT.put(PROCESSING, EnumSet.of(SHIPPED, CANCELLED));
+        NEXT.put(SHIPPED, EnumSet.of(DELIVERED));
+        NEXT.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        NEXT.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus status : values()) {
+            PREVIOUS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        NEXT.forEach((from, targets) -> targets.forEach(to -> PREVIOUS.get(to).add(from)));
+    }
+
+    /**
+     * Checks whether an order in this status may move to another status.
+     *
+     * @param target The requested status.
+     * @return True if the transition is allowed.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return NEXT.get(this).contains(target);
+    }
+
+    /**
+     * Returns the statuses from which an order may move to this status.
+     *
+     * @return The allowed predecessor statuses; empty for PENDING.
+     */
+    public Set<OrderStatus> predecessors() {
+        return Collections.unmodifiableSet(PREVIOUS.get(this));
+    }
+
+    /**
+     * Parses a status name case-insensitively, so values such as "Shipped" keep working.
+     *
+     * @param value The status name.
+     * @return The status, or null if the value is null.
+     * @throws IllegalArgumentException If the value is not a known status.
+     */
+    @JsonCreator
+    public static OrderStatus parse(String value) {
+        return value == null ? null : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A requested status change for a single order, as submitted to the bulk status endpoint.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdate {
+
+    // The ID of the order to update
+    private Long orderId;
+
+    // The status the order should move to
+    private OrderStatus status;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.order.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Body of the bulk status endpoint.
+ * Either lists explicit (orderId, status) pairs in updates, or selects orders with a filter
+ * and moves all of them to status.
+ */
+@Getter
+@Setter
+public class OrderStatusUpdateRequest {
+
+    /**
+     * Selects the orders to update by their current status and, optionally, their user.
+     */
+    @Getter
+    @Setter
+    public static class Filter {
+
+        // Only orders currently in this status are updated
+        private OrderStatus status;
+
+        // If set, only orders of this user are updated
+        private Long userId;
+    }
+
+    // Explicit status changes; mutually exclusive with filter
+    private List<OrderStatusUpdate> updates;
+
+    // Orders to update; mutually exclusive with updates
+    private Filter filter;
+
+    // Target status for the orders selected by filter
+    private OrderStatus status;
+}
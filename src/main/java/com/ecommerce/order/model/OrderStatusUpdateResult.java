@@ -0,0 +1,38 @@
+package com.ecommerce.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single status change submitted through the bulk status endpoint.
+ * Results are returned in the same order as the submitted changes.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusUpdateResult {
+
+    /**
+     * Possible outcomes for a status change.
+     */
+    public enum Outcome {
+        UPDATED,            // The order moved to the requested status
+        UNCHANGED,          // The order already had the requested status
+        NOT_FOUND,          // No order with this ID exists
+        INVALID_TRANSITION, // The order's current status does not allow the change
+        CONFLICT,           // The order's status changed concurrently; resubmit to retry against the new status
+        REJECTED,           // The change was incomplete and was not attempted
+        FAILED              // The change was valid but its chunk could not be written
+    }
+
+    // The ID of the order
+    private Long orderId;
+
+    // The order's status after the request, if known
+    private OrderStatus status;
+
+    // The outcome for this change
+    private Outcome outcome;
+
+    // Reason for an unsuccessful change
+    private String message;
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.OrderIntakeRejection;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing OrderIntakeRejection entities in the database.
+ * Keyed by the intake key of the rejected submission.
+ */
+public interface OrderIntakeRejectionRepository extends JpaRepository<OrderIntakeRejection, String> {
+}
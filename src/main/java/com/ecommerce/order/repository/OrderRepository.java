@@ -1,8 +1,22 @@
 package com.ecommerce.order.repository;
 
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.web.TableVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Order entities in the database.
@@ -10,6 +24,9 @@ import java.util.List;
  */
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Number of rows the JDBC driver fetches per round trip when streaming orders
+    String STREAM_FETCH_SIZE = "500";
+
     /**
      * Finds all orders placed by a specific user.
      *
@@ -17,4 +34,146 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return A list of orders associated with the given user ID.
      */
     List<Order> findByUserId(Long userId);
+
+    /**
+     * Finds the order created from an asynchronous intake submission.
+     *
+     * @param intakeKey The idempotency key of the submission.
+     * @return The order if it has been persisted.
+     */
+    Optional<Order> findByIntakeKey(String intakeKey);
+
+    /**
+     * Finds which of the given intake keys already belong to persisted orders.
+     *
+     * @param intakeKeys The idempotency keys to check.
+     * @return The subset of keys that are already stored.
+     */
+    @Query("select o.intakeKey from Order o where o.intakeKey in :intakeKeys")
+    List<String> findExistingIntakeKeys(@Param("intakeKeys") Collection<String> intakeKeys);
+
+    /**
+     * Finds all orders placed by a specific user together with their items in a single query.
+     *
+     * @param userId The ID of the user whose orders need to be retrieved.
+     * @return A list of orders with initialized order items.
+     */
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findWithItemsByUserId(Long userId);
+
+    /**
+     * Finds all orders together with their items in a single query.
+     *
+     * @return A list of all orders with initialized order items.
+     */
+    @EntityGraph(attributePaths = "orderItems")
+    @Query("select o from Order o")
+    List<Order> findAllWithItems();
+
+    /**
+     * Finds the next page of orders after a given order ID (keyset pagination).
+     * Only the rows of the requested page are read, no matter how deep into the table the cursor is.
+     *
+     * @param id       The ID of the last order the client has already seen.
+     * @param pageable The page size; the page number should always be 0.
+     * @return Up to pageable.getPageSize() orders with an ID greater than the given one, ordered by ID.
+     */
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Streams all orders ordered by ID without materializing the whole table.
+     * Must be called inside a transaction and the returned stream must be closed by the caller.
+     *
+     * @return A stream over all orders.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select o from Order o order by o.id")
+    Stream<Order> streamAll();
+
+    /**
+     * Streams the product IDs of all order items, grouped by order.
+     * Reads only the order_item table, so no entities are loaded.
+     * Must be called inside a transaction and the returned stream must be closed by the caller.
+     *
+     * @return A stream of rows [Long orderId, Long productId] ordered by order ID.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select i.order.id, i.productId from OrderItem i order by i.order.id")
+    Stream<Object[]> streamOrderProductPairs();
+
+    /**
+     * Streams every order with its priced items, one row per item, for rebuilding the sales analytics.
+     * Orders without items appear once with null item columns.
+     * Must be called inside a transaction and the returned stream must be closed by the caller.
+     *
+     * @return A stream of rows [Long orderId, OrderStatus status, Instant createdAt, Long totalCents,
+     *         Long productId, Integer quantity, Long unitPriceCents] ordered by order ID.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select o.id, o.status, o.createdAt, o.totalCents, i.productId, i.quantity, i.unitPriceCents "
+            + "from Order o left join o.orderItems i order by o.id")
+    Stream<Object[]> streamSalesRows();
+
+    /**
+     * Reads the product quantities of an order whose stock was reserved, without loading the order or its items.
+     *
+     * @param orderId The ID of the order.
+     * @return Rows [Long productId, Integer quantity]; empty if the order does not exist or reserved no stock.
+     */
+    @Query("select i.productId, i.quantity from OrderItem i where i.order.id = :orderId and i.order.stockReserved = true")
+    List<Object[]> findReservedItemQuantities(@Param("orderId") Long orderId);
+
+    /**
+     * Reads only the status of an order, without loading the order or its items.
+     *
+     * @param id The ID of the order.
+     * @return The current status, or empty if the order does not exist.
+     */
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Changes the status of an order only if it still has the expected status, and bumps its version.
+     * Must be called inside a transaction.
+     *
+     * @param id   The ID of the order.
+     * @param from The status the order is expected to have.
+     * @param to   The new status.
+     * @return 1 if the order was updated, 0 if it does not exist or its status has changed meanwhile.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :to, o.version = o.version + 1 where o.id = :id and o.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    /**
+     * Changes the status of many orders in one statement, skipping orders whose current status is not listed.
+     * Must be called inside a transaction.
+     *
+     * @param ids  The IDs of the orders.
+     * @param from The statuses from which the change is allowed.
+     * @param to   The new status.
+     * @return The number of orders updated.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :to, o.version = o.version + 1 where o.id in :ids and o.status in :from")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                       @Param("to") OrderStatus to);
+
+    /**
+     * Computes a fingerprint of all orders from the ID and version columns only.
+     *
+     * @return The row count, version sum and highest ID of the orders table.
+     */
+    @Query("select new com.ecommerce.web.TableVersion(count(o), sum(o.version), max(o.id)) from Order o")
+    TableVersion findTableVersion();
+
+    /**
+     * Computes a fingerprint of the orders after a keyset cursor from the ID and version columns only.
+     * Covers every later order, not just one page, so it changes whenever any page after the cursor may have.
+     *
+     * @param id The ID of the last order the client has already seen.
+     * @return The row count, version sum and highest ID of the orders with a greater ID.
+     */
+    @Query("select new com.ecommerce.web.TableVersion(count(o), sum(o.version), max(o.id)) from Order o where o.id > :id")
+    TableVersion findTableVersionAfter(@Param("id") Long id);
 }
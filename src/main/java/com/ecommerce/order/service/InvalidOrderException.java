@@ -0,0 +1,21 @@
+package com.ecommerce.order.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an order fails validation, such as an item without a product or with a quantity below 1.
+ * Nothing is saved, priced or reserved for the order when this is thrown.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidOrderException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param problem A description of the problem found, as returned by OrderService.validate.
+     */
+    public InvalidOrderException(String problem) {
+        super(problem);
+    }
+}
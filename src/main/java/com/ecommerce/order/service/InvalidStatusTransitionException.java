@@ -0,0 +1,32 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.model.OrderStatus;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an order is asked to move to a status that its current status does not allow.
+ */
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private final Long orderId; // The order whose status was to be changed
+    private final OrderStatus from; // The order's current status
+    private final OrderStatus to; // The requested status
+
+    /**
+     * Creates the exception.
+     *
+     * @param orderId The ID of the order.
+     * @param from    The current status of the order.
+     * @param to      The requested status.
+     */
+    public InvalidStatusTransitionException(Long orderId, OrderStatus from, OrderStatus to) {
+        super("Order " + orderId + " cannot move from " + from + " to " + to);
+        this.orderId = orderId;
+        this.from = from;
+        this.to = to;
+    }
+}
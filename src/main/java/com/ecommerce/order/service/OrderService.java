@@ -1,22 +1,113 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.inventory.service.InsufficientStockException;
+import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.Reservation;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.history.OrderHistory;
+import com.ecommerce.order.history.OrderHistoryCache;
 import com.ecommerce.order.repository.OrderRepository;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusUpdate;
+import com.ecommerce.order.model.OrderStatusUpdateRequest;
+import com.ecommerce.order.model.OrderStatusUpdateResult;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.web.TableVersion;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling business logic related to orders.
  * Provides methods to retrieve, create and update orders.
  */
 @Service
+@Timed("service.method")
 public class OrderService {
 
+    // Page size used when a client asks for a page without specifying a limit
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    // Upper bound for a single page, so a client cannot pull the whole table in one request
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // Product IDs per price query, keeping the IN list within common database limits
+    private static final int PRICE_QUERY_SIZE = 1000;
+
+    // Reads the current statuses of a chunk of orders for the bulk status update
+    private static final String SELECT_STATUSES_SQL = "select id, status, user_id, version from orders where id in (:ids)";
+
+    // Conditional status change, batched by the bulk status update
+    private static final String UPDATE_STATUS_SQL =
+            "update orders set status = :to, version = version + 1 where id = :id and status = :from";
+
+    // Moves all orders in one status, optionally of one user, in one statement and returns the changed rows
+    // (H2's data change delta table; UPDATE ... RETURNING on PostgreSQL)
+    private static final String UPDATE_BY_FILTER_SQL = "select id, user_id, version from final table ("
+            + "update orders set status = :to, version = version + 1 where status = :from%s) order by id";
+
     @Autowired
     // Injects the OrderRepository for database operations
     private OrderRepository orderRepository;
 
+    @PersistenceContext
+    // Used to detach streamed orders so the persistence context does not grow with the table
+    private EntityManager entityManager;
+
+    @Autowired
+    // Notifies in-memory structures derived from orders, such as recommendations
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    // Runs each chunk of a batch in its own transaction
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    // Runs the batched statements of the bulk status update without loading entities
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    // Serves per-user order histories as pre-serialized JSON
+    private OrderHistoryCache orderHistoryCache;
+
+    @Autowired
+    // Reserves stock for the items of new orders
+    private InventoryService inventoryService;
+
+    @Autowired
+    // Reads the current prices of ordered products, so orders are priced when they are placed
+    private ProductRepository productRepository;
+
+    // Number of orders saved per transaction by createOrders, injected from application properties
+    @Value("${orders.batch.chunk-size:500}")
+    private int batchChunkSize;
+
     /**
      * Retrieves all orders placed by a specific user.
      *
@@ -24,17 +115,169 @@ public class OrderService {
      * @return A list of orders associated with the given user.
      */
     public List<Order> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId);
+        return orderRepository.findWithItemsByUserId(userId);
     }
 
     /**
-     * Creates a new order in the system.
+     * Retrieves all orders placed by a specific user as pre-serialized JSON.
+     * Served from the order history cache, which is kept current as orders are created and change status.
+     *
+     * @param userId The ID of the user whose orders need to be fetched.
+     * @return The user's order history.
+     */
+    public OrderHistory getOrderHistory(Long userId) {
+        return orderHistoryCache.get(userId);
+    }
+
+    /**
+     * Creates a new order in the system and publishes an OrderCreatedEvent for it.
+     * The order is validated like the orders of createOrders. Every new order starts as PENDING, whatever status
+     * it was submitted with. The items are priced from the current product prices, read with one query, and the
+     * order total is stored with the order. Stock for all items is reserved before the order is saved and returned
+     * if saving fails.
      *
      * @param order The order object to be saved.
      * @return The newly created order.
+     * @throws InvalidOrderException      If the order fails validation; nothing is saved.
+     * @throws UnknownProductException    If an item refers to a product that does not exist; nothing is saved.
+     * @throws InsufficientStockException If a tracked product does not have enough units; nothing is saved.
      */
     public Order createOrder(Order order) {
-        return orderRepository.save(order);
+        String problem = validate(order);
+        if (problem != null) {
+            throw new InvalidOrderException(problem);
+        }
+        order.setStatus(OrderStatus.PENDING);
+        price(order, loadPrices(List.of(order)));
+        Reservation reservation = inventoryService.reserve(order.getOrderItems());
+        order.setStockReserved(!reservation.isEmpty());
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            inventoryService.cancel(reservation);
+            throw e;
+        }
+        inventoryService.confirm(reservation);
+        eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder));
+        return savedOrder;
+    }
+
+    /**
+     * Creates many orders at once.
+     * Each order is validated first and starts as PENDING; valid orders are saved in chunks, one transaction per chunk,
+     * with inserts grouped into JDBC batches. A failing chunk does not affect the other chunks.
+     * The prices of all products in a chunk are read with one query and each order is priced from them.
+     * Stock is reserved per order before its chunk is saved; orders referring to unknown products or
+     * short of stock are rejected, and the stock of a failing chunk is returned.
+     *
+     * @param orders The orders to be saved.
+     * @return One result per submitted order, in the submitted order.
+     */
+    public List<OrderBatchResult> createOrders(List<Order> orders) {
+        OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+        List<Integer> valid = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            String problem = validate(orders.get(i));
+            if (problem != null) {
+                results[i] = new OrderBatchResult(i, null, OrderBatchResult.Outcome.REJECTED, problem);
+            } else {
+                orders.get(i).setStatus(OrderStatus.PENDING);
+                valid.add(i);
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            List<Integer> chunk = new ArrayList<>(valid.subList(from, Math.min(valid.size(), from + batchChunkSize)));
+            List<Order> chunkOrders = new ArrayList<>(chunk.size());
+            List<Reservation> reservations = new ArrayList<>(chunk.size());
+            List<Order> toPrice = new ArrayList<>(chunk.size());
+            chunk.forEach(index -> toPrice.add(orders.get(index)));
+            Map<Long, Long> prices = loadPrices(toPrice);
+            chunk.removeIf(index -> {
+                Order order = orders.get(index);
+                try {
+                    price(order, prices);
+                    Reservation reservation = inventoryService.reserve(order.getOrderItems());
+                    order.setStockReserved(!reservation.isEmpty());
+                    reservations.add(reservation);
+                    chunkOrders.add(order);
+                    return false;
+                } catch (UnknownProductException | InsufficientStockException e) {
+                    results[index] = new OrderBatchResult(index, null, OrderBatchResult.Outcome.REJECTED, e.getMessage());
+                    return true;
+                }
+            });
+            if (chunk.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    orderRepository.saveAll(chunkOrders);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (RuntimeException e) {
+                reservations.forEach(inventoryService::cancel);
+                chunk.forEach(index -> results[index] = new OrderBatchResult(
+                        index, null, OrderBatchResult.Outcome.FAILED, e.getMessage()));
+                continue;
+            }
+            reservations.forEach(inventoryService::confirm);
+            for (int index : chunk) {
+                Order savedOrder = orders.get(index);
+                results[index] = new OrderBatchResult(index, savedOrder.getId(), OrderBatchResult.Outcome.CREATED, null);
+                eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reads the current prices of all products referenced by the given orders.
+     *
+     * @param orders The orders to be priced.
+     * @return The price in cents of every referenced product that exists, by product ID.
+     */
+    private Map<Long, Long> loadPrices(Collection<Order> orders) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (Order order : orders) {
+            if (order.getOrderItems() != null) {
+                order.getOrderItems().forEach(item -> productIds.add(item.getProductId()));
+            }
+        }
+        productIds.remove(null);
+        Map<Long, Long> prices = new HashMap<>(productIds.size() * 2);
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += PRICE_QUERY_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + PRICE_QUERY_SIZE));
+            for (Object[] row : productRepository.findPricesByIdIn(batch)) {
+                prices.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Copies the current unit price onto every item of an order and stores the order total.
+     *
+     * @param order  The order to be priced.
+     * @param prices The current prices in cents, by product ID.
+     * @throws UnknownProductException If an item refers to a product without a price.
+     */
+    private static void price(Order order, Map<Long, Long> prices) {
+        long total = 0;
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                Long unitPrice = prices.get(item.getProductId());
+                if (unitPrice == null) {
+                    throw new UnknownProductException(item.getProductId());
+                }
+                item.setUnitPriceCents(unitPrice);
+                total = Math.addExact(total, Math.multiplyExact(unitPrice, item.getQuantity()));
+            }
+        }
+        order.setTotalCents(total);
     }
 
     /**
@@ -43,22 +286,266 @@ public class OrderService {
      * @return A list of all orders.
      */
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderRepository.findAllWithItems();
     }
 
     /**
-     * Updates the status of an existing order.
+     * Retrieves one page of orders using keyset pagination.
+     * The ID of the last order in the page is the cursor for the next page.
+     *
+     * @param afterId The ID of the last order already seen, or null to start from the beginning.
+     * @param limit   The maximum number of orders to return, or null for the default page size.
+     * @return Up to limit orders with an ID greater than afterId, ordered by ID.
+     */
+    public List<Order> getOrdersAfter(Long afterId, Integer limit) {
+        long after = afterId != null ? afterId : 0L;
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        return orderRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, size));
+    }
+
+    /**
+     * Computes a fingerprint of the orders a listing returns, without loading any order.
+     *
+     * @param afterId The keyset cursor of a paginated listing, or null for all orders.
+     * @return The current fingerprint of the orders after the cursor.
+     */
+    public TableVersion getOrdersVersion(Long afterId) {
+        return afterId != null ? orderRepository.findTableVersionAfter(afterId) : orderRepository.findTableVersion();
+    }
+
+    /**
+     * Streams all orders to the given consumer one at a time, ordered by ID.
+     * Each order is detached once consumed, so memory stays flat regardless of the table size.
+     *
+     * @param consumer The callback receiving each order; lazy associations may be accessed inside it.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<Order> consumer) {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            orders.forEach(order -> {
+                consumer.accept(order);
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    /**
+     * Moves an existing order to a new status.
+     * Reads only the current status, then applies the change with a conditional UPDATE that succeeds only
+     * if the status is still the one read. If another writer got there first, the check is repeated
+     * against the new status, so concurrent transitions are never lost and no row is locked while deciding.
+     * Publishes an OrderStatusChangedEvent when the status changed; for a cancellation the inventory
+     * returns the order's reserved stock once the change is committed.
      *
      * @param orderId The ID of the order to be updated.
      * @param status  The new status of the order.
      * @return The updated order object or null if the order does not exist.
+     * @throws InvalidStatusTransitionException If the order's current status does not allow the change.
+     */
+    @Transactional
+    public Order updateOrderStatus(Long orderId, OrderStatus status) {
+        while (true) {
+            OrderStatus current = orderRepository.findStatusById(orderId).orElse(null);
+            if (current == null) {
+                return null;
+            }
+            if (current != status) {
+                if (!current.canTransitionTo(status)) {
+                    throw new InvalidStatusTransitionException(orderId, current, status);
+                }
+                if (orderRepository.updateStatus(orderId, current, status) == 0) {
+                    continue;
+                }
+                Order order = orderRepository.findById(orderId).orElse(null);
+                if (order != null) {
+                    eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                            order.getId(), order.getUserId(), order.getStatus(), order.getVersion()));
+                }
+                return order;
+            }
+            return orderRepository.findById(orderId).orElse(null);
+        }
+    }
+
+    /**
+     * Applies many individual status changes.
+     * Changes are processed in chunks, one transaction per chunk: the chunk's current statuses are read with
+     * one query, and the legal changes are written as one JDBC batch of conditional updates.
+     * A failing chunk does not affect the other chunks.
+     *
+     * @param updates The requested (orderId, status) changes; an order may appear more than once.
+     * @return One result per requested change, in the requested order.
+     */
+    public List<OrderStatusUpdateResult> updateOrderStatuses(List<OrderStatusUpdate> updates) {
+        List<OrderStatusUpdateResult> results = new ArrayList<>(updates.size());
+        for (int from = 0; from < updates.size(); from += batchChunkSize) {
+            results.addAll(applyStatusChunk(updates.subList(from, Math.min(updates.size(), from + batchChunkSize))));
+        }
+        return results;
+    }
+
+    /**
+     * Moves every order matching a filter to a new status with a single set-based UPDATE.
+     * The statement returns the rows it changed, with their user and new version, so an event is published
+     * for exactly the orders it moved, after the transaction has committed. A filter whose status equals the
+     * new status, or cannot move to it, changes nothing and reports each matching order as unchanged or invalid.
+     *
+     * @param filter The current status and optional user of the orders to update.
+     * @param status The new status of the orders.
+     * @return One result per matching order, in ID order.
      */
-    public Order updateOrderStatus(Long orderId, String status) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order != null) {
-            order.setStatus(status);
-            orderRepository.save(order);
+    public List<OrderStatusUpdateResult> updateOrderStatuses(OrderStatusUpdateRequest.Filter filter, OrderStatus status) {
+        OrderStatus from = filter.getStatus();
+        String userCondition = filter.getUserId() != null ? " and user_id = :userId" : "";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from.name())
+                .addValue("to", status.name())
+                .addValue("userId", filter.getUserId());
+
+        List<OrderStatusUpdateResult> results = new ArrayList<>();
+        if (from == status || !from.canTransitionTo(status)) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select id from orders where status = :from" + userCondition + " order by id", params, Long.class);
+            for (Long id : ids) {
+                results.add(from == status
+                        ? new OrderStatusUpdateResult(id, from, OrderStatusUpdateResult.Outcome.UNCHANGED, null)
+                        : new OrderStatusUpdateResult(id, from, OrderStatusUpdateResult.Outcome.INVALID_TRANSITION,
+                                "cannot move from " + from + " to " + status));
+            }
+            return results;
+        }
+
+        List<OrderStatusChangedEvent> events = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.query(
+                String.format(UPDATE_BY_FILTER_SQL, userCondition), params, (RowCallbackHandler) rs -> {
+                    long id = rs.getLong(1);
+                    results.add(new OrderStatusUpdateResult(id, status, OrderStatusUpdateResult.Outcome.UPDATED, null));
+                    events.add(new OrderStatusChangedEvent(id, rs.getObject(2, Long.class), status, rs.getLong(3)));
+                }));
+        // Published after the update has committed
+        events.forEach(eventPublisher::publishEvent);
+        return results;
+    }
+
+    /**
+     * Applies one chunk of status changes in a single transaction.
+     *
+     * @param chunk The requested changes.
+     * @return One result per change, in the requested order.
+     */
+    private List<OrderStatusUpdateResult> applyStatusChunk(List<OrderStatusUpdate> chunk) {
+        OrderStatusUpdateResult[] results = new OrderStatusUpdateResult[chunk.size()];
+        List<OrderStatusChangedEvent> events = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> ids = new LinkedHashSet<>();
+                chunk.forEach(update -> {
+                    if (update.getOrderId() != null) {
+                        ids.add(update.getOrderId());
+                    }
+                });
+                Map<Long, CurrentStatus> current = new HashMap<>();
+                if (!ids.isEmpty()) {
+                    jdbcTemplate.query(SELECT_STATUSES_SQL, Map.of("ids", ids), (RowCallbackHandler) rs -> {
+                        OrderStatus orderStatus = OrderStatus.parse(rs.getString(2));
+                        if (orderStatus != null) {
+                            current.put(rs.getLong(1), new CurrentStatus(orderStatus, rs.getLong(3), rs.getLong(4)));
+                        }
+                    });
+                }
+
+                List<SqlParameterSource> batch = new ArrayList<>();
+                List<Integer> batchIndexes = new ArrayList<>();
+                List<Long> batchVersions = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    OrderStatusUpdate update = chunk.get(i);
+                    Long id = update.getOrderId();
+                    OrderStatus to = update.getStatus();
+                    CurrentStatus row = current.get(id);
+                    OrderStatus from = row != null ? row.status() : null;
+                    if (id == null || to == null) {
+                        results[i] = new OrderStatusUpdateResult(id, null, OrderStatusUpdateResult.Outcome.REJECTED,
+                                "orderId and status are required");
+                    } else if (from == null) {
+                        results[i] = new OrderStatusUpdateResult(id, null, OrderStatusUpdateResult.Outcome.NOT_FOUND, null);
+                    } else if (from == to) {
+                        results[i] = new OrderStatusUpdateResult(id, from, OrderStatusUpdateResult.Outcome.UNCHANGED, null);
+                    } else if (!from.canTransitionTo(to)) {
+                        results[i] = new OrderStatusUpdateResult(id, from, OrderStatusUpdateResult.Outcome.INVALID_TRANSITION,
+                                "cannot move from " + from + " to " + to);
+                    } else {
+                        batch.add(new MapSqlParameterSource()
+                                .addValue("id", id)
+                                .addValue("from", from.name())
+                                .addValue("to", to.name()));
+                        batchIndexes.add(i);
+                        batchVersions.add(row.version() + 1);
+                        // Later changes of the same order in this chunk start from the new status and version
+                        current.put(id, new CurrentStatus(to, row.userId(), row.version() + 1));
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    int[] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, batch.toArray(new SqlParameterSource[0]));
+                    for (int k = 0; k < counts.length; k++) {
+                        OrderStatusUpdate update = chunk.get(batchIndexes.get(k));
+                        if (counts[k] == 0) {
+                            results[batchIndexes.get(k)] = new OrderStatusUpdateResult(update.getOrderId(), null,
+                                    OrderStatusUpdateResult.Outcome.CONFLICT, "status changed concurrently");
+                            continue;
+                        }
+                        results[batchIndexes.get(k)] = new OrderStatusUpdateResult(update.getOrderId(), update.getStatus(),
+                                OrderStatusUpdateResult.Outcome.UPDATED, null);
+                        events.add(new OrderStatusChangedEvent(update.getOrderId(),
+                                current.get(update.getOrderId()).userId(), update.getStatus(), batchVersions.get(k)));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                results[i] = new OrderStatusUpdateResult(chunk.get(i).getOrderId(), null,
+                        OrderStatusUpdateResult.Outcome.FAILED, e.getMessage());
+            }
+            return Arrays.asList(results);
+        }
+        // Published after the chunk has committed
+        events.forEach(eventPublisher::publishEvent);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Status, user and version of an order as read by the bulk status update.
+     *
+     * @param status  The order's status.
+     * @param userId  The ID of the user who placed the order.
+     * @param version The order's version.
+     */
+    private record CurrentStatus(OrderStatus status, Long userId, long version) {
+    }
+
+    /**
+     * Checks that an order can be saved.
+     *
+     * @param order The order to check.
+     * @return A description of the first problem found, or null if the order is valid.
+     */
+    public String validate(Order order) {
+        if (order == null) {
+            return "order is required";
+        }
+        if (order.getUserId() == null) {
+            return "userId is required";
+        }
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item == null || item.getProductId() == null) {
+                    return "every item needs a productId";
+                }
+                if (item.getQuantity() <= 0) {
+                    return "item quantity must be positive";
+                }
+            }
         }
-        return order;
+        return null;
     }
-}
\ No newline at end of file
+}
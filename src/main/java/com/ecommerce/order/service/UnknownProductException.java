@@ -0,0 +1,26 @@
+package com.ecommerce.order.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an order refers to a product that does not exist, so the order cannot be priced.
+ * Nothing is saved and no stock is held for the order when this is thrown.
+ */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownProductException extends RuntimeException {
+
+    private final Long productId; // The product that was not found
+
+    /**
+     * Creates the exception.
+     *
+     * @param productId The ID of the product.
+     */
+    public UnknownProductException(Long productId) {
+        super("Unknown product " + productId);
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.web.EntityTags;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Immutable, pre-serialized representation of one version of a product: its UTF-8 JSON, the
+ * strong entity tag identifying that version and its Last-Modified date. Built once per version
+ * and then written to every response as is, so serving it allocates nothing.
+ */
+@Getter
+public final class ProductJson {
+
+    // Rough bookkeeping cost of an entry, added to the JSON size when weighing
+    private static final int ENTRY_OVERHEAD = 96;
+
+    // HTTP date format (IMF-fixdate), e.g. "Wed, 01 May 2024 10:15:30 GMT"
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    private final long id; // ID of the product
+    private final long version; // Version of the product the JSON was written from
+    private final String etag; // Quoted strong entity tag, e.g. "12-3"
+    private final long lastModifiedMillis; // Modification time truncated to seconds, or -1 if unknown
+    private final String lastModified; // Modification time as an HTTP date, or null if unknown
+    private final byte[] json; // UTF-8 JSON of the product; never modified
+
+    /**
+     * Creates the representation of a product version.
+     *
+     * @param id        The ID of the product.
+     * @param version   The version of the product.
+     * @param updatedAt The time the product was last changed; may be null.
+     * @param json      The UTF-8 JSON of the product.
+     */
+    public ProductJson(long id, long version, Instant updatedAt, byte[] json) {
+        this.id = id;
+        this.version = version;
+        this.etag = "\"" + id + "-" + version + "\"";
+        // HTTP dates have second precision; truncating keeps If-Modified-Since comparisons exact
+        this.lastModifiedMillis = updatedAt != null ? updatedAt.getEpochSecond() * 1000 : -1L;
+        this.lastModified = updatedAt != null ? HTTP_DATE.format(updatedAt) : null;
+        this.json = json;
+    }
+
+    /**
+     * Checks an If-None-Match header against this version.
+     *
+     * @param ifNoneMatch The header value; may be null.
+     * @return True if the client already holds this version.
+     */
+    public boolean matches(String ifNoneMatch) {
+        return EntityTags.matches(ifNoneMatch, etag);
+    }
+
+    /**
+     * Checks an If-Modified-Since date against this version.
+     *
+     * @param ifModifiedSince The header value in milliseconds since the epoch, or -1 if absent.
+     * @return True if the product has not changed since that date.
+     */
+    public boolean notModifiedSince(long ifModifiedSince) {
+        return ifModifiedSince >= 0 && lastModifiedMillis >= 0 && lastModifiedMillis <= ifModifiedSince;
+    }
+
+    /**
+     * Approximate memory footprint, used to bound the cache by bytes.
+     *
+     * @return The weight in bytes.
+     */
+    public int weight() {
+        return json.length + 2 * etag.length() + (lastModified != null ? 2 * lastModified.length() : 0) + ENTRY_OVERHEAD;
+    }
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of pre-serialized product JSON by product ID, bounded by total bytes.
+ * A miss serializes the product once, taking it from the products cache where possible; later
+ * reads of the same version reuse the bytes and entity tag. Entries are dropped once a change to
+ * the product is committed, so the next read serializes the new version. A read that still loads an
+ * older version than the one that caused the last eviction serves it without storing it.
+ */
+@Component
+public class ProductJsonCache {
+
+    // Number of lock stripes; loads and evictions of products in the same stripe are serialized
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private ProductService productService; // Loads products on a miss, through the products cache
+
+    @Autowired
+    private ObjectMapper objectMapper; // Serializes products the same way the controllers do
+
+    @Autowired
+    private CacheManager cacheManager; // Provides the configured, metered product JSON cache
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Receives the memory footprint gauge
+
+    private Cache<Object, Object> cache;
+
+    // Orders a load against a concurrent eviction of the same product, so a load that read the
+    // previous version cannot store it after the eviction. Locks rather than Caffeine's compute,
+    // so virtual threads waiting on the database are not pinned.
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    // Product ID -> version of the change that last evicted the product; older versions are never stored.
+    // An entry is dropped once that version or a later one has been cached.
+    private final Map<Long, Long> evictedVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Looks up the native cache and registers its weighted size as a gauge.
+     */
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        cache = ((CaffeineCache) cacheManager.getCache(CacheConfig.PRODUCT_JSON_CACHE)).getNativeCache();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Gauge.builder("cache.weighted.size", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", CacheConfig.PRODUCT_JSON_CACHE)
+                .baseUnit("bytes")
+                .description("Approximate memory held by the cached product JSON")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the serialized current version of a product, serializing and caching it on a miss.
+     *
+     * @param id The ID of the product.
+     * @return The product's JSON and entity tag, or null if no product has the given ID.
+     */
+    public ProductJson get(Long id) {
+        ProductJson json = (ProductJson) cache.getIfPresent(id);
+        if (json != null) {
+            return json;
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            json = (ProductJson) cache.asMap().get(id);
+            if (json == null) {
+                Product product = productService.getProductById(id);
+                if (product == null) {
+                    return null;
+                }
+                long version = product.getVersion() != null ? product.getVersion() : 0L;
+                json = new ProductJson(product.getId(), version, product.getUpdatedAt(), serialize(product));
+                Long evicted = evictedVersions.get(id);
+                if (evicted == null || version >= evicted) {
+                    cache.put(id, json);
+                    if (evicted != null) {
+                        evictedVersions.remove(id, evicted);
+                    }
+                }
+            }
+            return json;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops any cached entry for a new product, such as one left by a deleted product with the same ID.
+     *
+     * @param event The event carrying the saved product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductCreated(ProductCreatedEvent event) {
+        evict(event.getProduct().getId());
+    }
+
+    /**
+     * Drops the cached JSON of an updated product.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        evict(event.getProduct().getId(), event.getProduct().getVersion());
+    }
+
+    /**
+     * Removes a product's cached JSON, so the next read serializes it again.
+     *
+     * @param id The ID of the product.
+     */
+    public void evict(Long id) {
+        evict(id, null);
+    }
+
+    /**
+     * Removes a product's cached JSON and refuses to store any version older than the given one afterwards,
+     * so a read that loaded the previous version from a stale source cannot cache it again.
+     *
+     * @param id      The ID of the product.
+     * @param version The product's version after the change, or null if unknown.
+     */
+    public void evict(Long id, Long version) {
+        if (id == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (version != null) {
+                evictedVersions.merge(id, version, Math::max);
+            }
+            cache.invalidate(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReentrantLock lockFor(Long id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+}
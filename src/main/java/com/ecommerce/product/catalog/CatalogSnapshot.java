@@ -0,0 +1,324 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.product.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the catalog held outside the Java heap.
+ * Every product field is a column in a direct buffer: IDs, prices in cents, versions and update times as
+ * fixed-width values, names and descriptions as UTF-8 bytes addressed by offsets, and categories
+ * as codes into a small dictionary of interned category names. The heap only holds the dictionary
+ * and a few buffer objects, so millions of products add no objects for the garbage collector to trace.
+ * Products are materialized on read as short-lived, detached entities. The off-heap memory is
+ * released when the snapshot becomes unreachable; size -XX:MaxDirectMemorySize for two snapshots during a refresh.
+ */
+public final class CatalogSnapshot {
+
+    // Bits of the flags column marking null fields
+    private static final byte NULL_NAME = 1;
+    private static final byte NULL_DESCRIPTION = 2;
+    private static final byte NULL_VERSION = 4;
+    private static final byte NULL_UPDATED_AT = 8;
+
+    private final int size; // Number of products
+    private final ByteBuffer ids; // long per product, ascending
+    private final ByteBuffer prices; // long cents per product
+    private final ByteBuffer versions; // long per product
+    private final ByteBuffer updatedAt; // long epoch millis per product
+    private final ByteBuffer flags; // byte per product, NULL_* bits
+    private final ByteBuffer textOffsets; // int per name and description, plus the end offset
+    private final ByteBuffer text; // UTF-8 names and descriptions, in product order
+    private final ByteBuffer categoryOffsets; // int per product, plus the end offset
+    private final ByteBuffer categoryCodes; // int per category assignment, an index into the dictionary
+    private final String[] dictionary; // Interned category names
+
+    private CatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids.seal();
+        this.prices = builder.prices.seal();
+        this.versions = builder.versions.seal();
+        this.updatedAt = builder.updatedAt.seal();
+        this.flags = builder.flags.seal();
+        this.textOffsets = builder.textOffsets.seal();
+        this.text = builder.text.seal();
+        this.categoryOffsets = builder.categoryOffsets.seal();
+        this.categoryCodes = builder.categoryCodes.seal();
+        this.dictionary = builder.dictionary.toArray(new String[0]);
+    }
+
+    /**
+     * Creates a builder for a new snapshot.
+     *
+     * @return An empty builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of products in the snapshot.
+     *
+     * @return The product count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the off-heap memory held by the snapshot's columns.
+     *
+     * @return The size of all columns in bytes.
+     */
+    public long bytes() {
+        return (long) ids.capacity() + prices.capacity() + versions.capacity() + updatedAt.capacity()
+                + flags.capacity() + textOffsets.capacity() + text.capacity()
+                + categoryOffsets.capacity() + categoryCodes.capacity();
+    }
+
+    /**
+     * Looks up a product by ID.
+     *
+     * @param id The ID of the product.
+     * @return A new detached product, or null if the snapshot does not contain the ID.
+     */
+    public Product get(long id) {
+        int row = rowOf(id);
+        return row >= 0 ? product(row) : null;
+    }
+
+    /**
+     * Returns the version a product had when the snapshot was built.
+     *
+     * @param id The ID of the product.
+     * @return The product's version, 0 for an unversioned product, or -1 if the snapshot does not contain the ID.
+     */
+    public long versionOf(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return -1;
+        }
+        return (flags.get(row) & NULL_VERSION) != 0 ? 0 : versions.getLong(row * Long.BYTES);
+    }
+
+    /**
+     * Materializes all products, ascending by ID.
+     *
+     * @return New detached products.
+     */
+    public List<Product> all() {
+        List<Product> products = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            products.add(product(row));
+        }
+        return products;
+    }
+
+    /**
+     * Binary search over the ID column.
+     */
+    private int rowOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = ids.getLong(mid * Long.BYTES);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads one row into a new product.
+     */
+    private Product product(int row) {
+        byte nulls = flags.get(row);
+        Product product = new Product();
+        product.setId(ids.getLong(row * Long.BYTES));
+        product.setName((nulls & NULL_NAME) != 0 ? null : string(2 * row));
+        product.setDescription((nulls & NULL_DESCRIPTION) != 0 ? null : string(2 * row + 1));
+        product.setPriceCents(prices.getLong(row * Long.BYTES));
+        product.setVersion((nulls & NULL_VERSION) != 0 ? null : versions.getLong(row * Long.BYTES));
+        product.setUpdatedAt((nulls & NULL_UPDATED_AT) != 0
+                ? null : Instant.ofEpochMilli(updatedAt.getLong(row * Long.BYTES)));
+
+        int from = categoryOffsets.getInt(row * Integer.BYTES);
+        int to = categoryOffsets.getInt((row + 1) * Integer.BYTES);
+        String[] categories = new String[to - from];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = dictionary[categoryCodes.getInt((from + i) * Integer.BYTES)];
+        }
+        product.setCategories(Arrays.asList(categories));
+        return product;
+    }
+
+    /**
+     * Decodes the text entry at the given slot; slot 2 * row is the name, 2 * row + 1 the description.
+     */
+    private String string(int slot) {
+        int from = textOffsets.getInt(slot * Integer.BYTES);
+        int to = textOffsets.getInt((slot + 1) * Integer.BYTES);
+        byte[] bytes = new byte[to - from];
+        text.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends products, in ascending ID order, to growing off-heap columns.
+     * A builder is used by a single thread and produces one snapshot.
+     */
+    public static final class Builder {
+
+        private int size;
+        private long lastId = Long.MIN_VALUE;
+        private final Column ids = new Column(Long.BYTES);
+        private final Column prices = new Column(Long.BYTES);
+        private final Column versions = new Column(Long.BYTES);
+        private final Column updatedAt = new Column(Long.BYTES);
+        private final Column flags = new Column(1);
+        private final Column textOffsets = new Column(Integer.BYTES);
+        private final Column text = new Column(1);
+        private final Column categoryOffsets = new Column(Integer.BYTES);
+        private final Column categoryCodes = new Column(Integer.BYTES);
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private Builder() {
+            textOffsets.putInt(0);
+            categoryOffsets.putInt(0);
+        }
+
+        /**
+         * Appends a product.
+         *
+         * @param id          The ID of the product; must be greater than the previously added ID.
+         * @param name        The name, or null.
+         * @param description The description, or null.
+         * @param priceCents  The price in cents.
+         * @param version     The version, or null.
+         * @param modified    The time of the last update, or null.
+         * @param categories  The categories, or null for none.
+         * @return This builder.
+         */
+        public Builder add(long id, String name, String description, long priceCents, Long version,
+                           Instant modified, List<String> categories) {
+            if (id <= lastId) {
+                throw new IllegalArgumentException("Products must be added in ascending ID order: " + id);
+            }
+            lastId = id;
+            byte nulls = 0;
+            nulls |= name == null ? NULL_NAME : 0;
+            nulls |= description == null ? NULL_DESCRIPTION : 0;
+            nulls |= version == null ? NULL_VERSION : 0;
+            nulls |= modified == null ? NULL_UPDATED_AT : 0;
+
+            ids.putLong(id);
+            prices.putLong(priceCents);
+            versions.putLong(version == null ? 0 : version);
+            updatedAt.putLong(modified == null ? 0 : modified.toEpochMilli());
+            flags.putByte(nulls);
+            putText(name);
+            putText(description);
+            if (categories != null) {
+                for (String category : categories) {
+                    categoryCodes.putInt(codes.computeIfAbsent(category, this::newCode));
+                }
+            }
+            categoryOffsets.putInt(categoryCodes.position() / Integer.BYTES);
+            size++;
+            return this;
+        }
+
+        /**
+         * Seals the columns into a snapshot; the builder must not be used afterwards.
+         *
+         * @return The snapshot.
+         */
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+
+        private void putText(String value) {
+            if (value != null) {
+                text.putBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+            textOffsets.putInt(text.position());
+        }
+
+        private int newCode(String category) {
+            dictionary.add(category.intern());
+            return dictionary.size() - 1;
+        }
+    }
+
+    /**
+     * Direct buffer that doubles its capacity as values are appended.
+     * Limited to 2 GB per column by ByteBuffer indexing.
+     */
+    private static final class Column {
+
+        private ByteBuffer buffer;
+
+        Column(int width) {
+            buffer = ByteBuffer.allocateDirect(1024 * width).order(ByteOrder.nativeOrder());
+        }
+
+        int position() {
+            return buffer.position();
+        }
+
+        void putLong(long value) {
+            reserve(Long.BYTES).putLong(value);
+        }
+
+        void putInt(int value) {
+            reserve(Integer.BYTES).putInt(value);
+        }
+
+        void putByte(byte value) {
+            reserve(1).put(value);
+        }
+
+        void putBytes(byte[] value) {
+            reserve(value.length).put(value);
+        }
+
+        /**
+         * Copies the written values into a read-only buffer of exactly their size, releasing the slack.
+         */
+        ByteBuffer seal() {
+            ByteBuffer sealed = ByteBuffer.allocateDirect(buffer.position()).order(ByteOrder.nativeOrder());
+            sealed.put(buffer.flip()).flip();
+            buffer = null;
+            return sealed.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+        }
+
+        private ByteBuffer reserve(int bytes) {
+            if (buffer.remaining() < bytes) {
+                long needed = (long) buffer.position() + bytes;
+                if (needed > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Catalog column exceeds 2 GB");
+                }
+                int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * buffer.capacity()));
+                ByteBuffer grown = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.web.TableVersion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional read-only catalog store serving product reads from an off-heap CatalogSnapshot.
+ * The snapshot is built page by page from scalar queries, without loading entities into the persistence
+ * context, and replaced atomically by a background refresh whenever the catalog fingerprint has moved.
+ * Products created or updated since the current snapshot was built are kept on the heap and served
+ * in its place until a refresh includes them, so reads never see an older version than the database.
+ * Enabled with catalog.snapshot.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.snapshot.enabled", havingValue = "true")
+public class CatalogStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogStore.class);
+
+    @Autowired
+    private ProductRepository productRepository; // Source of the snapshot
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Receives the snapshot size gauges
+
+    // Seconds between checks for catalog changes, injected from application properties
+    @Value("${catalog.snapshot.refresh-seconds:300}")
+    private long refreshSeconds;
+
+    // Products read per query while building a snapshot, injected from application properties
+    @Value("${catalog.snapshot.page-size:10000}")
+    private int pageSize;
+
+    // Current snapshot; null until the first build has finished
+    private volatile CatalogSnapshot snapshot;
+
+    // Fingerprint of the catalog the current snapshot was built from
+    private volatile String builtFrom;
+
+    // Products created or updated after the current snapshot was built, by ID
+    private final Map<Long, Product> changes = new ConcurrentHashMap<>();
+
+    // Serializes refreshes; a lock rather than synchronized so a refresh waiting on JDBC does not pin a virtual thread
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private ScheduledExecutorService refresher;
+
+    /**
+     * Registers the gauges reporting the snapshot's off-heap size and product count.
+     */
+    @PostConstruct
+    public void init() {
+        Gauge.builder("catalog.snapshot.size", this, store -> store.snapshot == null ? 0 : store.snapshot.bytes())
+                .baseUnit("bytes")
+                .description("Off-heap memory held by the catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.products", this, store -> store.snapshot == null ? 0 : store.snapshot.size())
+                .description("Number of products in the catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the first snapshot once the application is ready and schedules the periodic refresh.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic refresh.
+     */
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds a new snapshot and swaps it in, unless the catalog fingerprint is unchanged since the last build.
+     * Readers keep using the previous snapshot until the new one is complete.
+     *
+     * @return Whether a new snapshot was built.
+     */
+    public boolean refresh() {
+        refreshLock.lock();
+        try {
+            String fingerprint = productRepository.findTableVersion().etag("catalog");
+            if (snapshot != null && fingerprint.equals(builtFrom)) {
+                return false;
+            }
+            long started = System.nanoTime();
+            CatalogSnapshot next = build();
+            snapshot = next;
+            builtFrom = fingerprint;
+            // Changes the new snapshot already contains no longer need to be kept on the heap
+            changes.values().removeIf(product -> next.versionOf(product.getId()) >= versionOf(product));
+            log.info("Built catalog snapshot of {} products, {} bytes off-heap, in {} ms", next.size(), next.bytes(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Tells whether the first snapshot has been built, so reads can be served from the store.
+     *
+     * @return Whether the store is ready.
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Looks up a product.
+     *
+     * @param id The ID of the product.
+     * @return A detached, read-only copy of the product, or null if it does not exist.
+     */
+    public Product get(Long id) {
+        Product changed = changes.get(id);
+        return changed != null ? changed : snapshot.get(id);
+    }
+
+    /**
+     * Lists all products, ascending by ID, followed by products created since the snapshot was built.
+     *
+     * @return Detached, read-only copies of all products.
+     */
+    public List<Product> getAll() {
+        List<Product> products = snapshot.all();
+        if (changes.isEmpty()) {
+            return products;
+        }
+        Map<Long, Product> added = new HashMap<>(changes);
+        for (int i = 0; i < products.size(); i++) {
+            Product changed = added.remove(products.get(i).getId());
+            if (changed != null) {
+                products.set(i, changed);
+            }
+        }
+        products.addAll(added.values());
+        return products;
+    }
+
+    /**
+     * Keeps a newly created product until the next snapshot includes it.
+     *
+     * @param event The event carrying the saved product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductCreated(ProductCreatedEvent event) {
+        remember(event.getProduct());
+    }
+
+    /**
+     * Keeps the new version of an updated product until the next snapshot includes it.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        remember(event.getProduct());
+    }
+
+    /**
+     * Pages through the catalog by ID and appends each page, with its categories, to a new snapshot.
+     */
+    private CatalogSnapshot build() {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder();
+        long after = 0;
+        List<Object[]> rows;
+        do {
+            rows = productRepository.findCatalogPage(after, PageRequest.of(0, pageSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            long first = (Long) rows.get(0)[0];
+            long last = (Long) rows.get(rows.size() - 1)[0];
+            Map<Long, List<String>> categories = new HashMap<>(rows.size() * 2);
+            for (Object[] assignment : productRepository.findCategoryAssignmentsBetween(first, last)) {
+                categories.computeIfAbsent((Long) assignment[0], id -> new ArrayList<>(2)).add((String) assignment[1]);
+            }
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                builder.add(id, (String) row[1], (String) row[2], (Long) row[3], (Long) row[4], (Instant) row[5],
+                        categories.get(id));
+            }
+            after = last;
+        } while (rows.size() == pageSize);
+        return builder.build();
+    }
+
+    /**
+     * Runs a scheduled refresh, logging failures so the schedule keeps running.
+     */
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot refresh failed; serving the previous snapshot", e);
+        }
+    }
+
+    private void remember(Product product) {
+        if (product.getId() != null) {
+            changes.put(product.getId(), product);
+        }
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0 : product.getVersion();
+    }
+}
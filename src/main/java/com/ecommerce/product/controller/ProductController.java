@@ -1,15 +1,27 @@
 package com.ecommerce.product.controller;
 
+import com.ecommerce.product.cache.ProductJson;
+import com.ecommerce.product.cache.ProductJsonCache;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.web.CacheControlPolicies;
+import com.ecommerce.web.ResponseFormats;
+import com.ecommerce.web.TableVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
  * REST controller for managing products in the e-commerce system.
- * Provides endpoints to create, retrieve and recommend products.
+ * Provides endpoints to create, update, retrieve and recommend products.
  */
 @RestController
 @RequestMapping("/api/products") // Base URL for all product-related endpoints
@@ -18,25 +30,119 @@ public class ProductController {
     @Autowired
     private ProductService productService; // Injects the ProductService for business logic
 
+    @Autowired
+    private ProductJsonCache productJsonCache; // Pre-serialized JSON of single products
+
+    @Autowired
+    private CacheControlPolicies cacheControlPolicies; // Per-endpoint Cache-Control headers
+
     /**
-     * Retrieves all products in the system.
+     * Retrieves all products in the system, as JSON or, if the client asks for it, as Smile or CBOR.
+     * With a price range, a category or sort=price the products come from the in-memory price index instead:
+     * the cheapest (or with sort=price,desc the dearest) products in the range and category, at most limit of them.
+     * The ETag and Last-Modified date come from a catalog fingerprint read with one aggregate query, and the
+     * ETag names the selected encoding; a request still holding the current list in that encoding gets
+     * 304 Not Modified without loading any product.
      *
-     * @return A list of all available products.
+     * @param minPrice The lowest price, inclusive; optional.
+     * @param maxPrice The highest price, inclusive; optional.
+     * @param sort     The order of a filtered list, "price" or "price,desc"; optional.
+     * @param category The category the products must belong to; optional.
+     * @param limit    The maximum number of products in a filtered list.
+     * @param request  The request, checked for Accept, If-None-Match and If-Modified-Since.
+     * @param response The response the Cache-Control header is set on.
+     * @return The matching products, 400 Bad Request for an unknown sort order, or null for a 304 response.
      */
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<Product>> getAllProducts(@RequestParam(required = false) Double minPrice,
+                                                        @RequestParam(required = false) Double maxPrice,
+                                                        @RequestParam(required = false) String sort,
+                                                        @RequestParam(required = false) String category,
+                                                        @RequestParam(defaultValue = "50") int limit,
+                                                        WebRequest request, HttpServletResponse response) {
+        boolean filtered = minPrice != null || maxPrice != null || sort != null || category != null;
+        boolean descending = "price,desc".equals(sort);
+        if (sort != null && !descending && !"price".equals(sort) && !"price,asc".equals(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+        cacheControlPolicies.apply("products", response);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        MediaType format = ResponseFormats.select(request.getHeader(HttpHeaders.ACCEPT));
+        TableVersion version = productService.getCatalogVersion();
+        String representation = (filtered
+                ? "products-" + minPrice + "-" + maxPrice + "-" + descending + "-" + category + "-" + limit
+                : "products") + "-" + format;
+        if (request.checkNotModified(version.etag(representation), version.getLastModifiedMillis())) {
+            return null;
+        }
+        List<Product> products = filtered
+                ? productService.getProductsByPrice(minPrice, maxPrice, category, descending, Math.max(1, Math.min(limit, 1000)))
+                : productService.getAllProducts();
+        return format != null ? ResponseEntity.ok().contentType(format).body(products) : ResponseEntity.ok(products);
     }
 
     /**
      * Retrieves a specific product by its ID.
+     * The cached JSON of the current version is written as is, with its entity tag and Last-Modified date;
+     * a request whose If-None-Match names that tag, or that has no If-None-Match and an If-Modified-Since
+     * not older than the product, gets 304 Not Modified without a body.
+     *
+     * @param id       The ID of the product to be fetched.
+     * @param request  The HTTP request, checked for If-None-Match and If-Modified-Since.
+     * @param response The HTTP response the product JSON is written to.
+     * @throws IOException If writing to the response fails.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getProductById(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ProductJson product = productJsonCache.get(id);
+        if (product == null) {
+            return;
+        }
+        cacheControlPolicies.apply("product", response);
+        response.setHeader(HttpHeaders.ETAG, product.getEtag());
+        if (product.getLastModified() != null) {
+            response.setHeader(HttpHeaders.LAST_MODIFIED, product.getLastModified());
+        }
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean notModified = ifNoneMatch != null
+                ? product.matches(ifNoneMatch)
+                : product.notModifiedSince(ifModifiedSince(request));
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] json = product.getJson();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
+
+    /**
+     * Searches products by name and description, ranking the best matches first.
      *
-     * @param id The ID of the product to be fetched.
-     * @return The product associated with the given ID.
+     * @param q      The words to search for.
+     * @param limit  The maximum number of products to return.
+     * @param prefix Whether the last word may match longer words, for search-as-you-type.
+     * @return A list of matching products.
      */
-    @GetMapping("/{id}")
-    public Product getProductById(@PathVariable Long id) {
-        return productService.getProductById(id);
+    @GetMapping("/search")
+    public List<Product> searchProducts(@RequestParam String q,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        @RequestParam(defaultValue = "true") boolean prefix) {
+        return productService.searchProducts(q, Math.max(1, Math.min(limit, 100)), prefix);
+    }
+
+    /**
+     * Suggests completions of a partly typed search query.
+     *
+     * @param q     The query typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return Suggested queries, most common first.
+     */
+    @GetMapping("/search/suggestions")
+    public List<String> suggestSearches(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggestSearches(q, Math.max(1, Math.min(limit, 50)));
     }
 
     /**
@@ -50,6 +156,35 @@ public class ProductController {
         return productService.getRecommendedProducts(category);
     }
 
+    /**
+     * Retrieves the products most often bought together with a specific product.
+     *
+     * @param productId The ID of the product recommendations are requested for.
+     * @param limit     The maximum number of products to return.
+     * @return A list of recommended products, best match first.
+     */
+    @GetMapping(value = "/recommendations", params = "productId")
+    public List<Product> getRecommendedProductsForProduct(@RequestParam Long productId,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        return productService.getRecommendedProducts(productId, limit);
+    }
+
+    /**
+     * Retrieves products by a combination of categories.
+     *
+     * @param categories The categories to match, as a comma-separated list or repeated parameter.
+     * @param match      "all" to require every category (intersection) or "any" for at least one (union).
+     * @return A list of matching products.
+     */
+    @GetMapping("/by-categories")
+    public List<Product> getProductsByCategories(@RequestParam List<String> categories,
+                                                 @RequestParam(defaultValue = "all") String match) {
+        if ("any".equalsIgnoreCase(match)) {
+            return productService.getProductsInAnyCategory(categories);
+        }
+        return productService.getProductsInAllCategories(categories);
+    }
+
     /**
      * Creates a new product.
      *
@@ -60,4 +195,31 @@ public class ProductController {
     public Product createProduct(@RequestBody Product product) {
         return productService.createProduct(product);
     }
+
+    /**
+     * Updates an existing product.
+     *
+     * @param id      The ID of the product to update.
+     * @param product The new name, description, price and categories of the product.
+     * @return 200 OK with the updated product, or 404 Not Found if no product has the given ID.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
+        Product updated = productService.updateProduct(id, product);
+        return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Reads the If-Modified-Since header; a malformed date counts as absent.
+     *
+     * @param request The HTTP request.
+     * @return The date in milliseconds since the epoch, or -1 if absent or malformed.
+     */
+    private static long ifModifiedSince(HttpServletRequest request) {
+        try {
+            return request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return -1L;
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after a new product has been saved.
+ * Lets in-memory structures derived from the catalog update themselves incrementally.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductCreatedEvent {
+
+    // The newly saved product, including its generated ID
+    private final Product product;
+}
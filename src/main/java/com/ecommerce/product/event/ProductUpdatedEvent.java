@@ -0,0 +1,17 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after an existing product has been changed.
+ * Lets in-memory structures derived from the catalog drop or rebuild what they hold for the product.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductUpdatedEvent {
+
+    // The updated product, including its new version
+    private final Product product;
+}
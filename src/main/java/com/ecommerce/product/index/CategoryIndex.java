@@ -0,0 +1,354 @@
+package com.ecommerce.product.index;
+
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory inverted index from category name to the sorted IDs of the products in that category.
+ * Built from the database at startup and updated incrementally when products are created or updated,
+ * so category lookups never query the product_categories table.
+ * Readers never lock: writers publish a new map and new arrays instead of modifying the current ones.
+ */
+@Component
+public class CategoryIndex {
+
+    // Returned for unknown categories and empty results
+    private static final long[] EMPTY = new long[0];
+
+    // When one list is this many times longer than the other, intersect by binary search instead of a linear merge
+    private static final int GALLOP_RATIO = 32;
+
+    @Autowired
+    private ProductRepository productRepository; // Source of the category assignments at startup
+
+    // Category name -> ascending product IDs; replaced as a whole on every write
+    private volatile Map<String, long[]> postings = Map.of();
+
+    // Serializes writers; a lock rather than synchronized so a rebuild waiting on JDBC does not pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Rebuilds the index from all category assignments stored in the database.
+     * Holds the write lock while reading, so products created concurrently are either
+     * part of the loaded rows or applied to the rebuilt index afterwards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            Map<String, LongArrayBuilder> builders = new HashMap<>();
+            for (Object[] row : productRepository.findAllCategoryAssignments()) {
+                builders.computeIfAbsent((String) row[1], category -> new LongArrayBuilder()).add((Long) row[0]);
+            }
+
+            Map<String, long[]> rebuilt = new HashMap<>(builders.size() * 2);
+            builders.forEach((category, builder) -> rebuilt.put(category, builder.toSortedUniqueArray()));
+            postings = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a newly created product to the index.
+     *
+     * @param event The event carrying the saved product.
+     */
+    @EventListener
+    public void onProductCreated(ProductCreatedEvent event) {
+        add(event.getProduct().getId(), event.getProduct().getCategories());
+    }
+
+    /**
+     * Moves an updated product to its current categories.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @EventListener
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        replace(event.getProduct().getId(), event.getProduct().getCategories());
+    }
+
+    /**
+     * Adds a product to the given categories.
+     *
+     * @param productId  The ID of the product.
+     * @param categories The categories the product belongs to; may be null.
+     */
+    public void add(Long productId, Collection<String> categories) {
+        if (productId == null || categories == null || categories.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<String, long[]> updated = new HashMap<>(postings);
+            for (String category : new LinkedHashSet<>(categories)) {
+                updated.put(category, insert(updated.getOrDefault(category, EMPTY), productId));
+            }
+            postings = updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a product from all categories and adds it to the given ones.
+     *
+     * @param productId  The ID of the product.
+     * @param categories The categories the product now belongs to; may be null.
+     */
+    public void replace(Long productId, Collection<String> categories) {
+        if (productId == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<String, long[]> updated = new HashMap<>(postings.size() * 2);
+            postings.forEach((category, ids) -> {
+                long[] remaining = remove(ids, productId);
+                if (remaining.length > 0) {
+                    updated.put(category, remaining);
+                }
+            });
+            if (categories != null) {
+                for (String category : new LinkedHashSet<>(categories)) {
+                    updated.put(category, insert(updated.getOrDefault(category, EMPTY), productId));
+                }
+            }
+            postings = updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of all products in a category.
+     * The returned array is shared and must not be modified.
+     *
+     * @param category The category name.
+     * @return The ascending product IDs, or an empty array for unknown categories.
+     */
+    public long[] idsFor(String category) {
+        return postings.getOrDefault(category, EMPTY);
+    }
+
+    /**
+     * Returns the categories a product belongs to.
+     * Looks the product up in every category's IDs, so the cost grows with the number of categories, not products.
+     *
+     * @param productId The ID of the product.
+     * @return The names of the product's categories; empty for unknown products.
+     */
+    public List<String> categoriesOf(long productId) {
+        List<String> categories = new ArrayList<>(2);
+        postings.forEach((category, ids) -> {
+            if (Arrays.binarySearch(ids, productId) >= 0) {
+                categories.add(category);
+            }
+        });
+        return categories;
+    }
+
+    /**
+     * Returns the IDs of products that belong to every one of the given categories.
+     *
+     * @param categories The category names.
+     * @return The ascending product IDs present in all categories; may be shared and must not be modified.
+     */
+    public long[] idsInAll(Collection<String> categories) {
+        if (categories.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, long[]> current = postings;
+        List<long[]> lists = new ArrayList<>(categories.size());
+        for (String category : categories) {
+            lists.add(current.getOrDefault(category, EMPTY));
+        }
+        // Start with the shortest list so every intermediate result is as small as possible
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the IDs of products that belong to at least one of the given categories.
+     *
+     * @param categories The category names.
+     * @return The ascending, distinct product IDs present in any category; may be shared and must not be modified.
+     */
+    public long[] idsInAny(Collection<String> categories) {
+        Map<String, long[]> current = postings;
+        long[] result = EMPTY;
+        for (String category : categories) {
+            result = union(result, current.getOrDefault(category, EMPTY));
+        }
+        return result;
+    }
+
+    /**
+     * Intersects two ascending arrays of distinct values.
+     *
+     * @param a The first array.
+     * @param b The second array.
+     * @return The ascending values present in both arrays.
+     */
+    static long[] intersect(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+        long[] out = new long[small.length];
+        int n = 0;
+
+        if ((long) small.length * GALLOP_RATIO < large.length) {
+            int from = 0;
+            for (long value : small) {
+                int pos = Arrays.binarySearch(large, from, large.length, value);
+                if (pos >= 0) {
+                    out[n++] = value;
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+                if (from == large.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    out[n++] = small[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Merges two ascending arrays of distinct values.
+     *
+     * @param a The first array.
+     * @param b The second array.
+     * @return The ascending, distinct values present in either array.
+     */
+    static long[] union(long[] a, long[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        long[] out = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Returns a copy of an ascending array with a value inserted at its sorted position.
+     *
+     * @param ids   The ascending array.
+     * @param value The value to insert.
+     * @return The original array if the value is already present, otherwise a new array.
+     */
+    private static long[] insert(long[] ids, long value) {
+        int pos = Arrays.binarySearch(ids, value);
+        if (pos >= 0) {
+            return ids;
+        }
+        int at = -pos - 1;
+        long[] out = new long[ids.length + 1];
+        System.arraycopy(ids, 0, out, 0, at);
+        out[at] = value;
+        System.arraycopy(ids, at, out, at + 1, ids.length - at);
+        return out;
+    }
+
+    /**
+     * Returns a copy of an ascending array without a value.
+     *
+     * @param ids   The ascending array.
+     * @param value The value to remove.
+     * @return The original array if the value is absent, otherwise a new array.
+     */
+    private static long[] remove(long[] ids, long value) {
+        int pos = Arrays.binarySearch(ids, value);
+        if (pos < 0) {
+            return ids;
+        }
+        long[] out = new long[ids.length - 1];
+        System.arraycopy(ids, 0, out, 0, pos);
+        System.arraycopy(ids, pos + 1, out, pos, ids.length - pos - 1);
+        return out;
+    }
+
+    /**
+     * Growable primitive array used while building the index, avoiding boxed IDs.
+     */
+    private static final class LongArrayBuilder {
+
+        private long[] values = new long[8];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedUniqueArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (n == 0 || sorted[i] != sorted[n - 1]) {
+                    sorted[n++] = sorted[i];
+                }
+            }
+            return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.ecommerce.product.index;
+
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of all products sorted by price in cents, in primitive arrays.
+ * A price range is a contiguous slice found by binary search, so the cheapest or dearest N products
+ * in a range are read straight off its ends. Combined with a category, the index walks whichever is
+ * smaller, the price slice or the category's product IDs, so no query scans or sorts the whole catalog.
+ * Built from the database at startup and updated incrementally when products are created or updated.
+ * Readers never lock: writers publish a new snapshot instead of modifying the current one.
+ */
+@Component
+public class PriceIndex {
+
+    // Returned for empty results
+    private static final long[] EMPTY = new long[0];
+
+    @Autowired
+    private ProductRepository productRepository; // Source of the prices at startup
+
+    // Current arrays; replaced as a whole on every write
+    private volatile Snapshot snapshot = Snapshot.of(new long[0], new long[0]);
+
+    // Serializes writers; a lock rather than synchronized so a rebuild waiting on JDBC does not pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Rebuilds the index from all stored prices.
+     * The rows are read in price order, which the price column index serves without a sort.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            List<Object[]> rows = productRepository.findAllPricesOrderByPrice();
+            long[] prices = new long[rows.size()];
+            long[] ids = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = (Long) rows.get(i)[0];
+                prices[i] = (Long) rows.get(i)[1];
+            }
+            snapshot = Snapshot.of(prices, ids);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a newly created product to the index.
+     *
+     * @param event The event carrying the saved product.
+     */
+    @EventListener
+    public void onProductCreated(ProductCreatedEvent event) {
+        put(event.getProduct().getId(), event.getProduct().getPriceCents());
+    }
+
+    /**
+     * Moves an updated product to its current price.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @EventListener
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        put(event.getProduct().getId(), event.getProduct().getPriceCents());
+    }
+
+    /**
+     * Adds a product or changes its price.
+     * Copies the arrays once, shifting the entries between the product's old and new position,
+     * so a write costs O(n) and never re-sorts the index.
+     *
+     * @param productId The ID of the product.
+     * @param price     The price of the product in cents.
+     */
+    public void put(Long productId, long price) {
+        if (productId == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            int existing = current.positionOf(productId);
+            int size = current.ids.length - (existing >= 0 ? 1 : 0) + 1;
+            long[] prices = new long[size];
+            long[] ids = new long[size];
+            int n = 0;
+            int position = -1;
+            for (int i = 0; i < current.ids.length; i++) {
+                if (i == existing) {
+                    continue;
+                }
+                if (position < 0 && compare(price, productId, current.prices[i], current.ids[i]) < 0) {
+                    position = n;
+                    prices[n] = price;
+                    ids[n++] = productId;
+                }
+                prices[n] = current.prices[i];
+                ids[n++] = current.ids[i];
+            }
+            if (position < 0) {
+                position = n;
+                prices[n] = price;
+                ids[n] = productId;
+            }
+            snapshot = current.withMoved(productId, existing, position, prices, ids);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the products in a price range, cheapest or dearest first, optionally restricted to a set of products.
+     *
+     * @param minPrice   The lowest price in cents, inclusive; null for no lower bound.
+     * @param maxPrice   The highest price in cents, inclusive; null for no upper bound.
+     * @param restrictTo Ascending IDs of the only products that may be returned, e.g. a category; null for all.
+     * @param descending Whether the dearest products come first.
+     * @param limit      The maximum number of products to return.
+     * @return The IDs of up to limit products, ordered by price and then ID.
+     */
+    public long[] query(Long minPrice, Long maxPrice, long[] restrictTo, boolean descending, int limit) {
+        Snapshot current = snapshot;
+        int from = minPrice != null ? firstAtLeast(current.prices, minPrice) : 0;
+        int to = maxPrice != null ? firstAbove(current.prices, maxPrice) : current.prices.length;
+        if (from >= to || limit <= 0 || (restrictTo != null && restrictTo.length == 0)) {
+            return EMPTY;
+        }
+
+        if (restrictTo == null) {
+            int count = Math.min(limit, to - from);
+            long[] result = new long[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = current.ids[descending ? to - 1 - i : from + i];
+            }
+            return result;
+        }
+
+        if (restrictTo.length < to - from) {
+            // Fewer restricted products than prices in range: look up each product's position and sort only those
+            int[] positions = new int[restrictTo.length];
+            int matches = 0;
+            for (long id : restrictTo) {
+                int position = current.positionOf(id);
+                if (position >= from && position < to) {
+                    positions[matches++] = position;
+                }
+            }
+            Arrays.sort(positions, 0, matches);
+            int count = Math.min(limit, matches);
+            long[] result = new long[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = current.ids[positions[descending ? matches - 1 - i : i]];
+            }
+            return result;
+        }
+
+        // Fewer prices in range than restricted products: walk the range in order until enough match
+        long[] result = new long[Math.min(limit, restrictTo.length)];
+        int count = 0;
+        for (int i = 0; i < to - from && count < result.length; i++) {
+            long id = current.ids[descending ? to - 1 - i : from + i];
+            if (Arrays.binarySearch(restrictTo, id) >= 0) {
+                result[count++] = id;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Orders entries by price and then by product ID.
+     */
+    private static int compare(long priceA, long idA, long priceB, long idB) {
+        int byPrice = Long.compare(priceA, priceB);
+        return byPrice != 0 ? byPrice : Long.compare(idA, idB);
+    }
+
+    /**
+     * Index of the first price not below the bound, or the length if there is none.
+     */
+    private static int firstAtLeast(long[] prices, long bound) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first price above the bound, or the length if there is none.
+     */
+    private static int firstAbove(long[] prices, long bound) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Immutable arrays of one version of the index: products in price order, plus their IDs in ID
+     * order with each product's position in the price order, so a product's price position is a binary search away.
+     */
+    private static final class Snapshot {
+
+        private final long[] prices; // Ascending prices in cents
+        private final long[] ids; // Product ID at the same position, ascending within equal prices
+        private final long[] sortedIds; // All product IDs, ascending
+        private final int[] positions; // Position in prices/ids of the product at the same index of sortedIds
+
+        private Snapshot(long[] prices, long[] ids, long[] sortedIds, int[] positions) {
+            this.prices = prices;
+            this.ids = ids;
+            this.sortedIds = sortedIds;
+            this.positions = positions;
+        }
+
+        /**
+         * Creates a snapshot from arrays already in price order.
+         */
+        static Snapshot of(long[] prices, long[] ids) {
+            long[] sortedIds = ids.clone();
+            Arrays.sort(sortedIds);
+            int[] positions = new int[ids.length];
+            for (int position = 0; position < ids.length; position++) {
+                positions[Arrays.binarySearch(sortedIds, ids[position])] = position;
+            }
+            return new Snapshot(prices, ids, sortedIds, positions);
+        }
+
+        /**
+         * Creates the next snapshot after one product was inserted or moved in the price order.
+         * The ID order only gains an entry for a new product, so sortedIds and positions are copied in one pass,
+         * shifting the positions of the products between the old and the new position instead of sorting again.
+         *
+         * @param productId The ID of the product.
+         * @param from      The product's position in this snapshot, or -1 if it is new.
+         * @param to        The product's position in the new arrays.
+         * @param prices    The new prices, already in price order.
+         * @param ids       The new product IDs at the same positions.
+         */
+        Snapshot withMoved(long productId, int from, int to, long[] prices, long[] ids) {
+            if (from >= 0) {
+                // Same products: the ID order is unchanged and can be shared
+                int[] moved = new int[positions.length];
+                for (int k = 0; k < positions.length; k++) {
+                    moved[k] = shift(positions[k], from, to);
+                }
+                moved[Arrays.binarySearch(sortedIds, productId)] = to;
+                return new Snapshot(prices, ids, sortedIds, moved);
+            }
+            int slot = -Arrays.binarySearch(sortedIds, productId) - 1;
+            long[] grownIds = new long[sortedIds.length + 1];
+            int[] grown = new int[sortedIds.length + 1];
+            for (int k = 0; k < sortedIds.length; k++) {
+                int target = k < slot ? k : k + 1;
+                grownIds[target] = sortedIds[k];
+                grown[target] = shift(positions[k], -1, to);
+            }
+            grownIds[slot] = productId;
+            grown[slot] = to;
+            return new Snapshot(prices, ids, grownIds, grown);
+        }
+
+        /**
+         * New position of another product after one product left position from (-1 if none) and entered position to.
+         */
+        private static int shift(int position, int from, int to) {
+            int afterRemoval = from >= 0 && position > from ? position - 1 : position;
+            return afterRemoval >= to ? afterRemoval + 1 : afterRemoval;
+        }
+
+        /**
+         * Position of a product in the price order, or -1 if it is not indexed.
+         */
+        int positionOf(long productId) {
+            int index = Arrays.binarySearch(sortedIds, productId);
+            return index >= 0 ? positions[index] : -1;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.product.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between decimal amounts, as exchanged with clients, and the whole cents money is stored
+ * and computed in. Cents are exact and add and multiply as plain longs; decimals appear only at the API boundary.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to cents, rounding half up.
+     * Goes through the shortest decimal representation of the double, so 0.285 becomes 29 cents, not 28.
+     *
+     * @param amount The amount, e.g. 12.99.
+     * @return The amount in cents, e.g. 1299.
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Converts cents to a decimal amount.
+     *
+     * @param cents The amount in cents.
+     * @return The amount, exact to the cent for any amount below 2^53 cents.
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+}
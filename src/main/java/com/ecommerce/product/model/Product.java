@@ -1,8 +1,13 @@
 package com.ecommerce.product.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -12,6 +17,7 @@ import java.util.List;
 @Entity
 @Setter
 @Getter
+@Table(indexes = @Index(name = "idx_product_price", columnList = "price_cents, id")) // Serves price range scans in price order
 public class Product {
 
     @Id
@@ -24,11 +30,39 @@ public class Product {
     // Description of the product
     private String description;
 
-    // Price of the product
-    private double price;
+    // Price of the product in cents; exposed to clients as the decimal "price"
+    @JsonIgnore
+    private long priceCents;
 
     // Defines a collection of categories the product belongs to
     @ElementCollection
     private List<String> categories;
 
+    // Incremented on every update; used for optimistic locking and to key cached representations
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Time of the last insert or update; sent as Last-Modified and compared with If-Modified-Since
+    @UpdateTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    /**
+     * Returns the price as a decimal amount, as exchanged with clients.
+     *
+     * @return The price, e.g. 12.99.
+     */
+    public double getPrice() {
+        return Money.toAmount(priceCents);
+    }
+
+    /**
+     * Sets the price from a decimal amount, rounded to whole cents.
+     *
+     * @param price The price, e.g. 12.99.
+     */
+    public void setPrice(double price) {
+        this.priceCents = Money.toCents(price);
+    }
 }
@@ -0,0 +1,458 @@
+package com.ecommerce.product.recommendation;
+
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Item-to-item recommendation index learned from co-purchases.
+ * For every product it counts how often each other product was bought in the same order,
+ * and keeps the top-K neighbours in primitive arrays so lookups are a map read and an array copy.
+ * Counts are updated incrementally as orders are created and can be rebuilt from all orders in parallel.
+ */
+@Component
+public class CoPurchaseIndex {
+
+    // Returned for products without co-purchases
+    private static final long[] EMPTY = new long[0];
+
+    @Autowired
+    private OrderRepository orderRepository; // Source of historical orders for rebuilds
+
+    // Number of neighbours kept per product, injected from application properties
+    @Value("${recommendations.top-k:20}")
+    private int topK;
+
+    // Counts currently used for lookups and incremental updates
+    private volatile Counts counts = new Counts();
+
+    // Orders recorded while a rebuild runs, replayed into the rebuilt counts unless the rebuild already loaded them;
+    // null when no rebuild runs
+    private Queue<Recorded> recordedDuringRebuild;
+
+    // Allows one rebuild at a time; a lock rather than synchronized so the JDBC read does not pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Records hold the read lock; a rebuild holds the write lock to start buffering and to swap the counts,
+    // so no record can land in counts that are being replaced without also being buffered
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * Rebuilds the co-purchase counts from all stored orders and atomically replaces the current ones.
+     * Orders are read sequentially as compact product-ID baskets, then counted in parallel on the fork-join pool.
+     * Orders recorded while the rebuild runs are replayed into the new counts, except those the read already saw.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            swapLock.writeLock().lock();
+            try {
+                recordedDuringRebuild = new ConcurrentLinkedQueue<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            try {
+                Counts fresh = new Counts();
+                Baskets loaded = loadBaskets();
+                loaded.baskets().parallelStream().forEach(basket -> fresh.record(basket, topK));
+                swapLock.writeLock().lock();
+                try {
+                    for (Recorded recorded : recordedDuringRebuild) {
+                        if (recorded.orderId() == null || Arrays.binarySearch(loaded.orderIds(), recorded.orderId()) < 0) {
+                            fresh.record(recorded.basket(), topK);
+                        }
+                    }
+                    counts = fresh;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            } finally {
+                swapLock.writeLock().lock();
+                try {
+                    recordedDuringRebuild = null;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Records the products of a newly created order.
+     *
+     * @param event The event carrying the saved order.
+     */
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        List<OrderItem> items = event.getOrder().getOrderItems();
+        if (items == null) {
+            return;
+        }
+        long[] basket = new long[items.size()];
+        int n = 0;
+        for (OrderItem item : items) {
+            if (item.getProductId() != null) {
+                basket[n++] = item.getProductId();
+            }
+        }
+        record(event.getOrder().getId(), Arrays.copyOf(basket, n));
+    }
+
+    /**
+     * Records one order's products as bought together.
+     *
+     * @param productIds The IDs of the products in the order, in any order and possibly repeated.
+     */
+    public void record(long[] productIds) {
+        record(null, productIds);
+    }
+
+    /**
+     * Records one order's products as bought together.
+     * The order ID lets a concurrent rebuild skip orders it has already read from the database.
+     *
+     * @param orderId    The ID of the order, or null if unknown.
+     * @param productIds The IDs of the products in the order, in any order and possibly repeated.
+     */
+    public void record(Long orderId, long[] productIds) {
+        long[] basket = normalize(productIds);
+        if (basket.length < 2) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            counts.record(basket, topK);
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.add(new Recorded(orderId, basket));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the products most often bought together with a product, best first.
+     *
+     * @param productId The ID of the product.
+     * @param limit     The maximum number of products to return; capped at the configured top-K.
+     * @return The IDs of the co-purchased products.
+     */
+    public long[] recommendationsFor(long productId, int limit) {
+        Node node = counts.nodes.get(productId);
+        if (node == null || limit <= 0) {
+            return EMPTY;
+        }
+        long[] top = node.top(topK);
+        return top.length <= limit ? top.clone() : Arrays.copyOf(top, limit);
+    }
+
+    /**
+     * Reads all orders as baskets of product IDs, grouping the (order ID, product ID) rows by order.
+     *
+     * @return One product-ID array per order, and the ascending IDs of all orders read.
+     */
+    private Baskets loadBaskets() {
+        List<long[]> baskets = new ArrayList<>();
+        long[] orderIds = new long[1024];
+        int orders = 0;
+        try (Stream<Object[]> rows = orderRepository.streamOrderProductPairs()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            Long currentOrder = null;
+            long[] buffer = new long[16];
+            int size = 0;
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Long orderId = (Long) row[0];
+                if (!orderId.equals(currentOrder)) {
+                    if (size > 1) {
+                        baskets.add(normalize(Arrays.copyOf(buffer, size)));
+                    }
+                    if (orders == orderIds.length) {
+                        orderIds = Arrays.copyOf(orderIds, orders * 2);
+                    }
+                    orderIds[orders++] = orderId;
+                    currentOrder = orderId;
+                    size = 0;
+                }
+                if (row[1] != null) {
+                    if (size == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, size * 2);
+                    }
+                    buffer[size++] = (Long) row[1];
+                }
+            }
+            if (size > 1) {
+                baskets.add(normalize(Arrays.copyOf(buffer, size)));
+            }
+        }
+        return new Baskets(baskets, Arrays.copyOf(orderIds, orders));
+    }
+
+    /**
+     * Sorts a basket and removes duplicate and non-positive IDs.
+     *
+     * @param productIds The raw product IDs.
+     * @return A new ascending array of distinct positive IDs.
+     */
+    private static long[] normalize(long[] productIds) {
+        long[] sorted = productIds.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (long id : sorted) {
+            if (id > 0 && (n == 0 || sorted[n - 1] != id)) {
+                sorted[n++] = id;
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    /**
+     * Baskets read from the database, with the ascending IDs of the orders they came from.
+     */
+    private record Baskets(List<long[]> baskets, long[] orderIds) {
+    }
+
+    /**
+     * An order recorded while a rebuild runs.
+     */
+    private record Recorded(Long orderId, long[] basket) {
+    }
+
+    /**
+     * Co-purchase counts for all products.
+     */
+    private static final class Counts {
+
+        private final ConcurrentHashMap<Long, Node> nodes = new ConcurrentHashMap<>();
+
+        void record(long[] basket, int topK) {
+            for (long productId : basket) {
+                nodes.computeIfAbsent(productId, id -> new Node()).increment(basket, productId, topK);
+            }
+        }
+    }
+
+    /**
+     * Co-purchase counts of a single product, stored in an open-addressing primitive hash map,
+     * plus the cached top-K neighbour list recomputed lazily after changes.
+     * The map is bounded: once it holds more than PRUNE_FACTOR * K neighbours it is cut back to the
+     * RETAIN_FACTOR * K most frequent, so memory per product stays O(K) and counts of rare neighbours are approximate.
+     */
+    private static final class Node {
+
+        // Marks an unused slot; product IDs are always positive
+        private static final long FREE = 0L;
+
+        // Neighbours, as a multiple of K, above which the map is pruned
+        private static final int PRUNE_FACTOR = 4;
+
+        // Neighbours, as a multiple of K, kept after pruning; the slack lets new neighbours build up counts
+        private static final int RETAIN_FACTOR = 2;
+
+        private long[] keys = new long[8];
+        private int[] values = new int[8];
+        private int size;
+        private boolean dirty;
+        private long[] top = EMPTY;
+        private int topCapacity;
+
+        synchronized void increment(long[] basket, long self, int topK) {
+            for (long other : basket) {
+                if (other != self) {
+                    add(other);
+                }
+            }
+            if (topK > 0 && size > PRUNE_FACTOR * topK) {
+                prune(RETAIN_FACTOR * topK);
+            }
+            dirty = true;
+        }
+
+        synchronized long[] top(int k) {
+            if (dirty || topCapacity != k) {
+                top = selectTop(k);
+                topCapacity = k;
+                dirty = false;
+            }
+            return top;
+        }
+
+        private void add(long key) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE) {
+                if (keys[slot] == key) {
+                    values[slot]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = 1;
+            size++;
+        }
+
+        /**
+         * Drops all but the most frequent neighbours.
+         */
+        private void prune(int keep) {
+            long[] keptIds = selectTop(keep);
+            int[] keptCounts = new int[keptIds.length];
+            for (int i = 0; i < keptIds.length; i++) {
+                keptCounts[i] = get(keptIds[i]);
+            }
+            int capacity = 8;
+            while (keptIds.length * 4 >= capacity * 3) {
+                capacity *= 2;
+            }
+            keys = new long[capacity];
+            values = new int[capacity];
+            size = keptIds.length;
+            int mask = capacity - 1;
+            for (int i = 0; i < keptIds.length; i++) {
+                int slot = mix(keptIds[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = keptIds[i];
+                values[slot] = keptCounts[i];
+            }
+        }
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (keys[slot] != FREE) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        /**
+         * Selects the k most frequent neighbours with a bounded min-heap, so the cost is O(n log k).
+         * Ties are broken by the lower product ID.
+         */
+        private long[] selectTop(int k) {
+            int capacity = Math.min(k, size);
+            long[] heapIds = new long[capacity];
+            int[] heapCounts = new int[capacity];
+            int heapSize = 0;
+            for (int i = 0; i < keys.length && capacity > 0; i++) {
+                if (keys[i] == FREE) {
+                    continue;
+                }
+                if (heapSize < capacity) {
+                    heapIds[heapSize] = keys[i];
+                    heapCounts[heapSize] = values[i];
+                    siftUp(heapIds, heapCounts, heapSize++);
+                } else if (ranksBelow(heapCounts[0], heapIds[0], values[i], keys[i])) {
+                    heapIds[0] = keys[i];
+                    heapCounts[0] = values[i];
+                    siftDown(heapIds, heapCounts, 0, heapSize);
+                }
+            }
+
+            long[] result = new long[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                result[i] = heapIds[0];
+                heapIds[0] = heapIds[i];
+                heapCounts[0] = heapCounts[i];
+                siftDown(heapIds, heapCounts, 0, i);
+            }
+            return result;
+        }
+
+        private static void siftUp(long[] ids, int[] counts, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksBelow(counts[index], ids[index], counts[parent], ids[parent])) {
+                    return;
+                }
+                swap(ids, counts, index, parent);
+                index = parent;
+            }
+        }
+
+        private static void siftDown(long[] ids, int[] counts, int index, int size) {
+            while (true) {
+                int left = 2 * index + 1;
+                int right = left + 1;
+                int lowest = index;
+                if (left < size && ranksBelow(counts[left], ids[left], counts[lowest], ids[lowest])) {
+                    lowest = left;
+                }
+                if (right < size && ranksBelow(counts[right], ids[right], counts[lowest], ids[lowest])) {
+                    lowest = right;
+                }
+                if (lowest == index) {
+                    return;
+                }
+                swap(ids, counts, index, lowest);
+                index = lowest;
+            }
+        }
+
+        private static boolean ranksBelow(int countA, long idA, int countB, long idB) {
+            return countA < countB || (countA == countB && idA > idB);
+        }
+
+        private static void swap(long[] ids, int[] counts, int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            int count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.ecommerce.product.repository;
 
 import com.ecommerce.product.model.Product;
+import com.ecommerce.web.TableVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for managing Product entities in the database.
@@ -10,6 +17,27 @@ import java.util.List;
  */
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Finds a product by its ID together with its categories,
+     * so the returned entity can be cached and serialized outside of a session.
+     *
+     * @param id The ID of the product.
+     * @return The product if found.
+     */
+    @Override
+    @EntityGraph(attributePaths = "categories")
+    Optional<Product> findById(Long id);
+
+    /**
+     * Finds products by their IDs together with their categories in a single query.
+     *
+     * @param ids The IDs of the products.
+     * @return The products found, in no particular order.
+     */
+    @Override
+    @EntityGraph(attributePaths = "categories")
+    List<Product> findAllById(Iterable<Long> ids);
+
     /**
      * Finds all products that belong to a specific category.
      *
@@ -17,4 +45,68 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return A list of products that belong to the specified category.
      */
     List<Product> findByCategoriesContaining(String category);
+
+    /**
+     * Lists every (product ID, category) pair without loading product entities.
+     *
+     * @return Rows of [Long productId, String category].
+     */
+    @Query("select p.id, c from Product p join p.categories c")
+    List<Object[]> findAllCategoryAssignments();
+
+    /**
+     * Lists the scalar fields of the products following an ID, in ID order, without loading product entities.
+     * Used to page through the catalog by key, which stays fast however far into the table the page is.
+     *
+     * @param after    The ID after which the page starts.
+     * @param pageable The page size; the page number must be 0.
+     * @return Rows of [Long id, String name, String description, Long priceCents, Long version, Instant updatedAt].
+     */
+    @Query("select p.id, p.name, p.description, p.priceCents, p.version, p.updatedAt from Product p "
+            + "where p.id > :after order by p.id")
+    List<Object[]> findCatalogPage(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Lists the (product ID, category) pairs of the products in an ID range, in ID order.
+     *
+     * @param from The lowest product ID, inclusive.
+     * @param to   The highest product ID, inclusive.
+     * @return Rows of [Long productId, String category].
+     */
+    @Query("select p.id, c from Product p join p.categories c where p.id between :from and :to order by p.id")
+    List<Object[]> findCategoryAssignmentsBetween(@Param("from") Long from, @Param("to") Long to);
+
+    /**
+     * Retrieves the current prices of the given products without loading the entities.
+     *
+     * @param ids The IDs of the products.
+     * @return Rows of [Long productId, Long priceCents] for the products that exist, in no particular order.
+     */
+    @Query("select p.id, p.priceCents from Product p where p.id in :ids")
+    List<Object[]> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lists the price of every product in price order without loading product entities.
+     * The (price_cents, id) index lets the database return the rows in this order without sorting.
+     *
+     * @return Rows of [Long productId, Long priceCents], ascending by price and then ID.
+     */
+    @Query("select p.id, p.priceCents from Product p order by p.priceCents, p.id")
+    List<Object[]> findAllPricesOrderByPrice();
+
+    /**
+     * Lists the searchable text of every product without loading product entities.
+     *
+     * @return Rows of [Long productId, String name, String description].
+     */
+    @Query("select p.id, p.name, p.description from Product p")
+    List<Object[]> findAllSearchFields();
+
+    /**
+     * Computes a fingerprint of the whole catalog from the ID, version and timestamp columns only.
+     *
+     * @return The catalog's row count, version sum, highest ID and latest update time.
+     */
+    @Query("select new com.ecommerce.web.TableVersion(count(p), sum(p.version), max(p.id), max(p.updatedAt)) from Product p")
+    TableVersion findTableVersion();
 }
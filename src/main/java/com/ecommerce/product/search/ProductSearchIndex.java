@@ -0,0 +1,603 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory full-text index over product names and descriptions.
+ * Every indexed product gets a dense document number; each term maps to a posting list of document
+ * numbers and term frequencies in primitive arrays, ascending by document. Queries are ranked with
+ * BM25, scoring the posting lists document-at-a-time and keeping only the best results in a bounded
+ * heap. The term dictionary is sorted, so the last query word can be completed as a prefix.
+ * Built in parallel at startup and updated incrementally when products are created or updated.
+ * An update that leaves the name and description unchanged is ignored; otherwise the product gets a new
+ * document and its old one is skipped, until superseded documents pass a share of the live ones and the
+ * index is compacted, dropping them from the postings.
+ */
+@Component
+public class ProductSearchIndex {
+
+    // Returned when nothing matches
+    private static final long[] EMPTY = new long[0];
+
+    // BM25 term frequency saturation and length normalization
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // A word in the name counts this many times as much as one in the description
+    private static final int NAME_WEIGHT = 3;
+
+    // Terms a query prefix expands to at most, picked by document frequency, and their weight relative to exact terms
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    // Dictionary entries scanned at most when expanding a prefix, bounding the cost of very short prefixes
+    private static final int MAX_PREFIX_SCAN = 4096;
+
+    // Products tokenized per parallel task during a rebuild
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    // Superseded documents are compacted away once they exceed this share of the live documents,
+    // and at least MIN_DEAD_TO_COMPACT of them, so small indexes are not compacted on every update
+    private static final float MAX_DEAD_RATIO = 0.25f;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    @Autowired
+    private ProductRepository productRepository; // Source of names and descriptions at startup
+
+    // Term -> postings; sorted for prefix lookups
+    private TreeMap<String, Postings> terms = new TreeMap<>();
+
+    // Document number -> product ID, or -1 once the document has been superseded by an update
+    private long[] productIds = new long[1024];
+
+    // Document number -> weighted number of words
+    private int[] lengths = new int[1024];
+
+    // Document number -> hash of the document's words and frequencies, to detect updates that change no text
+    private long[] signatures = new long[1024];
+
+    private int documents; // Document numbers handed out so far
+    private int liveDocuments; // Documents not superseded
+    private long liveLength; // Sum of the lengths of live documents
+
+    // Product ID -> current document number
+    private Map<Long, Integer> documentOf = new HashMap<>();
+
+    // Queries share the read lock; rebuilds and incremental updates take the write lock.
+    // A lock rather than synchronized so a rebuild waiting on JDBC does not pin a virtual thread.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Rebuilds the index from the names and descriptions of all stored products.
+     * Holds the write lock while reading, so products created concurrently are applied afterwards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            load(productRepository.findAllSearchFields());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index contents with the given products.
+     * Products are tokenized in parallel chunks on the fork-join pool; chunk results are merged in
+     * order, so every posting list stays ascending by document number.
+     *
+     * @param rows Rows of [Long productId, String name, String description].
+     */
+    public void load(List<Object[]> rows) {
+        int count = rows.size();
+        int chunks = (count + LOAD_CHUNK_SIZE - 1) / LOAD_CHUNK_SIZE;
+        long[] ids = new long[Math.max(count, 1024)];
+        int[] lens = new int[ids.length];
+        long[] sigs = new long[ids.length];
+
+        List<Map<String, Postings>> partials = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    Map<String, Postings> partial = new HashMap<>();
+                    int end = Math.min(count, (chunk + 1) * LOAD_CHUNK_SIZE);
+                    for (int doc = chunk * LOAD_CHUNK_SIZE; doc < end; doc++) {
+                        Object[] row = rows.get(doc);
+                        ids[doc] = (Long) row[0];
+                        Map<String, Integer> frequencies = new HashMap<>();
+                        lens[doc] = tokenize((String) row[1], (String) row[2], frequencies);
+                        sigs[doc] = signature(frequencies);
+                        int document = doc;
+                        frequencies.forEach((term, frequency) ->
+                                partial.computeIfAbsent(term, t -> new Postings()).add(document, frequency));
+                    }
+                    return partial;
+                })
+                .toList();
+
+        lock.writeLock().lock();
+        try {
+            HashMap<String, Postings> merged = new HashMap<>();
+            for (Map<String, Postings> partial : partials) {
+                partial.forEach((term, postings) -> merged.merge(term, postings, Postings::append));
+            }
+            terms = new TreeMap<>(merged);
+            productIds = ids;
+            lengths = lens;
+            signatures = sigs;
+            documents = count;
+            liveDocuments = count;
+            long total = 0;
+            documentOf = new HashMap<>(count * 2);
+            for (int doc = 0; doc < count; doc++) {
+                total += lens[doc];
+                documentOf.put(ids[doc], doc);
+            }
+            liveLength = total;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a newly created product to the index.
+     *
+     * @param event The event carrying the saved product.
+     */
+    @EventListener
+    public void onProductCreated(ProductCreatedEvent event) {
+        Product product = event.getProduct();
+        add(product.getId(), product.getName(), product.getDescription());
+    }
+
+    /**
+     * Re-indexes an updated product if its name or description changed.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @EventListener
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        Product product = event.getProduct();
+        add(product.getId(), product.getName(), product.getDescription());
+    }
+
+    /**
+     * Indexes a product, superseding any earlier document of the same product unless its words are unchanged.
+     *
+     * @param productId   The ID of the product.
+     * @param name        The product name; may be null.
+     * @param description The product description; may be null.
+     */
+    public void add(Long productId, String name, String description) {
+        if (productId == null) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = tokenize(name, description, frequencies);
+        long signature = signature(frequencies);
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = documentOf.get(productId);
+            if (previous != null) {
+                if (lengths[previous] == length && signatures[previous] == signature) {
+                    return;
+                }
+                productIds[previous] = -1L;
+                liveDocuments--;
+                liveLength -= lengths[previous];
+            }
+            if (documents == productIds.length) {
+                productIds = Arrays.copyOf(productIds, documents * 2);
+                lengths = Arrays.copyOf(lengths, documents * 2);
+                signatures = Arrays.copyOf(signatures, documents * 2);
+            }
+            int doc = documents++;
+            productIds[doc] = productId;
+            lengths[doc] = length;
+            signatures[doc] = signature;
+            liveDocuments++;
+            liveLength += length;
+            documentOf.put(productId, doc);
+            frequencies.forEach((term, frequency) -> terms.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+            int dead = documents - liveDocuments;
+            if (dead >= MIN_DEAD_TO_COMPACT && dead > liveDocuments * MAX_DEAD_RATIO) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops superseded documents and renumbers the live ones densely, keeping their order, so every
+     * posting list stays ascending and document frequencies count live documents only.
+     * Must be called with the write lock held.
+     */
+    private void compact() {
+        int[] renumbered = new int[documents];
+        int live = 0;
+        for (int doc = 0; doc < documents; doc++) {
+            if (productIds[doc] < 0) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = live;
+            productIds[live] = productIds[doc];
+            lengths[live] = lengths[doc];
+            signatures[live] = signatures[doc];
+            documentOf.put(productIds[live], live);
+            live++;
+        }
+        documents = live;
+        terms.values().removeIf(postings -> postings.renumber(renumbered) == 0);
+    }
+
+    /**
+     * Finds the products best matching a query, ranked by BM25.
+     * A product matches if it contains any query word; products containing more and rarer words rank higher.
+     *
+     * @param query  The words to search for.
+     * @param limit  The maximum number of results.
+     * @param prefix Whether the last word may also match longer words starting with it, as while typing.
+     * @return The IDs of the matching products, best match first.
+     */
+    public long[] search(String query, int limit, boolean prefix) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            List<Float> weights = new ArrayList<>();
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                Postings exact = terms.get(word);
+                if (exact != null && !lists.contains(exact)) {
+                    lists.add(exact);
+                    weights.add(idf(exact.size));
+                }
+                if (prefix && i == words.size() - 1) {
+                    for (Postings expansion : expansions(word)) {
+                        if (!lists.contains(expansion)) {
+                            lists.add(expansion);
+                            weights.add(PREFIX_WEIGHT * idf(expansion.size));
+                        }
+                    }
+                }
+            }
+            return rank(lists, weights, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes the last word of a partly typed query with indexed words, most common first.
+     *
+     * @param query The query typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return Full query suggestions, e.g. "gaming laptop" for "gaming lap".
+     */
+    public List<String> suggest(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String last = words.get(words.size() - 1);
+        String head = String.join(" ", words.subList(0, words.size() - 1));
+        lock.readLock().lock();
+        try {
+            List<Map.Entry<String, Postings>> candidates = prefixEntries(last);
+            candidates.sort((a, b) -> Integer.compare(b.getValue().size, a.getValue().size));
+            List<String> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+            for (int i = 0; i < candidates.size() && suggestions.size() < limit; i++) {
+                String term = candidates.get(i).getKey();
+                suggestions.add(head.isEmpty() ? term : head + " " + term);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores the given posting lists document-at-a-time and keeps the best documents in a bounded min-heap.
+     */
+    private long[] rank(List<Postings> lists, List<Float> weights, int limit) {
+        int n = lists.size();
+        if (n == 0) {
+            return EMPTY;
+        }
+        float averageLength = liveDocuments > 0 ? (float) liveLength / liveDocuments : 1f;
+        int[] cursors = new int[n];
+        TopDocuments top = new TopDocuments(limit);
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                Postings postings = lists.get(i);
+                if (cursors[i] < postings.size && postings.docs[cursors[i]] < doc) {
+                    doc = postings.docs[cursors[i]];
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            float score = 0;
+            for (int i = 0; i < n; i++) {
+                Postings postings = lists.get(i);
+                if (cursors[i] < postings.size && postings.docs[cursors[i]] == doc) {
+                    int frequency = postings.freqs[cursors[i]++];
+                    score += weights.get(i) * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+            if (productIds[doc] >= 0) {
+                top.offer(doc, score);
+            }
+        }
+        int[] docs = top.sortedDocuments();
+        long[] result = new long[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            result[i] = productIds[docs[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Inverse document frequency of a term, never negative.
+     */
+    private float idf(int documentFrequency) {
+        int df = Math.min(documentFrequency, liveDocuments);
+        return (float) Math.log(1 + (liveDocuments - df + 0.5) / (df + 0.5));
+    }
+
+    /**
+     * The most common terms that start with, but are longer than, the given prefix.
+     */
+    private List<Postings> expansions(String prefix) {
+        List<Map.Entry<String, Postings>> entries = prefixEntries(prefix);
+        entries.removeIf(entry -> entry.getKey().length() == prefix.length());
+        entries.sort((a, b) -> Integer.compare(b.getValue().size, a.getValue().size));
+        List<Postings> expansions = new ArrayList<>(Math.min(entries.size(), MAX_PREFIX_EXPANSIONS));
+        for (int i = 0; i < entries.size() && i < MAX_PREFIX_EXPANSIONS; i++) {
+            expansions.add(entries.get(i).getValue());
+        }
+        return expansions;
+    }
+
+    /**
+     * Dictionary entries starting with a prefix, scanning at most MAX_PREFIX_SCAN entries.
+     */
+    private List<Map.Entry<String, Postings>> prefixEntries(String prefix) {
+        NavigableMap<String, Postings> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        List<Map.Entry<String, Postings>> entries = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : range.entrySet()) {
+            if (entries.size() == MAX_PREFIX_SCAN) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Counts the words of a product, weighting name words above description words.
+     *
+     * @param name        The product name; may be null.
+     * @param description The product description; may be null.
+     * @param frequencies Receives the weighted frequency of every word.
+     * @return The weighted number of words.
+     */
+    static int tokenize(String name, String description, Map<String, Integer> frequencies) {
+        int length = 0;
+        for (String word : words(name)) {
+            frequencies.merge(word, NAME_WEIGHT, Integer::sum);
+            length += NAME_WEIGHT;
+        }
+        for (String word : words(description)) {
+            frequencies.merge(word, 1, Integer::sum);
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Hashes a document's words and their frequencies independently of their order.
+     *
+     * @param frequencies The weighted frequency of every word.
+     * @return A 64-bit signature that changes when any word or frequency changes.
+     */
+    static long signature(Map<String, Integer> frequencies) {
+        long signature = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            long h = 0xcbf29ce484222325L;
+            String term = entry.getKey();
+            for (int i = 0; i < term.length(); i++) {
+                h = (h ^ term.charAt(i)) * 0x100000001b3L;
+            }
+            h = (h ^ entry.getValue()) * 0x100000001b3L;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            signature += h;
+        }
+        return signature;
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     *
+     * @param text The text; may be null.
+     * @return The words in order of appearance.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Posting list of one term: ascending document numbers and the term's weighted frequency in each.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Renumbers the documents of this list, dropping those mapped to -1.
+         *
+         * @return The number of documents left.
+         */
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+
+        Postings append(Postings other) {
+            if (size + other.size > docs.length) {
+                docs = Arrays.copyOf(docs, size + other.size);
+                freqs = Arrays.copyOf(freqs, size + other.size);
+            }
+            System.arraycopy(other.docs, 0, docs, size, other.size);
+            System.arraycopy(other.freqs, 0, freqs, size, other.size);
+            size += other.size;
+            return this;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the best-scoring documents; ties keep the earlier document.
+     */
+    private static final class TopDocuments {
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopDocuments(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Empties the heap into an array, best document first.
+         */
+        int[] sortedDocuments() {
+            int[] sorted = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sorted[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return sorted;
+        }
+
+        private boolean less(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && docs[a] > docs[b]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!less(i, parent)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
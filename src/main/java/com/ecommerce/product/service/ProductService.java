@@ -1,57 +1,309 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.product.catalog.CatalogStore;
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.index.CategoryIndex;
+import com.ecommerce.product.index.PriceIndex;
+import com.ecommerce.product.model.Money;
 import com.ecommerce.product.model.Product;
+import com.ecommerce.product.recommendation.CoPurchaseIndex;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
+import com.ecommerce.web.TableVersion;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for handling business logic related to products.
- * Provides methods to retrieve, create and recommend products.
+ * Provides methods to retrieve, search, create, update and recommend products.
  */
 @Service
+@Timed("service.method")
 public class ProductService {
 
+    // Maximum number of IDs loaded with a single IN query
+    private static final int ID_BATCH_SIZE = 1000;
+
     @Autowired
     private ProductRepository productRepository; // Injects the ProductRepository for database operations
 
+    @Autowired
+    private CategoryIndex categoryIndex; // In-memory category -> product IDs index
+
+    @Autowired
+    private PriceIndex priceIndex; // In-memory products sorted by price
+
+    @Autowired
+    private CoPurchaseIndex coPurchaseIndex; // In-memory co-purchase recommendations
+
+    @Autowired
+    private ProductSearchIndex searchIndex; // In-memory full-text index over names and descriptions
+
+    @Autowired(required = false)
+    private CatalogStore catalogStore; // Off-heap read-only catalog; only present with catalog.snapshot.enabled=true
+
+    @Autowired
+    private CacheManager cacheManager; // Gives multi-ID lookups access to the products cache
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Notifies in-memory indexes about catalog changes
+
     /**
      * Retrieves all products available in the system.
+     * With the catalog store enabled they are materialized from its off-heap snapshot.
      *
      * @return A list of all products.
      */
     public List<Product> getAllProducts() {
+        if (servesFromCatalogStore()) {
+            return catalogStore.getAll();
+        }
         return productRepository.findAll();
     }
 
+    /**
+     * Computes a fingerprint of the catalog without loading any product,
+     * so an unchanged product list can be confirmed to a client with a single aggregate query.
+     *
+     * @return The current catalog fingerprint.
+     */
+    public TableVersion getCatalogVersion() {
+        return productRepository.findTableVersion();
+    }
+
     /**
      * Retrieves a specific product by its ID.
+     * With the catalog store enabled the product is read from its off-heap snapshot and not cached on the heap;
+     * otherwise results, including misses, are served from the products cache until they expire or are evicted.
      *
      * @param id The ID of the product to be fetched.
      * @return The product if found, otherwise null.
      */
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, condition = "!#root.target.servesFromCatalogStore()")
     public Product getProductById(Long id) {
+        if (servesFromCatalogStore()) {
+            return catalogStore.get(id);
+        }
         return productRepository.findById(id).orElse(null);
     }
 
     /**
      * Retrieves recommended products based on a given category.
+     * The matching IDs come from the in-memory category index; only the product rows are read from the database.
      *
      * @param category The category to filter products by.
      * @return A list of products belonging to the specified category.
      */
     public List<Product> getRecommendedProducts(String category) {
-        return productRepository.findByCategoriesContaining(category);
+        return findProductsByIds(categoryIndex.idsFor(category));
+    }
+
+    /**
+     * Retrieves the products most often bought together with a given product, best match first.
+     * The ranking comes from the in-memory co-purchase index; products are read from the products cache where possible.
+     *
+     * @param productId The ID of the product to base recommendations on.
+     * @param limit     The maximum number of products to return.
+     * @return A list of recommended products.
+     */
+    public List<Product> getRecommendedProducts(Long productId, int limit) {
+        return findProductsByIds(coPurchaseIndex.recommendationsFor(productId, limit));
+    }
+
+    /**
+     * Retrieves the products that belong to every one of the given categories.
+     *
+     * @param categories The categories a product must belong to.
+     * @return A list of products belonging to all specified categories.
+     */
+    public List<Product> getProductsInAllCategories(List<String> categories) {
+        return findProductsByIds(categoryIndex.idsInAll(categories));
+    }
+
+    /**
+     * Retrieves the products that belong to at least one of the given categories.
+     *
+     * @param categories The categories a product may belong to.
+     * @return A list of products belonging to any specified category.
+     */
+    public List<Product> getProductsInAnyCategory(List<String> categories) {
+        return findProductsByIds(categoryIndex.idsInAny(categories));
+    }
+
+    /**
+     * Retrieves the cheapest or dearest products in a price range, optionally within one category.
+     * The order and the selection come from the in-memory price index, which only looks at the smaller
+     * of the price range and the category; products are read from the products cache where possible.
+     *
+     * @param minPrice   The lowest price, inclusive; null for no lower bound.
+     * @param maxPrice   The highest price, inclusive; null for no upper bound.
+     * @param category   The category the products must belong to; null for any category.
+     * @param descending Whether the dearest products come first.
+     * @param limit      The maximum number of products to return.
+     * @return A list of products ordered by price.
+     */
+    public List<Product> getProductsByPrice(Double minPrice, Double maxPrice, String category,
+                                            boolean descending, int limit) {
+        long[] restrictTo = category != null ? categoryIndex.idsFor(category) : null;
+        Long minCents = minPrice != null ? Money.toCents(minPrice) : null;
+        Long maxCents = maxPrice != null ? Money.toCents(maxPrice) : null;
+        return findProductsByIds(priceIndex.query(minCents, maxCents, restrictTo, descending, limit));
+    }
+
+    /**
+     * Searches product names and descriptions, best match first.
+     * The ranking comes from the in-memory search index; products are read from the products cache where possible.
+     *
+     * @param query  The words to search for.
+     * @param limit  The maximum number of products to return.
+     * @param prefix Whether the last word may match longer words starting with it.
+     * @return A list of matching products.
+     */
+    public List<Product> searchProducts(String query, int limit, boolean prefix) {
+        return findProductsByIds(searchIndex.search(query, limit, prefix));
+    }
+
+    /**
+     * Completes a partly typed search query.
+     *
+     * @param query The query typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return Suggested queries, most common completion first.
+     */
+    public List<String> suggestSearches(String query, int limit) {
+        return searchIndex.suggest(query, limit);
     }
 
     /**
      * Creates a new product in the system.
+     * Evicts any cached entry for the new ID, such as a previously cached miss,
+     * and publishes a ProductCreatedEvent so in-memory indexes pick up the product.
      *
      * @param product The product object to be saved.
      * @return The newly created product.
      */
+    @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductCreatedEvent(savedProduct));
+        return savedProduct;
+    }
+
+    /**
+     * Updates the name, description, price and categories of an existing product.
+     * Evicts the cached product and then publishes a ProductUpdatedEvent, so in-memory indexes
+     * and cached representations drop the previous version. The eviction comes first, so a listener
+     * that drops a derived copy can never see it reloaded from the previous cached product.
+     * The product is evicted once more after the commit, see onProductUpdated.
+     *
+     * @param id      The ID of the product to update.
+     * @param changes The new values of the product.
+     * @return The updated product, or null if no product has the given ID.
+     */
+    @Transactional
+    public Product updateProduct(Long id, Product changes) {
+        Product product = productRepository.findById(id).orElse(null);
+        if (product == null) {
+            return null;
+        }
+        product.setName(changes.getName());
+        product.setDescription(changes.getDescription());
+        product.setPriceCents(changes.getPriceCents());
+        product.setCategories(changes.getCategories());
+        Product savedProduct = productRepository.save(product);
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+        eventPublisher.publishEvent(new ProductUpdatedEvent(savedProduct));
+        return savedProduct;
+    }
+
+    /**
+     * Evicts an updated product from the products cache again once the update is committed.
+     * A read that loaded the previous row before the commit may have cached it after the eviction in
+     * updateProduct; without this it would be served until the entry expires.
+     *
+     * @param event The event carrying the updated product.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            cache.evict(event.getProduct().getId());
+        }
+    }
+
+    /**
+     * Loads products by ID, from the catalog store when it is enabled, otherwise first from the products cache
+     * and then in batches of bounded IN queries. Products loaded from the database are added to the cache.
+     *
+     * @param ids The IDs of the products to load.
+     * @return The products found, in the order of the given IDs.
+     */
+    private List<Product> findProductsByIds(long[] ids) {
+        if (servesFromCatalogStore()) {
+            List<Product> products = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                Product product = catalogStore.get(id);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            return products;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        Map<Long, Product> found = new HashMap<>(ids.length * 2);
+        List<Long> misses = new ArrayList<>();
+        for (long id : ids) {
+            Product cached = cache != null ? cache.get(id, Product.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        for (int from = 0; from < misses.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = misses.subList(from, Math.min(misses.size(), from + ID_BATCH_SIZE));
+            for (Product product : productRepository.findAllById(batch)) {
+                found.put(product.getId(), product);
+                if (cache != null) {
+                    cache.put(product.getId(), product);
+                }
+            }
+        }
+
+        List<Product> products = new ArrayList<>(found.size());
+        for (long id : ids) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Tells whether product reads are served from the off-heap catalog store.
+     *
+     * @return Whether the catalog store is enabled and has built its first snapshot.
+     */
+    public boolean servesFromCatalogStore() {
+        return catalogStore != null && catalogStore.isReady();
     }
 }
@@ -0,0 +1,50 @@
+package com.ecommerce.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache-Control policies of the read endpoints, configured per endpoint with
+ * http.cache-control.&lt;endpoint&gt; properties, e.g. http.cache-control.products=max-age=60.
+ * Endpoints without a property get "no-cache": clients may store the response but must
+ * revalidate it with its ETag or Last-Modified date before every use.
+ */
+@Component
+public class CacheControlPolicies {
+
+    // Policy for endpoints without a configured one
+    static final String DEFAULT_POLICY = "no-cache";
+
+    @Autowired
+    private Environment environment; // Source of the per-endpoint properties
+
+    // Endpoint name -> resolved header value, so the hot path does not consult the environment
+    private final Map<String, String> policies = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the Cache-Control value of an endpoint.
+     *
+     * @param endpoint The endpoint name used in the property key.
+     * @return The header value.
+     */
+    public String policyFor(String endpoint) {
+        return policies.computeIfAbsent(endpoint,
+                name -> environment.getProperty("http.cache-control." + name, DEFAULT_POLICY));
+    }
+
+    /**
+     * Sets the Cache-Control header of an endpoint's response.
+     *
+     * @param endpoint The endpoint name used in the property key.
+     * @param response The response to set the header on.
+     */
+    public void apply(String endpoint, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, policyFor(endpoint));
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.web;
+
+/**
+ * Helpers for comparing entity tags with conditional request headers.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Checks an If-None-Match header against an entity tag.
+     * Matches a wildcard, the tag itself or the tag anywhere in a list of tags; W/ prefixes are
+     * accepted because If-None-Match uses weak comparison. The tag's quotes keep it from matching
+     * inside a longer tag, so the header is scanned in place without splitting it.
+     *
+     * @param ifNoneMatch The header value; may be null.
+     * @param etag        The quoted entity tag of the current representation.
+     * @return True if the client already holds the current representation.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return ifNoneMatch.contains(etag) || "*".equals(ifNoneMatch.strip());
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.web;
+
+import com.ecommerce.config.SerializationConfig;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Helpers for choosing between the JSON, Smile and CBOR encodings of a response before it is written.
+ */
+public final class ResponseFormats {
+
+    // Encodings the list endpoints can produce; the first one wins for wildcards
+    private static final List<MediaType> PRODUCIBLE = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.parseMediaType(SerializationConfig.SMILE_VALUE),
+            MediaType.parseMediaType(SerializationConfig.CBOR_VALUE));
+
+    // Preferred media ranges first: higher quality, then concrete types before wildcards
+    private static final Comparator<MediaType> PREFERENCE = Comparator
+            .comparingDouble(MediaType::getQualityValue).reversed()
+            .thenComparing(MediaType::isWildcardType)
+            .thenComparing(MediaType::isWildcardSubtype);
+
+    private ResponseFormats() {
+    }
+
+    /**
+     * Selects the encoding of a response from an Accept header, JSON if the client has no preference.
+     * Callers put the result into the ETag and the Content-Type, so a cached Smile body is never
+     * revalidated by a JSON request and the other way around.
+     *
+     * @param accept The Accept header; may be null.
+     * @return JSON, Smile or CBOR, or null if the header accepts none of them.
+     */
+    public static MediaType select(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        ranges.sort(PREFERENCE);
+        for (MediaType range : ranges) {
+            if (range.getQualityValue() <= 0) {
+                continue;
+            }
+            for (MediaType producible : PRODUCIBLE) {
+                if (range.includes(producible)) {
+                    return producible;
+                }
+            }
+        }
+        return null;
+    }
+}
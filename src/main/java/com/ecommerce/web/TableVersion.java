@@ -0,0 +1,66 @@
+package com.ecommerce.web;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Cheap fingerprint of the rows behind a list endpoint, computed by one aggregate query over the
+ * ID, version and timestamp columns without loading any entity. Creating a row changes the count
+ * and the highest ID, and every update bumps a version and so the version sum; an unchanged
+ * fingerprint therefore means an unchanged list, and a conditional request can be answered with
+ * 304 before the list is fetched or serialized.
+ */
+@Getter
+public class TableVersion {
+
+    private final long count; // Number of rows
+    private final long versionSum; // Sum of the rows' version columns
+    private final long maxId; // Highest row ID
+    private final Instant lastModified; // Latest modification time, or null if the rows have none
+
+    /**
+     * Creates a fingerprint; used as a JPQL constructor expression.
+     *
+     * @param count        The number of rows.
+     * @param versionSum   The sum of the version columns; null for no rows.
+     * @param maxId        The highest ID; null for no rows.
+     * @param lastModified The latest modification time; null if unknown.
+     */
+    public TableVersion(Long count, Long versionSum, Long maxId, Instant lastModified) {
+        this.count = count != null ? count : 0L;
+        this.versionSum = versionSum != null ? versionSum : 0L;
+        this.maxId = maxId != null ? maxId : 0L;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Creates a fingerprint of rows without a modification time; used as a JPQL constructor expression.
+     *
+     * @param count      The number of rows.
+     * @param versionSum The sum of the version columns; null for no rows.
+     * @param maxId      The highest ID; null for no rows.
+     */
+    public TableVersion(Long count, Long versionSum, Long maxId) {
+        this(count, versionSum, maxId, null);
+    }
+
+    /**
+     * Builds a strong entity tag for one representation of the rows.
+     *
+     * @param representation Identifies the endpoint and parameters, so different views of the same rows get different tags.
+     * @return The quoted entity tag.
+     */
+    public String etag(String representation) {
+        return "\"" + representation + "-" + count + "-" + versionSum + "-" + maxId + "\"";
+    }
+
+    /**
+     * Latest modification time for Last-Modified and If-Modified-Since.
+     *
+     * @return Milliseconds since the epoch, or -1 if unknown.
+     */
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1L;
+    }
+}
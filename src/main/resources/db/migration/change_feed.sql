@@ -0,0 +1,16 @@
+-- Adds the change_feed table, which stores every published change of the change feed for consumers
+-- too far behind for the in-memory buffer.
+-- Run once against databases created before the change feed existed;
+-- new databases get this schema directly from Hibernate.
+
+CREATE TABLE IF NOT EXISTS change_feed (
+    sequence BIGINT NOT NULL PRIMARY KEY,
+    type VARCHAR(30),
+    entity_id BIGINT,
+    user_id BIGINT,
+    status VARCHAR(20),
+    version BIGINT,
+    occurred_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_change_feed_occurred_at ON change_feed (occurred_at);
@@ -0,0 +1,11 @@
+-- Adds stock tracking: one stock_level row per tracked product, and a flag on orders whose stock was reserved.
+-- Run once against databases created before inventory tracking existed;
+-- new databases get this schema directly from Hibernate.
+
+CREATE TABLE IF NOT EXISTS stock_level (
+    product_id BIGINT NOT NULL PRIMARY KEY,
+    quantity BIGINT NOT NULL,
+    version BIGINT
+);
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS stock_reserved BOOLEAN DEFAULT FALSE NOT NULL;
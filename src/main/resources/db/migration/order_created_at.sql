@@ -0,0 +1,6 @@
+-- Adds the time orders were placed, used to bucket the sales analytics by day.
+-- Run once against databases created before orders carried it;
+-- new databases get this schema directly from Hibernate.
+-- Existing orders keep a null time and are left out of the daily figures.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE;
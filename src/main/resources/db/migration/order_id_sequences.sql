@@ -0,0 +1,12 @@
+-- Adds the pooled sequences that now generate order and order item IDs in place of IDENTITY columns.
+-- Run once against databases created before the IDs came from sequences;
+-- new databases get this schema directly from Hibernate.
+-- Hibernate's pooled optimizer treats each sequence value as the top of a block of 50 IDs,
+-- so the sequences restart 50 above the highest existing ID and the first block begins right after it.
+-- The RESTART also corrects sequences that hibernate.ddl-auto=update already created at 1.
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE orders_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM orders) INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS order_item_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE order_item_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM order_item) INCREMENT BY 50;
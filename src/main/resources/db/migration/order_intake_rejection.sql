@@ -0,0 +1,10 @@
+-- Adds the order_intake_rejection table, recording intake submissions rejected when they were written,
+-- so the intake status endpoint can report them.
+-- Run once against databases created before intake rejections were recorded;
+-- new databases get this schema directly from Hibernate.
+
+CREATE TABLE IF NOT EXISTS order_intake_rejection (
+    intake_key VARCHAR(64) NOT NULL PRIMARY KEY,
+    message VARCHAR(500),
+    rejected_at TIMESTAMP WITH TIME ZONE
+);
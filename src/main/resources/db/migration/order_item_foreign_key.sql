@@ -0,0 +1,18 @@
+-- Moves order items from the orders_order_items join table to the order_id foreign key
+-- owned by order_item, and adds the indexes used by per-user and per-product lookups.
+-- Run once against databases created before the foreign-key mapping was introduced;
+-- new databases get this schema directly from Hibernate.
+
+ALTER TABLE order_item ADD COLUMN IF NOT EXISTS order_id BIGINT;
+
+UPDATE order_item i
+SET order_id = (SELECT j.order_id FROM orders_order_items j WHERE j.order_items_id = i.id)
+WHERE i.order_id IS NULL;
+
+ALTER TABLE order_item ADD CONSTRAINT fk_order_item_order FOREIGN KEY (order_id) REFERENCES orders (id);
+
+CREATE INDEX IF NOT EXISTS idx_order_item_order_id ON order_item (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_item_product_id ON order_item (product_id);
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_id ON orders (user_id, id);
+
+DROP TABLE IF EXISTS orders_order_items;
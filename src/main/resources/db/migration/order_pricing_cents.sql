@@ -0,0 +1,15 @@
+-- Moves product prices to whole cents and adds the prices and totals stored with orders.
+-- Run once against databases created before orders were priced at creation;
+-- new databases get these columns directly from Hibernate.
+-- Orders placed before this migration keep null prices and totals.
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS price_cents BIGINT;
+UPDATE product SET price_cents = ROUND(price * 100) WHERE price_cents IS NULL;
+ALTER TABLE product ALTER COLUMN price_cents SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_product_price;
+CREATE INDEX IF NOT EXISTS idx_product_price ON product (price_cents, id);
+ALTER TABLE product DROP COLUMN IF EXISTS price;
+
+ALTER TABLE order_item ADD COLUMN IF NOT EXISTS unit_price_cents BIGINT;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_cents BIGINT;
@@ -0,0 +1,13 @@
+-- Converts free-form order statuses to the OrderStatus enum names and adds the version column
+-- used for optimistic locking. Statuses that match no enum value are reset to PENDING.
+-- Run once against databases created before the status enum was introduced;
+-- new databases get this schema directly from Hibernate.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE orders SET version = 0 WHERE version IS NULL;
+
+UPDATE orders SET status = UPPER(TRIM(status)) WHERE status IS NOT NULL;
+UPDATE orders SET status = 'PENDING'
+WHERE status IS NULL OR status NOT IN ('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED');
+
+ALTER TABLE orders ALTER COLUMN status SET DATA TYPE VARCHAR(20);
@@ -0,0 +1,5 @@
+-- Adds the index used to read products in price order and to scan price ranges.
+-- Run once against databases created before the price index existed;
+-- new databases get this index directly from Hibernate.
+
+CREATE INDEX IF NOT EXISTS idx_product_price ON product (price, id);
@@ -0,0 +1,6 @@
+-- Adds the modification time sent as Last-Modified for products.
+-- Run once against databases created before products carried it;
+-- new databases get this schema directly from Hibernate.
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+UPDATE product SET updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL;
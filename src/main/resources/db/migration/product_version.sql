@@ -0,0 +1,6 @@
+-- Adds the version column used for optimistic locking of products and to key their cached JSON.
+-- Run once against databases created before products were versioned;
+-- new databases get this schema directly from Hibernate.
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE product SET version = 0 WHERE version IS NULL;
@@ -0,0 +1,84 @@
+package com.ecommerce.analytics.controller;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.analytics.model.SalesFigures;
+import com.ecommerce.analytics.service.SalesAnalytics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test for AnalyticsController.
+ * Ensures the correct behavior of API endpoints for sales analytics.
+ */
+@SpringBootTest(classes = {EcommerceApplication.class})
+@AutoConfigureMockMvc
+class AnalyticsControllerTest {
+
+    // MockMvc for simulating HTTP requests
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Mocked SalesAnalytics
+    @MockBean
+    private SalesAnalytics salesAnalytics;
+
+    /**
+     * Tests that the top products are returned and the limit is clamped.
+     */
+    @Test
+    void getTopProductsShouldClampLimit() throws Exception {
+        when(salesAnalytics.getTopProducts(1000)).thenReturn(List.of(new SalesFigures("7", 3, 5, 12_500L)));
+
+        mockMvc.perform(get("/api/analytics/products").param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].key").value("7"))
+                .andExpect(jsonPath("$[0].revenueCents").value(12500));
+
+        verify(salesAnalytics, times(1)).getTopProducts(1000);
+    }
+
+    /**
+     * Tests that the figures of a single product and of all statuses are returned.
+     */
+    @Test
+    void getProductAndStatusTotalsShouldReturnFigures() throws Exception {
+        when(salesAnalytics.getProductTotals(7L)).thenReturn(new SalesFigures("7", 3, 5, 12_500L));
+        when(salesAnalytics.getStatusTotals()).thenReturn(List.of(new SalesFigures("PENDING", 4, 9, 20_000L)));
+
+        mockMvc.perform(get("/api/analytics/products/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.units").value(5));
+
+        mockMvc.perform(get("/api/analytics/statuses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].key").value("PENDING"))
+                .andExpect(jsonPath("$[0].orders").value(4));
+    }
+
+    /**
+     * Tests that the daily figures are requested for the given ISO date range.
+     */
+    @Test
+    void getDailyTotalsShouldParseDates() throws Exception {
+        LocalDate from = LocalDate.of(2024, 5, 1);
+        LocalDate to = LocalDate.of(2024, 5, 31);
+        when(salesAnalytics.getDailyTotals(from, to)).thenReturn(List.of(new SalesFigures("2024-05-01", 1, 2, 3_000L)));
+
+        mockMvc.perform(get("/api/analytics/daily").param("from", "2024-05-01").param("to", "2024-05-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].key").value("2024-05-01"));
+
+        verify(salesAnalytics, times(1)).getDailyTotals(from, to);
+    }
+}
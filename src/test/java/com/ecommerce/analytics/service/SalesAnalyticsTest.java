@@ -0,0 +1,230 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.model.SalesFigures;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.product.index.CategoryIndex;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for SalesAnalytics.
+ * Ensures that the rollups are rebuilt from historical orders and kept current by order events.
+ */
+class SalesAnalyticsTest {
+
+    private static final Instant MAY_1 = Instant.parse("2024-05-01T10:00:00Z");
+    private static final Instant MAY_2 = Instant.parse("2024-05-02T23:30:00Z");
+
+    // Mocked repository supplying historical orders
+    @Mock
+    private OrderRepository orderRepository;
+
+    // Mocked repository supplying category assignments for rebuilds
+    @Mock
+    private ProductRepository productRepository;
+
+    // Mocked category index for new orders
+    @Mock
+    private CategoryIndex categoryIndex;
+
+    // Rollups under test
+    @InjectMocks
+    private SalesAnalytics salesAnalytics;
+
+    /**
+     * Initializes mock objects before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(categoryIndex.categoriesOf(1L)).thenReturn(List.of("Electronics"));
+        when(categoryIndex.categoriesOf(2L)).thenReturn(List.of("Electronics", "Audio"));
+    }
+
+    /**
+     * Tests that a rebuild groups the item rows by order and rolls them up by status, product, category and day.
+     */
+    @Test
+    void rebuildShouldRollUpHistoricalOrders() {
+        when(productRepository.findAllCategoryAssignments()).thenReturn(List.of(
+                new Object[]{1L, "Electronics"},
+                new Object[]{2L, "Audio"}));
+        when(orderRepository.streamSalesRows()).thenReturn(Stream.of(
+                new Object[]{10L, OrderStatus.DELIVERED, MAY_1, 2500L, 1L, 2, 1000L},
+                new Object[]{10L, OrderStatus.DELIVERED, MAY_1, 2500L, 2L, 1, 500L},
+                new Object[]{11L, OrderStatus.PENDING, MAY_2, 1000L, 1L, 1, 1000L},
+                new Object[]{12L, OrderStatus.CANCELLED, MAY_2, 500L, 2L, 1, 500L},
+                new Object[]{13L, OrderStatus.PENDING, null, null, null, null, null}));
+
+        salesAnalytics.rebuild();
+
+        // Assertions
+        SalesFigures delivered = figure(salesAnalytics.getStatusTotals(), "DELIVERED");
+        assertEquals(1, delivered.getOrders());
+        assertEquals(2500L, delivered.getRevenueCents());
+        assertEquals(2, figure(salesAnalytics.getStatusTotals(), "PENDING").getOrders(), "Orders without items count too");
+        assertEquals(500L, figure(salesAnalytics.getStatusTotals(), "CANCELLED").getRevenueCents());
+
+        SalesFigures laptop = salesAnalytics.getProductTotals(1L);
+        assertEquals(3, laptop.getUnits());
+        assertEquals(3000L, laptop.getRevenueCents());
+        assertEquals(500L, salesAnalytics.getProductTotals(2L).getRevenueCents(), "Cancelled orders should not count");
+        assertEquals(List.of("1", "2"), salesAnalytics.getTopProducts(10).stream().map(SalesFigures::getKey).toList());
+
+        assertEquals(3000L, figure(salesAnalytics.getCategoryTotals(), "Electronics").getRevenueCents());
+        assertEquals(500L, figure(salesAnalytics.getCategoryTotals(), "Audio").getRevenueCents());
+
+        List<SalesFigures> days = salesAnalytics.getDailyTotals(null, null);
+        assertEquals(List.of("2024-05-01", "2024-05-02"), days.stream().map(SalesFigures::getKey).toList());
+        assertEquals(1000L, days.get(1).getRevenueCents(), "Only the pending order of May 2 should count");
+        verify(orderRepository, times(1)).streamSalesRows();
+    }
+
+    /**
+     * Tests that created orders are counted once and that status changes move their figures.
+     */
+    @Test
+    void orderEventsShouldUpdateRollups() {
+        Order order = pricedOrder(20L, MAY_1);
+        salesAnalytics.onOrderCreated(new OrderCreatedEvent(order));
+        salesAnalytics.onOrderCreated(new OrderCreatedEvent(order));
+        salesAnalytics.onOrderStatusChanged(new OrderStatusChangedEvent(20L, 2L, OrderStatus.PROCESSING, 1L));
+
+        // Assertions
+        assertEquals(0, figure(salesAnalytics.getStatusTotals(), "PENDING").getOrders());
+        SalesFigures processing = figure(salesAnalytics.getStatusTotals(), "PROCESSING");
+        assertEquals(1, processing.getOrders(), "Repeated events should count the order once");
+        assertEquals(3500L, processing.getRevenueCents());
+        assertEquals(3500L, figure(salesAnalytics.getCategoryTotals(), "Electronics").getRevenueCents());
+        assertEquals(1500L, figure(salesAnalytics.getCategoryTotals(), "Audio").getRevenueCents());
+    }
+
+    /**
+     * Tests that cancelling an order takes its items out of the product, category and daily figures.
+     */
+    @Test
+    void cancellationShouldRemoveSales() {
+        salesAnalytics.onOrderCreated(new OrderCreatedEvent(pricedOrder(21L, MAY_1)));
+
+        salesAnalytics.onOrderStatusChanged(new OrderStatusChangedEvent(21L, 2L, OrderStatus.CANCELLED, 1L));
+
+        // Assertions
+        assertEquals(3500L, figure(salesAnalytics.getStatusTotals(), "CANCELLED").getRevenueCents());
+        assertEquals(0L, salesAnalytics.getProductTotals(1L).getRevenueCents());
+        assertEquals(0L, salesAnalytics.getProductTotals(2L).getUnits());
+        assertEquals(0L, figure(salesAnalytics.getCategoryTotals(), "Electronics").getRevenueCents());
+        assertEquals(0L, salesAnalytics.getDailyTotals(LocalDate.of(2024, 5, 1), null).get(0).getOrders());
+    }
+
+    /**
+     * Tests that a cancellation takes revenue out of the categories it was counted towards,
+     * even if the product's categories changed in between.
+     */
+    @Test
+    void cancellationShouldRemoveSalesFromCountedCategories() {
+        salesAnalytics.onOrderCreated(new OrderCreatedEvent(pricedOrder(24L, MAY_1)));
+        when(categoryIndex.categoriesOf(2L)).thenReturn(List.of("Gaming"));
+
+        salesAnalytics.onOrderStatusChanged(new OrderStatusChangedEvent(24L, 2L, OrderStatus.CANCELLED, 1L));
+
+        // Assertions
+        assertEquals(0L, figure(salesAnalytics.getCategoryTotals(), "Audio").getRevenueCents());
+        assertEquals(0L, figure(salesAnalytics.getCategoryTotals(), "Electronics").getRevenueCents());
+        assertTrue(salesAnalytics.getCategoryTotals().stream().noneMatch(figure -> figure.getKey().equals("Gaming")),
+                "Categories the order was never counted towards should not be touched");
+    }
+
+    /**
+     * Tests that a status change arriving while a rebuild reads the orders is applied once the order is counted.
+     */
+    @Test
+    void statusChangeDuringRebuildShouldApplyToRebuiltOrder() {
+        Object[] lastRow = {25L, OrderStatus.PENDING, MAY_1, 1000L, 1L, 1, 1000L};
+        when(productRepository.findAllCategoryAssignments()).thenReturn(List.<Object[]>of(new Object[]{1L, "Electronics"}));
+        when(orderRepository.streamSalesRows()).thenReturn(Stream.<Object[]>of(lastRow).peek(row ->
+                salesAnalytics.onOrderStatusChanged(new OrderStatusChangedEvent(25L, 2L, OrderStatus.CANCELLED, 1L))));
+
+        salesAnalytics.rebuild();
+
+        // Assertions
+        assertEquals(0, figure(salesAnalytics.getStatusTotals(), "PENDING").getOrders());
+        assertEquals(1, figure(salesAnalytics.getStatusTotals(), "CANCELLED").getOrders(),
+                "The order should keep the status it changed to during the rebuild");
+        assertEquals(0L, salesAnalytics.getProductTotals(1L).getRevenueCents());
+    }
+
+    /**
+     * Tests that daily figures are limited to the requested range.
+     */
+    @Test
+    void dailyTotalsShouldRespectRange() {
+        salesAnalytics.onOrderCreated(new OrderCreatedEvent(pricedOrder(22L, MAY_1)));
+        salesAnalytics.onOrderCreated(new OrderCreatedEvent(pricedOrder(23L, MAY_2)));
+
+        LocalDate may2 = LocalDate.of(2024, 5, 2);
+
+        // Assertions
+        assertEquals(2, salesAnalytics.getDailyTotals(null, null).size());
+        assertEquals("2024-05-02", salesAnalytics.getDailyTotals(may2, may2).get(0).getKey());
+        assertEquals(1, salesAnalytics.getDailyTotals(null, LocalDate.of(2024, 5, 1)).size());
+        assertTrue(salesAnalytics.getDailyTotals(may2, LocalDate.of(2024, 5, 1)).isEmpty(), "Inverted range is empty");
+    }
+
+    /**
+     * Finds the figures of a key.
+     *
+     * @param figures The figures to search.
+     * @param key     The key to find.
+     * @return The matching figures.
+     */
+    private SalesFigures figure(List<SalesFigures> figures, String key) {
+        return figures.stream().filter(figure -> figure.getKey().equals(key)).findFirst().orElseThrow();
+    }
+
+    /**
+     * Creates a saved, priced order of 2 x product 1 at 10.00 and 3 x product 2 at 5.00.
+     *
+     * @param orderId   The ID of the order.
+     * @param createdAt The time the order was placed.
+     * @return The order.
+     */
+    private Order pricedOrder(Long orderId, Instant createdAt) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(item(1L, 2, 1000L));
+        items.add(item(2L, 3, 500L));
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUserId(2L);
+        order.setCreatedAt(createdAt);
+        order.setTotalCents(3500L);
+        order.setOrderItems(items);
+        return order;
+    }
+
+    private OrderItem item(Long productId, int quantity, long unitPriceCents) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setUnitPriceCents(unitPriceCents);
+        return item;
+    }
+}
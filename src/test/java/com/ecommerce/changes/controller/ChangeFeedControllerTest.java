@@ -0,0 +1,84 @@
+package com.ecommerce.changes.controller;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.changes.model.Change;
+import com.ecommerce.changes.model.ChangePage;
+import com.ecommerce.changes.model.ChangeType;
+import com.ecommerce.changes.service.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test for ChangeFeedController.
+ * Ensures the correct behavior of API endpoints for the change feed.
+ */
+@SpringBootTest(classes = {EcommerceApplication.class})
+@AutoConfigureMockMvc
+class ChangeFeedControllerTest {
+
+    // MockMvc for simulating HTTP requests
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Mocked ChangeFeed
+    @MockBean
+    private ChangeFeed changeFeed;
+
+    /**
+     * Tests that a page of changes is returned and the limit and wait time are clamped.
+     */
+    @Test
+    void getChangesShouldClampLimitAndWait() throws Exception {
+        Change change = new Change(42L, ChangeType.ORDER_CREATED, 7L, 3L, null, 0L, Instant.now());
+        DeferredResult<ChangePage> result = new DeferredResult<>();
+        result.setResult(new ChangePage(List.of(change), 42L, false));
+        when(changeFeed.poll(41L, ChangeFeed.MAX_PAGE, 30_000L)).thenReturn(result);
+
+        MvcResult pending = mockMvc.perform(get("/api/changes")
+                        .param("since", "41")
+                        .param("limit", "5000")
+                        .param("wait", "90")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].sequence").value(42))
+                .andExpect(jsonPath("$.changes[0].type").value("ORDER_CREATED"))
+                .andExpect(jsonPath("$.next").value(42));
+
+        verify(changeFeed, times(1)).poll(41L, ChangeFeed.MAX_PAGE, 30_000L);
+    }
+
+    /**
+     * Tests that an event stream resumes after the Last-Event-ID of a reconnecting client.
+     */
+    @Test
+    void streamChangesShouldResumeAfterLastEventId() throws Exception {
+        when(changeFeed.subscribe(anyLong(), anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/changes")
+                        .param("since", "5")
+                        .header("Last-Event-ID", "17")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed, times(1)).subscribe(eq(17L), anyLong());
+    }
+}
@@ -0,0 +1,270 @@
+package com.ecommerce.changes.service;
+
+import com.ecommerce.changes.model.Change;
+import com.ecommerce.changes.model.ChangePage;
+import com.ecommerce.changes.model.ChangeType;
+import com.ecommerce.changes.repository.ChangeRepository;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for ChangeFeed.
+ * Ensures that changes are numbered, served from the buffer or the database, delivered to long polls and event streams
+ * and stored in batches.
+ */
+class ChangeFeedTest {
+
+    // Mocked repository serving stored changes
+    @Mock
+    private ChangeRepository changeRepository;
+
+    // Mocked JDBC template receiving the stored changes
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Mocked transaction template that runs callbacks directly
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // Feed under test
+    @InjectMocks
+    private ChangeFeed changeFeed;
+
+    /**
+     * Initializes mock objects and a feed buffering four changes.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(changeFeed, "bufferSize", 4);
+        ReflectionTestUtils.setField(changeFeed, "flushIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(changeFeed, "retentionHours", 168L);
+        ReflectionTestUtils.setField(changeFeed, "heartbeatSeconds", 15L);
+        ReflectionTestUtils.setField(changeFeed, "maxBacklog", 10_000L);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    /**
+     * Stops the background threads after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        changeFeed.close();
+    }
+
+    /**
+     * Tests that order events are published in order and read from the buffer.
+     */
+    @Test
+    void publishedChangesShouldBeReadFromBuffer() {
+        changeFeed.open();
+        Order order = new Order();
+        order.setId(7L);
+        order.setUserId(3L);
+        changeFeed.onOrderCreated(new OrderCreatedEvent(order));
+        changeFeed.onOrderStatusChanged(new OrderStatusChangedEvent(7L, 3L, OrderStatus.PROCESSING, 1L));
+
+        ChangePage page = changeFeed.read(0L, 10);
+
+        // Assertions
+        assertEquals(2, page.getChanges().size());
+        assertEquals(ChangeType.ORDER_CREATED, page.getChanges().get(0).getType());
+        assertEquals(OrderStatus.PROCESSING, page.getChanges().get(1).getStatus());
+        assertEquals(2L, page.getNext());
+        assertFalse(page.isHasMore());
+        assertEquals(1, changeFeed.read(1L, 10).getChanges().size());
+        assertTrue(changeFeed.read(2L, 10).getChanges().isEmpty());
+        verify(changeRepository, never()).findBySequenceGreaterThanOrderBySequenceAsc(anyLong(), any(Pageable.class));
+    }
+
+    /**
+     * Tests that a consumer behind the buffer is served from the stored changes.
+     */
+    @Test
+    void consumerBehindBufferShouldReadStoredChanges() {
+        changeFeed.open();
+        for (long productId = 1; productId <= 6; productId++) {
+            changeFeed.publish(ChangeType.PRODUCT_CREATED, productId, null, null, 0L);
+        }
+        when(changeRepository.findBySequenceGreaterThanOrderBySequenceAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(stored(1L), stored(2L)));
+
+        ChangePage page = changeFeed.read(0L, 2);
+
+        // Assertions
+        assertEquals(2L, page.getNext());
+        assertTrue(page.isHasMore());
+        assertEquals(List.of(3L, 4L), changeFeed.read(2L, 2).getChanges().stream().map(Change::getSequence).toList(),
+                "The buffer holds the last four changes");
+    }
+
+    /**
+     * Tests that numbering resumes past the stored changes and that a cursor in the gap skips to the buffer.
+     */
+    @Test
+    void numberingShouldContinueAfterStoredChanges() {
+        when(changeRepository.findMaxSequence()).thenReturn(100L);
+        changeFeed.open();
+
+        Change change = changeFeed.publish(ChangeType.PRODUCT_UPDATED, 5L, null, null, 2L);
+        ChangePage page = changeFeed.read(100L, 10);
+
+        // Assertions
+        assertEquals(105L, change.getSequence(), "Numbering should skip one buffer after the stored changes");
+        assertEquals(List.of(105L), page.getChanges().stream().map(Change::getSequence).toList());
+        assertEquals(105L, changeFeed.lastSequence());
+    }
+
+    /**
+     * Tests that a long poll without changes completes when a change is published.
+     */
+    @Test
+    void pollShouldCompleteWhenChangeIsPublished() throws InterruptedException {
+        changeFeed.open();
+        DeferredResult<?> result = changeFeed.poll(0L, 10, 10_000L);
+        assertFalse(result.hasResult());
+
+        changeFeed.publish(ChangeType.PRODUCT_CREATED, 1L, null, null, 0L);
+        for (int i = 0; i < 500 && !result.hasResult(); i++) {
+            Thread.sleep(10);
+        }
+
+        // Assertions
+        assertTrue(result.hasResult());
+        ChangePage page = (ChangePage) result.getResult();
+        assertEquals(1, page.getChanges().size());
+        assertEquals(1L, page.getNext());
+    }
+
+    /**
+     * Tests that flush stores the unsaved changes in one batch and keeps them when it fails.
+     */
+    @Test
+    void flushShouldBatchChangesAndRetryOnFailure() {
+        changeFeed.open();
+        changeFeed.publish(ChangeType.PRODUCT_CREATED, 1L, null, null, 0L);
+        changeFeed.publish(ChangeType.ORDER_CREATED, 2L, 3L, OrderStatus.PENDING, 0L);
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(new int[]{1, 1});
+
+        assertThrows(IllegalStateException.class, () -> changeFeed.flush());
+        assertEquals(2, changeFeed.flush(), "Failed changes should be written by the next flush");
+
+        // Assertions
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().length);
+        assertEquals(0, changeFeed.flush(), "Nothing should be left to flush");
+    }
+
+    /**
+     * Tests that a blocked event stream does not hold up the others and is closed once it falls too far behind.
+     */
+    @Test
+    void slowEventStreamShouldNotDelayOthersAndBeClosedWhenBehind() throws InterruptedException {
+        ReflectionTestUtils.setField(changeFeed, "maxBacklog", 2L);
+        changeFeed.open();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1, release);
+        RecordingEmitter fast = new RecordingEmitter(Integer.MAX_VALUE, release);
+        changeFeed.subscribe(0L, slow);
+        changeFeed.subscribe(0L, fast);
+
+        try {
+            for (long productId = 1; productId <= 5; productId++) {
+                changeFeed.publish(ChangeType.PRODUCT_CREATED, productId, null, null, 0L);
+                int expected = (int) productId;
+                awaitTrue(() -> fast.sent.get() == expected);
+            }
+            awaitTrue(() -> slow.completed);
+
+            // Assertions
+            assertEquals(5, fast.sent.get(), "The fast stream should get every change while the slow one is blocked");
+            assertFalse(fast.completed);
+            assertTrue(slow.completed, "The slow stream should be closed once it is more than two changes behind");
+            assertEquals(1, slow.sent.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private Change stored(long sequence) {
+        return new Change(sequence, ChangeType.PRODUCT_CREATED, sequence, null, null, 0L, Instant.now());
+    }
+
+    /**
+     * Event stream that counts the events sent to it and blocks on every send after the first few.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final int unblockedSends;
+        private final CountDownLatch release;
+        private final AtomicInteger sent = new AtomicInteger();
+        private volatile boolean completed;
+
+        private RecordingEmitter(int unblockedSends, CountDownLatch release) {
+            this.unblockedSends = unblockedSends;
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (sent.get() >= unblockedSends) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.config;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration test for CacheConfig.
+ * Ensures that product lookups are cached, invalidated on writes and reported as metrics.
+ */
+@SpringBootTest(classes = EcommerceApplication.class)
+class CacheConfigTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Mocked repository so database round trips can be counted
+    @MockBean
+    private ProductRepository productRepository;
+
+    /**
+     * Tests that repeated lookups of the same product hit the database only once.
+     */
+    @Test
+    void getProductByIdShouldBeServedFromCache() {
+        Product product = new Product();
+        product.setId(501L);
+        product.setName("Laptop");
+
+        when(productRepository.findById(501L)).thenReturn(Optional.of(product));
+
+        Product first = productService.getProductById(501L);
+        Product second = productService.getProductById(501L);
+
+        assertSame(first, second, "Second lookup should return the cached product");
+        verify(productRepository, times(1)).findById(501L);
+    }
+
+    /**
+     * Tests that creating a product evicts a previously cached miss for its ID.
+     */
+    @Test
+    void createProductShouldEvictCachedEntry() {
+        Product product = new Product();
+        product.setId(502L);
+        product.setName("Phone");
+
+        when(productRepository.findById(502L)).thenReturn(Optional.empty(), Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        assertNull(productService.getProductById(502L), "Product should not exist before it is created");
+        productService.createProduct(product);
+
+        assertNotNull(productService.getProductById(502L), "Lookup after creation should reload the product");
+        verify(productRepository, times(2)).findById(502L);
+    }
+
+    /**
+     * Tests that the products cache publishes hit and miss counters.
+     */
+    @Test
+    void productsCacheShouldPublishMetrics() {
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", CacheConfig.PRODUCTS_CACHE).meter(),
+                "Cache gets should be registered for the products cache");
+    }
+}
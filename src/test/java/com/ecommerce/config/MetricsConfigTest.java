@@ -0,0 +1,89 @@
+package com.ecommerce.config;
+
+import com.ecommerce.EcommerceApplication;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for MetricsConfig.
+ * Ensures that service, repository and statement metrics are recorded and tagged by endpoint.
+ */
+@SpringBootTest(classes = EcommerceApplication.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsConfigTest {
+
+    // Endpoint tag of the request used by the tests
+    private static final String ENDPOINT = "GET /api/orders";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Tests that a request records a service timer tagged with its class, method and endpoint.
+     */
+    @Test
+    void requestShouldRecordServiceTimer() throws Exception {
+        mockMvc.perform(get("/api/orders").param("after", "0")).andExpect(status().isOk());
+
+        assertNotNull(meterRegistry.find("service.method")
+                        .tag("class", "com.ecommerce.order.service.OrderService")
+                        .tag("method", "getOrdersAfter")
+                        .tag("endpoint", ENDPOINT)
+                        .timer(),
+                "Service call should be timed and tagged with the endpoint");
+    }
+
+    /**
+     * Tests that a request records a repository timer tagged with the endpoint.
+     */
+    @Test
+    void requestShouldRecordRepositoryTimer() throws Exception {
+        mockMvc.perform(get("/api/orders").param("after", "0")).andExpect(status().isOk());
+
+        assertNotNull(meterRegistry.find("spring.data.repository.invocations")
+                        .tag("method", "findByIdGreaterThanOrderByIdAsc")
+                        .tag("endpoint", ENDPOINT)
+                        .timer(),
+                "Repository call should be timed and tagged with the endpoint");
+    }
+
+    /**
+     * Tests that the SQL statements run by a request are counted per endpoint.
+     */
+    @Test
+    void requestShouldRecordStatementCount() throws Exception {
+        mockMvc.perform(get("/api/orders").param("after", "0")).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find("db.statements").tag("endpoint", ENDPOINT).summary();
+        assertNotNull(statements, "Statement count should be recorded for the endpoint");
+        assertTrue(statements.max() >= 1, "Loading the orders should run at least one statement");
+    }
+
+    /**
+     * Tests that the metrics are available in Prometheus format.
+     */
+    @Test
+    void prometheusEndpointShouldExposeMetrics() throws Exception {
+        mockMvc.perform(get("/api/orders").param("after", "0")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("service_method_seconds_bucket")));
+    }
+}
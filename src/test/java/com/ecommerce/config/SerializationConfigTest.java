@@ -0,0 +1,111 @@
+package com.ecommerce.config;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for SerializationConfig and response compression.
+ * Runs against a real server, because compression is applied by Tomcat and not by MockMvc.
+ */
+@SpringBootTest(classes = EcommerceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SerializationConfigTest {
+
+    // Port of the running test server
+    @LocalServerPort
+    private int port;
+
+    // Repository used to seed a catalog large enough to be compressed
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Seeds products whose list is well above the compression threshold.
+     */
+    @BeforeEach
+    void setUp() {
+        if (productRepository.count() >= 100) {
+            return;
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Product product = new Product();
+            product.setName("Serialized product " + i);
+            product.setDescription("A product used to check negotiated formats and compression " + i);
+            product.setPrice(10 + i);
+            product.setCategories(List.of("Electronics", "Books"));
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    /**
+     * Tests that a Smile client gets a gzip-compressed Smile document.
+     */
+    @Test
+    void productListShouldBeSmileAndGzipWhenRequested() throws Exception {
+        HttpResponse<InputStream> response = get("application/x-jackson-smile", "gzip");
+
+        // Assertions
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-jackson-smile"));
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            JsonNode products = new SmileMapper().readTree(body);
+            assertTrue(products.size() >= 100, "All products should be in the Smile document");
+        }
+    }
+
+    /**
+     * Tests that a CBOR client gets a CBOR document and that responses are not compressed unless asked for.
+     */
+    @Test
+    void productListShouldBeCborWhenRequested() throws Exception {
+        HttpResponse<InputStream> response = get("application/cbor", null);
+
+        // Assertions
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty(), "Response should not be compressed");
+        try (InputStream body = response.body()) {
+            JsonNode products = new CBORMapper().readTree(body);
+            assertTrue(products.get(0).has("name"), "CBOR document should hold the product fields");
+        }
+    }
+
+    /**
+     * Requests the product list.
+     *
+     * @param accept         The Accept header.
+     * @param acceptEncoding The Accept-Encoding header, or null for none.
+     * @return The response with its undecoded body.
+     */
+    private HttpResponse<InputStream> get(String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products"))
+                .header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.inventory.controller;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.inventory.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit test for InventoryController.
+ * Ensures the correct behavior of API endpoints for stock operations.
+ */
+@SpringBootTest(classes = {EcommerceApplication.class})
+@AutoConfigureMockMvc
+class InventoryControllerTest {
+
+    // MockMvc for simulating HTTP requests
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Mocked InventoryService
+    @MockBean
+    private InventoryService inventoryService;
+
+    /**
+     * Tests that the availability of tracked products is returned and untracked products are not found.
+     */
+    @Test
+    void getAvailabilityShouldReturnUnitsOfTrackedProducts() throws Exception {
+        when(inventoryService.getAvailable(1L)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/inventory/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(1))
+                .andExpect(jsonPath("$.available").value(7));
+
+        mockMvc.perform(get("/api/inventory/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Tests that restocking adds units and rejects non-positive amounts.
+     */
+    @Test
+    void restockShouldAddUnits() throws Exception {
+        when(inventoryService.restock(1L, 5L)).thenReturn(12L);
+
+        mockMvc.perform(post("/api/inventory/1/restock").param("units", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(12));
+
+        mockMvc.perform(post("/api/inventory/1/restock").param("units", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(inventoryService, times(1)).restock(1L, 5L);
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.StockLevel;
+import com.ecommerce.inventory.repository.StockLevelRepository;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for InventoryService.
+ * Ensures that reservations are all or nothing, expire, are released on cancellation and are flushed in batches.
+ */
+class InventoryServiceTest {
+
+    // Mocked repository supplying the stock levels
+    @Mock
+    private StockLevelRepository stockLevelRepository;
+
+    // Mocked repository supplying the items of cancelled orders
+    @Mock
+    private OrderRepository orderRepository;
+
+    // Mocked JDBC template receiving the flushed changes
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Mocked transaction template that runs callbacks directly
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // Service under test
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    /**
+     * Initializes mock objects and loads two tracked products: 1 with 10 units and 2 with 3 units.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(inventoryService, "flushIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(inventoryService, "reservationTtlSeconds", 30L);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(stockLevelRepository.findAll()).thenReturn(List.of(new StockLevel(1L, 10), new StockLevel(2L, 3)));
+        inventoryService.start();
+        clearInvocations(jdbcTemplate);
+    }
+
+    /**
+     * Stops the background flush.
+     */
+    @AfterEach
+    void tearDown() {
+        inventoryService.stop();
+    }
+
+    /**
+     * Tests that a shortage on one product returns the units already taken from the others.
+     */
+    @Test
+    void reserveShouldBeAllOrNothing() {
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> inventoryService.reserve(List.of(item(1L, 4), item(2L, 2), item(2L, 2))));
+
+        // Assertions
+        assertEquals(2L, e.getProductId());
+        assertEquals(4, e.getRequested(), "Quantities of the same product should be added up");
+        assertEquals(10L, inventoryService.getAvailable(1L), "Units of product 1 should be returned");
+        assertEquals(3L, inventoryService.getAvailable(2L));
+    }
+
+    /**
+     * Tests that untracked products are not limited and produce no reservation.
+     */
+    @Test
+    void reserveShouldIgnoreUntrackedProducts() {
+        Reservation reservation = inventoryService.reserve(List.of(item(99L, 1000)));
+
+        // Assertions
+        assertTrue(reservation.isEmpty());
+        assertNull(inventoryService.getAvailable(99L));
+    }
+
+    /**
+     * Tests that cancelling a reservation returns its units, once.
+     */
+    @Test
+    void cancelShouldReturnUnits() {
+        Reservation reservation = inventoryService.reserve(List.of(item(1L, 4)));
+        assertEquals(6L, inventoryService.getAvailable(1L));
+
+        inventoryService.cancel(reservation);
+        inventoryService.cancel(reservation);
+
+        // Assertions
+        assertEquals(10L, inventoryService.getAvailable(1L));
+    }
+
+    /**
+     * Tests that unconfirmed reservations expire and that confirmed ones do not.
+     */
+    @Test
+    void expireShouldReleaseOnlyUnconfirmedReservations() {
+        ReflectionTestUtils.setField(inventoryService, "reservationTtlSeconds", 0L);
+        Reservation confirmed = inventoryService.reserve(List.of(item(1L, 2)));
+        inventoryService.confirm(confirmed);
+        inventoryService.reserve(List.of(item(1L, 3)));
+
+        // Assertions
+        assertEquals(1, inventoryService.expire());
+        assertEquals(8L, inventoryService.getAvailable(1L), "Only the confirmed units should stay reserved");
+    }
+
+    /**
+     * Tests that confirming an expired reservation takes its units again.
+     */
+    @Test
+    void confirmShouldReserveExpiredUnitsAgain() {
+        ReflectionTestUtils.setField(inventoryService, "reservationTtlSeconds", 0L);
+        Reservation reservation = inventoryService.reserve(List.of(item(2L, 3)));
+        inventoryService.expire();
+        assertEquals(3L, inventoryService.getAvailable(2L));
+
+        inventoryService.confirm(reservation);
+
+        // Assertions
+        assertEquals(0L, inventoryService.getAvailable(2L));
+    }
+
+    /**
+     * Tests that cancelling an order returns the units of its reserved items.
+     */
+    @Test
+    void onOrderStatusChangedShouldReleaseCancelledOrders() {
+        inventoryService.reserve(List.of(item(1L, 4)));
+        when(orderRepository.findReservedItemQuantities(7L)).thenReturn(List.<Object[]>of(new Object[]{1L, 4}));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1);
+
+        inventoryService.onOrderStatusChanged(new OrderStatusChangedEvent(7L, 1L, OrderStatus.SHIPPED, 1L));
+        assertEquals(6L, inventoryService.getAvailable(1L), "Other status changes should keep the units");
+        inventoryService.onOrderStatusChanged(new OrderStatusChangedEvent(7L, 1L, OrderStatus.CANCELLED, 2L));
+
+        // Assertions
+        assertEquals(10L, inventoryService.getAvailable(1L));
+    }
+
+    /**
+     * Tests that a repeated cancellation event releases the units of an order only once.
+     */
+    @Test
+    void onOrderStatusChangedShouldReleaseOnlyOnce() {
+        inventoryService.reserve(List.of(item(1L, 4)));
+        when(orderRepository.findReservedItemQuantities(7L)).thenReturn(List.<Object[]>of(new Object[]{1L, 4}));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1, 0);
+
+        inventoryService.onOrderStatusChanged(new OrderStatusChangedEvent(7L, 1L, OrderStatus.CANCELLED, 2L));
+        inventoryService.onOrderStatusChanged(new OrderStatusChangedEvent(7L, 1L, OrderStatus.CANCELLED, 2L));
+
+        // Assertions
+        assertEquals(10L, inventoryService.getAvailable(1L), "The second event should find the stock already claimed");
+        verify(jdbcTemplate, times(2)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    /**
+     * Tests that flush writes one delta per changed product in a single batch and keeps changes when it fails.
+     */
+    @Test
+    void flushShouldBatchDeltasAndRetryOnFailure() {
+        inventoryService.reserve(List.of(item(1L, 4), item(2L, 1)));
+        inventoryService.reserve(List.of(item(1L, 1)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(new int[]{1, 1});
+
+        assertThrows(IllegalStateException.class, () -> inventoryService.flush());
+        assertEquals(2, inventoryService.flush(), "Failed changes should be written by the next flush");
+
+        // Assertions
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        long total = 0;
+        for (SqlParameterSource params : batch.getValue()) {
+            total += (Long) params.getValue("delta");
+        }
+        assertEquals(-6, total, "All reserved units should be flushed once");
+        assertEquals(0, inventoryService.flush(), "Nothing should be left to flush");
+    }
+
+    /**
+     * Tests that restocking an untracked product creates its stock level.
+     */
+    @Test
+    void restockShouldStartTrackingProduct() {
+        long available = inventoryService.restock(5L, 20);
+
+        // Assertions
+        assertEquals(20, available);
+        verify(stockLevelRepository, times(1)).save(any(StockLevel.class));
+        assertThrows(InsufficientStockException.class, () -> inventoryService.reserve(List.of(item(5L, 21))));
+    }
+
+    private OrderItem item(Long productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for StockCounter.
+ * Ensures that stock never goes below zero and that every reserved unit is accounted for.
+ */
+class StockCounterTest {
+
+    /**
+     * Tests reserving, failing on shortage and releasing on a single thread.
+     */
+    @Test
+    void tryReserveShouldNeverGoBelowZero() {
+        StockCounter counter = new StockCounter(5, 8);
+
+        // Assertions
+        assertTrue(counter.tryReserve(3));
+        assertFalse(counter.tryReserve(3), "Only two units are left");
+        assertEquals(2, counter.available(), "A failed reservation should leave the stock unchanged");
+        counter.release(4);
+        assertTrue(counter.tryReserve(6));
+        assertEquals(0, counter.available());
+        assertEquals(-5, counter.drainUnflushed(), "Net change should be 3 + 6 reserved, 4 released");
+        assertEquals(0, counter.drainUnflushed(), "Draining should reset the change");
+    }
+
+    /**
+     * Tests that many threads reserving one hot product sell exactly the stock, even after the counter is split.
+     */
+    @Test
+    void concurrentReservationsShouldSellExactlyTheStock() throws Exception {
+        int threads = 8;
+        StockCounter counter = new StockCounter(10_000, threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> sold = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            sold.add(executor.submit(() -> {
+                start.await();
+                int units = 0;
+                for (int i = 0; i < 5_000; i++) {
+                    if (counter.tryReserve(1)) {
+                        units++;
+                    }
+                    if (i % 100 == 0) {
+                        counter.release(1);
+                        units--;
+                    }
+                }
+                return units;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> future : sold) {
+            total += future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assertions
+        assertEquals(10_000 - total, counter.available(), "Stock should equal the initial units minus net sales");
+        assertEquals(-total, counter.drainUnflushed());
+        assertTrue(counter.available() >= 0);
+        assertTrue(counter.stripes() <= 8, "Counter should not be split beyond the maximum");
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.load;
+
+import com.ecommerce.EcommerceApplication;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test comparing request execution on the platform Tomcat pool and on virtual threads.
+ * Starts the application twice, once per mode, fires the same burst of concurrent requests at an
+ * order lookup whose database call is slowed down, and compares the peak number of requests in
+ * flight and the p99 latency. Run with ./gradlew loadTest.
+ */
+@Tag("load")
+class RequestThreadsLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestThreadsLoadTest.class);
+
+    // Platform request threads in both runs, kept small so the burst exceeds the pool
+    private static final int TOMCAT_MAX_THREADS = 50;
+
+    // Concurrent requests per burst
+    private static final int CONCURRENT_REQUESTS = 500;
+
+    // Extra time each request spends blocked, standing in for a slow JDBC round trip
+    private static final long BLOCKING_MILLIS = 100;
+
+    // Requests currently inside the application and the highest value seen
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * Tests that virtual threads serve more requests concurrently than the platform pool allows,
+     * and that this lowers the tail latency of the burst.
+     */
+    @Test
+    void virtualThreadsShouldServeMoreConcurrentRequests() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("platform threads: max in flight {}, p99 {} ms", platform.maxInFlight, platform.p99Millis);
+        log.info("virtual threads:  max in flight {}, p99 {} ms", virtual.maxInFlight, virtual.p99Millis);
+
+        // Assertions
+        assertTrue(platform.maxInFlight <= TOMCAT_MAX_THREADS, "Platform pool should cap concurrency at its size");
+        assertTrue(virtual.maxInFlight > TOMCAT_MAX_THREADS, "Virtual threads should not be capped by the pool size");
+        assertTrue(virtual.p99Millis < platform.p99Millis, "Virtual threads should lower the p99 latency");
+    }
+
+    /**
+     * Starts the application in one thread mode and measures a burst of concurrent requests.
+     *
+     * @param virtualThreads Whether requests are served on virtual threads.
+     * @return The peak concurrency and p99 latency of the burst.
+     */
+    private Result run(boolean virtualThreads) throws Exception {
+        inFlight.set(0);
+        maxInFlight.set(0);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                EcommerceApplication.class, SlowDatabaseConfig.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads)
+                .run()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI uri = URI.create("http://localhost:" + port + "/api/orders/user/1");
+            long[] latencies = burst(uri);
+            Arrays.sort(latencies);
+            return new Result(maxInFlight.get(), latencies[(int) Math.ceil(latencies.length * 0.99) - 1]);
+        }
+    }
+
+    /**
+     * Sends all requests at once, each from its own client thread, and records their latencies.
+     *
+     * @param uri The endpoint to call.
+     * @return The latency of every request in milliseconds.
+     */
+    private long[] burst(URI uri) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> futures = new ArrayList<>(CONCURRENT_REQUESTS);
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                futures.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertEquals(200, response.statusCode());
+                    return (System.nanoTime() - start) / 1_000_000;
+                }));
+            }
+            long[] latencies = new long[CONCURRENT_REQUESTS];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = futures.get(i).get();
+            }
+            return latencies;
+        }
+    }
+
+    /**
+     * Peak concurrency and tail latency of one burst.
+     */
+    private record Result(int maxInFlight, long p99Millis) {
+    }
+
+    /**
+     * Adds a filter that counts requests in flight and blocks each one as a slow database would.
+     * Passed to the application explicitly rather than annotated, so component scanning in other tests skips it.
+     */
+    static class SlowDatabaseConfig {
+
+        @Bean
+        OncePerRequestFilter slowDatabaseFilter() {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain chain) throws ServletException, IOException {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(BLOCKING_MILLIS);
+                        chain.doFilter(request, response);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ServletException(e);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+}
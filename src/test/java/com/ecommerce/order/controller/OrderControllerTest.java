@@ -1,18 +1,39 @@
 package com.ecommerce.order.controller;
 
 import com.ecommerce.EcommerceApplication;
+import com.ecommerce.order.history.OrderHistory;
+import com.ecommerce.order.intake.OrderIntakeService;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.model.OrderIntakeReceipt;
+import com.ecommerce.order.model.OrderIntakeRejection;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusUpdateRequest;
+import com.ecommerce.order.model.OrderStatusUpdateResult;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.InvalidOrderException;
+import com.ecommerce.order.service.InvalidStatusTransitionException;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.web.TableVersion;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,12 +49,18 @@ class OrderControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private OrderRepository orderRepository;
 
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderIntakeService orderIntakeService;
+
     /**
      * Tests the retrieval of all orders.
      * Verifies that the response contains the expected list of orders.
@@ -43,47 +70,205 @@ class OrderControllerTest {
         Order order1 = new Order();
         order1.setId(1L);
         order1.setUserId(2L);
-        order1.setStatus("Pending");
+        order1.setStatus(OrderStatus.PENDING);
 
         Order order2 = new Order();
         order2.setId(2L);
         order2.setUserId(3L);
-        order2.setStatus("Shipped");
+        order2.setStatus(OrderStatus.SHIPPED);
 
+        when(orderService.getOrdersVersion(null)).thenReturn(new TableVersion(2L, 0L, 2L));
         when(orderService.getAllOrders()).thenReturn(Arrays.asList(order1, order2));
 
         mockMvc.perform(get("/api/orders"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "private, no-cache"))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].userId").value(2))
-                .andExpect(jsonPath("$[0].status").value("Pending"))
+                .andExpect(jsonPath("$[0].status").value("PENDING"))
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].userId").value(3))
-                .andExpect(jsonPath("$[1].status").value("Shipped"));
+                .andExpect(jsonPath("$[1].status").value("SHIPPED"));
 
         verify(orderService, times(1)).getAllOrders();
     }
 
+    /**
+     * Tests keyset pagination of orders.
+     * Verifies that the after and limit parameters are passed to the paginated service method.
+     */
+    @Test
+    void getAllOrdersWithCursorShouldReturnPage() throws Exception {
+        Order order = new Order();
+        order.setId(11L);
+        order.setUserId(2L);
+        order.setStatus(OrderStatus.PENDING);
+
+        when(orderService.getOrdersVersion(10L)).thenReturn(new TableVersion(1L, 0L, 11L));
+        when(orderService.getOrdersAfter(10L, 1)).thenReturn(Arrays.asList(order));
+
+        mockMvc.perform(get("/api/orders").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(11));
+
+        verify(orderService, times(1)).getOrdersAfter(10L, 1);
+        verify(orderService, never()).getAllOrders();
+    }
+
+    /**
+     * Tests conditional requests for the order list.
+     * Verifies that a matching If-None-Match gets 304 after the version check alone, without loading any order.
+     */
+    @Test
+    void getAllOrdersShouldReturnNotModifiedWhenVersionIsUnchanged() throws Exception {
+        when(orderService.getOrdersVersion(10L)).thenReturn(new TableVersion(5L, 7L, 15L));
+
+        String etag = mockMvc.perform(get("/api/orders").param("after", "10").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/orders").param("after", "10").param("limit", "5").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // A status change bumps a version, so the same tag no longer matches
+        when(orderService.getOrdersVersion(10L)).thenReturn(new TableVersion(5L, 8L, 15L));
+        mockMvc.perform(get("/api/orders").param("after", "10").param("limit", "5").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        verify(orderService, times(2)).getOrdersAfter(10L, 5);
+    }
+
+    /**
+     * Tests that the JSON and CBOR encodings of the order list get different entity tags.
+     * A CBOR request naming the tag of the JSON list must get the CBOR body, not 304.
+     */
+    @Test
+    void getAllOrdersShouldTagEachEncodingSeparately() throws Exception {
+        when(orderService.getOrdersVersion(null)).thenReturn(new TableVersion(5L, 7L, 15L));
+        when(orderService.getAllOrders()).thenReturn(List.of());
+
+        String jsonTag = mockMvc.perform(get("/api/orders").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String cborTag = mockMvc.perform(get("/api/orders").accept("application/cbor").header("If-None-Match", jsonTag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Assertions
+        assertNotEquals(jsonTag, cborTag);
+    }
+
+    /**
+     * Tests streaming of all orders as newline-delimited JSON.
+     * Verifies that every order streamed by the service is written on its own line.
+     */
+    @Test
+    void streamAllOrdersShouldWriteOneOrderPerLine() throws Exception {
+        Order order1 = new Order();
+        order1.setId(1L);
+        order1.setUserId(2L);
+
+        Order order2 = new Order();
+        order2.setId(2L);
+        order2.setUserId(3L);
+
+        doAnswer(invocation -> {
+            Consumer<Order> consumer = invocation.getArgument(0);
+            consumer.accept(order1);
+            consumer.accept(order2);
+            return null;
+        }).when(orderService).streamAllOrders(any());
+
+        String body = mockMvc.perform(get("/api/orders/stream"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length, "Each order should be on its own line");
+        assertTrue(lines[1].contains("\"id\":2"), "Second line should hold the second order");
+    }
+
+    /**
+     * Tests streaming of all orders as Smile.
+     * Verifies that a client asking for Smile gets a sequence of Smile documents, one per order.
+     */
+    @Test
+    void streamAllOrdersShouldWriteSmileWhenRequested() throws Exception {
+        Order order1 = new Order();
+        order1.setId(1L);
+        order1.setUserId(2L);
+
+        Order order2 = new Order();
+        order2.setId(2L);
+        order2.setUserId(3L);
+
+        doAnswer(invocation -> {
+            Consumer<Order> consumer = invocation.getArgument(0);
+            consumer.accept(order1);
+            consumer.accept(order2);
+            return null;
+        }).when(orderService).streamAllOrders(any());
+
+        byte[] body = mockMvc.perform(get("/api/orders/stream").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<JsonNode> orders = new SmileMapper().readerFor(JsonNode.class).<JsonNode>readValues(body).readAll();
+        assertEquals(2, orders.size(), "Each order should be its own Smile document");
+        assertEquals(2, orders.get(1).get("id").asInt());
+    }
+
     /**
      * Tests retrieving orders by user ID.
-     * Ensures that only the orders belonging to the given user are returned.
+     * Ensures that the user's cached order history is written as a JSON array.
      */
     @Test
     void getOrdersByUserIdShouldReturnUserOrders() throws Exception {
         Order order1 = new Order();
         order1.setId(1L);
         order1.setUserId(2L);
-        order1.setStatus("Pending");
+        order1.setStatus(OrderStatus.PENDING);
 
-        when(orderService.getOrdersByUserId(2L)).thenReturn(Arrays.asList(order1));
+        when(orderService.getOrderHistory(2L)).thenReturn(
+                OrderHistory.EMPTY.with(1L, objectMapper.writeValueAsBytes(order1)));
 
         mockMvc.perform(get("/api/orders/user/2"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].userId").value(2))
-                .andExpect(jsonPath("$[0].status").value("Pending"));
+                .andExpect(jsonPath("$[0].status").value("PENDING"));
+
+        verify(orderService, times(1)).getOrderHistory(2L);
+    }
+
+    /**
+     * Tests conditional requests for a user's orders.
+     * Verifies that the content-hash ETag is sent and that a matching If-None-Match gets 304 without a body.
+     */
+    @Test
+    void getOrdersByUserIdShouldReturnNotModifiedForMatchingETag() throws Exception {
+        Order order1 = new Order();
+        order1.setId(1L);
+        order1.setUserId(2L);
+        OrderHistory history = OrderHistory.EMPTY.with(1L, objectMapper.writeValueAsBytes(order1));
+
+        when(orderService.getOrderHistory(2L)).thenReturn(history);
+
+        mockMvc.perform(get("/api/orders/user/2").header("If-None-Match", history.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", history.etag()))
+                .andExpect(content().string(""));
 
-        verify(orderService, times(1)).getOrdersByUserId(2L);
+        mockMvc.perform(get("/api/orders/user/2").header("If-None-Match", "\"0-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
     }
 
     /**
@@ -95,7 +280,7 @@ class OrderControllerTest {
         Order order = new Order();
         order.setId(1L);
         order.setUserId(2L);
-        order.setStatus("Pending");
+        order.setStatus(OrderStatus.PENDING);
 
         when(orderService.createOrder(any(Order.class))).thenReturn(order);
 
@@ -105,11 +290,68 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.userId").value(2))
-                .andExpect(jsonPath("$.status").value("Pending"));
+                .andExpect(jsonPath("$.status").value("PENDING"));
 
         verify(orderService, times(1)).createOrder(any(Order.class));
     }
 
+    /**
+     * Tests that intake keys sent to the direct create endpoints are dropped before the orders are saved.
+     */
+    @Test
+    void createOrdersShouldIgnoreClientIntakeKeys() throws Exception {
+        when(orderService.createOrder(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderService.createOrders(anyList())).thenReturn(List.of());
+
+        mockMvc.perform(post("/api/orders")
+                        .contentType("application/json")
+                        .content("{\"userId\":2,\"intakeKey\":\"claimed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType("application/json")
+                        .content("[{\"userId\":2,\"intakeKey\":\"claimed\"}]"))
+                .andExpect(status().isOk());
+
+        // Assertions
+        verify(orderService).createOrder(argThat(order -> order.getIntakeKey() == null));
+        verify(orderService).createOrders(argThat(orders -> orders.get(0).getIntakeKey() == null));
+    }
+
+    /**
+     * Tests that an invalid order is answered with 400 Bad Request.
+     */
+    @Test
+    void createOrderShouldRejectInvalidOrder() throws Exception {
+        when(orderService.createOrder(any(Order.class))).thenThrow(new InvalidOrderException("item quantity must be positive"));
+
+        mockMvc.perform(post("/api/orders")
+                        .contentType("application/json")
+                        .content("{\"userId\":2,\"orderItems\":[{\"productId\":1,\"quantity\":0}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests batch order creation.
+     * Verifies that every submitted order gets its own result.
+     */
+    @Test
+    void createOrdersShouldReturnPerOrderResults() throws Exception {
+        when(orderService.createOrders(anyList())).thenReturn(List.of(
+                new OrderBatchResult(0, 10L, OrderBatchResult.Outcome.CREATED, null),
+                new OrderBatchResult(1, null, OrderBatchResult.Outcome.REJECTED, "userId is required")));
+
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType("application/json")
+                        .content("[{\"userId\":2,\"status\":\"Pending\"},{\"status\":\"Pending\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderId").value(10))
+                .andExpect(jsonPath("$[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$[1].outcome").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("userId is required"));
+
+        verify(orderService, times(1)).createOrders(anyList());
+    }
+
     /**
      * Tests updating the order status.
      * Ensures that the order status is modified correctly.
@@ -119,17 +361,150 @@ class OrderControllerTest {
         Order updatedOrder = new Order();
         updatedOrder.setId(1L);
         updatedOrder.setUserId(2L);
-        updatedOrder.setStatus("Shipped");
+        updatedOrder.setStatus(OrderStatus.SHIPPED);
 
-        when(orderService.updateOrderStatus(1L, "Shipped")).thenReturn(updatedOrder);
+        when(orderService.updateOrderStatus(1L, OrderStatus.SHIPPED)).thenReturn(updatedOrder);
 
         mockMvc.perform(put("/api/orders/1")
                         .param("status", "Shipped"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.userId").value(2))
-                .andExpect(jsonPath("$.status").value("Shipped"));
+                .andExpect(jsonPath("$.status").value("SHIPPED"));
+
+        verify(orderService, times(1)).updateOrderStatus(1L, OrderStatus.SHIPPED);
+    }
+
+    /**
+     * Tests updating the order status with an illegal transition or an unknown status.
+     * Ensures that the request is answered with 409 and 400 respectively.
+     */
+    @Test
+    void updateOrderStatusShouldRejectInvalidRequests() throws Exception {
+        when(orderService.updateOrderStatus(1L, OrderStatus.PENDING)).thenThrow(
+                new InvalidStatusTransitionException(1L, OrderStatus.DELIVERED, OrderStatus.PENDING));
+
+        mockMvc.perform(put("/api/orders/1").param("status", "pending"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(put("/api/orders/1").param("status", "Lost"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests the bulk status endpoint with explicit changes.
+     * Verifies that every change gets its own outcome.
+     */
+    @Test
+    void updateOrderStatusesShouldReturnPerOrderOutcomes() throws Exception {
+        when(orderService.updateOrderStatuses(anyList())).thenReturn(List.of(
+                new OrderStatusUpdateResult(1L, OrderStatus.SHIPPED, OrderStatusUpdateResult.Outcome.UPDATED, null),
+                new OrderStatusUpdateResult(2L, null, OrderStatusUpdateResult.Outcome.NOT_FOUND, null)));
+
+        mockMvc.perform(patch("/api/orders/status")
+                        .contentType("application/json")
+                        .content("{\"updates\":[{\"orderId\":1,\"status\":\"SHIPPED\"},{\"orderId\":2,\"status\":\"Shipped\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].outcome").value("NOT_FOUND"));
+
+        verify(orderService, times(1)).updateOrderStatuses(anyList());
+    }
+
+    /**
+     * Tests the bulk status endpoint with a filter, and with a body that uses neither mode.
+     */
+    @Test
+    void updateOrderStatusesByFilterShouldUseFilter() throws Exception {
+        when(orderService.updateOrderStatuses(any(OrderStatusUpdateRequest.Filter.class), eq(OrderStatus.SHIPPED)))
+                .thenReturn(List.of());
+
+        mockMvc.perform(patch("/api/orders/status")
+                        .contentType("application/json")
+                        .content("{\"filter\":{\"status\":\"PROCESSING\",\"userId\":2},\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/orders/status")
+                        .contentType("application/json")
+                        .content("{\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, times(1)).updateOrderStatuses(any(OrderStatusUpdateRequest.Filter.class), eq(OrderStatus.SHIPPED));
+    }
+
+    /**
+     * Tests submitting an order to the asynchronous intake.
+     * Ensures that an accepted order returns 202 with its intake key.
+     */
+    @Test
+    void submitOrderShouldReturnAccepted() throws Exception {
+        when(orderIntakeService.submit(any(Order.class), eq("key-1"))).thenReturn(
+                new OrderIntakeReceipt("key-1", OrderIntakeReceipt.Outcome.ACCEPTED, null));
+
+        mockMvc.perform(post("/api/orders/intake")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType("application/json")
+                        .content("{\"userId\":2,\"status\":\"Pending\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.intakeKey").value("key-1"))
+                .andExpect(jsonPath("$.outcome").value("ACCEPTED"));
+
+        verify(orderIntakeService, times(1)).submit(any(Order.class), eq("key-1"));
+    }
+
+    /**
+     * Tests submitting an invalid order to the asynchronous intake.
+     * Ensures that a rejected order returns 400 with the reason.
+     */
+    @Test
+    void submitOrderShouldReturnBadRequestWhenRejected() throws Exception {
+        when(orderIntakeService.submit(any(Order.class), isNull())).thenReturn(
+                new OrderIntakeReceipt("generated", OrderIntakeReceipt.Outcome.REJECTED, "userId is required"));
+
+        mockMvc.perform(post("/api/orders/intake")
+                        .contentType("application/json")
+                        .content("{\"status\":\"Pending\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("userId is required"));
+    }
+
+    /**
+     * Tests looking up an order by its intake key.
+     * Ensures that a persisted order is returned and a pending one is reported as not found.
+     */
+    @Test
+    void getOrderByIntakeKeyShouldReturnPersistedOrder() throws Exception {
+        Order order = new Order();
+        order.setId(5L);
+        order.setUserId(2L);
+        order.setIntakeKey("key-1");
+
+        when(orderIntakeService.getOrderByIntakeKey("key-1")).thenReturn(Optional.of(order));
+        when(orderIntakeService.getOrderByIntakeKey("key-2")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/orders/intake/key-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(5))
+                .andExpect(jsonPath("$.intakeKey").value("key-1"));
+
+        mockMvc.perform(get("/api/orders/intake/key-2"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Tests looking up an order that was rejected after it was accepted by the intake.
+     * Ensures that the rejection is reported instead of a pending order.
+     */
+    @Test
+    void getOrderByIntakeKeyShouldReportRejectedOrder() throws Exception {
+        when(orderIntakeService.getOrderByIntakeKey("key-3")).thenReturn(Optional.empty());
+        when(orderIntakeService.getRejection("key-3"))
+                .thenReturn(Optional.of(new OrderIntakeRejection("key-3", "Insufficient stock for product 9")));
 
-        verify(orderService, times(1)).updateOrderStatus(1L, "Shipped");
+        mockMvc.perform(get("/api/orders/intake/key-3"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.intakeKey").value("key-3"))
+                .andExpect(jsonPath("$.outcome").value("REJECTED"))
+                .andExpect(jsonPath("$.message").value("Insufficient stock for product 9"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package com.ecommerce.order.eventlog;
+
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for OrderEventLog.
+ * Ensures that events are written, rolled over into segments, replayed and recovered after a restart.
+ */
+class OrderEventLogTest {
+
+    // Directory holding the segment files of each test
+    @TempDir
+    Path directory;
+
+    // Log under test
+    private OrderEventLog eventLog;
+
+    /**
+     * Opens a log with small segments so tests roll over.
+     */
+    @BeforeEach
+    void setUp() {
+        eventLog = open();
+    }
+
+    /**
+     * Stops the writer thread after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        eventLog.close();
+    }
+
+    /**
+     * Tests that order events are logged as created, item and status records and replayed in order.
+     */
+    @Test
+    void orderEventsShouldBeReplayedInOrder() throws InterruptedException {
+        eventLog.onOrderCreated(new OrderCreatedEvent(order(7L)));
+        eventLog.onOrderStatusChanged(new OrderStatusChangedEvent(7L, 3L, OrderStatus.SHIPPED, 2L));
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<OrderLogEvent> events = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        long replayed = eventLog.replay(0L, record -> {
+            sequences.add(record.sequence());
+            events.add(record.toEvent());
+        });
+
+        // Assertions
+        assertEquals(4, replayed);
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences);
+        assertEquals(OrderLogEventType.CREATED, events.get(0).getType());
+        assertEquals(3L, events.get(0).getUserId());
+        assertEquals(3500L, events.get(0).getAmountCents());
+        assertEquals(OrderStatus.PENDING, events.get(0).getStatus());
+        assertEquals(OrderLogEventType.ITEM, events.get(1).getType());
+        assertEquals(1L, events.get(1).getProductId());
+        assertEquals(2, events.get(1).getQuantity());
+        assertEquals(1000L, events.get(1).getAmountCents());
+        assertEquals(OrderLogEventType.STATUS_CHANGED, events.get(3).getType());
+        assertEquals(OrderStatus.SHIPPED, events.get(3).getStatus());
+        assertEquals(2L, events.get(3).getVersion());
+        assertEquals(4L, eventLog.lastSequence());
+    }
+
+    /**
+     * Tests that a full segment rolls over and that a replay can start in a later segment.
+     */
+    @Test
+    void replayShouldStartAtSequenceAcrossSegments() throws InterruptedException, IOException {
+        for (long orderId = 1; orderId <= 10; orderId++) {
+            eventLog.append(statusChanged(orderId));
+        }
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<Long> orderIds = new ArrayList<>();
+        eventLog.replay(6L, record -> orderIds.add(record.orderId()));
+
+        // Assertions
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), orderIds);
+        assertEquals(3, segmentFiles().size(), "Four records per segment should give three segments");
+        assertEquals(0, eventLog.replay(11L, record -> fail("Nothing should be replayed")));
+    }
+
+    /**
+     * Tests that a replay by time skips records logged before it.
+     */
+    @Test
+    void replayByTimeShouldSkipEarlierRecords() throws InterruptedException {
+        eventLog.append(statusChanged(1L));
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+        Thread.sleep(5);
+        Instant from = Instant.now();
+        eventLog.append(statusChanged(2L));
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<Long> orderIds = new ArrayList<>();
+        eventLog.replay(from, record -> orderIds.add(record.orderId()));
+
+        // Assertions
+        assertEquals(List.of(2L), orderIds);
+        assertEquals(2, eventLog.replay(Instant.EPOCH, record -> { }));
+    }
+
+    /**
+     * Tests that a replay by time finds its first record inside a segment and continues into the later segments.
+     */
+    @Test
+    void replayByTimeShouldStartInsideSegment() throws InterruptedException {
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            eventLog.append(statusChanged(orderId));
+        }
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+        Thread.sleep(5);
+        Instant from = Instant.now();
+        for (long orderId = 4; orderId <= 9; orderId++) {
+            eventLog.append(statusChanged(orderId));
+        }
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<Long> orderIds = new ArrayList<>();
+        long replayed = eventLog.replay(from, record -> orderIds.add(record.orderId()));
+
+        // Assertions
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L), orderIds);
+        assertEquals(6, replayed);
+        assertEquals(0, eventLog.replay(Instant.now().plusSeconds(60), record -> fail("Nothing should be replayed")));
+    }
+
+    /**
+     * Tests that a replay by time includes the records of an earlier segment that share the time of a roll.
+     */
+    @Test
+    void replayByTimeShouldIncludeRecordsBeforeRollWithinOneMillisecond() throws InterruptedException {
+        // Timestamps never go backwards, so every following record is logged at this time
+        long timestamp = System.currentTimeMillis() + 1000;
+        ReflectionTestUtils.setField(eventLog, "lastTimestamp", timestamp);
+        for (long orderId = 1; orderId <= 6; orderId++) {
+            eventLog.append(statusChanged(orderId));
+        }
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<Long> orderIds = new ArrayList<>();
+        eventLog.replay(Instant.ofEpochMilli(timestamp), record -> orderIds.add(record.orderId()));
+
+        // Assertions
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), orderIds, "Records of both segments share the requested time");
+    }
+
+    /**
+     * Tests that a reopened log keeps its records and continues their sequence numbers.
+     */
+    @Test
+    void reopenedLogShouldContinueSequence() throws InterruptedException {
+        for (long orderId = 1; orderId <= 6; orderId++) {
+            eventLog.append(statusChanged(orderId));
+        }
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+        eventLog.close();
+
+        eventLog = open();
+        eventLog.append(statusChanged(7L));
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<Long> sequences = new ArrayList<>();
+        eventLog.replay(0L, record -> sequences.add(record.sequence()));
+
+        // Assertions
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), sequences);
+        assertEquals(7L, eventLog.lastSequence());
+    }
+
+    /**
+     * Tests that a torn record ends the recovered log and is overwritten by the next event.
+     */
+    @Test
+    void tornRecordShouldBeDroppedOnRecovery() throws InterruptedException, IOException {
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            eventLog.append(statusChanged(orderId));
+        }
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+        eventLog.close();
+
+        // Corrupt the second record, as a crash in the middle of writing it would
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), OrderLogRecord.SIZE + 20);
+        }
+
+        eventLog = open();
+        eventLog.append(statusChanged(9L));
+        assertTrue(eventLog.sync(5, TimeUnit.SECONDS));
+
+        List<Long> orderIds = new ArrayList<>();
+        eventLog.replay(0L, record -> orderIds.add(record.orderId()));
+
+        // Assertions
+        assertEquals(List.of(1L, 9L), orderIds, "Records from the torn one on should be dropped");
+        assertEquals(2L, eventLog.lastSequence());
+    }
+
+    /**
+     * Opens a log over the test directory with four records per segment.
+     *
+     * @return The open log.
+     */
+    private OrderEventLog open() {
+        OrderEventLog opened = new OrderEventLog();
+        ReflectionTestUtils.setField(opened, "directory", directory.toString());
+        ReflectionTestUtils.setField(opened, "segmentRecords", 4);
+        ReflectionTestUtils.setField(opened, "bucketMinutes", 60L);
+        ReflectionTestUtils.setField(opened, "syncIntervalMs", 1L);
+        ReflectionTestUtils.setField(opened, "queueCapacity", 16);
+        opened.open();
+        return opened;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private OrderLogEvent statusChanged(long orderId) {
+        return OrderLogEvent.statusChanged(new OrderStatusChangedEvent(orderId, 1L, OrderStatus.PROCESSING, 1L));
+    }
+
+    /**
+     * Creates a saved, priced order of 2 x product 1 at 10.00 and 3 x product 2 at 5.00.
+     *
+     * @param orderId The ID of the order.
+     * @return The order.
+     */
+    private Order order(Long orderId) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(item(1L, 2, 1000L));
+        items.add(item(2L, 3, 500L));
+
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUserId(3L);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalCents(3500L);
+        order.setOrderItems(items);
+        return order;
+    }
+
+    private OrderItem item(Long productId, int quantity, long unitPriceCents) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setUnitPriceCents(unitPriceCents);
+        return item;
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.order.history;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for OrderHistoryCache.
+ * Ensures that histories are loaded once and then kept current by appends and in-place patches.
+ */
+class OrderHistoryCacheTest {
+
+    // Mocked repository supplying the histories on a miss
+    @Mock
+    private OrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Cache under test
+    private OrderHistoryCache orderHistoryCache;
+
+    /**
+     * Initializes mock objects and creates the cache before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.ORDER_HISTORY_CACHE, Caffeine.newBuilder()
+                .maximumWeight(1_000_000)
+                .weigher((Object userId, Object history) -> ((OrderHistory) history).weight())
+                .build());
+
+        orderHistoryCache = new OrderHistoryCache();
+        ReflectionTestUtils.setField(orderHistoryCache, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderHistoryCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(orderHistoryCache, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(orderHistoryCache, "meterRegistry", meterRegistry);
+        orderHistoryCache.init();
+    }
+
+    /**
+     * Tests that a history is loaded from the database once and then served from the cache.
+     */
+    @Test
+    void getShouldLoadHistoryOnce() throws Exception {
+        when(orderRepository.findWithItemsByUserId(2L)).thenReturn(List.of(order(11L, 2L), order(10L, 2L)));
+
+        orderHistoryCache.get(2L);
+        JsonNode json = toJson(orderHistoryCache.get(2L));
+
+        // Assertions
+        assertEquals(2, json.size());
+        assertEquals(10, json.get(0).get("id").asInt(), "Orders should be sorted by ID");
+        verify(orderRepository, times(1)).findWithItemsByUserId(2L);
+    }
+
+    /**
+     * Tests that a new order is appended to a cached history without reloading it.
+     */
+    @Test
+    void onOrderCreatedShouldAppendToCachedHistory() throws Exception {
+        when(orderRepository.findWithItemsByUserId(2L)).thenReturn(List.of(order(10L, 2L)));
+        orderHistoryCache.get(2L);
+
+        orderHistoryCache.onOrderCreated(new OrderCreatedEvent(order(12L, 2L)));
+        JsonNode json = toJson(orderHistoryCache.get(2L));
+
+        // Assertions
+        assertEquals(2, json.size(), "New order should be appended");
+        assertEquals(12, json.get(1).get("id").asInt());
+        verify(orderRepository, times(1)).findWithItemsByUserId(2L);
+    }
+
+    /**
+     * Tests that orders of users without a cached history are not cached.
+     */
+    @Test
+    void onOrderCreatedShouldSkipUncachedUser() {
+        orderHistoryCache.onOrderCreated(new OrderCreatedEvent(order(12L, 3L)));
+
+        when(orderRepository.findWithItemsByUserId(3L)).thenReturn(List.of());
+
+        // Assertions
+        assertEquals(0, orderHistoryCache.get(3L).size(), "Uncached user should be loaded from the database");
+        verify(orderRepository, times(1)).findWithItemsByUserId(3L);
+    }
+
+    /**
+     * Tests that a status change patches the cached order in place.
+     */
+    @Test
+    void onOrderStatusChangedShouldPatchCachedOrder() throws Exception {
+        when(orderRepository.findWithItemsByUserId(2L)).thenReturn(List.of(order(10L, 2L), order(11L, 2L)));
+        orderHistoryCache.get(2L);
+
+        orderHistoryCache.onOrderStatusChanged(new OrderStatusChangedEvent(11L, 2L, OrderStatus.PROCESSING, 1L));
+        JsonNode json = toJson(orderHistoryCache.get(2L));
+
+        // Assertions
+        assertEquals("PENDING", json.get(0).get("status").asText(), "Other orders should be unchanged");
+        assertEquals("PROCESSING", json.get(1).get("status").asText());
+        assertEquals(1, json.get(1).get("version").asInt());
+        verify(orderRepository, times(1)).findWithItemsByUserId(2L);
+    }
+
+    /**
+     * Tests that a status change arriving after a newer one does not overwrite it.
+     */
+    @Test
+    void onOrderStatusChangedShouldIgnoreOlderVersion() throws Exception {
+        when(orderRepository.findWithItemsByUserId(2L)).thenReturn(List.of(order(11L, 2L)));
+        orderHistoryCache.get(2L);
+
+        orderHistoryCache.onOrderStatusChanged(new OrderStatusChangedEvent(11L, 2L, OrderStatus.SHIPPED, 3L));
+        orderHistoryCache.onOrderStatusChanged(new OrderStatusChangedEvent(11L, 2L, OrderStatus.PROCESSING, 2L));
+        JsonNode json = toJson(orderHistoryCache.get(2L));
+
+        // Assertions
+        assertEquals("SHIPPED", json.get(0).get("status").asText(), "A late older event should be ignored");
+        assertEquals(3, json.get(0).get("version").asInt());
+    }
+
+    /**
+     * Tests that the memory held by the cache is published as a gauge.
+     */
+    @Test
+    void weightedSizeShouldBePublished() {
+        when(orderRepository.findWithItemsByUserId(2L)).thenReturn(List.of(order(10L, 2L)));
+        orderHistoryCache.get(2L);
+
+        double bytes = meterRegistry.get("cache.weighted.size").tag("cache", CacheConfig.ORDER_HISTORY_CACHE).gauge().value();
+
+        // Assertions
+        assertTrue(bytes > 0, "Cached history should have a positive weight");
+    }
+
+    /**
+     * Creates a pending order.
+     *
+     * @param id     The order ID.
+     * @param userId The ID of the ordering user.
+     * @return The order.
+     */
+    private Order order(Long id, Long userId) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(userId);
+        order.setVersion(0L);
+        return order;
+    }
+
+    /**
+     * Writes a history as the endpoint would and parses it back.
+     *
+     * @param history The history.
+     * @return The JSON array.
+     */
+    private JsonNode toJson(OrderHistory history) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        history.writeTo(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
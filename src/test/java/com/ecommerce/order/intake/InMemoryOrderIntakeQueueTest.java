@@ -0,0 +1,97 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for InMemoryOrderIntakeQueue.
+ * Ensures that queued orders reach the writer and failed batches are retried.
+ */
+class InMemoryOrderIntakeQueueTest {
+
+    // Mocked writer receiving the drained batches
+    @Mock
+    private OrderIntakeWriter writer;
+
+    // Queue under test
+    @InjectMocks
+    private InMemoryOrderIntakeQueue queue;
+
+    /**
+     * Initializes mock objects and starts the consumer before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        ReflectionTestUtils.setField(queue, "capacity", 2);
+    }
+
+    /**
+     * Stops the consumer after each test.
+     *
+     * @throws InterruptedException If interrupted while waiting for the consumer.
+     */
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.stop();
+    }
+
+    /**
+     * Tests that a published order is written by the consumer thread.
+     */
+    @Test
+    void publishedOrderShouldBeWritten() {
+        queue.start();
+        Order order = new Order();
+
+        queue.publish(order);
+
+        verify(writer, timeout(2000)).write(List.of(order));
+    }
+
+    /**
+     * Tests that a failed batch is written again.
+     */
+    @Test
+    void failedBatchShouldBeRetried() {
+        doThrow(new IllegalStateException("database unavailable")).doNothing().when(writer).write(anyList());
+        queue.start();
+        Order order = new Order();
+
+        queue.publish(order);
+
+        verify(writer, timeout(5000).times(2)).write(List.of(order));
+    }
+
+    /**
+     * Tests that publishing to a full queue is refused.
+     */
+    @Test
+    void publishShouldFailWhenQueueIsFull() {
+        doAnswer(invocation -> {
+            Thread.sleep(3_000);
+            return null;
+        }).when(writer).write(anyList());
+        queue.start();
+
+        queue.publish(new Order());
+        // Wait until the consumer holds the first order, then fill the queue
+        verify(writer, timeout(2000)).write(anyList());
+        queue.publish(new Order());
+        queue.publish(new Order());
+
+        assertThrows(OrderIntakeUnavailableException.class, () -> queue.publish(new Order()));
+    }
+}
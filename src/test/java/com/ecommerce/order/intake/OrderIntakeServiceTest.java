@@ -0,0 +1,147 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderIntakeReceipt;
+import com.ecommerce.order.model.OrderIntakeRejection;
+import com.ecommerce.order.repository.OrderIntakeRejectionRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for OrderIntakeService.
+ * Ensures that submitted orders are validated, keyed and queued exactly once per key.
+ */
+class OrderIntakeServiceTest {
+
+    // Mocked order service providing validation
+    @Mock
+    private OrderService orderService;
+
+    // Mocked repository used for persisted-key lookups
+    @Mock
+    private OrderRepository orderRepository;
+
+    // Mocked repository of rejected orders
+    @Mock
+    private OrderIntakeRejectionRepository rejectionRepository;
+
+    // Mocked intake queue
+    @Mock
+    private OrderIntakeQueue orderIntakeQueue;
+
+    // Service under test
+    @InjectMocks
+    private OrderIntakeService orderIntakeService;
+
+    /**
+     * Initializes mock objects before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that a valid order is queued with the client's idempotency key.
+     */
+    @Test
+    void submitShouldQueueValidOrderWithKey() {
+        Order order = new Order();
+        order.setId(99L);
+        order.setUserId(2L);
+
+        when(orderService.validate(order)).thenReturn(null);
+        when(orderRepository.findExistingIntakeKeys(List.of("key-1"))).thenReturn(List.of());
+
+        OrderIntakeReceipt receipt = orderIntakeService.submit(order, "key-1");
+
+        // Assertions
+        assertEquals(OrderIntakeReceipt.Outcome.ACCEPTED, receipt.getOutcome());
+        assertEquals("key-1", receipt.getIntakeKey());
+        assertEquals("key-1", order.getIntakeKey(), "Queued order should carry the intake key");
+        assertNull(order.getId(), "Client-supplied IDs should be cleared");
+        verify(orderIntakeQueue, times(1)).publish(order);
+    }
+
+    /**
+     * Tests that a key generated for a submission without an idempotency key is returned.
+     */
+    @Test
+    void submitShouldGenerateKeyWhenMissing() {
+        Order order = new Order();
+        order.setUserId(2L);
+
+        when(orderRepository.findExistingIntakeKeys(anyList())).thenReturn(List.of());
+
+        OrderIntakeReceipt receipt = orderIntakeService.submit(order, null);
+
+        // Assertions
+        assertNotNull(receipt.getIntakeKey(), "A key should be generated");
+        assertEquals(receipt.getIntakeKey(), order.getIntakeKey());
+    }
+
+    /**
+     * Tests that an invalid order is rejected without being queued.
+     */
+    @Test
+    void submitShouldRejectInvalidOrder() {
+        Order order = new Order();
+
+        when(orderService.validate(order)).thenReturn("userId is required");
+
+        OrderIntakeReceipt receipt = orderIntakeService.submit(order, "key-2");
+
+        // Assertions
+        assertEquals(OrderIntakeReceipt.Outcome.REJECTED, receipt.getOutcome());
+        assertEquals("userId is required", receipt.getMessage());
+        verify(orderIntakeQueue, never()).publish(any());
+    }
+
+    /**
+     * Tests that resubmitting an already persisted key is acknowledged without queueing a duplicate.
+     */
+    @Test
+    void submitShouldNotQueuePersistedKeyAgain() {
+        Order order = new Order();
+        order.setUserId(2L);
+
+        when(orderRepository.findExistingIntakeKeys(List.of("key-3"))).thenReturn(List.of("key-3"));
+
+        OrderIntakeReceipt receipt = orderIntakeService.submit(order, "key-3");
+
+        // Assertions
+        assertEquals(OrderIntakeReceipt.Outcome.ACCEPTED, receipt.getOutcome());
+        verify(orderIntakeQueue, never()).publish(any());
+    }
+
+    /**
+     * Tests that resubmitting a key whose order was rejected when written reports the rejection again.
+     */
+    @Test
+    void submitShouldReportRejectedKey() {
+        Order order = new Order();
+        order.setUserId(2L);
+
+        when(orderRepository.findExistingIntakeKeys(List.of("key-4"))).thenReturn(List.of());
+        when(rejectionRepository.findById("key-4"))
+                .thenReturn(Optional.of(new OrderIntakeRejection("key-4", "Product 9 not found")));
+
+        OrderIntakeReceipt receipt = orderIntakeService.submit(order, "key-4");
+
+        // Assertions
+        assertEquals(OrderIntakeReceipt.Outcome.REJECTED, receipt.getOutcome());
+        assertEquals("Product 9 not found", receipt.getMessage());
+        verify(orderIntakeQueue, never()).publish(any());
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.order.intake;
+
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.model.OrderIntakeRejection;
+import com.ecommerce.order.repository.OrderIntakeRejectionRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for OrderIntakeWriter.
+ * Ensures that redelivered orders are written only once, rejected orders are recorded and failed writes are reported
+ * for redelivery until they run out of attempts.
+ */
+class OrderIntakeWriterTest {
+
+    // Mocked repository used for persisted-key lookups
+    @Mock
+    private OrderRepository orderRepository;
+
+    // Mocked order service saving the batches
+    @Mock
+    private OrderService orderService;
+
+    // Mocked repository recording rejected orders
+    @Mock
+    private OrderIntakeRejectionRepository rejectionRepository;
+
+    // Writer under test
+    @InjectMocks
+    private OrderIntakeWriter orderIntakeWriter;
+
+    /**
+     * Initializes mock objects and the attempt limit before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderIntakeWriter, "maxAttempts", 3);
+    }
+
+    /**
+     * Tests that keys already persisted and duplicates within the batch are skipped.
+     */
+    @Test
+    void writeShouldSkipPersistedAndDuplicateKeys() {
+        Order persisted = keyedOrder("a");
+        Order fresh = keyedOrder("b");
+        Order redelivered = keyedOrder("b");
+
+        when(orderRepository.findExistingIntakeKeys(anyCollection())).thenReturn(List.of("a"));
+        when(orderService.createOrders(List.of(fresh))).thenReturn(List.of(
+                new OrderBatchResult(0, 1L, OrderBatchResult.Outcome.CREATED, null)));
+
+        orderIntakeWriter.write(List.of(persisted, fresh, redelivered));
+
+        verify(orderService, times(1)).createOrders(List.of(fresh));
+    }
+
+    /**
+     * Tests that a failed save is reported so the queue delivers the batch again.
+     */
+    @Test
+    void writeShouldFailWhenOrdersCouldNotBeSaved() {
+        Order order = keyedOrder("c");
+
+        when(orderRepository.findExistingIntakeKeys(anyCollection())).thenReturn(List.of());
+        when(orderService.createOrders(List.of(order))).thenReturn(List.of(
+                new OrderBatchResult(0, null, OrderBatchResult.Outcome.FAILED, "database unavailable")));
+
+        assertThrows(IllegalStateException.class, () -> orderIntakeWriter.write(List.of(order)));
+    }
+
+    /**
+     * Tests that an order rejected when written is recorded under its intake key.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeShouldRecordRejectedOrders() {
+        Order accepted = keyedOrder("d");
+        Order rejected = keyedOrder("e");
+
+        when(orderRepository.findExistingIntakeKeys(anyCollection())).thenReturn(List.of());
+        when(orderService.createOrders(List.of(accepted, rejected))).thenReturn(List.of(
+                new OrderBatchResult(0, 1L, OrderBatchResult.Outcome.CREATED, null),
+                new OrderBatchResult(1, null, OrderBatchResult.Outcome.REJECTED, "Insufficient stock for product 9")));
+
+        orderIntakeWriter.write(List.of(accepted, rejected));
+
+        // Assertions
+        ArgumentCaptor<List<OrderIntakeRejection>> saved = ArgumentCaptor.forClass(List.class);
+        verify(rejectionRepository, times(1)).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals("e", saved.getValue().get(0).getIntakeKey());
+        assertEquals("Insufficient stock for product 9", saved.getValue().get(0).getMessage());
+    }
+
+    /**
+     * Tests that orders of a failed chunk are retried on their own and rejected once they run out of attempts.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeShouldRetryFailedOrdersAloneAndRejectAfterMaxAttempts() {
+        Order good = keyedOrder("f");
+        Order bad = keyedOrder("g");
+        OrderBatchResult chunkFailed = new OrderBatchResult(0, null, OrderBatchResult.Outcome.FAILED, "constraint violation");
+
+        when(orderRepository.findExistingIntakeKeys(anyCollection())).thenReturn(List.of());
+        when(orderService.createOrders(List.of(good, bad))).thenReturn(List.of(
+                chunkFailed, new OrderBatchResult(1, null, OrderBatchResult.Outcome.FAILED, "constraint violation")));
+        when(orderService.createOrders(List.of(good))).thenReturn(List.of(
+                new OrderBatchResult(0, 1L, OrderBatchResult.Outcome.CREATED, null)));
+        when(orderService.createOrders(List.of(bad))).thenReturn(List.of(chunkFailed));
+
+        assertThrows(IllegalStateException.class, () -> orderIntakeWriter.write(List.of(good, bad)));
+        assertThrows(IllegalStateException.class, () -> orderIntakeWriter.write(List.of(good, bad)));
+        orderIntakeWriter.write(List.of(bad));
+
+        // Assertions
+        verify(orderService, times(1)).createOrders(List.of(good));
+        verify(orderService, times(2)).createOrders(List.of(bad));
+        ArgumentCaptor<List<OrderIntakeRejection>> saved = ArgumentCaptor.forClass(List.class);
+        verify(rejectionRepository, times(1)).saveAll(saved.capture());
+        assertEquals("g", saved.getValue().get(0).getIntakeKey());
+        assertEquals("Could not be saved after 3 attempts: constraint violation", saved.getValue().get(0).getMessage());
+    }
+
+    /**
+     * Creates an order with the given intake key.
+     *
+     * @param key The intake key.
+     * @return The new order.
+     */
+    private Order keyedOrder(String key) {
+        Order order = new Order();
+        order.setUserId(2L);
+        order.setIntakeKey(key);
+        return order;
+    }
+}
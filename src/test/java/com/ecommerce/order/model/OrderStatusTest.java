@@ -0,0 +1,48 @@
+package com.ecommerce.order.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for the OrderStatus state machine.
+ * Ensures that only the documented transitions are allowed and that status names are parsed leniently.
+ */
+class OrderStatusTest {
+
+    /**
+     * Tests the allowed and forbidden transitions.
+     */
+    @Test
+    void transitionsShouldFollowTheOrderLifecycle() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.PROCESSING));
+        assertTrue(OrderStatus.PROCESSING.canTransitionTo(OrderStatus.CANCELLED));
+        assertTrue(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED), "Shipped orders cannot be cancelled");
+        assertFalse(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.PENDING), "Delivered is a final status");
+        assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.PENDING), "A status is not a transition to itself");
+    }
+
+    /**
+     * Tests that predecessors are the inverse of the allowed transitions.
+     */
+    @Test
+    void predecessorsShouldInvertTransitions() {
+        assertEquals(Set.of(OrderStatus.PENDING, OrderStatus.PROCESSING), OrderStatus.CANCELLED.predecessors());
+        assertEquals(Set.of(OrderStatus.PROCESSING), OrderStatus.SHIPPED.predecessors());
+        assertTrue(OrderStatus.PENDING.predecessors().isEmpty(), "No status leads back to PENDING");
+    }
+
+    /**
+     * Tests that parsing ignores case and rejects unknown names.
+     */
+    @Test
+    void parseShouldIgnoreCase() {
+        assertEquals(OrderStatus.SHIPPED, OrderStatus.parse("Shipped"));
+        assertEquals(OrderStatus.PENDING, OrderStatus.parse(" pending "));
+        assertNull(OrderStatus.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.parse("Lost"));
+    }
+}
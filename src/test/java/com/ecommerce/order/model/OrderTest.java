@@ -19,7 +19,7 @@ public class OrderTest {
         Order order = new Order();
         order.setId(1L);
         order.setUserId(1L);
-        order.setStatus("PENDING");
+        order.setStatus(OrderStatus.PENDING);
 
         // Create first order item
         OrderItem item1 = new OrderItem();
@@ -40,7 +40,21 @@ public class OrderTest {
         assertNotNull(order, "Order object should not be null");
         assertEquals(1L, order.getId(), "Order ID should be 1");
         assertEquals(1L, order.getUserId(), "User ID should be 1");
-        assertEquals("PENDING", order.getStatus(), "Order status should be 'PENDING'");
+        assertEquals(OrderStatus.PENDING, order.getStatus(), "Order status should be 'PENDING'");
         assertEquals(2, order.getOrderItems().size(), "Order should contain 2 items");
     }
+
+    /**
+     * Tests that setting the order items points every item back to its order.
+     */
+    @Test
+    void testSetOrderItemsLinksItemsToOrder() {
+        Order order = new Order();
+        OrderItem item = new OrderItem();
+        item.setProductId(100L);
+
+        order.setOrderItems(List.of(item));
+
+        assertSame(order, item.getOrder(), "Item should reference the order it was added to");
+    }
 }
@@ -2,25 +2,45 @@ package com.ecommerce.order.repository;
 
 import com.ecommerce.EcommerceApplication;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.web.TableVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Unit test for the OrderRepository.
  * Ensures that database interactions for the Order entity work correctly.
  */
 @ExtendWith(SpringExtension.class)
-@SpringBootTest(classes = EcommerceApplication.class)
+@SpringBootTest(classes = EcommerceApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class OrderRepositoryTest {
 
     @Autowired
     private OrderRepository orderRepository;
 
+    // Used to flush and clear the persistence context so reads really hit the database
+    @Autowired
+    private EntityManager entityManager;
+
+    // Gives access to Hibernate statistics for counting executed statements
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
      * Tests the findByUserId method.
      * Ensures that orders belonging to a specific user are retrieved correctly.
@@ -30,7 +50,7 @@ public class OrderRepositoryTest {
         // Create and save a new order for user with ID 1
         Order order = new Order();
         order.setUserId(1L);
-        order.setStatus("PENDING");
+        order.setStatus(OrderStatus.PENDING);
         orderRepository.save(order);
 
         // Retrieve orders for user with ID 1
@@ -40,4 +60,244 @@ public class OrderRepositoryTest {
         assertFalse(orders.isEmpty(), "Orders list should not be empty");
         assertEquals(1L, orders.get(0).getUserId(), "User ID should match the saved order");
     }
+
+    /**
+     * Tests the findByIdGreaterThanOrderByIdAsc method.
+     * Ensures that a keyset page starts after the cursor and respects the page size.
+     */
+    @Test
+    void testFindByIdGreaterThanOrderByIdAsc() {
+        // Create and save three orders
+        Long firstId = null;
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order();
+            order.setUserId(7L);
+            order.setStatus(OrderStatus.PENDING);
+            Long id = orderRepository.save(order).getId();
+            if (firstId == null) {
+                firstId = id;
+            }
+        }
+
+        // Retrieve a page of two orders after the first one
+        List<Order> page = orderRepository.findByIdGreaterThanOrderByIdAsc(firstId, PageRequest.of(0, 2));
+
+        // Verify that the page starts after the cursor and is ordered by ID
+        assertEquals(2, page.size(), "Page should contain two orders");
+        assertTrue(page.get(0).getId() > firstId, "Page should start after the cursor");
+        assertTrue(page.get(0).getId() < page.get(1).getId(), "Page should be ordered by ID");
+    }
+
+    /**
+     * Tests the findWithItemsByUserId method.
+     * Ensures that orders and their items are loaded with a single statement instead of one per order.
+     */
+    @Test
+    @Transactional
+    void testFindWithItemsByUserIdUsesSingleStatement() {
+        saveOrdersWithItems(42L, 10);
+        Statistics statistics = clearedStatistics();
+
+        // Retrieve the orders and touch every item collection
+        List<Order> orders = orderRepository.findWithItemsByUserId(42L);
+        orders.forEach(order -> order.getOrderItems().size());
+
+        // Verify that the whole graph was read with one statement
+        assertEquals(10, orders.size(), "All orders of the user should be returned");
+        assertEquals(1, statistics.getPrepareStatementCount(), "Orders and items should be read with one statement");
+    }
+
+    /**
+     * Tests that a keyset page initializes its order items with a batch query.
+     * Ensures that a page of N orders costs a constant number of statements, not N + 1.
+     */
+    @Test
+    @Transactional
+    void testKeysetPageBatchFetchesItems() {
+        Long firstId = saveOrdersWithItems(43L, 20);
+        Statistics statistics = clearedStatistics();
+
+        // Retrieve a page and touch every item collection
+        List<Order> page = orderRepository.findByIdGreaterThanOrderByIdAsc(firstId - 1, PageRequest.of(0, 20));
+        page.forEach(order -> order.getOrderItems().size());
+
+        // Verify one statement for the page and one for all item collections
+        assertEquals(20, page.size(), "Page should contain all saved orders");
+        assertEquals(2, statistics.getPrepareStatementCount(), "Items of the page should be fetched in one batch");
+    }
+
+    /**
+     * Tests that order items are stored with an order_id foreign key instead of a join table.
+     */
+    @Test
+    @Transactional
+    void testSaveWritesOrderIdForeignKey() {
+        Long orderId = saveOrdersWithItems(44L, 1);
+        entityManager.flush();
+
+        // Count the items pointing at the order through the foreign key column
+        Number items = (Number) entityManager
+                .createNativeQuery("select count(*) from order_item where order_id = ?1")
+                .setParameter(1, orderId)
+                .getSingleResult();
+
+        assertEquals(2, items.intValue(), "Both items should reference the order through order_id");
+    }
+
+    /**
+     * Tests the findReservedItemQuantities method.
+     * Ensures that only orders marked as holding stock report their item quantities.
+     */
+    @Test
+    @Transactional
+    void testFindReservedItemQuantities() {
+        Long unreserved = saveOrdersWithItems(45L, 1);
+        Long reserved = saveOrdersWithItems(45L, 1);
+        orderRepository.findById(reserved).orElseThrow().setStockReserved(true);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Verify that the quantities come only from the reserved order
+        assertTrue(orderRepository.findReservedItemQuantities(unreserved).isEmpty(),
+                "Orders that reserved no stock should report nothing");
+        List<Object[]> rows = orderRepository.findReservedItemQuantities(reserved);
+        assertEquals(2, rows.size(), "Both items of the reserved order should be reported");
+        assertEquals(1, ((Number) rows.get(0)[1]).intValue());
+    }
+
+    /**
+     * Tests the streamSalesRows method.
+     * Ensures that orders are streamed with one row per priced item and carry their creation time.
+     */
+    @Test
+    @Transactional
+    void testStreamSalesRows() {
+        Long orderId = saveOrdersWithItems(46L, 1);
+        orderRepository.findById(orderId).orElseThrow().getOrderItems().forEach(item -> item.setUnitPriceCents(250L));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Verify that both items of the order are streamed together with the order's columns
+        List<Object[]> rows;
+        try (Stream<Object[]> stream = orderRepository.streamSalesRows()) {
+            rows = stream.filter(row -> orderId.equals(row[0])).toList();
+        }
+        assertEquals(2, rows.size(), "Each item should be one row");
+        assertEquals(OrderStatus.PENDING, rows.get(0)[1]);
+        assertNotNull(rows.get(0)[2], "Orders should carry their creation time");
+        assertEquals(250L, rows.get(0)[6]);
+    }
+
+    /**
+     * Tests the updateStatus method.
+     * Ensures that the update only applies when the status is still the expected one and bumps the version.
+     */
+    @Test
+    @Transactional
+    void testUpdateStatusIsConditional() {
+        Long id = saveOrdersWithItems(43L, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Apply one transition, then retry it from the stale status
+        int applied = orderRepository.updateStatus(id, OrderStatus.PENDING, OrderStatus.PROCESSING);
+        int stale = orderRepository.updateStatus(id, OrderStatus.PENDING, OrderStatus.CANCELLED);
+
+        // Verify that only the first update matched and the version moved on
+        assertEquals(1, applied, "Update from the current status should match the order");
+        assertEquals(0, stale, "Update from a stale status should match nothing");
+        Order order = orderRepository.findById(id).orElseThrow();
+        assertEquals(OrderStatus.PROCESSING, order.getStatus());
+        assertEquals(1L, order.getVersion(), "Version should be incremented by the update");
+        assertEquals(OrderStatus.PROCESSING, orderRepository.findStatusById(id).orElseThrow());
+    }
+
+    /**
+     * Tests the findTableVersionAfter method.
+     * Ensures that the fingerprint covers the orders after the cursor and changes when one of them is updated.
+     */
+    @Test
+    @Transactional
+    void testTableVersionChangesWithStatusUpdate() {
+        Long firstId = saveOrdersWithItems(45L, 3);
+        entityManager.flush();
+        entityManager.clear();
+
+        TableVersion before = orderRepository.findTableVersionAfter(firstId - 1);
+        orderRepository.updateStatus(firstId, OrderStatus.PENDING, OrderStatus.PROCESSING);
+        TableVersion after = orderRepository.findTableVersionAfter(firstId - 1);
+
+        // Verify that the fingerprint counts the orders and moves with their versions
+        assertTrue(before.getCount() >= 3, "Fingerprint should cover all orders after the cursor");
+        assertEquals(before.getVersionSum() + 1, after.getVersionSum(), "Status update should bump the version sum");
+        assertNotEquals(before.etag("orders"), after.etag("orders"));
+        assertNotNull(orderRepository.findTableVersion());
+    }
+
+    /**
+     * Tests the updateStatuses method.
+     * Ensures that many orders are moved with one statement and orders in other statuses are skipped.
+     */
+    @Test
+    @Transactional
+    void testUpdateStatusesUsesSingleStatement() {
+        Long firstId = saveOrdersWithItems(44L, 5);
+        List<Long> ids = new ArrayList<>();
+        for (long id = firstId; id < firstId + 5; id++) {
+            ids.add(id);
+        }
+        orderRepository.updateStatus(firstId, OrderStatus.PENDING, OrderStatus.CANCELLED);
+        Statistics statistics = clearedStatistics();
+
+        // Move every order that may be processed
+        int updated = orderRepository.updateStatuses(ids, OrderStatus.PROCESSING.predecessors(), OrderStatus.PROCESSING);
+
+        // Verify that the cancelled order was skipped and one statement did the work
+        assertEquals(4, updated, "Only pending orders should be moved");
+        assertEquals(1, statistics.getPrepareStatementCount(), "Bulk update should be a single statement");
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findStatusById(firstId).orElseThrow());
+    }
+
+    /**
+     * Saves a number of orders with two items each for the given user.
+     *
+     * @param userId The ID of the user placing the orders.
+     * @param count  The number of orders to save.
+     * @return The ID of the first saved order.
+     */
+    private Long saveOrdersWithItems(Long userId, int count) {
+        Long firstId = null;
+        for (int i = 0; i < count; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                OrderItem item = new OrderItem();
+                item.setProductId(100L + j);
+                item.setQuantity(1);
+                items.add(item);
+            }
+
+            Order order = new Order();
+            order.setUserId(userId);
+            order.setStatus(OrderStatus.PENDING);
+            order.setOrderItems(items);
+            Long id = orderRepository.save(order).getId();
+            if (firstId == null) {
+                firstId = id;
+            }
+        }
+        return firstId;
+    }
+
+    /**
+     * Flushes pending writes, empties the persistence context and resets Hibernate statistics.
+     *
+     * @return The statistics object counting statements from now on.
+     */
+    private Statistics clearedStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
 }
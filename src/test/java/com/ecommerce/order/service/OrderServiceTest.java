@@ -1,16 +1,46 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.inventory.service.InsufficientStockException;
+import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.Reservation;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.history.OrderHistory;
+import com.ecommerce.order.history.OrderHistoryCache;
 import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderBatchResult;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.OrderStatus;
+import com.ecommerce.order.model.OrderStatusUpdate;
+import com.ecommerce.order.model.OrderStatusUpdateRequest;
+import com.ecommerce.order.model.OrderStatusUpdateResult;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +55,34 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    // Mocked entity manager used to detach streamed orders
+    @Mock
+    private EntityManager entityManager;
+
+    // Mocked publisher for order events
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Mocked transaction template that runs callbacks directly
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // Mocked JDBC template used by the bulk status update
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Mocked per-user order history cache
+    @Mock
+    private OrderHistoryCache orderHistoryCache;
+
+    // Mocked inventory; reserves nothing unless a test says so
+    @Mock
+    private InventoryService inventoryService;
+
+    // Mocked product repository; prices every requested product at 10.00 unless a test says so
+    @Mock
+    private ProductRepository productRepository;
+
     // Mocked order service
     @InjectMocks
     private OrderService orderService;
@@ -35,6 +93,19 @@ class OrderServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderService, "batchChunkSize", 2);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(inventoryService.reserve(any())).thenReturn(Reservation.NONE);
+        when(productRepository.findPricesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            ids.forEach(id -> rows.add(new Object[]{id, 1000L}));
+            return rows;
+        });
     }
 
     /**
@@ -50,13 +121,13 @@ class OrderServiceTest {
         order2.setId(2L);
         order2.setUserId(2L);
 
-        when(orderRepository.findByUserId(2L)).thenReturn(Arrays.asList(order1, order2));
+        when(orderRepository.findWithItemsByUserId(2L)).thenReturn(Arrays.asList(order1, order2));
 
         List<Order> userOrders = orderService.getOrdersByUserId(2L);
 
         // Assertions
         assertEquals(2, userOrders.size(), "Should return two orders for user ID 2");
-        verify(orderRepository, times(1)).findByUserId(2L);
+        verify(orderRepository, times(1)).findWithItemsByUserId(2L);
     }
 
     /**
@@ -76,6 +147,221 @@ class OrderServiceTest {
         assertNotNull(savedOrder, "Saved order should not be null");
         assertEquals(1L, savedOrder.getId(), "Order ID should be 1");
         verify(orderRepository, times(1)).save(order);
+        verify(eventPublisher, times(1)).publishEvent(any(OrderCreatedEvent.class));
+    }
+
+    /**
+     * Tests that orders submitted with a later status are created as PENDING on every create path.
+     */
+    @Test
+    void createShouldStartEveryOrderAsPending() {
+        Order single = orderWithItem(2L, 100L, 1);
+        single.setStatus(OrderStatus.DELIVERED);
+        Order batched = orderWithItem(2L, 101L, 1);
+        batched.setStatus(OrderStatus.CANCELLED);
+
+        when(orderRepository.save(single)).thenReturn(single);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.createOrder(single);
+        orderService.createOrders(List.of(batched));
+
+        // Assertions
+        assertEquals(OrderStatus.PENDING, single.getStatus());
+        assertEquals(OrderStatus.PENDING, batched.getStatus());
+    }
+
+    /**
+     * Tests that createOrder copies the current unit prices onto the items and stores the order total.
+     */
+    @Test
+    void createOrderShouldPriceItemsAndStoreTotal() {
+        Order order = orderWithItem(2L, 100L, 3);
+        OrderItem second = new OrderItem();
+        second.setProductId(101L);
+        second.setQuantity(2);
+        order.getOrderItems().add(second);
+
+        when(productRepository.findPricesByIdIn(anyCollection())).thenReturn(List.of(
+                new Object[]{100L, 1999L},
+                new Object[]{101L, 250L}));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.createOrder(order);
+
+        // Assertions
+        assertEquals(1999L, order.getOrderItems().get(0).getUnitPriceCents());
+        assertEquals(250L, second.getUnitPriceCents());
+        assertEquals(6497L, order.getTotalCents(), "Total should be 3 x 19.99 + 2 x 2.50");
+        verify(productRepository, times(1)).findPricesByIdIn(anyCollection());
+    }
+
+    /**
+     * Tests that createOrder saves nothing and reserves nothing for an unknown product.
+     */
+    @Test
+    void createOrderShouldRejectUnknownProduct() {
+        Order order = orderWithItem(2L, 404L, 1);
+
+        when(productRepository.findPricesByIdIn(anyCollection())).thenReturn(List.of());
+
+        UnknownProductException e = assertThrows(UnknownProductException.class, () -> orderService.createOrder(order));
+
+        // Assertions
+        assertEquals(404L, e.getProductId());
+        verify(inventoryService, never()).reserve(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that createOrder rejects invalid orders before pricing, reserving or saving anything.
+     */
+    @Test
+    void createOrderShouldRejectInvalidOrder() {
+        InvalidOrderException zero = assertThrows(InvalidOrderException.class,
+                () -> orderService.createOrder(orderWithItem(2L, 100L, 0)));
+        InvalidOrderException noProduct = assertThrows(InvalidOrderException.class,
+                () -> orderService.createOrder(orderWithItem(2L, null, 1)));
+
+        // Assertions
+        assertEquals("item quantity must be positive", zero.getMessage());
+        assertEquals("every item needs a productId", noProduct.getMessage());
+        verify(productRepository, never()).findPricesByIdIn(anyCollection());
+        verify(inventoryService, never()).reserve(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that createOrders prices a chunk with one query and rejects orders for unknown products.
+     */
+    @Test
+    void createOrdersShouldPriceChunkWithOneQuery() {
+        Order unknown = orderWithItem(2L, 404L, 1);
+        Order fine = orderWithItem(2L, 100L, 4);
+
+        when(productRepository.findPricesByIdIn(anyCollection())).thenReturn(List.<Object[]>of(new Object[]{100L, 1250L}));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<OrderBatchResult> results = orderService.createOrders(List.of(unknown, fine));
+
+        // Assertions
+        assertEquals(OrderBatchResult.Outcome.REJECTED, results.get(0).getOutcome());
+        assertEquals("Unknown product 404", results.get(0).getMessage());
+        assertEquals(OrderBatchResult.Outcome.CREATED, results.get(1).getOutcome());
+        assertEquals(5000L, fine.getTotalCents());
+        verify(productRepository, times(1)).findPricesByIdIn(anyCollection());
+        verify(inventoryService, never()).reserve(unknown.getOrderItems());
+    }
+
+    /**
+     * Tests that createOrder returns the reserved stock when the order cannot be saved.
+     */
+    @Test
+    void createOrderShouldCancelReservationWhenSaveFails() {
+        Order order = orderWithItem(2L, 100L, 1);
+        Reservation reservation = mock(Reservation.class);
+
+        when(inventoryService.reserve(order.getOrderItems())).thenReturn(reservation);
+        when(orderRepository.save(order)).thenThrow(new IllegalStateException("database unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(order));
+
+        // Assertions
+        assertTrue(order.isStockReserved(), "Order should be marked as holding stock");
+        verify(inventoryService, times(1)).cancel(reservation);
+        verify(inventoryService, never()).confirm(reservation);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Tests that createOrder saves nothing when stock is short.
+     */
+    @Test
+    void createOrderShouldRejectOrderWithoutStock() {
+        Order order = orderWithItem(2L, 100L, 5);
+
+        when(inventoryService.reserve(order.getOrderItems())).thenThrow(new InsufficientStockException(100L, 5, 2));
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(order));
+
+        verify(orderRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that createOrders rejects orders short of stock and confirms the reservations of saved chunks.
+     */
+    @Test
+    void createOrdersShouldRejectOrdersWithoutStock() {
+        Order shortOrder = orderWithItem(2L, 100L, 5);
+        Order fine = orderWithItem(2L, 101L, 1);
+        Reservation reservation = mock(Reservation.class);
+
+        when(inventoryService.reserve(shortOrder.getOrderItems())).thenThrow(new InsufficientStockException(100L, 5, 2));
+        when(inventoryService.reserve(fine.getOrderItems())).thenReturn(reservation);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<OrderBatchResult> results = orderService.createOrders(List.of(shortOrder, fine));
+
+        // Assertions
+        assertEquals(OrderBatchResult.Outcome.REJECTED, results.get(0).getOutcome());
+        assertTrue(results.get(0).getMessage().contains("Insufficient stock"));
+        assertEquals(OrderBatchResult.Outcome.CREATED, results.get(1).getOutcome());
+        verify(orderRepository, times(1)).saveAll(List.of(fine));
+        verify(inventoryService, times(1)).confirm(reservation);
+    }
+
+    /**
+     * Tests that createOrders rejects invalid orders and saves valid ones in chunks.
+     */
+    @Test
+    void createOrdersShouldRejectInvalidAndSaveValidInChunks() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orders.add(orderWithItem(2L, 100L, 1));
+        }
+        orders.add(1, orderWithItem(null, 100L, 1));
+        orders.add(orderWithItem(2L, 100L, 0));
+
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> chunk = invocation.getArgument(0);
+            chunk.forEach(order -> order.setId(1000L + orders.indexOf(order)));
+            return chunk;
+        });
+
+        List<OrderBatchResult> results = orderService.createOrders(orders);
+
+        // Assertions
+        assertEquals(5, results.size(), "Should return one result per order");
+        assertEquals(OrderBatchResult.Outcome.CREATED, results.get(0).getOutcome());
+        assertEquals(1000L, results.get(0).getOrderId(), "Created order should report its ID");
+        assertEquals(OrderBatchResult.Outcome.REJECTED, results.get(1).getOutcome());
+        assertEquals("userId is required", results.get(1).getMessage());
+        assertEquals(OrderBatchResult.Outcome.CREATED, results.get(3).getOutcome());
+        assertEquals(OrderBatchResult.Outcome.REJECTED, results.get(4).getOutcome());
+        verify(orderRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(eventPublisher, times(3)).publishEvent(any(OrderCreatedEvent.class));
+    }
+
+    /**
+     * Tests that a chunk failing to save marks only its own orders as failed.
+     */
+    @Test
+    void createOrdersShouldReportFailedChunk() {
+        List<Order> orders = List.of(orderWithItem(2L, 100L, 1), orderWithItem(2L, 101L, 1), orderWithItem(2L, 102L, 1));
+
+        when(orderRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<OrderBatchResult> results = orderService.createOrders(orders);
+
+        // Assertions
+        assertEquals(OrderBatchResult.Outcome.FAILED, results.get(0).getOutcome());
+        assertEquals(OrderBatchResult.Outcome.FAILED, results.get(1).getOutcome());
+        verify(inventoryService, times(2)).cancel(Reservation.NONE);
+        assertEquals("database unavailable", results.get(1).getMessage());
+        assertEquals(OrderBatchResult.Outcome.CREATED, results.get(2).getOutcome());
     }
 
     /**
@@ -89,35 +375,139 @@ class OrderServiceTest {
         Order order2 = new Order();
         order2.setId(2L);
 
-        when(orderRepository.findAll()).thenReturn(Arrays.asList(order1, order2));
+        when(orderRepository.findAllWithItems()).thenReturn(Arrays.asList(order1, order2));
 
         List<Order> orders = orderService.getAllOrders();
 
         // Assertions
         assertEquals(2, orders.size(), "Should return two orders");
-        verify(orderRepository, times(1)).findAll();
+        verify(orderRepository, times(1)).findAllWithItems();
+    }
+
+    /**
+     * Tests that getOrdersAfter requests the next keyset page and caps the page size.
+     */
+    @Test
+    void getOrdersAfterShouldCapPageSize() {
+        Order order = new Order();
+        order.setId(11L);
+
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, OrderService.MAX_PAGE_SIZE)))
+                .thenReturn(List.of(order));
+
+        List<Order> page = orderService.getOrdersAfter(10L, Integer.MAX_VALUE);
+
+        // Assertions
+        assertEquals(1, page.size(), "Should return the single order after the cursor");
+        verify(orderRepository, times(1))
+                .findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, OrderService.MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Tests that getOrdersAfter starts from the beginning with the default page size when no cursor is given.
+     */
+    @Test
+    void getOrdersAfterShouldUseDefaultsWithoutCursor() {
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, OrderService.DEFAULT_PAGE_SIZE)))
+                .thenReturn(List.of());
+
+        List<Order> page = orderService.getOrdersAfter(null, null);
+
+        // Assertions
+        assertTrue(page.isEmpty(), "Should return an empty page");
+        verify(orderRepository, times(1))
+                .findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, OrderService.DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Tests that streamAllOrders hands every order to the consumer and detaches it afterwards.
+     */
+    @Test
+    void streamAllOrdersShouldConsumeAndDetachEachOrder() {
+        Order order1 = new Order();
+        order1.setId(1L);
+
+        Order order2 = new Order();
+        order2.setId(2L);
+
+        when(orderRepository.streamAll()).thenReturn(Stream.of(order1, order2));
+
+        List<Order> consumed = new ArrayList<>();
+        orderService.streamAllOrders(consumed::add);
+
+        // Assertions
+        assertEquals(List.of(order1, order2), consumed, "Should stream orders in repository order");
+        verify(entityManager, times(1)).detach(order1);
+        verify(entityManager, times(1)).detach(order2);
     }
 
     /**
-     * Tests that updateOrderStatus modifies the order status and saves the updated order.
+     * Tests that getOrderHistory is served by the order history cache.
+     */
+    @Test
+    void getOrderHistoryShouldUseCache() {
+        OrderHistory history = OrderHistory.EMPTY.with(1L, "{\"id\":1}".getBytes());
+        when(orderHistoryCache.get(2L)).thenReturn(history);
+
+        // Assertions
+        assertSame(history, orderService.getOrderHistory(2L));
+        verify(orderRepository, never()).findWithItemsByUserId(anyLong());
+    }
+
+    /**
+     * Tests that updateOrderStatus applies a legal transition with a conditional update.
      */
     @Test
     void updateOrderStatusShouldModifyOrder() {
         Order order = new Order();
         order.setId(1L);
         order.setUserId(2L);
-        order.setStatus("Pending");
+        order.setStatus(OrderStatus.SHIPPED);
 
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.PROCESSING));
+        when(orderRepository.updateStatus(1L, OrderStatus.PROCESSING, OrderStatus.SHIPPED)).thenReturn(1);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
 
-        Order updatedOrder = orderService.updateOrderStatus(1L, "Shipped");
+        Order updatedOrder = orderService.updateOrderStatus(1L, OrderStatus.SHIPPED);
 
         // Assertions
         assertNotNull(updatedOrder, "Updated order should not be null");
-        assertEquals("Shipped", updatedOrder.getStatus(), "Order status should be updated to 'Shipped'");
-        verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(order);
+        assertEquals(OrderStatus.SHIPPED, updatedOrder.getStatus(), "Order status should be updated to SHIPPED");
+        verify(eventPublisher, times(1)).publishEvent(any(OrderStatusChangedEvent.class));
+        verify(orderRepository, times(1)).updateStatus(1L, OrderStatus.PROCESSING, OrderStatus.SHIPPED);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    /**
+     * Tests that updateOrderStatus re-checks the status when a concurrent update won the race.
+     */
+    @Test
+    void updateOrderStatusShouldRetryAfterConcurrentChange() {
+        when(orderRepository.findStatusById(1L)).thenReturn(
+                Optional.of(OrderStatus.PENDING), Optional.of(OrderStatus.CANCELLED));
+        when(orderRepository.updateStatus(1L, OrderStatus.PENDING, OrderStatus.PROCESSING)).thenReturn(0);
+
+        // Assertions
+        assertThrows(InvalidStatusTransitionException.class,
+                () -> orderService.updateOrderStatus(1L, OrderStatus.PROCESSING),
+                "A cancelled order should not be processed even if it was pending when first read");
+        verify(orderRepository, times(2)).findStatusById(1L);
+    }
+
+    /**
+     * Tests that updateOrderStatus rejects transitions the current status does not allow.
+     */
+    @Test
+    void updateOrderStatusShouldRejectIllegalTransition() {
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.DELIVERED));
+
+        InvalidStatusTransitionException exception = assertThrows(InvalidStatusTransitionException.class,
+                () -> orderService.updateOrderStatus(1L, OrderStatus.PENDING));
+
+        // Assertions
+        assertEquals(OrderStatus.DELIVERED, exception.getFrom());
+        assertEquals(OrderStatus.PENDING, exception.getTo());
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
     }
 
     /**
@@ -125,13 +515,163 @@ class OrderServiceTest {
      */
     @Test
     void updateOrderStatusShouldReturnNullIfOrderNotFound() {
-        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.empty());
 
-        Order updatedOrder = orderService.updateOrderStatus(1L, "Shipped");
+        Order updatedOrder = orderService.updateOrderStatus(1L, OrderStatus.SHIPPED);
 
         // Assertions
         assertNull(updatedOrder, "Should return null when order is not found");
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    /**
+     * Tests that bulk status changes are checked against the current statuses and written as one batch per chunk.
+     */
+    @Test
+    void updateOrderStatusesShouldReturnPerOrderOutcomes() {
+        stubCurrentStatuses(Map.of(1L, "PENDING", 2L, "DELIVERED"));
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenReturn(new int[]{1});
+
+        // Chunk size is 2, so the third change is applied in a second chunk
+        List<OrderStatusUpdateResult> results = orderService.updateOrderStatuses(List.of(
+                new OrderStatusUpdate(1L, OrderStatus.PROCESSING),
+                new OrderStatusUpdate(2L, OrderStatus.PENDING),
+                new OrderStatusUpdate(3L, OrderStatus.SHIPPED)));
+
+        // Assertions
+        assertEquals(3, results.size(), "Every change should have a result");
+        assertEquals(OrderStatusUpdateResult.Outcome.UPDATED, results.get(0).getOutcome());
+        assertEquals(OrderStatus.PROCESSING, results.get(0).getStatus());
+        assertEquals(OrderStatusUpdateResult.Outcome.INVALID_TRANSITION, results.get(1).getOutcome());
+        assertEquals(OrderStatusUpdateResult.Outcome.NOT_FOUND, results.get(2).getOutcome());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(eventPublisher, times(1)).publishEvent(any(OrderStatusChangedEvent.class));
         verify(orderRepository, never()).save(any(Order.class));
     }
+
+    /**
+     * Tests that a change whose conditional update matched no row is reported as a conflict.
+     */
+    @Test
+    void updateOrderStatusesShouldReportConcurrentChanges() {
+        stubCurrentStatuses(Map.of(1L, "PENDING"));
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenReturn(new int[]{0});
+
+        List<OrderStatusUpdateResult> results = orderService.updateOrderStatuses(List.of(
+                new OrderStatusUpdate(1L, OrderStatus.CANCELLED)));
+
+        // Assertions
+        assertEquals(OrderStatusUpdateResult.Outcome.CONFLICT, results.get(0).getOutcome());
+    }
+
+    /**
+     * Tests that a chunk whose batch fails marks all of its changes as failed.
+     */
+    @Test
+    void updateOrderStatusesShouldMarkFailedChunk() {
+        stubCurrentStatuses(Map.of(1L, "PENDING", 2L, "PENDING"));
+        when(jdbcTemplate.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        List<OrderStatusUpdateResult> results = orderService.updateOrderStatuses(List.of(
+                new OrderStatusUpdate(1L, OrderStatus.PROCESSING),
+                new OrderStatusUpdate(2L, OrderStatus.CANCELLED)));
+
+        // Assertions
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == OrderStatusUpdateResult.Outcome.FAILED),
+                "All changes of the failed chunk should be reported as failed");
+    }
+
+    /**
+     * Tests that filter mode moves the matching orders with one set-based statement
+     * and publishes an event for each row the statement returns as changed.
+     */
+    @Test
+    void updateOrderStatusesByFilterShouldUseSingleStatement() {
+        OrderStatusUpdateRequest.Filter filter = new OrderStatusUpdateRequest.Filter();
+        filter.setStatus(OrderStatus.PROCESSING);
+        filter.setUserId(9L);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (long id = 5; id <= 6; id++) {
+                ResultSet row = mock(ResultSet.class);
+                when(row.getLong(1)).thenReturn(id);
+                when(row.getObject(2, Long.class)).thenReturn(9L);
+                when(row.getLong(3)).thenReturn(id + 1);
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        List<OrderStatusUpdateResult> results = orderService.updateOrderStatuses(filter, OrderStatus.SHIPPED);
+
+        // Assertions
+        assertEquals(List.of(5L, 6L), results.stream().map(OrderStatusUpdateResult::getOrderId).toList());
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == OrderStatusUpdateResult.Outcome.UPDATED),
+                "All returned orders should be updated");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).query(sql.capture(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        assertTrue(sql.getValue().contains("where status = :from and user_id = :userId"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        ArgumentCaptor<OrderStatusChangedEvent> events = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(7L, events.getAllValues().get(1).getVersion());
+    }
+
+    /**
+     * Tests that filter mode reports an illegal transition for every matching order without updating any.
+     */
+    @Test
+    void updateOrderStatusesByFilterShouldRejectIllegalTransition() {
+        OrderStatusUpdateRequest.Filter filter = new OrderStatusUpdateRequest.Filter();
+        filter.setStatus(OrderStatus.DELIVERED);
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class))).thenReturn(List.of(3L));
+
+        List<OrderStatusUpdateResult> results = orderService.updateOrderStatuses(filter, OrderStatus.PENDING);
+
+        // Assertions
+        assertEquals(OrderStatusUpdateResult.Outcome.INVALID_TRANSITION, results.get(0).getOutcome());
+        verify(jdbcTemplate, never()).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        verify(eventPublisher, never()).publishEvent(any(OrderStatusChangedEvent.class));
+    }
+
+    /**
+     * Makes the mocked JDBC template report the given current statuses for the requested order IDs.
+     *
+     * @param statuses The current status name per order ID; IDs not listed do not exist.
+     */
+    private void stubCurrentStatuses(Map<Long, String> statuses) {
+        doAnswer(invocation -> {
+            Map<String, Collection<Long>> params = invocation.getArgument(1);
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Long id : params.get("ids")) {
+                if (statuses.containsKey(id)) {
+                    ResultSet row = mock(ResultSet.class);
+                    when(row.getLong(1)).thenReturn(id);
+                    when(row.getString(2)).thenReturn(statuses.get(id));
+                    handler.processRow(row);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+    }
+
+    /**
+     * Creates an order for a user with a single item.
+     *
+     * @param userId    The ID of the user placing the order.
+     * @param productId The ID of the ordered product.
+     * @param quantity  The ordered quantity.
+     * @return The new, unsaved order.
+     */
+    private Order orderWithItem(Long userId, Long productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        return order;
+    }
 }
@@ -0,0 +1,177 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for ProductJsonCache.
+ * Ensures that each product version is serialized once and dropped when the product changes.
+ */
+class ProductJsonCacheTest {
+
+    // Mocked service supplying the products on a miss
+    @Mock
+    private ProductService productService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Cache under test
+    private ProductJsonCache productJsonCache;
+
+    /**
+     * Initializes mock objects and creates the cache before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.PRODUCT_JSON_CACHE, Caffeine.newBuilder()
+                .maximumWeight(1_000_000)
+                .weigher((Object id, Object json) -> ((ProductJson) json).weight())
+                .build());
+
+        productJsonCache = new ProductJsonCache();
+        ReflectionTestUtils.setField(productJsonCache, "productService", productService);
+        ReflectionTestUtils.setField(productJsonCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(productJsonCache, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(productJsonCache, "meterRegistry", new SimpleMeterRegistry());
+        productJsonCache.init();
+    }
+
+    /**
+     * Tests that a product is serialized once and the same bytes are returned afterwards.
+     */
+    @Test
+    void getShouldSerializeProductOnce() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(product(1L, 2L, "Laptop"));
+
+        ProductJson first = productJsonCache.get(1L);
+        ProductJson second = productJsonCache.get(1L);
+
+        // Assertions
+        assertSame(first, second, "Cached hits should return the same entry");
+        assertEquals("\"1-2\"", first.getEtag());
+        assertEquals("Laptop", objectMapper.readTree(first.getJson()).get("name").asText());
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    /**
+     * Tests that unknown products are not cached.
+     */
+    @Test
+    void getShouldReturnNullForUnknownProduct() {
+        // Assertions
+        assertNull(productJsonCache.get(9L));
+        assertNull(productJsonCache.get(9L));
+        verify(productService, times(2)).getProductById(9L);
+    }
+
+    /**
+     * Tests that an update drops the cached JSON, so the next read serializes the new version.
+     */
+    @Test
+    void onProductUpdatedShouldEvictProduct() {
+        when(productService.getProductById(1L)).thenReturn(product(1L, 0L, "Laptop"));
+        productJsonCache.get(1L);
+
+        Product updated = product(1L, 1L, "Laptop Pro");
+        when(productService.getProductById(1L)).thenReturn(updated);
+        productJsonCache.onProductUpdated(new ProductUpdatedEvent(updated));
+
+        // Assertions
+        assertEquals("\"1-1\"", productJsonCache.get(1L).getEtag());
+    }
+
+    /**
+     * Tests that a read loading the previous version while the product is updated does not cache it,
+     * so the next read serializes the new version.
+     */
+    @Test
+    void readInterleavedWithUpdateShouldNotCacheStaleVersion() {
+        Product stale = product(1L, 0L, "Laptop");
+        Product updated = product(1L, 1L, "Laptop Pro");
+        when(productService.getProductById(1L)).thenAnswer(invocation -> {
+            // The update commits while this read is still loading the previous version
+            productJsonCache.onProductUpdated(new ProductUpdatedEvent(updated));
+            return stale;
+        }).thenReturn(stale).thenReturn(updated);
+
+        ProductJson interleaved = productJsonCache.get(1L);
+        ProductJson afterUpdate = productJsonCache.get(1L);
+        ProductJson current = productJsonCache.get(1L);
+
+        // Assertions
+        assertEquals("\"1-0\"", interleaved.getEtag(), "The read is served the version it loaded");
+        assertEquals("\"1-0\"", afterUpdate.getEtag(), "A stale source is still served but not cached");
+        assertEquals("\"1-1\"", current.getEtag());
+        assertSame(current, productJsonCache.get(1L), "The new version should be cached");
+        verify(productService, times(3)).getProductById(1L);
+    }
+
+    /**
+     * Tests that the version recorded by an eviction is forgotten once that version has been cached.
+     */
+    @Test
+    void getShouldForgetEvictedVersionOnceCached() {
+        Product updated = product(1L, 1L, "Laptop Pro");
+        when(productService.getProductById(1L)).thenReturn(updated);
+        productJsonCache.onProductUpdated(new ProductUpdatedEvent(updated));
+
+        productJsonCache.get(1L);
+
+        // Assertions
+        Map<?, ?> evictedVersions = (Map<?, ?>) ReflectionTestUtils.getField(productJsonCache, "evictedVersions");
+        assertTrue(evictedVersions.isEmpty(), "Evicted versions should not grow once the product is cached again");
+    }
+
+    /**
+     * Tests If-None-Match matching against single tags, lists, weak tags and the wildcard.
+     */
+    @Test
+    void matchesShouldHandleIfNoneMatchForms() {
+        ProductJson json = new ProductJson(1L, 2L, null, new byte[0]);
+
+        // Assertions
+        assertTrue(json.matches("\"1-2\""));
+        assertTrue(json.matches("\"5-1\", \"1-2\""));
+        assertTrue(json.matches("W/\"1-2\""));
+        assertTrue(json.matches(" * "));
+        assertFalse(json.matches("\"11-2\""));
+        assertFalse(json.matches("\"1-20\""));
+        assertFalse(json.matches(null));
+    }
+
+    /**
+     * Creates a product.
+     *
+     * @param id      The product ID.
+     * @param version The product version.
+     * @param name    The product name.
+     * @return The product.
+     */
+    private Product product(Long id, Long version, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setVersion(version);
+        product.setName(name);
+        product.setCategories(List.of("Electronics"));
+        return product;
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.product.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for CatalogSnapshot.
+ * Ensures that products survive the round trip through the off-heap columns.
+ */
+class CatalogSnapshotTest {
+
+    /**
+     * Tests that every field of a product is read back, including non-ASCII text.
+     */
+    @Test
+    void getShouldRestoreAllFields() {
+        Instant updatedAt = Instant.parse("2024-05-01T10:15:30Z");
+        CatalogSnapshot snapshot = CatalogSnapshot.builder()
+                .add(1L, "Laptop", "Tr\u00e8s rapide", 129999L, 3L, updatedAt, List.of("Electronics", "Computers"))
+                .add(5L, "Phone", "Smartphone", 69999L, 0L, updatedAt, List.of("Electronics"))
+                .build();
+
+        Product laptop = snapshot.get(1L);
+
+        // Assertions
+        assertEquals(2, snapshot.size());
+        assertEquals(1L, laptop.getId());
+        assertEquals("Laptop", laptop.getName());
+        assertEquals("Tr\u00e8s rapide", laptop.getDescription());
+        assertEquals(1299.99, laptop.getPrice());
+        assertEquals(3L, laptop.getVersion());
+        assertEquals(updatedAt, laptop.getUpdatedAt());
+        assertEquals(List.of("Electronics", "Computers"), laptop.getCategories());
+        assertNull(snapshot.get(2L), "Unknown IDs should not be found");
+        assertTrue(snapshot.bytes() > 0, "Columns should be allocated");
+    }
+
+    /**
+     * Tests that null fields and missing categories are preserved.
+     */
+    @Test
+    void getShouldPreserveNulls() {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder()
+                .add(7L, null, null, 0L, null, null, null)
+                .build();
+
+        Product product = snapshot.get(7L);
+
+        // Assertions
+        assertNull(product.getName());
+        assertNull(product.getDescription());
+        assertNull(product.getVersion());
+        assertNull(product.getUpdatedAt());
+        assertTrue(product.getCategories().isEmpty());
+        assertEquals(0, snapshot.versionOf(7L));
+        assertEquals(-1, snapshot.versionOf(8L));
+    }
+
+    /**
+     * Tests that category names are dictionary-encoded, so all products share one instance per name.
+     */
+    @Test
+    void categoriesShouldShareDictionaryEntries() {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder()
+                .add(1L, "A", "a", 100L, 0L, null, List.of(new String("Books")))
+                .add(2L, "B", "b", 200L, 0L, null, List.of(new String("Books")))
+                .build();
+
+        List<Product> all = snapshot.all();
+
+        // Assertions
+        assertEquals(2, all.size());
+        assertSame(all.get(0).getCategories().get(0), all.get(1).getCategories().get(0));
+    }
+
+    /**
+     * Tests that products must be added in ascending ID order, which lookups rely on.
+     */
+    @Test
+    void addShouldRejectDescendingIds() {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder().add(2L, "B", "b", 100L, 0L, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(1L, "A", "a", 100L, 0L, null, null));
+    }
+}
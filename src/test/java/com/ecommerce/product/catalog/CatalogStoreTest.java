@@ -0,0 +1,131 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.web.TableVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for CatalogStore.
+ * Ensures that snapshots are built by pages, refreshed only on change and overlaid with newer products.
+ */
+class CatalogStoreTest {
+
+    // Mocked repository supplying the catalog pages
+    @Mock
+    private ProductRepository productRepository;
+
+    // Store under test
+    @InjectMocks
+    private CatalogStore catalogStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Initializes mock objects and stubs a catalog of three products read in pages of two.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(catalogStore, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(catalogStore, "pageSize", 2);
+        when(productRepository.findTableVersion()).thenReturn(new TableVersion(3L, 0L, 3L, null));
+        when(productRepository.findCatalogPage(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{1L, "Laptop", "Fast", 129999L, 0L, null},
+                new Object[]{2L, "Phone", "Small", 69999L, 0L, null}));
+        when(productRepository.findCatalogPage(eq(2L), any(Pageable.class))).thenReturn(List.<Object[]>of(
+                new Object[]{3L, "Tablet", "Large", 39999L, 0L, null}));
+        when(productRepository.findCategoryAssignmentsBetween(1L, 2L)).thenReturn(List.of(
+                new Object[]{1L, "Electronics"},
+                new Object[]{1L, "Computers"},
+                new Object[]{2L, "Mobiles"}));
+        when(productRepository.findCategoryAssignmentsBetween(3L, 3L)).thenReturn(List.of());
+        catalogStore.init();
+    }
+
+    /**
+     * Tests that refresh pages through the catalog and publishes the snapshot.
+     */
+    @Test
+    void refreshShouldBuildSnapshotFromPages() {
+        assertFalse(catalogStore.isReady(), "Store should not serve reads before the first build");
+
+        assertTrue(catalogStore.refresh());
+
+        // Assertions
+        assertTrue(catalogStore.isReady());
+        assertEquals(List.of("Electronics", "Computers"), catalogStore.get(1L).getCategories());
+        assertEquals("Tablet", catalogStore.get(3L).getName());
+        assertEquals(3, catalogStore.getAll().size());
+        assertEquals(3.0, meterRegistry.get("catalog.snapshot.products").gauge().value());
+        assertTrue(meterRegistry.get("catalog.snapshot.size").gauge().value() > 0);
+    }
+
+    /**
+     * Tests that a refresh is skipped while the catalog fingerprint is unchanged.
+     */
+    @Test
+    void refreshShouldSkipUnchangedCatalog() {
+        catalogStore.refresh();
+
+        assertFalse(catalogStore.refresh());
+
+        verify(productRepository, times(1)).findCatalogPage(eq(0L), any(Pageable.class));
+    }
+
+    /**
+     * Tests that created and updated products are served until a snapshot contains their version.
+     */
+    @Test
+    void changesShouldBeServedUntilSnapshotCatchesUp() {
+        catalogStore.refresh();
+        Product updated = new Product();
+        updated.setId(2L);
+        updated.setName("Phone Pro");
+        updated.setVersion(1L);
+        Product created = new Product();
+        created.setId(4L);
+        created.setName("Watch");
+        created.setVersion(0L);
+
+        catalogStore.onProductUpdated(new ProductUpdatedEvent(updated));
+        catalogStore.onProductCreated(new ProductCreatedEvent(created));
+
+        // Assertions
+        assertEquals("Phone Pro", catalogStore.get(2L).getName());
+        assertEquals("Watch", catalogStore.get(4L).getName());
+        List<Product> all = catalogStore.getAll();
+        assertEquals(4, all.size());
+        assertEquals("Phone Pro", all.get(1).getName());
+
+        // A snapshot that contains the new versions replaces the kept products
+        when(productRepository.findTableVersion()).thenReturn(new TableVersion(4L, 1L, 4L, null));
+        when(productRepository.findCatalogPage(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{3L, "Tablet", "Large", 39999L, 0L, null},
+                new Object[]{4L, "Watch", "Round", 19999L, 0L, null}));
+        when(productRepository.findCatalogPage(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{1L, "Laptop", "Fast", 129999L, 0L, null},
+                new Object[]{2L, "Phone Pro", "Small", 69999L, 1L, null}));
+        when(productRepository.findCategoryAssignmentsBetween(3L, 4L)).thenReturn(List.of());
+        catalogStore.refresh();
+
+        assertEquals("Round", catalogStore.get(4L).getDescription(), "Watch should now come from the snapshot");
+    }
+}
@@ -1,15 +1,21 @@
 package com.ecommerce.product.controller;
 
 import com.ecommerce.EcommerceApplication;
+import com.ecommerce.config.CacheConfig;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.web.TableVersion;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,6 +39,18 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    // Cache manager holding the pre-serialized product JSON
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Clears the product JSON cache, which outlives the mocks of a single test.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PRODUCT_JSON_CACHE).clear();
+    }
+
     /**
      * Tests that the getAllProducts endpoint returns a list of products.
      */
@@ -52,6 +70,7 @@ class ProductControllerTest {
         product2.setPrice(699.99);
         product2.setCategories(List.of("Electronics", "Mobiles"));
 
+        when(productService.getCatalogVersion()).thenReturn(new TableVersion(2L, 0L, 2L, null));
         when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
 
         mockMvc.perform(get("/api/products"))
@@ -70,6 +89,71 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    /**
+     * Tests that the JSON and Smile encodings of the product list get different entity tags.
+     * A Smile request naming the tag of the JSON list must get the Smile body, not 304.
+     */
+    @Test
+    void getAllProductsShouldTagEachEncodingSeparately() throws Exception {
+        when(productService.getCatalogVersion()).thenReturn(new TableVersion(2L, 3L, 2L, null));
+        when(productService.getAllProducts()).thenReturn(List.of());
+
+        String jsonTag = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products").accept("application/x-jackson-smile").header("If-None-Match", jsonTag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string("ETag", "\"products-application/x-jackson-smile-2-3-2\""));
+    }
+
+    /**
+     * Tests that getAllProducts answers conditional requests from the catalog version alone.
+     * A matching If-None-Match or a recent enough If-Modified-Since gets 304 without loading or serializing products.
+     */
+    @Test
+    void getAllProductsShouldReturnNotModifiedWhenCatalogIsUnchanged() throws Exception {
+        Instant updatedAt = Instant.parse("2024-05-01T10:15:30Z");
+        when(productService.getCatalogVersion()).thenReturn(new TableVersion(2L, 3L, 2L, updatedAt));
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", "\"products-application/json-2-3-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"products-application/json-2-3-2\""))
+                .andExpect(header().string("Cache-Control", "max-age=60, must-revalidate"))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/products").header("If-Modified-Since", "Wed, 01 May 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    /**
+     * Tests that price filters, sort order, category and limit are passed to the price index path.
+     */
+    @Test
+    void getAllProductsShouldFilterByPriceAndCategory() throws Exception {
+        Product phone = new Product();
+        phone.setId(2L);
+        phone.setName("Phone");
+        phone.setPrice(699.99);
+
+        when(productService.getCatalogVersion()).thenReturn(new TableVersion(2L, 0L, 2L, null));
+        when(productService.getProductsByPrice(500.0, 1000.0, "Electronics", true, 10)).thenReturn(List.of(phone));
+
+        mockMvc.perform(get("/api/products").param("minPrice", "500").param("maxPrice", "1000")
+                        .param("sort", "price,desc").param("category", "Electronics").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].price").value(699.99));
+
+        mockMvc.perform(get("/api/products").param("sort", "name"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).getAllProducts();
+    }
+
     /**
      * Tests that getProductById endpoint returns the correct product details.
      */
@@ -95,6 +179,79 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductById(1L);
     }
 
+    /**
+     * Tests that getProductById sends an entity tag and answers a matching If-None-Match with 304 from the cache.
+     */
+    @Test
+    void getProductByIdShouldReturnNotModifiedForMatchingETag() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Laptop");
+        product.setVersion(3L);
+
+        when(productService.getProductById(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(jsonPath("$.version").value(3));
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"1-2\", \"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Laptop"));
+
+        // The JSON is serialized once and then served from the cache
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    /**
+     * Tests that getProductById sends Last-Modified and honors If-Modified-Since when no If-None-Match is sent.
+     */
+    @Test
+    void getProductByIdShouldHonorIfModifiedSince() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setVersion(0L);
+        product.setUpdatedAt(Instant.parse("2024-05-01T10:15:30.250Z"));
+
+        when(productService.getProductById(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/api/products/1").header("If-Modified-Since", "Wed, 01 May 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 10:15:30 GMT"));
+
+        mockMvc.perform(get("/api/products/1").header("If-Modified-Since", "Wed, 01 May 2024 10:15:29 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Tests that the search endpoints pass the query, capped limit and prefix flag to the service.
+     */
+    @Test
+    void searchProductsShouldReturnRankedProducts() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Gaming Laptop");
+
+        when(productService.searchProducts("gaming lap", 100, true)).thenReturn(List.of(product));
+        when(productService.suggestSearches("gaming lap", 10)).thenReturn(List.of("gaming laptop"));
+
+        mockMvc.perform(get("/api/products/search").param("q", "gaming lap").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Gaming Laptop"));
+
+        mockMvc.perform(get("/api/products/search/suggestions").param("q", "gaming lap"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("gaming laptop"));
+
+        verify(productService, times(1)).searchProducts("gaming lap", 100, true);
+    }
+
     /**
      * Tests that getRecommendedProducts endpoint returns a list of products based on category.
      */
@@ -120,6 +277,55 @@ class ProductControllerTest {
         verify(productService, times(1)).getRecommendedProducts("Electronics");
     }
 
+    /**
+     * Tests that the recommendations endpoint with a productId returns co-purchase recommendations.
+     */
+    @Test
+    void getRecommendedProductsForProductShouldReturnCoPurchasedProducts() throws Exception {
+        Product product = new Product();
+        product.setId(2L);
+        product.setName("Mouse");
+
+        when(productService.getRecommendedProducts(1L, 5)).thenReturn(List.of(product));
+
+        mockMvc.perform(get("/api/products/recommendations").param("productId", "1").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].name").value("Mouse"));
+
+        verify(productService, times(1)).getRecommendedProducts(1L, 5);
+        verify(productService, never()).getRecommendedProducts(anyString());
+    }
+
+    /**
+     * Tests that getProductsByCategories endpoint intersects or unites categories depending on the match mode.
+     */
+    @Test
+    void getProductsByCategoriesShouldUseMatchMode() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Laptop");
+        product.setCategories(List.of("Electronics", "Computers"));
+
+        when(productService.getProductsInAllCategories(List.of("Electronics", "Computers")))
+                .thenReturn(List.of(product));
+        when(productService.getProductsInAnyCategory(List.of("Electronics", "Mobiles")))
+                .thenReturn(List.of(product));
+
+        mockMvc.perform(get("/api/products/by-categories").param("categories", "Electronics,Computers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        mockMvc.perform(get("/api/products/by-categories")
+                        .param("categories", "Electronics,Mobiles")
+                        .param("match", "any"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Laptop"));
+
+        verify(productService, times(1)).getProductsInAllCategories(List.of("Electronics", "Computers"));
+        verify(productService, times(1)).getProductsInAnyCategory(List.of("Electronics", "Mobiles"));
+    }
+
     /**
      * Tests that createProduct endpoint saves and returns the new product.
      */
@@ -146,4 +352,31 @@ class ProductControllerTest {
 
         verify(productService, times(1)).createProduct(any(Product.class));
     }
+
+    /**
+     * Tests that updateProduct returns the updated product, or 404 for an unknown ID.
+     */
+    @Test
+    void updateProductShouldReturnUpdatedProductOrNotFound() throws Exception {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Laptop Pro");
+        product.setVersion(1L);
+
+        when(productService.updateProduct(eq(1L), any(Product.class))).thenReturn(product);
+
+        mockMvc.perform(put("/api/products/1")
+                        .contentType("application/json")
+                        .content("{\"name\":\"Laptop Pro\",\"price\":1800.0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Laptop Pro"))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/api/products/9")
+                        .contentType("application/json")
+                        .content("{\"name\":\"Unknown\"}"))
+                .andExpect(status().isNotFound());
+
+        verify(productService, times(1)).updateProduct(eq(1L), any(Product.class));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.ecommerce.product.index;
+
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for CategoryIndex.
+ * Ensures that the index is built, updated and queried correctly.
+ */
+class CategoryIndexTest {
+
+    // Mocked repository supplying the category assignments
+    @Mock
+    private ProductRepository productRepository;
+
+    // Index under test
+    @InjectMocks
+    private CategoryIndex categoryIndex;
+
+    /**
+     * Initializes mock objects and builds the index before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllCategoryAssignments()).thenReturn(List.of(
+                new Object[]{3L, "Electronics"},
+                new Object[]{1L, "Electronics"},
+                new Object[]{1L, "Computers"},
+                new Object[]{2L, "Mobiles"},
+                new Object[]{2L, "Electronics"}));
+        categoryIndex.rebuild();
+    }
+
+    /**
+     * Tests that rebuild produces sorted ID lists per category.
+     */
+    @Test
+    void rebuildShouldIndexProductsByCategory() {
+        assertArrayEquals(new long[]{1L, 2L, 3L}, categoryIndex.idsFor("Electronics"));
+        assertArrayEquals(new long[]{1L}, categoryIndex.idsFor("Computers"));
+        assertEquals(0, categoryIndex.idsFor("Unknown").length, "Unknown category should be empty");
+    }
+
+    /**
+     * Tests that add inserts a product at its sorted position and creates new categories.
+     */
+    @Test
+    void addShouldInsertProductInSortedOrder() {
+        categoryIndex.add(0L, List.of("Electronics", "Audio"));
+
+        assertArrayEquals(new long[]{0L, 1L, 2L, 3L}, categoryIndex.idsFor("Electronics"));
+        assertArrayEquals(new long[]{0L}, categoryIndex.idsFor("Audio"));
+    }
+
+    /**
+     * Tests that replace moves a product out of its old categories and drops categories left empty.
+     */
+    @Test
+    void replaceShouldMoveProductToNewCategories() {
+        categoryIndex.replace(2L, List.of("Computers"));
+
+        assertArrayEquals(new long[]{1L, 3L}, categoryIndex.idsFor("Electronics"));
+        assertArrayEquals(new long[]{1L, 2L}, categoryIndex.idsFor("Computers"));
+        assertArrayEquals(new long[0], categoryIndex.idsFor("Mobiles"));
+    }
+
+    /**
+     * Tests that categoriesOf finds every category containing a product.
+     */
+    @Test
+    void categoriesOfShouldListProductCategories() {
+        // Assertions
+        assertEquals(Set.of("Electronics", "Computers"), Set.copyOf(categoryIndex.categoriesOf(1L)));
+        assertEquals(List.of("Electronics"), categoryIndex.categoriesOf(3L));
+        assertTrue(categoryIndex.categoriesOf(99L).isEmpty(), "Unknown product should have no categories");
+    }
+
+    /**
+     * Tests intersection and union queries across categories.
+     */
+    @Test
+    void multiCategoryQueriesShouldIntersectAndUnite() {
+        assertArrayEquals(new long[]{1L}, categoryIndex.idsInAll(List.of("Electronics", "Computers")));
+        assertArrayEquals(new long[]{1L, 2L}, categoryIndex.idsInAny(List.of("Computers", "Mobiles")));
+        assertEquals(0, categoryIndex.idsInAll(List.of("Computers", "Mobiles")).length,
+                "Disjoint categories should have an empty intersection");
+    }
+
+    /**
+     * Tests that intersection gives the same result on heavily skewed inputs, where it uses binary search.
+     */
+    @Test
+    void intersectShouldHandleSkewedLists() {
+        long[] large = new long[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 2L;
+        }
+
+        assertArrayEquals(new long[]{10L, 998L}, CategoryIndex.intersect(new long[]{3L, 10L, 998L}, large));
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.product.index;
+
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for PriceIndex.
+ * Ensures that price ranges, sort orders and category restrictions are answered correctly.
+ */
+class PriceIndexTest {
+
+    // Mocked repository supplying the prices
+    @Mock
+    private ProductRepository productRepository;
+
+    // Index under test
+    @InjectMocks
+    private PriceIndex priceIndex;
+
+    /**
+     * Initializes mock objects and builds the index before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllPricesOrderByPrice()).thenReturn(List.of(
+                new Object[]{4L, 500L},
+                new Object[]{2L, 1000L},
+                new Object[]{5L, 1000L},
+                new Object[]{1L, 2000L},
+                new Object[]{3L, 3000L}));
+        priceIndex.rebuild();
+    }
+
+    /**
+     * Tests that a range returns its cheapest or dearest products, with inclusive bounds.
+     */
+    @Test
+    void queryShouldReturnRangeInPriceOrder() {
+        assertArrayEquals(new long[]{2L, 5L, 1L}, priceIndex.query(1000L, 2000L, null, false, 10));
+        assertArrayEquals(new long[]{1L, 5L}, priceIndex.query(1000L, 2000L, null, true, 2));
+        assertArrayEquals(new long[]{4L, 2L, 5L, 1L, 3L}, priceIndex.query(null, null, null, false, 10));
+        assertEquals(0, priceIndex.query(3001L, null, null, false, 10).length, "Range above all prices should be empty");
+    }
+
+    /**
+     * Tests a category restriction both when it is smaller and when it is larger than the range.
+     */
+    @Test
+    void queryShouldRestrictToCategory() {
+        // Category smaller than the range
+        assertArrayEquals(new long[]{3L, 2L}, priceIndex.query(null, null, new long[]{2L, 3L}, true, 10));
+        // Category larger than the range
+        assertArrayEquals(new long[]{5L}, priceIndex.query(1000L, 1000L, new long[]{1L, 3L, 4L, 5L}, false, 10));
+        // Unknown products in the category are ignored
+        assertArrayEquals(new long[]{4L}, priceIndex.query(null, 500L, new long[]{4L, 99L}, false, 10));
+        assertEquals(0, priceIndex.query(null, null, new long[0], false, 10).length);
+    }
+
+    /**
+     * Tests that put inserts new products and moves existing ones to their new price.
+     */
+    @Test
+    void putShouldInsertAndMoveProducts() {
+        priceIndex.put(6L, 1500L);
+        priceIndex.put(4L, 4000L);
+
+        // Assertions
+        assertArrayEquals(new long[]{2L, 5L, 6L, 1L, 3L, 4L}, priceIndex.query(null, null, null, false, 10));
+        assertArrayEquals(new long[]{4L}, priceIndex.query(3500L, null, new long[]{4L, 6L}, false, 10));
+    }
+
+    /**
+     * Tests that the positions used by category queries stay correct over many inserts and moves.
+     */
+    @Test
+    void putShouldKeepPositionsConsistent() {
+        Random random = new Random(42);
+        Map<Long, Long> expectedPrices = new HashMap<>(Map.of(4L, 500L, 2L, 1000L, 5L, 1000L, 1L, 2000L, 3L, 3000L));
+        for (int i = 0; i < 500; i++) {
+            long id = 1 + random.nextInt(40);
+            long price = 100L * random.nextInt(50);
+            priceIndex.put(id, price);
+            expectedPrices.put(id, price);
+        }
+        long[] expected = expectedPrices.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        // All products but the first: smaller than the range, so each product's position is looked up
+        long[] category = Arrays.stream(expected).skip(1).sorted().toArray();
+
+        // Assertions
+        assertArrayEquals(expected, priceIndex.query(null, null, null, false, 100));
+        assertArrayEquals(Arrays.copyOfRange(expected, 1, expected.length),
+                priceIndex.query(null, null, category, false, 100));
+    }
+}
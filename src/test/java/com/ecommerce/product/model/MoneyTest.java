@@ -0,0 +1,36 @@
+package com.ecommerce.product.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for Money.
+ * Ensures that decimal amounts and cents convert exactly in both directions.
+ */
+class MoneyTest {
+
+    /**
+     * Tests that amounts are rounded half up to whole cents from their decimal representation.
+     */
+    @Test
+    void toCentsShouldRoundHalfUp() {
+        // Assertions
+        assertEquals(1299L, Money.toCents(12.99));
+        assertEquals(29L, Money.toCents(0.285), "0.285 should round up although its binary value is below it");
+        assertEquals(1L, Money.toCents(0.005));
+        assertEquals(0L, Money.toCents(0.0));
+        assertEquals(-150L, Money.toCents(-1.5));
+    }
+
+    /**
+     * Tests that converting cents to an amount and back yields the same cents.
+     */
+    @Test
+    void toAmountShouldRoundTrip() {
+        for (long cents : new long[]{0L, 1L, 99L, 1299L, 129999L, 1_000_000_007L}) {
+            assertEquals(cents, Money.toCents(Money.toAmount(cents)));
+        }
+        assertEquals(12.99, Money.toAmount(1299L));
+    }
+}
@@ -29,6 +29,7 @@ public class ProductTest {
         assertEquals("Laptop", product.getName(), "Expected product name to be 'Laptop'");
         assertEquals("High performance laptop", product.getDescription(), "Expected description to match");
         assertEquals(1299.99, product.getPrice(), "Expected price to be 1299.99");
+        assertEquals(129999L, product.getPriceCents(), "Expected price to be stored as 129999 cents");
         assertEquals(2, product.getCategories().size(), "Expected categories size to be 2");
     }
 }
@@ -0,0 +1,156 @@
+package com.ecommerce.product.recommendation;
+
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for CoPurchaseIndex.
+ * Ensures that co-purchase counts are learned from orders and ranked correctly.
+ */
+class CoPurchaseIndexTest {
+
+    // Mocked repository supplying historical orders
+    @Mock
+    private OrderRepository orderRepository;
+
+    // Index under test
+    @InjectMocks
+    private CoPurchaseIndex coPurchaseIndex;
+
+    /**
+     * Initializes mock objects and the neighbour limit before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(coPurchaseIndex, "topK", 3);
+    }
+
+    /**
+     * Tests that recommendations are ranked by how often products were bought together.
+     */
+    @Test
+    void recommendationsShouldBeRankedByCoPurchaseCount() {
+        coPurchaseIndex.record(new long[]{1L, 2L, 3L});
+        coPurchaseIndex.record(new long[]{1L, 3L});
+        coPurchaseIndex.record(new long[]{1L, 3L, 4L});
+
+        assertArrayEquals(new long[]{3L, 2L, 4L}, coPurchaseIndex.recommendationsFor(1L, 10),
+                "Product 3 was bought with 1 three times, 2 and 4 once (ties by lower ID)");
+        assertArrayEquals(new long[]{3L}, coPurchaseIndex.recommendationsFor(1L, 1));
+        assertEquals(0, coPurchaseIndex.recommendationsFor(99L, 10).length, "Unknown product has no neighbours");
+    }
+
+    /**
+     * Tests that only the configured number of neighbours is kept and duplicates within an order are ignored.
+     */
+    @Test
+    void recommendationsShouldBeCappedAtTopK() {
+        coPurchaseIndex.record(new long[]{1L, 2L, 2L, 3L, 4L, 5L, 6L});
+
+        assertEquals(3, coPurchaseIndex.recommendationsFor(1L, 10).length, "Only top-K neighbours should be kept");
+        assertArrayEquals(new long[]{1L, 3L, 4L}, coPurchaseIndex.recommendationsFor(2L, 10));
+    }
+
+    /**
+     * Tests that created orders are recorded through the order event.
+     */
+    @Test
+    void onOrderCreatedShouldRecordOrderItems() {
+        List<OrderItem> items = new ArrayList<>();
+        for (long productId : new long[]{10L, 11L}) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        Order order = new Order();
+        order.setOrderItems(items);
+
+        coPurchaseIndex.onOrderCreated(new OrderCreatedEvent(order));
+
+        assertArrayEquals(new long[]{11L}, coPurchaseIndex.recommendationsFor(10L, 10));
+    }
+
+    /**
+     * Tests that a rebuild replaces the counts with those computed from stored orders.
+     */
+    @Test
+    void rebuildShouldReplaceCountsFromStoredOrders() {
+        coPurchaseIndex.record(new long[]{1L, 9L});
+        when(orderRepository.streamOrderProductPairs()).thenReturn(Stream.of(
+                new Object[]{100L, 1L},
+                new Object[]{100L, 2L},
+                new Object[]{101L, 1L},
+                new Object[]{101L, 2L},
+                new Object[]{101L, 3L}));
+
+        coPurchaseIndex.rebuild();
+
+        assertArrayEquals(new long[]{2L, 3L}, coPurchaseIndex.recommendationsFor(1L, 10),
+                "Counts recorded before the rebuild should be replaced");
+    }
+
+    /**
+     * Tests that orders recorded while a rebuild reads the database are counted exactly once.
+     */
+    @Test
+    void rebuildShouldCountConcurrentOrdersOnce() {
+        Object[] lastRow = {102L, 3L};
+        when(orderRepository.streamOrderProductPairs()).thenReturn(Stream.of(
+                new Object[]{100L, 1L},
+                new Object[]{100L, 2L},
+                new Object[]{101L, 1L},
+                new Object[]{101L, 2L},
+                new Object[]{102L, 1L},
+                lastRow).peek(row -> {
+                    if (row == lastRow) {
+                        coPurchaseIndex.record(102L, new long[]{1L, 3L});
+                        coPurchaseIndex.record(103L, new long[]{1L, 4L});
+                        coPurchaseIndex.record(104L, new long[]{1L, 4L});
+                    }
+                }));
+
+        coPurchaseIndex.rebuild();
+
+        // Assertions
+        assertArrayEquals(new long[]{2L, 4L, 3L}, coPurchaseIndex.recommendationsFor(1L, 10),
+                "Order 102 was read by the rebuild and must not be counted twice; 103 and 104 must not be lost");
+    }
+
+    /**
+     * Tests that a product keeps a bounded number of neighbours and still ranks its frequent ones first.
+     */
+    @Test
+    void recordShouldPruneRareNeighbours() {
+        for (int i = 0; i < 3; i++) {
+            coPurchaseIndex.record(new long[]{1L, 2L});
+        }
+        for (long other = 100L; other < 200L; other++) {
+            coPurchaseIndex.record(new long[]{1L, other});
+        }
+
+        // Assertions
+        Object counts = ReflectionTestUtils.getField(coPurchaseIndex, "counts");
+        Map<?, ?> nodes = (Map<?, ?>) ReflectionTestUtils.getField(counts, "nodes");
+        int neighbours = (int) ReflectionTestUtils.getField(nodes.get(1L), "size");
+        assertTrue(neighbours <= 12, "At most 4 * top-K neighbours should be kept, was " + neighbours);
+        assertEquals(2L, coPurchaseIndex.recommendationsFor(1L, 10)[0]);
+    }
+}
@@ -2,6 +2,7 @@ package com.ecommerce.product.repository;
 
 import com.ecommerce.EcommerceApplication;
 import com.ecommerce.product.model.Product;
+import com.ecommerce.web.TableVersion;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,4 +45,52 @@ public class ProductRepositoryTest {
         assertFalse(products.isEmpty(), "Product list should not be empty");
         assertEquals("Laptop", products.get(0).getName(), "Expected product name to be 'Laptop'");
     }
+
+    /**
+     * Tests that findTableVersion reflects new and updated products through the count, versions and update time.
+     */
+    @Test
+    void testFindTableVersion() {
+        // Save a product and take the catalog fingerprint
+        Product product = new Product();
+        product.setName("Tablet");
+        product.setCategories(List.of("Electronics"));
+        product = productRepository.save(product);
+        TableVersion before = productRepository.findTableVersion();
+
+        // Update the product
+        product.setPrice(199.0);
+        productRepository.save(product);
+        TableVersion after = productRepository.findTableVersion();
+
+        // Validate that the fingerprint moved on and carries a modification time
+        assertTrue(before.getCount() >= 1, "Catalog should contain the saved product");
+        assertEquals(before.getVersionSum() + 1, after.getVersionSum(), "Update should bump the version sum");
+        assertNotNull(after.getLastModified(), "Products should carry an update time");
+    }
+
+    /**
+     * Tests that findAllPricesOrderByPrice returns ID and price rows ascending by price and then ID.
+     */
+    @Test
+    void testFindAllPricesOrderByPrice() {
+        // Save products out of price order
+        for (double price : new double[]{30.0, 10.0, 20.0}) {
+            Product product = new Product();
+            product.setName("Priced " + price);
+            product.setPrice(price);
+            productRepository.save(product);
+        }
+
+        List<Object[]> rows = productRepository.findAllPricesOrderByPrice();
+
+        // Validate that the rows are sorted
+        for (int i = 1; i < rows.size(); i++) {
+            long previous = (Long) rows.get(i - 1)[1];
+            long current = (Long) rows.get(i)[1];
+            assertTrue(previous < current || (previous == current
+                    && (Long) rows.get(i - 1)[0] < (Long) rows.get(i)[0]), "Rows should be in price order");
+        }
+        assertTrue(rows.size() >= 3, "All saved products should be listed");
+    }
 }
@@ -0,0 +1,153 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for ProductSearchIndex.
+ * Ensures that products are tokenized, ranked, completed and updated correctly.
+ */
+class ProductSearchIndexTest {
+
+    // Mocked repository supplying the searchable text
+    @Mock
+    private ProductRepository productRepository;
+
+    // Index under test
+    @InjectMocks
+    private ProductSearchIndex searchIndex;
+
+    /**
+     * Initializes mock objects and builds the index before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllSearchFields()).thenReturn(List.of(
+                new Object[]{1L, "Gaming Laptop", "Fast laptop with a bright display"},
+                new Object[]{2L, "Office Laptop", "Light and quiet"},
+                new Object[]{3L, "Laptop Bag", "Fits any gaming laptop up to 17 inches"},
+                new Object[]{4L, "Wireless Mouse", null},
+                new Object[]{5L, "Lamp", "Desk lamp"}));
+        searchIndex.rebuild();
+    }
+
+    /**
+     * Tests that words in the name outrank words in the description and that rarer words weigh more.
+     */
+    @Test
+    void searchShouldRankByBm25() {
+        long[] results = searchIndex.search("gaming laptop", 10, false);
+
+        // Assertions
+        assertArrayEquals(new long[]{1L, 3L, 2L}, results, "Product 1 has both words in its name");
+        assertArrayEquals(new long[]{4L}, searchIndex.search("MOUSE!", 10, false), "Search should ignore case and punctuation");
+        assertArrayEquals(new long[0], searchIndex.search("keyboard", 10, false));
+    }
+
+    /**
+     * Tests that the limit keeps only the best results.
+     */
+    @Test
+    void searchShouldRespectLimit() {
+        // Assertions
+        assertArrayEquals(new long[]{1L}, searchIndex.search("gaming laptop", 1, false));
+    }
+
+    /**
+     * Tests that the last word completes to longer words when prefix matching is on.
+     */
+    @Test
+    void searchShouldMatchPrefixOfLastWord() {
+        // Assertions
+        assertEquals(0, searchIndex.search("lap", 10, false).length, "Without prefix matching only whole words match");
+        assertEquals(3, searchIndex.search("lap", 10, true).length, "Prefix should match every laptop");
+        assertArrayEquals(new long[]{4L}, searchIndex.search("wireless mou", 10, true));
+    }
+
+    /**
+     * Tests that suggestions complete the last word, most common first.
+     */
+    @Test
+    void suggestShouldCompleteLastWord() {
+        // Assertions
+        assertEquals(List.of("laptop", "lamp"), searchIndex.suggest("la", 5));
+        assertEquals(List.of("gaming laptop"), searchIndex.suggest("gaming lapt", 5));
+    }
+
+    /**
+     * Tests that created and updated products are searchable without a rebuild.
+     */
+    @Test
+    void updatesShouldBeIndexedIncrementally() {
+        searchIndex.add(6L, "Mechanical Keyboard", "Clicky keys");
+
+        Product renamed = new Product();
+        renamed.setId(4L);
+        renamed.setName("Wireless Keyboard");
+        searchIndex.onProductUpdated(new ProductUpdatedEvent(renamed));
+
+        // Assertions
+        assertArrayEquals(new long[]{4L, 6L}, searchIndex.search("wireless keyboard", 10, false));
+        assertArrayEquals(new long[0], searchIndex.search("mouse", 10, false), "Old text should no longer match");
+    }
+
+    /**
+     * Tests that an update leaving the name and description unchanged does not add a document.
+     */
+    @Test
+    void unchangedUpdateShouldNotBeReindexed() {
+        searchIndex.add(4L, "Wireless Mouse", null);
+        searchIndex.add(4L, "wireless  MOUSE", "");
+
+        // Assertions
+        assertEquals(5, ReflectionTestUtils.getField(searchIndex, "documents"), "No document should be superseded");
+        assertArrayEquals(new long[]{4L}, searchIndex.search("mouse", 10, false));
+    }
+
+    /**
+     * Tests that superseded documents are compacted away once there are enough of them.
+     */
+    @Test
+    void manyUpdatesShouldCompactSupersededDocuments() {
+        for (int i = 0; i < 1024; i++) {
+            searchIndex.add(4L, i % 2 == 0 ? "Wireless Keyboard" : "Wireless Mouse", null);
+        }
+
+        // Assertions
+        assertEquals(5, ReflectionTestUtils.getField(searchIndex, "documents"), "Superseded documents should be dropped");
+        assertArrayEquals(new long[]{4L}, searchIndex.search("mouse", 10, false));
+        assertArrayEquals(new long[0], searchIndex.search("keyboard", 10, false), "Old text should no longer match");
+        assertArrayEquals(new long[]{1L, 3L, 2L}, searchIndex.search("gaming laptop", 10, false));
+    }
+
+    /**
+     * Tests that a rebuild spanning several parallel chunks keeps the documents in order.
+     */
+    @Test
+    void loadShouldMergeParallelChunks() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 25_000; id++) {
+            rows.add(new Object[]{id, "Product " + id, id % 2 == 0 ? "even" : "odd"});
+        }
+        searchIndex.load(rows);
+
+        // Assertions
+        assertArrayEquals(new long[]{24_999L}, searchIndex.search("24999", 10, false));
+        assertEquals(12_500, searchIndex.search("even", 20_000, false).length);
+        assertEquals(2L, searchIndex.search("even", 20_000, false)[0], "Equal scores should keep ID order");
+    }
+}
@@ -1,12 +1,24 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.config.CacheConfig;
+import com.ecommerce.product.catalog.CatalogStore;
+import com.ecommerce.product.event.ProductCreatedEvent;
+import com.ecommerce.product.event.ProductUpdatedEvent;
+import com.ecommerce.product.index.CategoryIndex;
+import com.ecommerce.product.index.PriceIndex;
 import com.ecommerce.product.model.Product;
+import com.ecommerce.product.recommendation.CoPurchaseIndex;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +36,34 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    // Mocked category index
+    @Mock
+    private CategoryIndex categoryIndex;
+
+    // Mocked price index
+    @Mock
+    private PriceIndex priceIndex;
+
+    // Mocked co-purchase recommendation index
+    @Mock
+    private CoPurchaseIndex coPurchaseIndex;
+
+    // Mocked full-text search index
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    // Mocked catalog store; not ready unless a test says so, so reads go to the repository
+    @Mock
+    private CatalogStore catalogStore;
+
+    // Mocked cache manager; returns no caches, so every lookup goes to the repository
+    @Mock
+    private CacheManager cacheManager;
+
+    // Mocked publisher for catalog change events
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     // Injects ProductService
     @InjectMocks
     private ProductService productService;
@@ -110,8 +150,9 @@ class ProductServiceTest {
         product.setName("Laptop");
         product.setCategories(Arrays.asList("Electronics", "Computers"));
 
-        // Mock the repository method call
-        when(productRepository.findByCategoriesContaining("Electronics")).thenReturn(Arrays.asList(product));
+        // Mock the index lookup and the repository method call
+        when(categoryIndex.idsFor("Electronics")).thenReturn(new long[]{1L});
+        when(productRepository.findAllById(List.of(1L))).thenReturn(Arrays.asList(product));
 
         // Call the service method
         List<Product> recommendedProducts = productService.getRecommendedProducts("Electronics");
@@ -120,8 +161,58 @@ class ProductServiceTest {
         assertEquals(1, recommendedProducts.size(), "Expected list size to be 1");
         assertEquals("Laptop", recommendedProducts.get(0).getName(), "Expected product name to be 'Laptop'");
 
-        // Verify repository interaction
-        verify(productRepository, times(1)).findByCategoriesContaining("Electronics");
+        // Verify that the ID set came from the index, not from a category query
+        verify(productRepository, times(1)).findAllById(List.of(1L));
+        verify(productRepository, never()).findByCategoriesContaining(anyString());
+    }
+
+    /**
+     * Tests that getRecommendedProducts() does not query the database for an empty category.
+     */
+    @Test
+    void getRecommendedProductsShouldSkipDatabaseForEmptyCategory() {
+        when(categoryIndex.idsFor("Unknown")).thenReturn(new long[0]);
+
+        List<Product> recommendedProducts = productService.getRecommendedProducts("Unknown");
+
+        assertTrue(recommendedProducts.isEmpty(), "Expected no products");
+        verifyNoInteractions(productRepository);
+    }
+
+    /**
+     * Tests that getRecommendedProducts() for a product keeps the ranking of the co-purchase index.
+     */
+    @Test
+    void getRecommendedProductsForProductShouldKeepRanking() {
+        Product first = new Product();
+        first.setId(7L);
+        Product second = new Product();
+        second.setId(5L);
+
+        when(coPurchaseIndex.recommendationsFor(1L, 2)).thenReturn(new long[]{7L, 5L});
+        // The repository returns rows in ID order, not in ranking order
+        when(productRepository.findAllById(List.of(7L, 5L))).thenReturn(List.of(second, first));
+
+        List<Product> recommended = productService.getRecommendedProducts(1L, 2);
+
+        assertEquals(List.of(first, second), recommended, "Products should follow the recommendation ranking");
+    }
+
+    /**
+     * Tests that getProductsInAllCategories() loads the products of the intersected ID set.
+     */
+    @Test
+    void getProductsInAllCategoriesShouldUseIndexIntersection() {
+        Product product = new Product();
+        product.setId(3L);
+
+        when(categoryIndex.idsInAll(List.of("Electronics", "Computers"))).thenReturn(new long[]{3L});
+        when(productRepository.findAllById(List.of(3L))).thenReturn(List.of(product));
+
+        List<Product> products = productService.getProductsInAllCategories(List.of("Electronics", "Computers"));
+
+        assertEquals(1, products.size(), "Expected list size to be 1");
+        verify(categoryIndex, times(1)).idsInAll(List.of("Electronics", "Computers"));
     }
 
     /**
@@ -145,7 +236,135 @@ class ProductServiceTest {
         assertEquals(1L, savedProduct.getId(), "Expected product ID to be 1");
         assertEquals("Laptop", savedProduct.getName(), "Expected product name to be 'Laptop'");
 
-        // Verify repository interaction
+        // Verify repository interaction and that the index is notified
         verify(productRepository, times(1)).save(product);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductCreatedEvent.class));
+    }
+
+    /**
+     * Tests that updateProduct() copies the new values onto the stored product and publishes an update event.
+     */
+    @Test
+    void updateProductShouldSaveChangesAndPublishEvent() {
+        // Create the stored product and the requested changes
+        Product stored = new Product();
+        stored.setId(1L);
+        stored.setName("Laptop");
+        stored.setCategories(List.of("Electronics"));
+
+        Product changes = new Product();
+        changes.setName("Laptop Pro");
+        changes.setPrice(1800.0);
+        changes.setCategories(List.of("Electronics", "Computers"));
+
+        Cache productsCache = mock(Cache.class);
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productsCache);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(productRepository.save(stored)).thenReturn(stored);
+
+        // Call the service method
+        Product updated = productService.updateProduct(1L, changes);
+
+        // Validate the results
+        assertSame(stored, updated, "The stored product should be updated in place");
+        assertEquals("Laptop Pro", updated.getName());
+        assertEquals(1800.0, updated.getPrice());
+        assertEquals(List.of("Electronics", "Computers"), updated.getCategories());
+        InOrder order = inOrder(productsCache, eventPublisher);
+        order.verify(productsCache).evict(1L);
+        order.verify(eventPublisher, times(1)).publishEvent(any(ProductUpdatedEvent.class));
+    }
+
+    /**
+     * Tests that the committed update evicts the product again, dropping a previous version cached meanwhile.
+     */
+    @Test
+    void onProductUpdatedShouldEvictProductAgain() {
+        Product updated = new Product();
+        updated.setId(1L);
+        Cache productsCache = mock(Cache.class);
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productsCache);
+
+        productService.onProductUpdated(new ProductUpdatedEvent(updated));
+
+        // Validate the results
+        verify(productsCache, times(1)).evict(1L);
+    }
+
+    /**
+     * Tests that updateProduct() returns null for an unknown product and saves nothing.
+     */
+    @Test
+    void updateProductShouldReturnNullForUnknownProduct() {
+        when(productRepository.findById(9L)).thenReturn(Optional.empty());
+
+        // Validate the results
+        assertNull(productService.updateProduct(9L, new Product()));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Tests that searchProducts() returns the products in the order ranked by the search index.
+     */
+    @Test
+    void searchProductsShouldKeepIndexRanking() {
+        Product laptop = new Product();
+        laptop.setId(1L);
+        Product bag = new Product();
+        bag.setId(3L);
+
+        when(searchIndex.search("laptop", 10, true)).thenReturn(new long[]{3L, 1L});
+        when(productRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(laptop, bag));
+
+        List<Product> products = productService.searchProducts("laptop", 10, true);
+
+        // Validate the results
+        assertEquals(2, products.size());
+        assertEquals(3L, products.get(0).getId(), "Best match should come first");
+        assertEquals(1L, products.get(1).getId());
+    }
+
+    /**
+     * Tests that getProductsByPrice restricts the price index to the category and keeps its order.
+     */
+    @Test
+    void getProductsByPriceShouldKeepPriceOrder() {
+        Product cheap = new Product();
+        cheap.setId(2L);
+        Product dear = new Product();
+        dear.setId(7L);
+        long[] electronics = {2L, 7L, 9L};
+
+        when(categoryIndex.idsFor("Electronics")).thenReturn(electronics);
+        when(priceIndex.query(1000L, 10000L, electronics, true, 5)).thenReturn(new long[]{7L, 2L});
+        when(productRepository.findAllById(List.of(7L, 2L))).thenReturn(List.of(cheap, dear));
+
+        List<Product> products = productService.getProductsByPrice(10.0, 100.0, "Electronics", true, 5);
+
+        // Validate the results
+        assertEquals(2, products.size());
+        assertEquals(7L, products.get(0).getId(), "Dearest product should come first");
+        assertEquals(2L, products.get(1).getId());
+    }
+
+    /**
+     * Tests that reads are served from the catalog store once it is ready, without touching the repository.
+     */
+    @Test
+    void readsShouldUseCatalogStoreWhenReady() {
+        Product laptop = new Product();
+        laptop.setId(1L);
+
+        when(catalogStore.isReady()).thenReturn(true);
+        when(catalogStore.get(1L)).thenReturn(laptop);
+        when(catalogStore.getAll()).thenReturn(List.of(laptop));
+        when(categoryIndex.idsFor("Electronics")).thenReturn(new long[]{1L, 2L});
+
+        // Assertions
+        assertSame(laptop, productService.getProductById(1L));
+        assertEquals(List.of(laptop), productService.getAllProducts());
+        assertEquals(List.of(laptop), productService.getRecommendedProducts("Electronics"));
+        verifyNoInteractions(productRepository);
     }
-}
\ No newline at end of file
+}
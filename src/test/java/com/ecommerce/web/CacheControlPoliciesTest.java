@@ -0,0 +1,45 @@
+package com.ecommerce.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for CacheControlPolicies.
+ * Ensures that configured policies are applied per endpoint and that other endpoints fall back to no-cache.
+ */
+class CacheControlPoliciesTest {
+
+    // Policies under test
+    private CacheControlPolicies cacheControlPolicies;
+
+    /**
+     * Creates the policies with one configured endpoint before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheControlPolicies = new CacheControlPolicies();
+        ReflectionTestUtils.setField(cacheControlPolicies, "environment",
+                new MockEnvironment().withProperty("http.cache-control.products", "max-age=60"));
+    }
+
+    /**
+     * Tests that a configured endpoint gets its policy and others the default.
+     */
+    @Test
+    void applyShouldUseConfiguredPolicyOrDefault() {
+        MockHttpServletResponse products = new MockHttpServletResponse();
+        MockHttpServletResponse orders = new MockHttpServletResponse();
+
+        cacheControlPolicies.apply("products", products);
+        cacheControlPolicies.apply("orders", orders);
+
+        // Assertions
+        assertEquals("max-age=60", products.getHeader("Cache-Control"));
+        assertEquals(CacheControlPolicies.DEFAULT_POLICY, orders.getHeader("Cache-Control"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for TableVersion.
+ * Ensures that entity tags change with every kind of row change and that empty tables are handled.
+ */
+class TableVersionTest {
+
+    /**
+     * Tests that creating or updating a row changes the entity tag.
+     */
+    @Test
+    void etagShouldChangeWithCountVersionsAndIds() {
+        String etag = new TableVersion(2L, 3L, 2L).etag("orders");
+
+        // Assertions
+        assertEquals("\"orders-2-3-2\"", etag);
+        assertNotEquals(etag, new TableVersion(3L, 3L, 3L).etag("orders"), "A new row should change the tag");
+        assertNotEquals(etag, new TableVersion(2L, 4L, 2L).etag("orders"), "An update should change the tag");
+        assertNotEquals(etag, new TableVersion(2L, 3L, 2L).etag("products"), "Representations should differ");
+    }
+
+    /**
+     * Tests that the aggregates of an empty table, which are null, are read as zero.
+     */
+    @Test
+    void emptyTableShouldHaveZeroFingerprint() {
+        TableVersion version = new TableVersion(0L, null, null, null);
+
+        // Assertions
+        assertEquals("\"products-0-0-0\"", version.etag("products"));
+        assertEquals(-1L, version.getLastModifiedMillis());
+        assertEquals(1000L, new TableVersion(1L, 0L, 1L, Instant.ofEpochSecond(1)).getLastModifiedMillis());
+    }
+}